@@ -32,6 +32,50 @@ public final class SAMBox
      * The number of objects to include in a single ObjectsStream.
      */
     public static final String OBJECTS_STREAM_SIZE_PROPERTY = "org.sejda.sambox.objects.stream.size";
+    /**
+     * If true, indirect objects of a parsed document can be safely resolved from multiple threads. Each thread reads
+     * the document through its own cursor and concurrent requests for the same object are parsed only once.
+     */
+    public static final String CONCURRENT_OBJECTS_RESOLUTION_PROPERTY = "org.sejda.sambox.concurrent.objects.resolution";
+    /**
+     * Retention policy for the parsed objects of a document. Supported values are "strong" (default) where objects are
+     * kept until the document is closed, "soft" where objects not used anywhere else can be claimed by the GC and "lru"
+     * where least recently used objects are evicted when the cache exceeds {@link #OBJECTS_CACHE_SIZE_PROPERTY}.
+     * Evicted objects are parsed again when requested. An indirect reference retains the object it resolves, so objects
+     * reachable from objects in use are never claimed or replaced by a newly parsed copy.
+     */
+    public static final String OBJECTS_CACHE_PROPERTY = "org.sejda.sambox.objects.cache";
+    /**
+     * Maximum estimated size in bytes of the parsed objects kept by the "lru" objects cache.
+     */
+    public static final String OBJECTS_CACHE_SIZE_PROPERTY = "org.sejda.sambox.objects.cache.size";
+    /**
+     * Number of threads used to encode streams when writing with
+     * {@link org.sejda.sambox.output.WriteOption#PARALLEL_STREAMS_ENCODING}. Defaults to the number of available
+     * processors.
+     */
+    public static final String ENCODING_THREADS_PROPERTY = "org.sejda.sambox.encoding.threads";
+    /**
+     * Size in bytes of the segments a file is mapped into by org.sejda.sambox.input.MappedSeekableSource. Defaults to
+     * 256MB.
+     */
+    public static final String MAPPED_SEGMENT_SIZE_PROPERTY = "org.sejda.sambox.mapped.segment.size";
+    /**
+     * Maximum estimated size in bytes of the glyph outlines a PDFRenderer keeps and shares among the rendered pages.
+     * Defaults to 32MB.
+     */
+    public static final String GLYPH_CACHE_SIZE_PROPERTY = "org.sejda.sambox.glyph.cache.size";
+    /**
+     * Number of threads used to scan a document with a broken xref looking for objects definitions, xrefs and trailers.
+     * Defaults to the number of available processors.
+     */
+    public static final String RECOVERY_SCAN_THREADS_PROPERTY = "org.sejda.sambox.recovery.scan.threads";
+    /**
+     * Directory where the xref of parsed documents is indexed. When set, documents are identified by size and a hash
+     * of their tail and the xref entries and trailer of a previously parsed document are read from the index instead
+     * of parsing or scanning the document again.
+     */
+    public static final String XREF_INDEX_DIRECTORY_PROPERTY = "org.sejda.sambox.xref.index.directory";
 
     public static final String SAMBOX_PROPERTIES = "org/sejda/sambox/resources/version.properties";
 }
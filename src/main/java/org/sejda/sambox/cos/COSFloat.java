@@ -29,16 +29,24 @@ import java.math.BigDecimal;
  */
 public class COSFloat extends COSNumber
 {
-    private BigDecimal value;
+    private double value;
 
     /**
      * @param aFloat The primitive float object that this object wraps.
      */
     public COSFloat(float aFloat)
     {
-        // use a BigDecimal as intermediate state to avoid
-        // a floating point string representation of the float value
-        value = new BigDecimal(String.valueOf(aFloat));
+        this.value = aFloat;
+        checkMinMaxValues();
+    }
+
+    /**
+     * @param aDouble The primitive double value that this object wraps.
+     */
+    public COSFloat(double aDouble)
+    {
+        this.value = aDouble;
+        checkMinMaxValues();
     }
 
     /**
@@ -49,6 +57,7 @@ public class COSFloat extends COSNumber
     {
         try
         {
+            requireValidChars(aFloat);
             int dot = aFloat.indexOf('.');
             if (dot != aFloat.lastIndexOf('.'))
             {
@@ -58,7 +67,7 @@ public class COSFloat extends COSNumber
 
             }
             aFloat = aFloat.replaceAll("[e|E]$", "");
-            value = new BigDecimal(aFloat);
+            value = Double.parseDouble(aFloat);
             checkMinMaxValues();
         }
         catch (NumberFormatException e)
@@ -68,12 +77,12 @@ public class COSFloat extends COSNumber
                 if (aFloat.matches("^(-)([-|+]+)\\d+\\.\\d+"))
                 {
                     // PDFBOX-3589 --242.0
-                    value = new BigDecimal(aFloat.replaceFirst("^(-)([\\-|\\+]+)", "-"));
+                    value = Double.parseDouble(aFloat.replaceFirst("^(-)([\\-|\\+]+)", "-"));
                 }
                 else if (aFloat.matches("^0\\-(\\.|\\d+)*"))
                 {
                     // SAMBox 75
-                    value = BigDecimal.ZERO;
+                    value = 0;
                 }
                 else
                 {
@@ -82,7 +91,7 @@ public class COSFloat extends COSNumber
                     // PDFBOX-3500 has 0.-262
                     requireIOCondition(aFloat.matches("^0\\.0*\\-\\d+"),
                             "Expected floating point number but found '" + aFloat + "'");
-                    value = new BigDecimal("-" + aFloat.replaceFirst("\\-", ""));
+                    value = Double.parseDouble("-" + aFloat.replaceFirst("\\-", ""));
                 }
                 checkMinMaxValues();
             }
@@ -94,79 +103,92 @@ public class COSFloat extends COSNumber
         }
     }
 
+    /**
+     * Double.parseDouble accepts some tokens (Ex. "1.5f", "NaN") that are not valid PDF numbers
+     */
+    private static void requireValidChars(String aFloat)
+    {
+        for (int i = 0; i < aFloat.length(); i++)
+        {
+            char c = aFloat.charAt(i);
+            if (!((c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'e'
+                    || c == 'E'))
+            {
+                throw new NumberFormatException("Invalid char '" + c + "' in " + aFloat);
+            }
+        }
+    }
+
     private void checkMinMaxValues()
     {
-        float floatValue = value.floatValue();
-        double doubleValue = value.doubleValue();
-        boolean valueReplaced = false;
+        float floatValue = (float) value;
         // check for huge values
         if (floatValue == Float.NEGATIVE_INFINITY || floatValue == Float.POSITIVE_INFINITY)
         {
-
-            if (Math.abs(doubleValue) > Float.MAX_VALUE)
+            if (Math.abs(value) > Float.MAX_VALUE)
             {
-                floatValue = Float.MAX_VALUE * (floatValue == Float.POSITIVE_INFINITY ? 1 : -1);
-                valueReplaced = true;
+                value = Float.MAX_VALUE * (floatValue == Float.POSITIVE_INFINITY ? 1 : -1);
             }
         }
         // check for very small values
-        else if (floatValue == 0 && doubleValue != 0)
+        else if (floatValue == 0 && value != 0)
         {
-            if (Math.abs(doubleValue) < Float.MIN_NORMAL)
+            if (Math.abs(value) < Float.MIN_NORMAL)
             {
-                floatValue = Float.MIN_NORMAL;
-                floatValue *= doubleValue >= 0 ? 1 : -1;
-                valueReplaced = true;
+                value = Float.MIN_NORMAL * (value >= 0 ? 1 : -1);
             }
         }
-        if (valueReplaced)
+        if (value == 0)
         {
-            value = new BigDecimal(floatValue);
+            // -0.0 is a 0 in PDF
+            value = 0;
         }
     }
 
     @Override
     public float floatValue()
     {
-        return value.floatValue();
+        return (float) value;
     }
 
     @Override
     public double doubleValue()
     {
-        return value.doubleValue();
+        return value;
     }
 
     @Override
     public long longValue()
     {
-        return value.longValue();
+        return (long) value;
     }
 
     @Override
     public int intValue()
     {
-        return value.intValue();
+        return (int) value;
     }
 
     @Override
     public boolean equals(Object o)
     {
-        return o instanceof COSFloat
-                && Float.floatToIntBits(((COSFloat) o).value.floatValue()) == Float
-                        .floatToIntBits(value.floatValue());
+        return o instanceof COSFloat && Float
+                .floatToIntBits(((COSFloat) o).floatValue()) == Float.floatToIntBits(floatValue());
     }
 
     @Override
     public int hashCode()
     {
-        return value.hashCode();
+        return Float.hashCode(floatValue());
     }
 
     @Override
     public String toString()
     {
-        return value.stripTrailingZeros().toPlainString();
+        // values created from a float are written using the shortest representation of the float
+        float floatValue = floatValue();
+        String repr = floatValue == value ? Float.toString(floatValue) : Double.toString(value);
+        return new BigDecimal(repr).stripTrailingZeros().toPlainString();
     }
 
     @Override
@@ -17,8 +17,6 @@
 package org.sejda.sambox.cos;
 
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class represents an integer number in a PDF document.
@@ -28,7 +26,14 @@ import java.util.concurrent.ConcurrentHashMap;
 public final class COSInteger extends COSNumber
 {
 
-    private static final Map<Long, COSInteger> CACHE = new ConcurrentHashMap<>();
+    private static final int LOW = -256;
+    private static final int HIGH = 65535;
+    /**
+     * Small values (operands, array indexes, glyph codes, generation numbers...) are cached in a fixed size array, other
+     * values (offsets, lengths, object numbers...) are mostly distinct and are not cached so the heap doesn't grow
+     * unbounded over time
+     */
+    private static final COSInteger[] CACHE = new COSInteger[HIGH - LOW + 1];
 
     public static final COSInteger ZERO = get(0);
     public static final COSInteger ONE = get(1);
@@ -43,15 +48,18 @@ public final class COSInteger extends COSNumber
      */
     public static COSInteger get(long key)
     {
-        COSInteger value = CACHE.get(key);
+        if (key < LOW || key > HIGH)
+        {
+            return new COSInteger(key);
+        }
+        int index = (int) key - LOW;
+        COSInteger value = CACHE[index];
         if (value == null)
         {
-            final COSInteger newVal = new COSInteger(key);
-            value = CACHE.putIfAbsent(key, newVal);
-            if (value == null)
-            {
-                value = newVal;
-            }
+            // racing threads might create different instances for the same value, this is fine since COSInteger
+            // instances are compared by value
+            value = new COSInteger(key);
+            CACHE[index] = value;
         }
         return value;
     }
@@ -23,6 +23,7 @@ import static org.sejda.io.SeekableSources.inMemorySeekableSourceFrom;
 
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -61,8 +62,11 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     private byte[] filtered;
     private byte[] unfiltered;
     private DecodeResult decodeResult;
-    // an encryption function that returns an encrypted view of the filtered stream
-    private Function<InputStream, InputStream> encryptor;
+    // returns an encrypted view of the filtered stream
+    private StreamEncryptor encryptor;
+    // decrypts the existing data of a stream parsed from an encrypted document
+    private StreamDecryptor decryptor;
+    private long decryptedLength = -1;
     private boolean encryptable = true;
     // if the writer should write the stream length as indirect object
     private boolean indirectLength = false;
@@ -102,7 +106,7 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     {
         if (nonNull(encryptor))
         {
-            return encryptor.apply(doGetFilteredStream());
+            return encryptor.encrypt(doGetFilteredStream());
         }
         return doGetFilteredStream();
     }
@@ -111,7 +115,7 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     {
         if (nonNull(existing))
         {
-            return existing.get().asInputStream();
+            return existingFilteredStream();
         }
         encodeIfRequired();
         if (nonNull(filtered))
@@ -122,26 +126,76 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     }
 
     /**
-     * @return the (encoded) {@link SeekableSource} with all of the filters applied.
+     * @return the (encoded) {@link SeekableSource} with all of the filters applied. For a stream from an existing
+     * document it's a new view of the original source, owned by the caller, who should close it.
      * @throws IOException when encoding/decoding causes an exception
      */
     public SeekableSource getFilteredSource() throws IOException
     {
         if (existing != null)
         {
-            return existing.get();
+            if (nonNull(decryptor))
+            {
+                try (InputStream stream = existingFilteredStream())
+                {
+                    return inMemorySeekableSourceFrom(stream);
+                }
+            }
+            return existing.newView();
         }
         return inMemorySeekableSourceFrom(getFilteredStream());
     }
 
     /**
-     * @return the length of the encoded stream as long
+     * @return the original (encoded) {@link SeekableSource} if the stream data comes from an existing document, it has
+     * not been modified and it doesn't have to be encrypted or decrypted, an empty {@link Optional} otherwise. This
+     * allows the stream data to be copied as is. The source is a new view of the original one, owned by the caller,
+     * who should close it.
      * @throws IOException
      */
-    public long getFilteredLength() throws IOException
+    public Optional<SeekableSource> getUnmodifiedFilteredSource() throws IOException
+    {
+        if (nonNull(existing) && isNull(encryptor) && isNull(decryptor))
+        {
+            return Optional.of(existing.newView());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the length of the encoded stream as long, encrypted if an encryptor is set and it knows the encrypted
+     * length. Subclasses override {@link #doGetFilteredLength()}.
+     * @throws IOException
+     */
+    public final long getFilteredLength() throws IOException
+    {
+        long length = doGetFilteredLength();
+        if (nonNull(encryptor))
+        {
+            long encryptedLength = encryptor.encryptedLength(length);
+            if (encryptedLength >= 0)
+            {
+                return encryptedLength;
+            }
+        }
+        return length;
+    }
+
+    protected long doGetFilteredLength() throws IOException
     {
         if (existing != null)
         {
+            if (nonNull(decryptor))
+            {
+                if (decryptedLength < 0)
+                {
+                    try (SeekableSource view = existing.newView())
+                    {
+                        decryptedLength = decryptor.decryptedLength(view);
+                    }
+                }
+                return decryptedLength;
+            }
             return existing.length;
         }
         encodeIfRequired();
@@ -152,6 +206,16 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         return ofNullable(unfiltered).map(f -> f.length).orElse(0);
     }
 
+    /**
+     * @return true if the stream holds decoded data that is encoded with the stream filters the first time the
+     * filtered data or its length are requested.
+     */
+    public boolean isEncodingRequired()
+    {
+        return isNull(existing) && isNull(filtered) && nonNull(unfiltered)
+                && nonNull(getFilters());
+    }
+
     private void encodeIfRequired() throws IOException
     {
         if (getFilters() != null)
@@ -177,6 +241,42 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         return getStreamToDecode();
     }
 
+    /**
+     * @return the (decoded) stream with all of the filters applied. Differently from {@link #getUnfilteredStream()},
+     * filters are applied while the returned stream is read and the decoded bytes are not cached, allowing to read
+     * large streams once in constant memory.
+     * @throws IOException when decoding causes an exception
+     */
+    public InputStream getLazyUnfilteredStream() throws IOException
+    {
+        if (nonNull(unfiltered))
+        {
+            return new MyByteArrayInputStream(unfiltered);
+        }
+        COSBase filters = getFilters();
+        InputStream stream = getStreamToDecode();
+        if (filters instanceof COSName)
+        {
+            return FilterFactory.INSTANCE.getFilter((COSName) filters).decode(stream, this, 0);
+        }
+        if (filters instanceof COSArray)
+        {
+            COSArray filtersArray = (COSArray) filters;
+            for (int i = 0; i < filtersArray.size(); i++)
+            {
+                COSName filterName = (COSName) filtersArray.getObject(i);
+                stream = FilterFactory.INSTANCE.getFilter(filterName).decode(stream, this, i);
+            }
+            return stream;
+        }
+        if (nonNull(filters))
+        {
+            IOUtils.closeQuietly(stream);
+            throw new IOException("Unknown filter type:" + filters);
+        }
+        return stream;
+    }
+
     /**
      * @return the (decoded) {@link SeekableSource} with all of the filters applied.
      * @throws IOException when encoding/decoding causes an exception
@@ -190,7 +290,14 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         }
         if (existing != null)
         {
-            return existing.get();
+            if (nonNull(decryptor))
+            {
+                try (InputStream stream = existingFilteredStream())
+                {
+                    return inMemorySeekableSourceFrom(stream);
+                }
+            }
+            return existing.newView();
         }
         return inMemorySeekableSourceFrom(filtered);
     }
@@ -208,7 +315,10 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         }
         if (existing != null)
         {
-            return ByteBuffer.wrap(IOUtils.toByteArray(existing.get().asInputStream()));
+            try (InputStream stream = existingFilteredStream())
+            {
+                return ByteBuffer.wrap(IOUtils.toByteArray(stream));
+            }
         }
         return ByteBuffer.wrap(filtered).asReadOnlyBuffer();
     }
@@ -226,12 +336,12 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         }
         if (nonNull(existing))
         {
-            return existing.length;
+            return doGetFilteredLength();
         }
         return ofNullable(filtered).map(f -> f.length).orElse(0);
     }
 
-    private void decodeIfRequired() throws IOException
+    private synchronized void decodeIfRequired() throws IOException
     {
         if (nonNull(getFilters()) && isNull(unfiltered))
         {
@@ -268,11 +378,17 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         {
             if (filters instanceof COSName)
             {
-                unfiltered = decode((COSName) filters, 0, getStreamToDecode());
+                try (InputStream toDecode = getStreamToDecode())
+                {
+                    unfiltered = decode((COSName) filters, 0, toDecode);
+                }
             }
             else if (filters instanceof COSArray)
             {
-                unfiltered = decodeChain((COSArray) filters, getStreamToDecode());
+                try (InputStream toDecode = getStreamToDecode())
+                {
+                    unfiltered = decodeChain((COSArray) filters, toDecode);
+                }
             }
             else
             {
@@ -285,11 +401,40 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     {
         if (existing != null)
         {
-            return existing.get().asInputStream();
+            return existingFilteredStream();
         }
         return new MyByteArrayInputStream(filtered);
     }
 
+    /**
+     * @return the filtered data of the existing stream, decrypted if necessary. It's read through its own view of the
+     * source, closed with the returned stream, since the stream can be read by concurrent threads.
+     */
+    private InputStream existingFilteredStream() throws IOException
+    {
+        SeekableSource view = existing.newView();
+        InputStream stream = view.asInputStream();
+        if (nonNull(decryptor))
+        {
+            stream = new DecryptedInputStream(decryptor.decrypt(stream), doGetFilteredLength());
+        }
+        return new FilterInputStream(stream)
+        {
+            @Override
+            public void close() throws IOException
+            {
+                try
+                {
+                    super.close();
+                }
+                finally
+                {
+                    view.close();
+                }
+            }
+        };
+    }
+
     private byte[] decodeChain(COSArray filters, InputStream startingFrom) throws IOException
     {
         if (filters.size() > 0)
@@ -399,15 +544,53 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     }
 
     /**
-     * Sets the function to be used to encrypt this stream.
+     * Sets the encryptor to be used to encrypt this stream.
      * 
      * @param encryptor
      */
-    public void setEncryptor(Function<InputStream, InputStream> encryptor)
+    public void setEncryptor(StreamEncryptor encryptor)
     {
         this.encryptor = encryptor;
     }
 
+    /**
+     * Sets the function to be used to encrypt this stream. The encrypted length is not known until the stream is
+     * encrypted, {@link #getFilteredLength()} returns the length of the data to encrypt.
+     * 
+     * @param encryptor
+     * @deprecated use {@link #setEncryptor(StreamEncryptor)}, that knows the encrypted length upfront
+     */
+    @Deprecated
+    public void setEncryptor(Function<InputStream, InputStream> encryptor)
+    {
+        setEncryptor(ofNullable(encryptor).map(e -> new StreamEncryptor()
+        {
+            @Override
+            public InputStream encrypt(InputStream filtered)
+            {
+                return e.apply(filtered);
+            }
+
+            @Override
+            public long encryptedLength(long length)
+            {
+                return -1;
+            }
+        }).orElse(null));
+    }
+
+    /**
+     * Sets the decryptor for the data of this stream, parsed from an encrypted document. Data is decrypted when it's
+     * read, every time it's read from the original source.
+     * 
+     * @param decryptor
+     */
+    public void setDecryptor(StreamDecryptor decryptor)
+    {
+        this.decryptor = decryptor;
+        this.decryptedLength = -1;
+    }
+
     /**
      * Creates a new stream for which filtered byte should be written to. You probably don't want this but want to use
      * the createUnfilteredStream, which is used to write raw bytes to.
@@ -416,9 +599,9 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
      */
     public OutputStream createFilteredStream()
     {
-        IOUtils.closeQuietly(existing);
         unfiltered = null;
         existing = null;
+        decryptor = null;
         filtered = null;
         return new MyByteArrayOutputStream(bytes -> {
             this.filtered = bytes;
@@ -464,8 +647,8 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
 
         }
         setItem(COSName.FILTER, filters);
-        IOUtils.closeQuietly(existing);
         existing = null;
+        decryptor = null;
         filtered = null;
     }
 
@@ -551,8 +734,8 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     public OutputStream createUnfilteredStream()
     {
         filtered = null;
-        IOUtils.closeQuietly(existing);
         existing = null;
+        decryptor = null;
         unfiltered = null;
         return new MyByteArrayOutputStream(bytes -> {
             this.unfiltered = bytes;
@@ -563,7 +746,7 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     {
         if (nonNull(existing))
         {
-            return existing.get().size() <= 0;
+            return doGetFilteredLength() <= 0;
         }
         return ofNullable(filtered).map(f -> (f.length <= 0)).orElseGet(() -> {
             return ofNullable(unfiltered).map(u -> (u.length <= 0)).orElse(true);
@@ -575,9 +758,10 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
      */
     public String asTextString()
     {
-        try (FastByteArrayOutputStream out = new FastByteArrayOutputStream())
+        try (InputStream in = getUnfilteredStream();
+                FastByteArrayOutputStream out = new FastByteArrayOutputStream())
         {
-            org.apache.commons.io.IOUtils.copy(getUnfilteredStream(), out);
+            org.apache.commons.io.IOUtils.copy(in, out);
             return COSString.newInstance(out.toByteArray()).getString();
         }
         catch (IOException e)
@@ -590,8 +774,8 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     @Override
     public void close() throws IOException
     {
-        IOUtils.closeQuietly(existing);
         existing = null;
+        decryptor = null;
         unfiltered = null;
         filtered = null;
     }
@@ -659,17 +843,74 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         }
     }
 
+    /**
+     * A decrypted stream of known length. Cipher streams only report as available what they have already decrypted,
+     * this reports the remaining decrypted bytes instead, so that consumers relying on {@link #available()} (like the
+     * decoding) don't consider the stream empty.
+     */
+    private static class DecryptedInputStream extends FilterInputStream
+    {
+        private long remaining;
+
+        DecryptedInputStream(InputStream decrypted, long length)
+        {
+            super(decrypted);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int read = super.read();
+            if (read >= 0)
+            {
+                remaining--;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int read = super.read(b, off, len);
+            if (read > 0)
+            {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = super.skip(n);
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available()
+        {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, remaining));
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+    }
+
     /**
      * Holder for a view of a portion of the given {@link SeekableSource}
      * 
      * @author Andrea Vacondio
      */
-    private static class LazySeekableSourceViewHolder implements Closeable
+    private static class LazySeekableSourceViewHolder
     {
         private WeakReference<SeekableSource> sourceRef;
         private long length;
         private SeekableSourceSupplier<SeekableSource> supplier;
-        private SeekableSource view;
 
         public LazySeekableSourceViewHolder(SeekableSource source, long startingPosition,
                 long length)
@@ -684,21 +925,13 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
             this.length = length;
         }
 
-        SeekableSource get() throws IOException
-        {
-            if (view == null)
-            {
-                view = supplier.get();
-            }
-            view.position(0);
-            return view;
-        }
-
-        @Override
-        public void close() throws IOException
+        /**
+         * @return a new view of the source, with its own position, that the caller has to close. Every reader gets
+         * its own since the stream can be read by concurrent threads.
+         */
+        SeekableSource newView() throws IOException
         {
-            IOUtils.close(view);
-            view = null;
+            return supplier.get();
         }
     }
 }
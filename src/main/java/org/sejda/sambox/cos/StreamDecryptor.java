@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.cos;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.sejda.io.SeekableSource;
+
+/**
+ * Decrypts the data of an encrypted {@link COSStream} when it's read, allowing streams of encrypted documents to be
+ * parsed without decrypting their content upfront.
+ * 
+ * @author Andrea Vacondio
+ */
+public interface StreamDecryptor
+{
+    /**
+     * @param encrypted the encrypted stream data
+     * @return a stream that decrypts the given data while it's read
+     * @throws IOException
+     */
+    InputStream decrypt(InputStream encrypted) throws IOException;
+
+    /**
+     * @param encrypted the encrypted stream data
+     * @return the length of the decrypted data, possibly without decrypting the whole source
+     * @throws IOException
+     */
+    long decryptedLength(SeekableSource encrypted) throws IOException;
+}
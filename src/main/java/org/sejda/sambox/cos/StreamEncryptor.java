@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.cos;
+
+import java.io.InputStream;
+
+/**
+ * Encrypts the filtered data of a {@link COSStream} while it's written, allowing the encrypted length to be known
+ * before the data is actually encrypted.
+ * 
+ * @author Andrea Vacondio
+ */
+public interface StreamEncryptor
+{
+    /**
+     * @param filtered the filtered stream data
+     * @return a stream where the encrypted data can be read from
+     */
+    InputStream encrypt(InputStream filtered);
+
+    /**
+     * @param length the length of the filtered stream data
+     * @return the length of the encrypted data, a negative value if it's not known before the data is encrypted
+     */
+    long encryptedLength(long length);
+}
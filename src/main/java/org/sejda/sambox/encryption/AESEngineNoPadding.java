@@ -18,6 +18,7 @@ package org.sejda.sambox.encryption;
 
 import static java.util.Objects.nonNull;
 import static org.bouncycastle.util.Arrays.copyOf;
+import static org.sejda.sambox.encryption.EncryptUtils.STREAM_BUFFER_SIZE;
 
 import java.io.InputStream;
 
@@ -49,7 +50,7 @@ class AESEngineNoPadding implements AESEncryptionAlgorithmEngine
     public InputStream encryptStream(InputStream data, byte[] key, byte[] iv)
     {
         init(key, iv);
-        return new CipherInputStream(data, cipher);
+        return new CipherInputStream(data, cipher, STREAM_BUFFER_SIZE);
     }
 
     @Override
@@ -81,6 +82,15 @@ class AESEngineNoPadding implements AESEncryptionAlgorithmEngine
         return encryptBytes(data, key, null);
     }
 
+    /**
+     * With no padding the data length is expected to be a multiple of the block size and it's not changed
+     */
+    @Override
+    public long encryptedLength(long length)
+    {
+        return length;
+    }
+
     private void init(byte[] key, byte[] iv)
     {
         cipher.reset();
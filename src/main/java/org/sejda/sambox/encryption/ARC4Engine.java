@@ -16,6 +16,8 @@
  */
 package org.sejda.sambox.encryption;
 
+import static org.sejda.sambox.encryption.EncryptUtils.STREAM_BUFFER_SIZE;
+
 import java.io.InputStream;
 
 import org.bouncycastle.crypto.StreamCipher;
@@ -43,7 +45,7 @@ class ARC4Engine implements EncryptionAlgorithmEngine
     public InputStream encryptStream(InputStream data, byte[] key)
     {
         init(key);
-        return new CipherInputStream(data, cipher);
+        return new CipherInputStream(data, cipher, STREAM_BUFFER_SIZE);
     }
 
     @Override
@@ -55,6 +57,15 @@ class ARC4Engine implements EncryptionAlgorithmEngine
         return out;
     }
 
+    /**
+     * RC4 is a stream cipher, encrypted data has the same length of the plain one
+     */
+    @Override
+    public long encryptedLength(long length)
+    {
+        return length;
+    }
+
     private void init(byte[] key)
     {
         cipher.init(true, new KeyParameter(key));
@@ -79,6 +79,12 @@ class Algorithm1 implements GeneralEncryptionAlgorithm
         this.currentCOSObjectKey = currentCOSObjectKey;
     }
 
+    @Override
+    public boolean knowsEncryptedStreamsLength()
+    {
+        return true;
+    }
+
     @Override
     public void visit(COSString value)
     {
@@ -96,8 +102,8 @@ class Algorithm1 implements GeneralEncryptionAlgorithm
         if (value.encryptable())
         {
             requireObjectKey();
-            value.setEncryptor((i) -> engine.encryptStream(i, keyCalculator.andThen(md5Initializer)
-                    .andThen(md5ToKey).apply(currentCOSObjectKey)));
+            value.setEncryptor(new EngineStreamEncryptor(engine, () -> keyCalculator
+                    .andThen(md5Initializer).andThen(md5ToKey).apply(currentCOSObjectKey)));
         }
     }
 
@@ -63,7 +63,7 @@ class Algorithm1A implements GeneralEncryptionAlgorithm
     {
         if (value.encryptable())
         {
-            value.setEncryptor((i) -> engine.encryptStream(i, key));
+            value.setEncryptor(new EngineStreamEncryptor(engine, () -> key));
         }
     }
 
@@ -73,6 +73,12 @@ class Algorithm1A implements GeneralEncryptionAlgorithm
         // nothing
     }
 
+    @Override
+    public boolean knowsEncryptedStreamsLength()
+    {
+        return true;
+    }
+
     @Override
     public String toString()
     {
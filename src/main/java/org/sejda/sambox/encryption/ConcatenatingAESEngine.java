@@ -36,6 +36,8 @@ import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
  */
 public class ConcatenatingAESEngine extends AESEngineNoPadding
 {
+    private static final int BLOCK_SIZE = 16;
+
     private SecureRandom random;
 
     ConcatenatingAESEngine()
@@ -69,9 +71,19 @@ public class ConcatenatingAESEngine extends AESEngineNoPadding
         return concatenate(iv, super.encryptBytes(data, key, iv));
     }
 
+    /**
+     * The initialization vector followed by the data PKCS#5 padded to the next multiple of the block size, a full
+     * padding block is added when the data length is already a multiple of it.
+     */
+    @Override
+    public long encryptedLength(long length)
+    {
+        return BLOCK_SIZE + (length / BLOCK_SIZE + 1) * BLOCK_SIZE;
+    }
+
     private byte[] initializationVector()
     {
-        byte[] iv = new byte[16];
+        byte[] iv = new byte[BLOCK_SIZE];
         random.nextBytes(iv);
         return iv;
     }
@@ -37,6 +37,11 @@ final class EncryptUtils
             (byte) 0x68, (byte) 0x3E, (byte) 0x80, (byte) 0x2F, (byte) 0x0C, (byte) 0xA9,
             (byte) 0xFE, (byte) 0x64, (byte) 0x53, (byte) 0x69, (byte) 0x7A };
 
+    /**
+     * Size of the buffer used to encrypt streams, data is read and processed by the cipher in batches of this size
+     */
+    public static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     private EncryptUtils()
     {
         // nothing
@@ -41,4 +41,10 @@ interface EncryptionAlgorithmEngine
      * @throws EncryptionException
      */
     byte[] encryptBytes(byte[] data, byte[] key);
+
+    /**
+     * @param length length of the data to encrypt
+     * @return the length of the encrypted data
+     */
+    long encryptedLength(long length);
 }
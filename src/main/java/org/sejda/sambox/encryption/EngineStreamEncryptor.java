@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.encryption;
+
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+import org.sejda.sambox.cos.StreamEncryptor;
+
+/**
+ * {@link StreamEncryptor} encrypting streams with an {@link EncryptionAlgorithmEngine}. The key is requested when the
+ * stream is actually encrypted.
+ * 
+ * @author Andrea Vacondio
+ *
+ */
+class EngineStreamEncryptor implements StreamEncryptor
+{
+    private EncryptionAlgorithmEngine engine;
+    private Supplier<byte[]> key;
+
+    EngineStreamEncryptor(EncryptionAlgorithmEngine engine, Supplier<byte[]> key)
+    {
+        requireNotNullArg(engine, "Encryption engine cannot be null");
+        requireNotNullArg(key, "Encryption key cannot be null");
+        this.engine = engine;
+        this.key = key;
+    }
+
+    @Override
+    public InputStream encrypt(InputStream filtered)
+    {
+        return engine.encryptStream(filtered, key.get());
+    }
+
+    @Override
+    public long encryptedLength(long length)
+    {
+        return engine.encryptedLength(length);
+    }
+}
@@ -18,6 +18,7 @@ package org.sejda.sambox.encryption;
 
 import org.sejda.sambox.cos.COSObjectKey;
 import org.sejda.sambox.cos.COSVisitor;
+import org.sejda.sambox.cos.StreamEncryptor;
 
 /**
  * General encryption algorithm as defined in Chapter 7.6.2 of the PDF 32000-1
@@ -34,4 +35,14 @@ public interface GeneralEncryptionAlgorithm extends COSVisitor
      * @param key
      */
     void setCurrentCOSObjectKey(COSObjectKey key);
+
+    /**
+     * @return true if the encrypted length of the streams is known before they are encrypted, allowing it to be written
+     * as a direct object. Algorithms setting {@link StreamEncryptor}s that know the encrypted length should return
+     * true.
+     */
+    default boolean knowsEncryptedStreamsLength()
+    {
+        return false;
+    }
 }
@@ -42,6 +42,12 @@ final class ASCII85Filter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+    {
+        return new ASCII85InputStream(encoded);
+    }
+
     @Override
     public void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
         throws IOException
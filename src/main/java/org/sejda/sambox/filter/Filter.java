@@ -28,6 +28,7 @@ import java.util.zip.Deflater;
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 
+import org.sejda.io.FastByteArrayOutputStream;
 import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
@@ -68,6 +69,25 @@ public abstract class Filter
     public abstract DecodeResult decode(InputStream encoded, OutputStream decoded,
             COSDictionary parameters, int index) throws IOException;
 
+    /**
+     * Decodes data lazily, while the returned stream is read. Filters that can decode incrementally override this
+     * method, the default implementation decodes the whole data in memory using
+     * {@link #decode(InputStream, OutputStream, COSDictionary, int)}.
+     * 
+     * @param encoded the encoded byte stream
+     * @param parameters the parameters used for decoding
+     * @param index the index to the filter being decoded
+     * @return the decoded byte stream
+     * @throws IOException if the stream cannot be decoded
+     */
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+            throws IOException
+    {
+        FastByteArrayOutputStream decoded = new FastByteArrayOutputStream();
+        decode(encoded, decoded, parameters, index);
+        return decoded.getInputStream();
+    }
+
     /**
      * Encodes data.
      * 
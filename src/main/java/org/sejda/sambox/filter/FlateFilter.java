@@ -16,7 +16,7 @@
  */
 package org.sejda.sambox.filter;
 
-import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -25,7 +25,7 @@ import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
 
-import org.sejda.io.FastByteArrayOutputStream;
+import org.apache.commons.io.IOUtils;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
 import org.slf4j.Logger;
@@ -46,126 +46,187 @@ final class FlateFilter extends Filter
     public DecodeResult decode(InputStream encoded, OutputStream decoded, COSDictionary parameters,
             int index) throws IOException
     {
-        int predictor = -1;
+        IOUtils.copy(decode(encoded, parameters, index), decoded);
+        decoded.flush();
+        return new DecodeResult(parameters);
+    }
 
+    @Override
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+    {
+        InputStream inflating = new InflatingInputStream(encoded);
         final COSDictionary decodeParams = getDecodeParams(parameters, index);
-        if (decodeParams != null)
+        int predictor = decodeParams.getInt(COSName.PREDICTOR);
+        if (predictor > 1)
         {
-            predictor = decodeParams.getInt(COSName.PREDICTOR);
+            int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
+            int bitsPerPixel = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
+            int columns = decodeParams.getInt(COSName.COLUMNS, 1);
+            return Predictor.wrapPredictor(predictor, colors, bitsPerPixel, columns, inflating);
         }
+        return inflating;
+    }
 
+    @Override
+    public void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
+            throws IOException
+    {
+        int compressionLevel = Deflater.DEFAULT_COMPRESSION;
         try
         {
-            if (predictor > 1)
-            {
-                int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
-                int bitsPerPixel = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
-                int columns = decodeParams.getInt(COSName.COLUMNS, 1);
-                FastByteArrayOutputStream baos = new FastByteArrayOutputStream();
-                decompress(encoded, baos);
-                ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-                Predictor.decodePredictor(predictor, colors, bitsPerPixel, columns, bais, decoded);
-                decoded.flush();
-                baos.reset();
-                bais.reset();
-            }
-            else
+            compressionLevel = Integer
+                    .parseInt(System.getProperty(Filter.SYSPROP_DEFLATELEVEL, "-1"));
+        }
+        catch (NumberFormatException ex)
+        {
+            LOG.warn(ex.getMessage(), ex);
+        }
+        compressionLevel = Math.max(-1, Math.min(Deflater.BEST_COMPRESSION, compressionLevel));
+        Deflater deflater = new Deflater(compressionLevel);
+        DeflaterOutputStream out = new DeflaterOutputStream(encoded, deflater);
+        int amountRead;
+        int mayRead = input.available();
+        if (mayRead > 0)
+        {
+            byte[] buffer = new byte[Math.min(mayRead, BUFFER_SIZE)];
+            while ((amountRead = input.read(buffer, 0, Math.min(mayRead, BUFFER_SIZE))) != -1)
             {
-                decompress(encoded, decoded);
+                out.write(buffer, 0, amountRead);
             }
         }
-        catch (DataFormatException e)
+        out.close();
+        encoded.flush();
+    }
+
+    /**
+     * Inflates the wrapped stream while reading. It uses an Inflater instead of InflateInputStream to avoid an
+     * EOFException due to a probably missing Z_STREAM_END, see PDFBOX-1232 for details
+     */
+    private static final class InflatingInputStream extends FilterInputStream
+    {
+        private final byte[] buf = new byte[2048];
+        private final byte[] single = new byte[1];
+        // use nowrap mode to bypass zlib-header and checksum to avoid a DataFormatException
+        private final Inflater inflater = new Inflater(true);
+        private boolean started = false;
+        private boolean finished = false;
+        private boolean dataRead = false;
+
+        InflatingInputStream(InputStream in)
         {
-            // if the stream is corrupt a DataFormatException may occur
-            LOG.error("FlateFilter: stop reading corrupt stream due to a DataFormatException");
+            super(in);
+        }
 
-            // re-throw the exception
-            throw new IOException(e);
+        @Override
+        public int read() throws IOException
+        {
+            if (read(single, 0, 1) == -1)
+            {
+                return -1;
+            }
+            return single[0] & 0xff;
         }
-        return new DecodeResult(parameters);
-    }
 
-    // Use Inflater instead of InflateInputStream to avoid an EOFException due to a probably
-    // missing Z_STREAM_END, see PDFBOX-1232 for details
-    private void decompress(InputStream in, OutputStream out)
-            throws IOException, DataFormatException
-    {
-        byte[] buf = new byte[2048];
-        // skip zlib header
-        in.read(buf, 0, 2);
-        int read = in.read(buf);
-        if (read > 0)
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
         {
-            // use nowrap mode to bypass zlib-header and checksum to avoid a DataFormatException
-            Inflater inflater = new Inflater(true);
-            inflater.setInput(buf, 0, read);
-            byte[] res = new byte[1024];
-            boolean dataWritten = false;
-            while (true)
+            if (len == 0)
             {
-                int resRead = 0;
+                return 0;
+            }
+            if (!started)
+            {
+                started = true;
+                // skip zlib header
+                in.read(buf, 0, 2);
+            }
+            while (!finished)
+            {
+                if (inflater.needsInput())
+                {
+                    int read = in.read(buf);
+                    if (read <= 0)
+                    {
+                        end();
+                        break;
+                    }
+                    inflater.setInput(buf, 0, read);
+                }
                 try
                 {
-                    resRead = inflater.inflate(res);
+                    int inflated = inflater.inflate(b, off, len);
+                    if (inflated > 0)
+                    {
+                        dataRead = true;
+                        return inflated;
+                    }
                 }
-                catch (DataFormatException exception)
+                catch (DataFormatException e)
                 {
-                    if (dataWritten)
+                    end();
+                    if (dataRead)
                     {
                         // some data could be read -> don't throw an exception
                         LOG.warn(
                                 "FlateFilter: premature end of stream due to a DataFormatException");
                         break;
                     }
-                    // nothing could be read -> re-throw exception
-                    throw exception;
+                    // if the stream is corrupt a DataFormatException may occur
+                    LOG.error(
+                            "FlateFilter: stop reading corrupt stream due to a DataFormatException");
+                    throw new IOException(e);
                 }
-                if (resRead != 0)
+                if (inflater.finished() || inflater.needsDictionary())
                 {
-                    out.write(res, 0, resRead);
-                    dataWritten = true;
-                    continue;
+                    end();
                 }
-                if (inflater.finished() || inflater.needsDictionary() || in.available() == 0)
+            }
+            return -1;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            byte[] skipBuffer = new byte[(int) Math.min(n, 2048)];
+            long skipped = 0;
+            while (skipped < n)
+            {
+                int read = read(skipBuffer, 0, (int) Math.min(n - skipped, skipBuffer.length));
+                if (read == -1)
                 {
                     break;
                 }
-                read = in.read(buf);
-                inflater.setInput(buf, 0, read);
+                skipped += read;
             }
-            inflater.end();
+            return skipped;
         }
-        out.flush();
-    }
 
-    @Override
-    public void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
-            throws IOException
-    {
-        int compressionLevel = Deflater.DEFAULT_COMPRESSION;
-        try
+        @Override
+        public int available()
         {
-            compressionLevel = Integer
-                    .parseInt(System.getProperty(Filter.SYSPROP_DEFLATELEVEL, "-1"));
+            return finished ? 0 : 1;
         }
-        catch (NumberFormatException ex)
+
+        @Override
+        public boolean markSupported()
         {
-            LOG.warn(ex.getMessage(), ex);
+            return false;
         }
-        compressionLevel = Math.max(-1, Math.min(Deflater.BEST_COMPRESSION, compressionLevel));
-        Deflater deflater = new Deflater(compressionLevel);
-        DeflaterOutputStream out = new DeflaterOutputStream(encoded, deflater);
-        int amountRead;
-        int mayRead = input.available();
-        if (mayRead > 0)
+
+        private void end()
         {
-            byte[] buffer = new byte[Math.min(mayRead, BUFFER_SIZE)];
-            while ((amountRead = input.read(buffer, 0, Math.min(mayRead, BUFFER_SIZE))) != -1)
+            if (!finished)
             {
-                out.write(buffer, 0, amountRead);
+                finished = true;
+                inflater.end();
             }
         }
-        out.close();
-        encoded.flush();
+
+        @Override
+        public void close() throws IOException
+        {
+            end();
+            super.close();
+        }
     }
 }
@@ -41,6 +41,12 @@ final class IdentityFilter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+    {
+        return encoded;
+    }
+
     @Override
     public void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
         throws IOException
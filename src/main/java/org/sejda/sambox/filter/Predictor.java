@@ -15,6 +15,7 @@
  */
 package org.sejda.sambox.filter;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -43,9 +44,7 @@ public final class Predictor
         else
         {
             // calculate sizes
-            final int bitsPerPixel = colors * bitsPerComponent;
-            final int bytesPerPixel = (bitsPerPixel + 7) / 8;
-            final int rowlength = (columns * bitsPerPixel + 7) / 8;
+            final int rowlength = rowLength(colors, bitsPerComponent, columns);
             byte[] actline = new byte[rowlength];
             byte[] lastline = new byte[rowlength];
 
@@ -74,154 +73,189 @@ public final class Predictor
                     offset += i;
                 }
 
-                // do prediction as specified in PNG-Specification 1.2
-                switch (linepredictor)
+                decodePredictorRow(linepredictor, colors, bitsPerComponent, columns, actline,
+                        lastline);
+                System.arraycopy(actline, 0, lastline, 0, rowlength);
+                out.write(actline);
+            }
+        }
+    }
+
+    /**
+     * @return an {@link InputStream} decoding the predictor row by row while reading from the given input
+     */
+    static InputStream wrapPredictor(int predictor, int colors, int bitsPerComponent, int columns,
+            InputStream in)
+    {
+        if (predictor == 1)
+        {
+            return in;
+        }
+        return new PredictorInputStream(predictor, colors, bitsPerComponent, columns, in);
+    }
+
+    static int rowLength(int colors, int bitsPerComponent, int columns)
+    {
+        return (columns * colors * bitsPerComponent + 7) / 8;
+    }
+
+    /**
+     * Decodes a single row in place
+     * 
+     * @param linepredictor the predictor of the row, PNG predictors are in the 10..14 range
+     * @param actline the row to decode
+     * @param lastline the previous decoded row
+     */
+    static void decodePredictorRow(int linepredictor, int colors, int bitsPerComponent,
+            int columns, byte[] actline, byte[] lastline)
+    {
+        final int bitsPerPixel = colors * bitsPerComponent;
+        final int bytesPerPixel = (bitsPerPixel + 7) / 8;
+        final int rowlength = actline.length;
+        // do prediction as specified in PNG-Specification 1.2
+        switch (linepredictor)
+        {
+            case 2:
+                // PRED TIFF SUB
+            if (bitsPerComponent == 8)
+            {
+                // for 8 bits per component it is the same algorithm as PRED SUB of PNG format
+                for (int p = bytesPerPixel; p < rowlength; p++)
+                {
+                    int sub = actline[p] & 0xff;
+                    int left = actline[p - bytesPerPixel] & 0xff;
+                    actline[p] = (byte) (sub + left);
+                }
+                break;
+            }
+                if (bitsPerComponent == 16)
                 {
-                    case 2:
-                        // PRED TIFF SUB
-                    if (bitsPerComponent == 8)
+                for (int p = bytesPerPixel; p < rowlength; p += 2)
                     {
-                        // for 8 bits per component it is the same algorithm as PRED SUB of PNG format
-                        for (int p = bytesPerPixel; p < rowlength; p++)
-                        {
-                            int sub = actline[p] & 0xff;
-                            int left = actline[p - bytesPerPixel] & 0xff;
-                            actline[p] = (byte) (sub + left);
-                        }
-                        break;
+                        int sub = ((actline[p] & 0xff) << 8) + (actline[p + 1] & 0xff);
+                    int left = (((actline[p - bytesPerPixel] & 0xff) << 8)
+                            + (actline[p - bytesPerPixel + 1] & 0xff));
+                        actline[p] = (byte) (((sub + left) >> 8) & 0xff);
+                        actline[p + 1] = (byte) ((sub + left) & 0xff);
                     }
-                        if (bitsPerComponent == 16)
+                    break;
+                }
+            if (bitsPerComponent == 1 && colors == 1)
+                {
+                // bytesPerPixel cannot be used:
+                // "A row shall occupy a whole number of bytes, rounded up if necessary.
+                // Samples and their components shall be packed into bytes
+                // from high-order to low-order bits."
+                for (int p = 0; p < rowlength; p++)
+                    {
+                    for (int bit = 7; bit >= 0; --bit)
+                        {
+                        int sub = (actline[p] >> bit) & 1;
+                        if (p == 0 && bit == 7)
                         {
-                        for (int p = bytesPerPixel; p < rowlength; p += 2)
+                            continue;
+                        }
+                        int left;
+                            if (bit == 7)
                             {
-                                int sub = ((actline[p] & 0xff) << 8) + (actline[p + 1] & 0xff);
-                            int left = (((actline[p - bytesPerPixel] & 0xff) << 8)
-                                    + (actline[p - bytesPerPixel + 1] & 0xff));
-                                actline[p] = (byte) (((sub + left) >> 8) & 0xff);
-                                actline[p + 1] = (byte) ((sub + left) & 0xff);
+                                // use bit #0 from previous byte
+                                left = actline[p - 1] & 1;
                             }
-                            break;
-                        }
-                    if (bitsPerComponent == 1 && colors == 1)
-                        {
-                        // bytesPerPixel cannot be used:
-                        // "A row shall occupy a whole number of bytes, rounded up if necessary.
-                        // Samples and their components shall be packed into bytes
-                        // from high-order to low-order bits."
-                        for (int p = 0; p < rowlength; p++)
+                            else
                             {
-                            for (int bit = 7; bit >= 0; --bit)
-                                {
-                                int sub = (actline[p] >> bit) & 1;
-                                if (p == 0 && bit == 7)
-                                {
-                                    continue;
-                                }
-                                int left;
-                                    if (bit == 7)
-                                    {
-                                        // use bit #0 from previous byte
-                                        left = actline[p - 1] & 1;
-                                    }
-                                    else
-                                    {
-                                        // use "previous" bit
-                                        left = (actline[p] >> (bit + 1)) & 1;
-                                    }
-                                if (((sub + left) & 1) == 0)
-                                {
-                                    // reset bit
-                                    actline[p] = (byte) (actline[p] & ~(1 << bit));
-                                }
-                                else
-                                {
-                                    // set bit
-                                    actline[p] = (byte) (actline[p] | (1 << bit));
-                                }
-                                }
+                                // use "previous" bit
+                                left = (actline[p] >> (bit + 1)) & 1;
                             }
-                        break;
-                        }
-                    // everything else, i.e. bpc 2 and 4, but has been tested for bpc 1 and 8 too
-                    int elements = columns * colors;
-                    for (int p = colors; p < elements; ++p)
+                        if (((sub + left) & 1) == 0)
                         {
-                        int bytePosSub = p * bitsPerComponent / 8;
-                        int bitPosSub = 8 - p * bitsPerComponent % 8 - bitsPerComponent;
-                        int bytePosLeft = (p - colors) * bitsPerComponent / 8;
-                        int bitPosLeft = 8 - (p - colors) * bitsPerComponent % 8 - bitsPerComponent;
-
-                        int sub = getBitSeq(actline[bytePosSub], bitPosSub, bitsPerComponent);
-                        int left = getBitSeq(actline[bytePosLeft], bitPosLeft, bitsPerComponent);
-                        actline[bytePosSub] = (byte) calcSetBitSeq(actline[bytePosSub], bitPosSub,
-                                bitsPerComponent, sub + left);
+                            // reset bit
+                            actline[p] = (byte) (actline[p] & ~(1 << bit));
                         }
-                        break;
-                    case 10:
-                        // PRED NONE
-                        // do nothing
-                        break;
-                    case 11:
-                        // PRED SUB
-                    for (int p = bytesPerPixel; p < rowlength; p++)
+                        else
                         {
-                            int sub = actline[p];
-                        int left = actline[p - bytesPerPixel];
-                            actline[p] = (byte) (sub + left);
+                            // set bit
+                            actline[p] = (byte) (actline[p] | (1 << bit));
                         }
-                        break;
-                    case 12:
-                        // PRED UP
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int up = actline[p] & 0xff;
-                            int prior = lastline[p] & 0xff;
-                            actline[p] = (byte) ((up + prior) & 0xff);
-                        }
-                        break;
-                    case 13:
-                        // PRED AVG
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int avg = actline[p] & 0xff;
-                            int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-                            int up = lastline[p] & 0xff;
-                            actline[p] = (byte) ((avg + (left + up) / 2) & 0xff);
                         }
-                        break;
-                    case 14:
-                        // PRED PAETH
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int paeth = actline[p] & 0xff;
-                            int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
-                            int b = lastline[p] & 0xff;// upper
-                            int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
-                            int value = a + b - c;
-                            int absa = Math.abs(value - a);
-                            int absb = Math.abs(value - b);
-                            int absc = Math.abs(value - c);
-
-                            if (absa <= absb && absa <= absc)
-                            {
-                                actline[p] = (byte) ((paeth + a) & 0xff);
-                            }
-                            else if (absb <= absc)
-                            {
-                                actline[p] = (byte) ((paeth + b) & 0xff);
-                            }
-                            else
-                            {
-                                actline[p] = (byte) ((paeth + c) & 0xff);
-                            }
-                        }
-                        break;
-                    default:
-                        break;
+                    }
+                break;
                 }
-                System.arraycopy(actline, 0, lastline, 0, rowlength);
-                out.write(actline);
-            }
+            // everything else, i.e. bpc 2 and 4, but has been tested for bpc 1 and 8 too
+            int elements = columns * colors;
+            for (int p = colors; p < elements; ++p)
+                {
+                int bytePosSub = p * bitsPerComponent / 8;
+                int bitPosSub = 8 - p * bitsPerComponent % 8 - bitsPerComponent;
+                int bytePosLeft = (p - colors) * bitsPerComponent / 8;
+                int bitPosLeft = 8 - (p - colors) * bitsPerComponent % 8 - bitsPerComponent;
+
+                int sub = getBitSeq(actline[bytePosSub], bitPosSub, bitsPerComponent);
+                int left = getBitSeq(actline[bytePosLeft], bitPosLeft, bitsPerComponent);
+                actline[bytePosSub] = (byte) calcSetBitSeq(actline[bytePosSub], bitPosSub,
+                        bitsPerComponent, sub + left);
+                }
+                break;
+            case 10:
+                // PRED NONE
+                // do nothing
+                break;
+            case 11:
+                // PRED SUB
+            for (int p = bytesPerPixel; p < rowlength; p++)
+                {
+                    int sub = actline[p];
+                int left = actline[p - bytesPerPixel];
+                    actline[p] = (byte) (sub + left);
+                }
+                break;
+            case 12:
+                // PRED UP
+                for (int p = 0; p < rowlength; p++)
+                {
+                    int up = actline[p] & 0xff;
+                    int prior = lastline[p] & 0xff;
+                    actline[p] = (byte) ((up + prior) & 0xff);
+                }
+                break;
+            case 13:
+                // PRED AVG
+                for (int p = 0; p < rowlength; p++)
+                {
+                    int avg = actline[p] & 0xff;
+                    int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
+                    int up = lastline[p] & 0xff;
+                    actline[p] = (byte) ((avg + (left + up) / 2) & 0xff);
+                }
+                break;
+            case 14:
+                // PRED PAETH
+                for (int p = 0; p < rowlength; p++)
+                {
+                    int paeth = actline[p] & 0xff;
+                    int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
+                    int b = lastline[p] & 0xff;// upper
+                    int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
+                    int value = a + b - c;
+                    int absa = Math.abs(value - a);
+                    int absb = Math.abs(value - b);
+                    int absc = Math.abs(value - c);
+
+                    if (absa <= absb && absa <= absc)
+                    {
+                        actline[p] = (byte) ((paeth + a) & 0xff);
+                    }
+                    else if (absb <= absc)
+                    {
+                        actline[p] = (byte) ((paeth + b) & 0xff);
+                    }
+                    else
+                    {
+                        actline[p] = (byte) ((paeth + c) & 0xff);
+                    }
+                }
+                break;
+            default:
+                break;
         }
     }
 
@@ -241,4 +275,123 @@ public final class Predictor
         return (by & mask) | (truncatedVal << startBit);
     }
 
+    /**
+     * Pull based version of {@link Predictor#decodePredictor(int, int, int, int, InputStream, OutputStream)} where
+     * only the current and the previous rows are kept in memory
+     */
+    private static final class PredictorInputStream extends FilterInputStream
+    {
+        private final int predictor;
+        private final int colors;
+        private final int bitsPerComponent;
+        private final int columns;
+        private final byte[] actline;
+        private final byte[] lastline;
+        private int position;
+        private boolean eof = false;
+
+        PredictorInputStream(int predictor, int colors, int bitsPerComponent, int columns,
+                InputStream in)
+        {
+            super(in);
+            this.predictor = predictor;
+            this.colors = colors;
+            this.bitsPerComponent = bitsPerComponent;
+            this.columns = columns;
+            int rowlength = rowLength(colors, bitsPerComponent, columns);
+            this.actline = new byte[rowlength];
+            this.lastline = new byte[rowlength];
+            this.position = rowlength;
+        }
+
+        private boolean fill() throws IOException
+        {
+            if (eof || actline.length == 0)
+            {
+                return false;
+            }
+            // actline keeps the previous row in case the last row is truncated, like decodePredictor does
+            System.arraycopy(actline, 0, lastline, 0, actline.length);
+            int linepredictor = predictor;
+            if (predictor >= 10)
+            {
+                linepredictor = in.read();
+                if (linepredictor == -1)
+                {
+                    eof = true;
+                    return false;
+                }
+                linepredictor += 10;
+            }
+            int i, offset = 0;
+            while (offset < actline.length
+                    && ((i = in.read(actline, offset, actline.length - offset)) != -1))
+            {
+                offset += i;
+            }
+            if (offset < actline.length)
+            {
+                eof = true;
+                if (offset == 0 && predictor < 10)
+                {
+                    return false;
+                }
+            }
+            decodePredictorRow(linepredictor, colors, bitsPerComponent, columns, actline, lastline);
+            position = 0;
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (position >= actline.length && !fill())
+            {
+                return -1;
+            }
+            return actline[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            if (position >= actline.length && !fill())
+            {
+                return -1;
+            }
+            int read = Math.min(len, actline.length - position);
+            System.arraycopy(actline, position, b, off, read);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = 0;
+            while (skipped < n && (position < actline.length || fill()))
+            {
+                int step = (int) Math.min(n - skipped, actline.length - position);
+                position += step;
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available()
+        {
+            return actline.length - position;
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+    }
 }
@@ -211,7 +211,7 @@ abstract class BaseCOSParser extends SourceReader
      */
     public COSNumber nextNumber() throws IOException
     {
-        return COSNumber.get(readNumber());
+        return readCOSNumber();
     }
 
     /**
@@ -17,12 +17,14 @@
 package org.sejda.sambox.input;
 
 import static org.sejda.sambox.util.CharUtils.isDigit;
+import static org.sejda.util.RequireUtils.requireIOCondition;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
 import org.sejda.io.SeekableSource;
 import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSInteger;
 import org.sejda.sambox.cos.COSNumber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -128,30 +130,30 @@ class COSParser extends BaseCOSParser
      */
     public COSBase nextNumberOrIndirectReference() throws IOException
     {
-        String first = readNumber();
+        COSNumber first = readCOSNumber();
         long offset = position();
         skipSpaces();
         if (isDigit(source().peek()))
         {
-            String second = readIntegerNumber();
+            long second = scanInteger();
+            if (second == NOT_SCANNED)
+            {
+                // too long to be a generation number
+                readIntegerNumber();
+            }
             skipSpaces();
             if ('R' == source().read())
             {
-                try
-                {
-                    return new ExistingIndirectCOSObject(Long.parseLong(first),
-                            Integer.parseInt(second), provider);
-                }
-                catch (NumberFormatException nfe)
-                {
-                    throw new IOException(String.format(
-                            "Unable to parse an object indirect reference with object number '%s' and generation number '%s'",
-                            first, second), nfe);
-                }
+                requireIOCondition(
+                        first instanceof COSInteger && second >= 0 && second <= Integer.MAX_VALUE,
+                        String.format(
+                                "Unable to parse an object indirect reference with object number '%s' at offset %d",
+                                first, offset));
+                return new ExistingIndirectCOSObject(first.longValue(), (int) second, provider);
             }
         }
         position(offset);
-        return COSNumber.get(first);
+        return first;
     }
 
     public IndirectObjectsProvider provider()
@@ -16,8 +16,9 @@
  */
 package org.sejda.sambox.input;
 
+import static java.util.Objects.isNull;
+
 import java.io.IOException;
-import java.util.Optional;
 
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSNull;
@@ -29,7 +30,9 @@ import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
 /**
  * An indirect object belonging to an existing pdf document. Indirect objects are defined in Chap 7.3.10 of PDF
  * 32000-1:2008. The {@link COSBase} wrapped by an {@link ExistingIndirectCOSObject} is loaded on demand by querying the
- * associated {@link IndirectObjectsProvider} when the {@link ExistingIndirectCOSObject#getCOSObject()} is called.
+ * associated {@link IndirectObjectsProvider} when the {@link ExistingIndirectCOSObject#getCOSObject()} is called and
+ * it's retained until {@link #releaseCOSObject()}, this way the objects graph reachable from an object in use is
+ * retained too, regardless of the retention policy of the provider cache.
  * 
  * @author Andrea Vacondio
  */
@@ -38,6 +41,7 @@ public class ExistingIndirectCOSObject extends COSBase implements DisposableCOSO
 
     private IndirectCOSObjectIdentifier id;
     private IndirectObjectsProvider provider;
+    private volatile COSBase resolved;
 
     ExistingIndirectCOSObject(long objectNumber, int generationNumber,
             IndirectObjectsProvider provider)
@@ -50,15 +54,24 @@ public class ExistingIndirectCOSObject extends COSBase implements DisposableCOSO
     @Override
     public COSBase getCOSObject()
     {
-        COSBase baseObject = Optional.ofNullable(provider.get(id.objectIdentifier))
-                .orElse(COSNull.NULL);
-        baseObject.idIfAbsent(id);
+        COSBase baseObject = resolved;
+        if (isNull(baseObject))
+        {
+            baseObject = provider.get(id.objectIdentifier);
+            if (isNull(baseObject))
+            {
+                return COSNull.NULL;
+            }
+            baseObject.idIfAbsent(id);
+            resolved = baseObject;
+        }
         return baseObject;
     }
 
     @Override
     public void releaseCOSObject()
     {
+        resolved = null;
         provider.release(id.objectIdentifier);
     }
 
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static java.util.Objects.nonNull;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSObjectKey;
+
+/**
+ * Objects handed out through an indirect reference, weakly held. An object is found here as long as it's referenced
+ * elsewhere, typically by the {@link ExistingIndirectCOSObject}s that resolved it, regardless of what the cache
+ * retention policy does with it.
+ *
+ * @author Andrea Vacondio
+ */
+class HandedOutObjects
+{
+    private Map<COSObjectKey, KeyedWeakReference> objects = new ConcurrentHashMap<>();
+    private ReferenceQueue<COSBase> queue = new ReferenceQueue<>();
+
+    /**
+     * @param key
+     * @return the object handed out for the given key if it's still referenced somewhere, null otherwise
+     */
+    COSBase get(COSObjectKey key)
+    {
+        purge();
+        KeyedWeakReference reference = objects.get(key);
+        if (nonNull(reference))
+        {
+            return reference.get();
+        }
+        return null;
+    }
+
+    /**
+     * @param key
+     * @param object
+     * @return true if the given object is the one handed out for the given key
+     */
+    boolean contains(COSObjectKey key, COSBase object)
+    {
+        return get(key) == object;
+    }
+
+    void add(COSObjectKey key, COSBase object)
+    {
+        if (!contains(key, object))
+        {
+            objects.put(key, new KeyedWeakReference(key, object, queue));
+        }
+    }
+
+    void remove(COSObjectKey key)
+    {
+        objects.remove(key);
+    }
+
+    /**
+     * @return the handed out objects still referenced somewhere
+     */
+    Stream<COSBase> values()
+    {
+        return objects.values().stream().map(Reference::get).filter(Objects::nonNull);
+    }
+
+    void clear()
+    {
+        objects.clear();
+        purge();
+    }
+
+    /**
+     * Removes the entries whose object has been claimed by the GC
+     */
+    private void purge()
+    {
+        Reference<? extends COSBase> reference;
+        while (nonNull(reference = queue.poll()))
+        {
+            KeyedWeakReference claimed = (KeyedWeakReference) reference;
+            objects.remove(claimed.key, claimed);
+        }
+    }
+
+    private static class KeyedWeakReference extends WeakReference<COSBase>
+    {
+        private final COSObjectKey key;
+
+        KeyedWeakReference(COSObjectKey key, COSBase referent, ReferenceQueue<COSBase> queue)
+        {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import java.util.stream.Stream;
+
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSObjectKey;
+
+/**
+ * Cache where the {@link LazyIndirectObjectsProvider} stores parsed {@link COSBase} objects. Implementations decide the
+ * retention policy, an object that is no longer in the cache is parsed again from the source when requested. An
+ * {@link ExistingIndirectCOSObject} retains the object it resolves, implementations must keep returning an object
+ * handed out through an indirect reference as long as it's referenced elsewhere, this way changes made to it are never
+ * lost in favor of a newly parsed copy and the same key always resolves to the same instance. Implementations are
+ * expected to be thread safe.
+ * 
+ * @author Andrea Vacondio
+ */
+interface IndirectObjectsCache
+{
+    /**
+     * @param key
+     * @return the cached object for the given key or null if there is no object cached for the key
+     */
+    COSBase get(COSObjectKey key);
+
+    /**
+     * Hands out the object cached for the given key, if any, so that it's returned for the key as long as it's
+     * referenced elsewhere
+     * 
+     * @param key
+     * @return the handed out object or null if there is no object cached for the key
+     */
+    COSBase getHandedOut(COSObjectKey key);
+
+    /**
+     * Caches and hands out the given object, so that it's returned for the key as long as it's referenced elsewhere.
+     * If an object is already cached for the given key, that object is handed out instead.
+     * 
+     * @param key
+     * @param object
+     * @return the handed out object
+     */
+    COSBase handOut(COSObjectKey key, COSBase object);
+
+    /**
+     * Caches the given object, replacing the currently cached one if any and if not handed out
+     * 
+     * @param key
+     * @param object
+     */
+    void put(COSObjectKey key, COSBase object);
+
+    /**
+     * Caches the given object if there is no object cached for the given key
+     * 
+     * @param key
+     * @param object
+     */
+    void putIfAbsent(COSObjectKey key, COSBase object);
+
+    /**
+     * Removes the object cached for the given key, if any
+     * 
+     * @param key
+     */
+    void remove(COSObjectKey key);
+
+    /**
+     * @return the objects currently cached
+     */
+    Stream<COSBase> values();
+
+    /**
+     * Removes all the cached objects
+     */
+    void clear();
+}
@@ -17,6 +17,7 @@
 package org.sejda.sambox.input;
 
 import java.io.Closeable;
+import java.util.Collection;
 
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSObjectKey;
@@ -69,6 +70,12 @@ interface IndirectObjectsProvider extends Closeable
      */
     XrefEntry addEntry(XrefEntry entry);
 
+    /**
+     * @return an unmodifiable view of the xref entries added to this provider
+     * @see Xref#values()
+     */
+    Collection<XrefEntry> entries();
+
     /**
      * Initialize the component with the {@link COSParser} to use to retrieve and parse requested object
      * 
@@ -94,4 +101,9 @@ interface IndirectObjectsProvider extends Closeable
      * @return the unique id for the provider.
      */
     String id();
+
+    /**
+     * @return true if objects can be requested from multiple threads
+     */
+    boolean isConcurrent();
 }
@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.sejda.util.RequireUtils.requireArg;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.COSString;
+import org.sejda.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link IndirectObjectsCache} with a maximum size, least recently used objects are evicted when the estimated size
+ * of the cached objects exceeds the maximum. The size of an object is an estimate of the heap it retains, for streams
+ * the length of the stream data is taken into account. An object handed out through an indirect reference is retained
+ * by the {@link ExistingIndirectCOSObject}s that resolved it, once evicted it's still returned for its key as long as
+ * they, or anyone else, reference it. Evicted streams that have never been handed out are closed.
+ * 
+ * @author Andrea Vacondio
+ */
+class LRUIndirectObjectsCache implements IndirectObjectsCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(LRUIndirectObjectsCache.class);
+
+    private static final int OBJECT_SIZE = 16;
+    private static final int REFERENCE_SIZE = 8;
+    private static final int COLLECTION_SIZE = 64;
+
+    private final long maxSize;
+    private long size = 0;
+    private final HandedOutObjects handedOut = new HandedOutObjects();
+    private Map<COSObjectKey, CachedObject> store = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxSize the maximum estimated size in bytes of the cached objects
+     */
+    LRUIndirectObjectsCache(long maxSize)
+    {
+        requireArg(maxSize > 0, "Cache size must be a positive number");
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public synchronized COSBase get(COSObjectKey key)
+    {
+        CachedObject cached = store.get(key);
+        if (nonNull(cached))
+        {
+            return cached.object;
+        }
+        return handedOut.get(key);
+    }
+
+    @Override
+    public synchronized COSBase getHandedOut(COSObjectKey key)
+    {
+        COSBase retVal = get(key);
+        if (nonNull(retVal))
+        {
+            handedOut.add(key, retVal);
+            if (!store.containsKey(key))
+            {
+                // evicted but still referenced, it's used again
+                store(key, retVal);
+            }
+        }
+        return retVal;
+    }
+
+    @Override
+    public synchronized COSBase handOut(COSObjectKey key, COSBase object)
+    {
+        COSBase current = getHandedOut(key);
+        if (nonNull(current))
+        {
+            return current;
+        }
+        // handed out before storing it, so it's not closed if evicted right away
+        handedOut.add(key, object);
+        store(key, object);
+        return object;
+    }
+
+    @Override
+    public synchronized void put(COSObjectKey key, COSBase object)
+    {
+        if (isNull(handedOut.get(key)))
+        {
+            store(key, object);
+        }
+    }
+
+    @Override
+    public synchronized void putIfAbsent(COSObjectKey key, COSBase object)
+    {
+        if (isNull(get(key)))
+        {
+            store(key, object);
+        }
+    }
+
+    @Override
+    public synchronized void remove(COSObjectKey key)
+    {
+        handedOut.remove(key);
+        CachedObject removed = store.remove(key);
+        if (nonNull(removed))
+        {
+            size -= removed.size;
+        }
+    }
+
+    @Override
+    public synchronized Stream<COSBase> values()
+    {
+        Set<COSBase> values = Collections.newSetFromMap(new IdentityHashMap<>());
+        store.values().forEach(c -> values.add(c.object));
+        handedOut.values().forEach(values::add);
+        return values.stream();
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        handedOut.clear();
+        store.clear();
+        size = 0;
+    }
+
+    /**
+     * @return the estimated size in bytes of the cached objects
+     */
+    synchronized long size()
+    {
+        return size;
+    }
+
+    private void store(COSObjectKey key, COSBase object)
+    {
+        CachedObject cached = new CachedObject(object);
+        CachedObject previous = store.put(key, cached);
+        if (nonNull(previous))
+        {
+            size -= previous.size;
+            if (previous.object != object)
+            {
+                close(key, previous);
+            }
+        }
+        size += cached.size;
+        evict();
+    }
+
+    private void evict()
+    {
+        Iterator<Map.Entry<COSObjectKey, CachedObject>> eldest = store.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext())
+        {
+            Map.Entry<COSObjectKey, CachedObject> evicted = eldest.next();
+            size -= evicted.getValue().size;
+            eldest.remove();
+            close(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    /**
+     * Closes objects holding resources, like streams. Objects handed out are not closed since they might still be in
+     * use.
+     */
+    private void close(COSObjectKey key, CachedObject cached)
+    {
+        if (cached.object instanceof Closeable && !handedOut.contains(key, cached.object))
+        {
+            IOUtils.closeQuietly((Closeable) cached.object);
+        }
+    }
+
+    /**
+     * @param object
+     * @return an estimate of the heap retained by the given object. Indirect references are not followed.
+     */
+    static long sizeOf(COSBase object)
+    {
+        if (object instanceof COSStream)
+        {
+            return sizeOf((COSDictionary) object) + streamLength((COSStream) object);
+        }
+        if (object instanceof COSDictionary)
+        {
+            return sizeOf((COSDictionary) object);
+        }
+        if (object instanceof COSArray)
+        {
+            long retVal = COLLECTION_SIZE;
+            for (COSBase item : (COSArray) object)
+            {
+                retVal += REFERENCE_SIZE + sizeOf(item);
+            }
+            return retVal;
+        }
+        if (object instanceof COSString)
+        {
+            return COLLECTION_SIZE + ((COSString) object).getBytes().length;
+        }
+        return OBJECT_SIZE;
+    }
+
+    private static long sizeOf(COSDictionary dictionary)
+    {
+        // names are shared so we only count the entry
+        long retVal = COLLECTION_SIZE;
+        for (COSBase value : dictionary.getValues())
+        {
+            retVal += COLLECTION_SIZE + sizeOf(value);
+        }
+        return retVal;
+    }
+
+    private static long streamLength(COSStream stream)
+    {
+        try
+        {
+            return stream.getFilteredLength();
+        }
+        catch (IOException e)
+        {
+            LOG.debug("Unable to get the stream length", e);
+            return 0;
+        }
+    }
+
+    private static class CachedObject
+    {
+        private final COSBase object;
+        private final long size;
+
+        CachedObject(COSBase object)
+        {
+            this.object = object;
+            this.size = sizeOf(object);
+        }
+    }
+}
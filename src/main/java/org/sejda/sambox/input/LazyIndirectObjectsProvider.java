@@ -28,11 +28,16 @@ import static org.sejda.util.RequireUtils.requireIOCondition;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
+import org.sejda.io.SeekableSource;
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
@@ -53,28 +58,81 @@ import org.slf4j.LoggerFactory;
  * underlying source on demand (ie. when the {@link IndirectObjectsProvider#get(COSObjectKey)} method is called). Parsed
  * objects are stored in a cache to be reused. If for given a {@link COSObjectKey} no entry is found in the xref, a
  * fallback mechanism is activated performing a full scan of the document to retrieve all the objects defined in it.
+ * <p>
+ * When created in concurrent mode objects can be requested from multiple threads, each parsing borrows a parser reading
+ * the source through its own {@link SeekableSourceCursor}, returned once the object is parsed, and concurrent requests
+ * for the same {@link COSObjectKey} result in a single parsing.
+ * </p>
  * 
  * @author Andrea Vacondio
  */
 class LazyIndirectObjectsProvider implements IndirectObjectsProvider
 {
     private static final Logger LOG = LoggerFactory.getLogger(LazyIndirectObjectsProvider.class);
+    private static final long DEFAULT_CACHE_SIZE = 64 * 1024 * 1024;
 
     private Xref xref = new Xref();
     private ObjectsFullScanner scanner;
-    // TODO references that the GC can claim
-    private Map<COSObjectKey, COSBase> store = new ConcurrentHashMap<>();
+    private IndirectObjectsCache store;
     private SecurityHandler securityHandler = null;
+    // the security handler is not thread safe and it's shared with the document, so we don't lock on it
+    private final Object decryptionLock = new Object();
     private COSParser parser;
+    private final boolean concurrent;
+    // idle parsers reading through their own cursor, there are as many as the peak of concurrent parsings
+    private final Deque<COSParser> cursors = new ConcurrentLinkedDeque<>();
+    private final Map<COSObjectKey, Object> objectStreamsLocks = new ConcurrentHashMap<>();
+    private Map<COSObjectKey, Object> inFlight = new ConcurrentHashMap<>();
+
+    LazyIndirectObjectsProvider()
+    {
+        this(Boolean.getBoolean(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY), newCache());
+    }
+
+    /**
+     * @param concurrent true if objects are going to be requested from multiple threads
+     * @param cache where parsed objects are stored
+     */
+    LazyIndirectObjectsProvider(boolean concurrent, IndirectObjectsCache cache)
+    {
+        requireNonNull(cache);
+        this.concurrent = concurrent;
+        this.store = cache;
+    }
+
+    private static IndirectObjectsCache newCache()
+    {
+        String policy = System.getProperty(SAMBox.OBJECTS_CACHE_PROPERTY, "strong");
+        switch (policy)
+        {
+        case "soft":
+            return new SoftIndirectObjectsCache();
+        case "lru":
+            return new LRUIndirectObjectsCache(
+                    Long.getLong(SAMBox.OBJECTS_CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+        case "strong":
+            return new StrongIndirectObjectsCache();
+        default:
+            LOG.warn("Unknown objects cache policy '{}', using 'strong'", policy);
+            return new StrongIndirectObjectsCache();
+        }
+    }
+
+    @Override
+    public boolean isConcurrent()
+    {
+        return concurrent;
+    }
 
     @Override
     public COSBase get(COSObjectKey key)
     {
-        if (isNull(store.get(key)))
+        COSBase retVal = store.getHandedOut(key);
+        if (isNull(retVal))
         {
-            parseObject(key);
+            retVal = resolve(key);
         }
-        return store.get(key);
+        return retVal;
     }
 
     @Override
@@ -101,6 +159,12 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         return xref.add(entry);
     }
 
+    @Override
+    public Collection<XrefEntry> entries()
+    {
+        return xref.values();
+    }
+
     @Override
     public COSObjectKey highestKey()
     {
@@ -123,37 +187,108 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         return this;
     }
 
-    private void parseObject(COSObjectKey key)
+    private COSBase resolve(COSObjectKey key)
+    {
+        if (concurrent)
+        {
+            Object lock = inFlight.computeIfAbsent(key, k -> new Object());
+            try
+            {
+                synchronized (lock)
+                {
+                    // someone else might have parsed it while we were waiting
+                    COSBase retVal = store.getHandedOut(key);
+                    if (isNull(retVal))
+                    {
+                        retVal = parseObject(key, true);
+                    }
+                    return retVal;
+                }
+            }
+            finally
+            {
+                inFlight.remove(key, lock);
+            }
+        }
+        return parseObject(key, true);
+    }
+
+    /**
+     * @return the parser to use for a parsing, to be given back using {@link #giveBack(COSParser)} once done
+     * @throws IOException
+     */
+    private COSParser borrowParser() throws IOException
+    {
+        if (concurrent)
+        {
+            COSParser cursor = cursors.pollFirst();
+            if (isNull(cursor))
+            {
+                LOG.trace("Creating parser cursor");
+                cursor = new COSParser(cursorFor(parser.source()), this);
+            }
+            return cursor;
+        }
+        return parser;
+    }
+
+    private void giveBack(COSParser borrowed)
+    {
+        if (concurrent)
+        {
+            cursors.offerFirst(borrowed);
+        }
+    }
+
+    private static SeekableSource cursorFor(SeekableSource source) throws IOException
+    {
+        if (source instanceof MappedSeekableSource)
+        {
+            // views of a mapped source are independent, unbuffered and share the mapped segments
+            return source.view(0, source.size());
+        }
+        return new SeekableSourceCursor(source);
+    }
+
+    /**
+     * Parses the object for the given key
+     * 
+     * @param key
+     * @param cache true if the parsed object is handed out and has to be cached
+     * @return the parsed object or null if it was not found
+     */
+    private COSBase parseObject(COSObjectKey key, boolean cache)
     {
         XrefEntry xrefEntry = xref.get(key);
         if (nonNull(xrefEntry))
         {
             try
             {
-                doParse(xrefEntry);
+                return doParse(xrefEntry, cache);
             }
             catch (IOException e)
             {
                 LOG.warn("An error occurred while parsing " + xrefEntry, e);
-                doParseFallbackObject(key);
+                return doParseFallbackObject(key, cache);
             }
         }
-        else
-        {
-            LOG.warn("Unable to find xref data for {}", key);
-            doParseFallbackObject(key);
-        }
+        LOG.warn("Unable to find xref data for {}", key);
+        return doParseFallbackObject(key, cache);
     }
 
-    private void doParseFallbackObject(COSObjectKey key)
+    private COSBase doParseFallbackObject(COSObjectKey key, boolean cache)
     {
         LOG.info("Trying fallback strategy for " + key);
-        XrefEntry xrefEntry = scanner.entries().get(key);
+        XrefEntry xrefEntry;
+        synchronized (scanner)
+        {
+            xrefEntry = scanner.entries().get(key);
+        }
         if (nonNull(xrefEntry))
         {
             try
             {
-                doParse(xrefEntry);
+                return doParse(xrefEntry, cache);
             }
             catch (IOException e)
             {
@@ -164,23 +299,45 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         {
             LOG.warn("Unable to find fallback xref entry for " + key);
         }
+        return null;
     }
 
-    private void doParse(XrefEntry xrefEntry) throws IOException
+    private COSBase doParse(XrefEntry xrefEntry, boolean cache) throws IOException
     {
         LOG.trace("Parsing indirect object {}", xrefEntry);
+        COSBase retVal = null;
         if (xrefEntry.getType() == XrefType.IN_USE)
         {
-            parseInUseEntry(xrefEntry);
+            retVal = parseInUseEntry(xrefEntry, cache);
         }
         if (xrefEntry.getType() == XrefType.COMPRESSED)
         {
-            parseCompressedEntry(xrefEntry);
+            retVal = parseCompressedEntry(xrefEntry);
         }
         LOG.trace("Parsing done");
+        return retVal;
     }
 
-    private void parseInUseEntry(XrefEntry xrefEntry) throws IOException
+    private COSBase parseInUseEntry(XrefEntry xrefEntry, boolean cache) throws IOException
+    {
+        COSParser parser = borrowParser();
+        COSBase retVal;
+        try
+        {
+            retVal = parseInUseEntry(xrefEntry, parser);
+        }
+        finally
+        {
+            giveBack(parser);
+        }
+        if (cache)
+        {
+            return store.handOut(xrefEntry.key(), retVal);
+        }
+        return retVal;
+    }
+
+    private COSBase parseInUseEntry(XrefEntry xrefEntry, COSParser parser) throws IOException
     {
         parser.position(xrefEntry.getByteOffset());
         parser.skipExpectedIndirectObjectDefinition(xrefEntry.key());
@@ -200,8 +357,11 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         if (securityHandler != null)
         {
             LOG.trace("Decrypting entry {}", xrefEntry);
-            securityHandler.decrypt(found, xrefEntry.getObjectNumber(),
-                    xrefEntry.getGenerationNumber());
+            synchronized (decryptionLock)
+            {
+                securityHandler.decrypt(found, xrefEntry.getObjectNumber(),
+                        xrefEntry.getGenerationNumber());
+            }
         }
         if (!parser.skipTokenIfValue(ENDOBJ))
         {
@@ -221,10 +381,10 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
                 found = COSNull.NULL;
             }
         }
-        store.put(xrefEntry.key(), ofNullable(found).orElse(COSNull.NULL));
+        return ofNullable(found).orElse(COSNull.NULL);
     }
 
-    private void parseCompressedEntry(XrefEntry xrefEntry) throws IOException
+    private COSBase parseCompressedEntry(XrefEntry xrefEntry) throws IOException
     {
         XrefEntry containingStreamEntry = xref.get(
                 new COSObjectKey(((CompressedXrefEntry) xrefEntry).getObjectStreamNumber(), 0));
@@ -234,8 +394,29 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
                         && containingStreamEntry.getType() != XrefType.COMPRESSED,
                 "Expected an uncompressed indirect object reference for the ObjectStream");
 
-        parseObject(containingStreamEntry.key());
-        COSBase stream = ofNullable(store.get(containingStreamEntry.key()))
+        if (concurrent)
+        {
+            // the object stream is closed once parsed so parsing and reading it must be done by one thread at a time
+            synchronized (objectStreamsLocks.computeIfAbsent(containingStreamEntry.key(),
+                    k -> new Object()))
+            {
+                // another thread might have parsed the object stream while we were waiting
+                COSBase retVal = store.getHandedOut(xrefEntry.key());
+                if (nonNull(retVal))
+                {
+                    return retVal;
+                }
+                return parseContainingObjectStream(containingStreamEntry, xrefEntry.key());
+            }
+        }
+        return parseContainingObjectStream(containingStreamEntry, xrefEntry.key());
+    }
+
+    private COSBase parseContainingObjectStream(XrefEntry containingStreamEntry,
+            COSObjectKey requested) throws IOException
+    {
+        // the objects stream is closed once parsed so it's not cached, it would be evicted and closed while reading
+        COSBase stream = ofNullable(parseObject(containingStreamEntry.key(), false))
                 .map(COSBase::getCOSObject).orElseThrow(() -> new IOException(
                         "Unable to find ObjectStream " + containingStreamEntry));
 
@@ -244,12 +425,18 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
             throw new IOException(
                     "Expected an object stream instance for " + containingStreamEntry);
         }
-        parseObjectStream(containingStreamEntry, (COSStream) stream);
+        return parseObjectStream(containingStreamEntry, (COSStream) stream, requested);
     }
 
-    private void parseObjectStream(XrefEntry containingStreamEntry, COSStream stream)
-            throws IOException
+    /**
+     * Parses and stores all the objects in the given object stream
+     * 
+     * @return the parsed object for the requested key or null if not found
+     */
+    private COSBase parseObjectStream(XrefEntry containingStreamEntry, COSStream stream,
+            COSObjectKey requested) throws IOException
     {
+        COSBase retVal = null;
         try (COSParser streamParser = new COSParser(stream.getUnfilteredSource(), this))
         {
             requireIOCondition(
@@ -290,7 +477,15 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
                     if (containingStreamEntry.owns(xref.get(key)))
                     {
                         LOG.trace("Parsed compressed object {} {}", key, object.getClass());
-                        store.put(key, object);
+                        if (key.equals(requested))
+                        {
+                            retVal = store.handOut(key, object);
+                        }
+                        else
+                        {
+                            // objects already handed out must not be replaced
+                            store.putIfAbsent(key, object);
+                        }
                     }
                 }
                 if (streamParser.skipTokenIfValue(ENDOBJ))
@@ -300,6 +495,7 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
             }
         }
         IOUtils.close(stream);
+        return retVal;
     }
 
     private boolean isIndirectContainedIn(COSBase item, XrefEntry containingStreamEntry)
@@ -318,7 +514,9 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
     @Override
     public void close()
     {
-        store.values().stream().filter(o -> o instanceof Closeable).map(o -> (Closeable) o)
+        cursors.forEach(IOUtils::closeQuietly);
+        cursors.clear();
+        store.values().filter(o -> o instanceof Closeable).map(o -> (Closeable) o)
                 .forEach(IOUtils::closeQuietly);
         store.clear();
     }
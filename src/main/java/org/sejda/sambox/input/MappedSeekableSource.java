@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static java.util.Optional.ofNullable;
+import static org.sejda.util.RequireUtils.requireArg;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+import org.sejda.io.BaseSeekableSource;
+import org.sejda.io.SeekableSource;
+import org.sejda.sambox.SAMBox;
+import org.sejda.util.IOUtils;
+
+/**
+ * A {@link SeekableSource} backed by a memory mapped file. The file is mapped in segments of
+ * {@link SAMBox#MAPPED_SEGMENT_SIZE_PROPERTY} bytes and the views created by {@link #view(long, long)} are slices of the
+ * same mapped segments, no data is copied and no other file handle is opened. Content of the current segment can be
+ * read in bulk through {@link #window()}.
+ * <p>
+ * Instances are not thread safe but different threads can safely work on different views of the same source.
+ * </p>
+ * 
+ * @author Andrea Vacondio
+ */
+public class MappedSeekableSource extends BaseSeekableSource
+{
+    private static final long MB_256 = 1 << 28;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private final MappedSeekableSource root;
+    private final ByteBuffer[] segments;
+    private final long segmentSize;
+    private final long start;
+    private final long size;
+    private long position;
+    private int currentIndex = -1;
+    private ByteBuffer current;
+
+    public MappedSeekableSource(File file) throws IOException
+    {
+        super(ofNullable(file).map(File::getAbsolutePath)
+                .orElseThrow(() -> new IllegalArgumentException("Input file cannot be null")));
+        this.root = this;
+        this.segmentSize = Long.getLong(SAMBox.MAPPED_SEGMENT_SIZE_PROPERTY, MB_256);
+        requireArg(segmentSize > 0 && segmentSize <= Integer.MAX_VALUE,
+                "Invalid mapped segment size " + segmentSize);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            this.size = channel.size();
+            this.segments = new ByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+            for (int i = 0; i < segments.length; i++)
+            {
+                long offset = i * segmentSize;
+                segments[i] = channel.map(MapMode.READ_ONLY, offset,
+                        Math.min(segmentSize, size - offset));
+            }
+        }
+        this.start = 0;
+        sync();
+    }
+
+    private MappedSeekableSource(MappedSeekableSource root, long start, long size)
+    {
+        super(root.id());
+        this.root = root;
+        this.segments = root.segments;
+        this.segmentSize = root.segmentSize;
+        this.start = start;
+        this.size = size;
+        sync();
+    }
+
+    @Override
+    public long position()
+    {
+        return position;
+    }
+
+    @Override
+    public SeekableSource position(long position) throws IOException
+    {
+        requireArg(position >= 0, "Cannot set position to a negative value");
+        this.position = Math.min(position, size);
+        sync();
+        return this;
+    }
+
+    /**
+     * positions the current segment buffer to the current position
+     */
+    private void sync()
+    {
+        if (position < size)
+        {
+            long absolute = start + position;
+            int index = (int) (absolute / segmentSize);
+            if (index != currentIndex)
+            {
+                current = segments[index].duplicate();
+                currentIndex = index;
+            }
+            current.position((int) (absolute % segmentSize));
+        }
+    }
+
+    @Override
+    public long size()
+    {
+        return size;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        requireOpen();
+        if (position >= size)
+        {
+            return -1;
+        }
+        if (!current.hasRemaining())
+        {
+            sync();
+        }
+        position++;
+        return current.get() & 0xFF;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException
+    {
+        requireOpen();
+        if (position >= size)
+        {
+            return -1;
+        }
+        int read = 0;
+        while (dst.hasRemaining() && position < size)
+        {
+            if (!current.hasRemaining())
+            {
+                sync();
+            }
+            int length = (int) Math.min(Math.min(dst.remaining(), current.remaining()),
+                    size - position);
+            int limit = current.limit();
+            current.limit(current.position() + length);
+            dst.put(current);
+            current.limit(limit);
+            position += length;
+            read += length;
+        }
+        return read;
+    }
+
+    /**
+     * @return a read only buffer whose content is the content of this source from the current position to the end of
+     * the current mapped segment or to the end of the source, whichever comes first. The position of the source is not
+     * changed. The returned buffer has no remaining bytes only if the source is at its end.
+     * @throws IOException
+     */
+    public ByteBuffer window() throws IOException
+    {
+        requireOpen();
+        if (position >= size)
+        {
+            return EMPTY;
+        }
+        if (!current.hasRemaining())
+        {
+            sync();
+        }
+        ByteBuffer window = current.slice();
+        window.limit((int) Math.min(window.remaining(), size - position));
+        return window;
+    }
+
+    /**
+     * @return a view on the given portion of this source, sharing the mapped segments
+     */
+    @Override
+    public SeekableSource view(long startingPosition, long length) throws IOException
+    {
+        requireOpen();
+        requireArg(startingPosition >= 0 && startingPosition <= size,
+                "Starting position is outside of the source");
+        requireArg(length >= 0, "Cannot create a view with a negative length");
+        return new MappedSeekableSource(root, start + startingPosition,
+                Math.min(length, size - startingPosition));
+    }
+
+    @Override
+    protected void requireOpen() throws IOException
+    {
+        super.requireOpen();
+        if (root != this)
+        {
+            root.requireOpen();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        super.close();
+        current = null;
+        if (root == this)
+        {
+            for (int i = 0; i < segments.length; i++)
+            {
+                if (segments[i] != null)
+                {
+                    IOUtils.unmap(segments[i]);
+                    segments[i] = null;
+                }
+            }
+        }
+    }
+}
@@ -19,11 +19,10 @@ package org.sejda.sambox.input;
 import static org.sejda.util.RequireUtils.requireNotNullArg;
 
 import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+import org.sejda.sambox.input.RecoveryScanner.Marker;
+import org.sejda.sambox.input.RecoveryScanner.MarkerType;
 import org.sejda.sambox.xref.Xref;
-import org.sejda.sambox.xref.XrefEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,11 +31,11 @@ import org.slf4j.LoggerFactory;
  * implementation is lazy and the full scan is performed the first time the entries are accessed.
  * 
  * @author Andrea Vacondio
+ * @see RecoveryScanner
  */
 class ObjectsFullScanner
 {
     private static final Logger LOG = LoggerFactory.getLogger(ObjectsFullScanner.class);
-    private static final Pattern OBJECT_DEF_PATTERN = Pattern.compile("^(\\d+)[\\s](\\d+)[\\s]obj");
 
     private Xref xref = new Xref();
     private SourceReader reader;
@@ -54,13 +53,17 @@ class ObjectsFullScanner
         try
         {
             long savedPos = reader.position();
-            reader.position(0);
-            reader.skipSpaces();
-            while (reader.source().peek() != -1)
+            for (Marker marker : new RecoveryScanner(reader.source()).scan())
             {
-                long offset = reader.position();
-                addEntryIfObjectDefinition(offset, reader.readLine());
-                reader.skipSpaces();
+                if (marker.type == MarkerType.OBJECT)
+                {
+                    xref.add(marker.xrefEntry());
+                    onObjectDefinitionLine(marker.offset);
+                }
+                else
+                {
+                    onNonObjectDefinitionLine(marker.offset, marker.type);
+                }
             }
             reader.position(savedPos);
         }
@@ -70,41 +73,27 @@ class ObjectsFullScanner
         }
     }
 
-    private void addEntryIfObjectDefinition(long offset, String line) throws IOException
-    {
-        Matcher matcher = OBJECT_DEF_PATTERN.matcher(line);
-        if (matcher.find())
-        {
-            xref.add(XrefEntry.inUseEntry(Long.parseUnsignedLong(matcher.group(1)), offset,
-                    Integer.parseUnsignedInt(matcher.group(2))));
-            onObjectDefinitionLine(offset, line);
-        }
-        else
-        {
-            onNonObjectDefinitionLine(offset, line);
-        }
-    }
-
     /**
-     * Called when the the scanner has read a line which is not an object definition
+     * Called when the the scanner has found a line which is not an object definition but it starts with the xref or
+     * trailer keyword or it contains the Catalog name
      * 
-     * @param originalOffset offset from where the line was read
-     * @param line
+     * @param originalOffset offset where the line starts
+     * @param type the kind of line found
      * @throws IOException
      */
-    protected void onNonObjectDefinitionLine(long originalOffset, String line) throws IOException
+    protected void onNonObjectDefinitionLine(long originalOffset, MarkerType type)
+            throws IOException
     {
         // nothing
     }
 
     /**
-     * Called when the the scanner has read a line which is an object definition
+     * Called when the the scanner has found a line which is an object definition
      * 
-     * @param originalOffset offset from where the line was read
-     * @param line
+     * @param originalOffset offset where the line starts
      * @throws IOException
      */
-    protected void onObjectDefinitionLine(long originalOffset, String line) throws IOException
+    protected void onObjectDefinitionLine(long originalOffset) throws IOException
     {
         // nothing
     }
@@ -158,9 +158,15 @@ public class PDFParser
             securityHandler.prepareForDecryption(encryption, document.getDocumentID(), Optional
                     .ofNullable(decryptionMaterial).orElse(new StandardDecryptionMaterial("")));
             parser.provider().initializeWith(securityHandler);
-            return new PDDocument(document, securityHandler);
+            return concurrentObjectsResolution(new PDDocument(document, securityHandler), parser);
         }
-        return new PDDocument(document);
+        return concurrentObjectsResolution(new PDDocument(document), parser);
+    }
+
+    private static PDDocument concurrentObjectsResolution(PDDocument document, COSParser parser)
+    {
+        document.setConcurrentObjectsResolution(parser.provider().isConcurrent());
+        return document;
     }
 
     private static String readHeader(COSParser parser) throws IOException
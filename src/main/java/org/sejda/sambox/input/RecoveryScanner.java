@@ -0,0 +1,419 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static org.sejda.sambox.input.AbstractXrefTableParser.TRAILER;
+import static org.sejda.sambox.input.AbstractXrefTableParser.XREF;
+import static org.sejda.sambox.util.CharUtils.isDigit;
+import static org.sejda.sambox.util.CharUtils.isEOL;
+import static org.sejda.sambox.util.CharUtils.isWhitespace;
+import static org.sejda.util.RequireUtils.requireArg;
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sejda.io.SeekableSource;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.xref.XrefEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Component scanning the whole source of a document looking for the lines where an object definition starts, the
+ * lines starting with the xref or trailer keywords and the lines containing the Catalog name. Lines are the ones
+ * found reading the source line by line and skipping spaces and comments between them.
+ * <p>
+ * The source is split in segments scanned concurrently, byte by byte, each on its own view of the source. A segment
+ * reports the lines following an end of line marker it contains (the first line of the source belongs to the first
+ * segment) so every line is reported exactly once, and the markers are returned in the order they appear in the
+ * source.
+ * </p>
+ * 
+ * @author Andrea Vacondio
+ */
+class RecoveryScanner
+{
+    private static final Logger LOG = LoggerFactory.getLogger(RecoveryScanner.class);
+
+    private static final long MIN_SEGMENT_SIZE = 1 << 23;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] XREF_KEYWORD = XREF.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRAILER_KEYWORD = TRAILER.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CATALOG_NAME = COSName.CATALOG.getName()
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OBJ_KEYWORD = "obj".getBytes(StandardCharsets.US_ASCII);
+    private static final long MAX_GENERATION = 0xFFFFFFFFL;
+
+    private final SeekableSource source;
+    private final int threads;
+    private final long minSegmentSize;
+
+    RecoveryScanner(SeekableSource source)
+    {
+        this(source, Integer.getInteger(SAMBox.RECOVERY_SCAN_THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors()), MIN_SEGMENT_SIZE);
+    }
+
+    RecoveryScanner(SeekableSource source, int threads, long minSegmentSize)
+    {
+        requireNotNullArg(source, "Cannot scan a null source");
+        requireArg(threads > 0, "Number of scanning threads must be positive");
+        requireArg(minSegmentSize > 0, "Segment size must be positive");
+        this.source = source;
+        this.threads = threads;
+        this.minSegmentSize = minSegmentSize;
+    }
+
+    /**
+     * @return the markers found in the source, in the order they appear
+     * @throws IOException
+     */
+    List<Marker> scan() throws IOException
+    {
+        long size = source.size();
+        if (size <= 0)
+        {
+            return new ArrayList<>();
+        }
+        int segments = (int) Math.max(1, Math.min(threads * 4L, size / minSegmentSize));
+        if (segments == 1 || threads == 1)
+        {
+            return new SegmentScanner(0, size).call();
+        }
+        long segmentSize = (size + segments - 1) / segments;
+        LOG.debug("Scanning {} bytes in {} segments", size, segments);
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, segments), r -> {
+            Thread thread = new Thread(null, r, "pdf-recovery-scanner-" + counter.incrementAndGet(),
+                    0);
+            thread.setDaemon(true);
+            return thread;
+        });
+        try
+        {
+            List<Future<List<Marker>>> results = new ArrayList<>(segments);
+            for (long start = 0; start < size; start += segmentSize)
+            {
+                results.add(executor
+                        .submit(new SegmentScanner(start, Math.min(size, start + segmentSize))));
+            }
+            List<Marker> markers = new ArrayList<>();
+            for (Future<List<Marker>> result : results)
+            {
+                markers.addAll(result.get());
+            }
+            return markers;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning the document", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Kind of lines the scanner looks for
+     */
+    enum MarkerType
+    {
+        OBJECT, XREF, TRAILER, CATALOG
+    }
+
+    /**
+     * A line of interest found by the scanner
+     */
+    static final class Marker
+    {
+        final MarkerType type;
+        final long offset;
+        final long objectNumber;
+        final int generation;
+
+        private Marker(MarkerType type, long offset, long objectNumber, int generation)
+        {
+            this.type = type;
+            this.offset = offset;
+            this.objectNumber = objectNumber;
+            this.generation = generation;
+        }
+
+        /**
+         * @return the in use xref entry for an object definition marker
+         */
+        XrefEntry xrefEntry()
+        {
+            return XrefEntry.inUseEntry(objectNumber, offset, generation);
+        }
+
+        @Override
+        public String toString()
+        {
+            if (type == MarkerType.OBJECT)
+            {
+                return String.format("%s[%d %d] at %d", type, objectNumber, generation, offset);
+            }
+            return String.format("%s at %d", type, offset);
+        }
+    }
+
+    private enum State
+    {
+        SEEK_EOL, SKIP_SPACES, LINE
+    }
+
+    /**
+     * Scans the lines following the end of line markers found between start and end. The last line is read to its end
+     * even if it goes past the end of the segment.
+     */
+    private class SegmentScanner implements Callable<List<Marker>>
+    {
+        private final long start;
+        private final long end;
+        private final List<Marker> markers = new ArrayList<>();
+
+        private State state;
+        private long lineStart;
+        private int column;
+        // object definition matching: object number, space, generation number, space, obj
+        private int objectStep;
+        private long objectNumber;
+        private long generation;
+        private boolean xref;
+        private boolean trailer;
+        private int catalogMatched;
+        private boolean catalog;
+
+        SegmentScanner(long start, long end)
+        {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public List<Marker> call() throws IOException
+        {
+            // the first line of the source is not preceded by an end of line
+            state = start == 0 ? State.SKIP_SPACES : State.SEEK_EOL;
+            try (SeekableSource view = source.view(start, source.size() - start))
+            {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long position = start;
+                while (view.read(buffer) > 0)
+                {
+                    buffer.flip();
+                    while (buffer.hasRemaining())
+                    {
+                        if (!accept(buffer.get() & 0xFF, position++))
+                        {
+                            return markers;
+                        }
+                    }
+                    buffer.clear();
+                }
+                if (state == State.LINE)
+                {
+                    endOfLine();
+                }
+            }
+            return markers;
+        }
+
+        /**
+         * @return false if the scan of the segment is completed
+         */
+        private boolean accept(int c, long position)
+        {
+            switch (state)
+            {
+            case LINE:
+                if (isEOL(c))
+                {
+                    endOfLine();
+                    return endOfLineFound(position);
+                }
+                inLine(c);
+                return true;
+            case SKIP_SPACES:
+                if (isEOL(c))
+                {
+                    return endOfLineFound(position);
+                }
+                if (c == '%')
+                {
+                    // comments are skipped to the end of line
+                    state = State.SEEK_EOL;
+                }
+                else if (!isWhitespace(c))
+                {
+                    startLine(position);
+                    inLine(c);
+                }
+                return true;
+            default:
+                if (isEOL(c))
+                {
+                    return endOfLineFound(position);
+                }
+                return true;
+            }
+        }
+
+        private boolean endOfLineFound(long position)
+        {
+            state = State.SKIP_SPACES;
+            return position < end;
+        }
+
+        private void startLine(long position)
+        {
+            state = State.LINE;
+            lineStart = position;
+            column = 0;
+            objectStep = 0;
+            objectNumber = 0;
+            generation = 0;
+            xref = true;
+            trailer = true;
+            catalogMatched = 0;
+            catalog = false;
+        }
+
+        private void inLine(int c)
+        {
+            matchObjectDefinition(c);
+            xref = xref && (column >= XREF_KEYWORD.length || XREF_KEYWORD[column] == c);
+            trailer = trailer && (column >= TRAILER_KEYWORD.length || TRAILER_KEYWORD[column] == c);
+            if (!catalog)
+            {
+                // the first char of the name is not repeated so we can restart from the current char
+                if (CATALOG_NAME[catalogMatched] == c)
+                {
+                    catalogMatched++;
+                }
+                else
+                {
+                    catalogMatched = (CATALOG_NAME[0] == c) ? 1 : 0;
+                }
+                catalog = catalogMatched == CATALOG_NAME.length;
+            }
+            column++;
+        }
+
+        private void matchObjectDefinition(int c)
+        {
+            switch (objectStep)
+            {
+            case 0:
+                if (isDigit(c) && objectNumber <= (Long.MAX_VALUE - 9) / 10)
+                {
+                    objectNumber = objectNumber * 10 + (c - '0');
+                }
+                else if (column > 0 && isSeparator(c))
+                {
+                    objectStep = 1;
+                }
+                else
+                {
+                    objectStep = -1;
+                }
+                break;
+            case 1:
+                if (isDigit(c))
+                {
+                    generation = c - '0';
+                    objectStep = 2;
+                }
+                else
+                {
+                    objectStep = -1;
+                }
+                break;
+            case 2:
+                if (isDigit(c) && generation <= MAX_GENERATION / 10)
+                {
+                    generation = generation * 10 + (c - '0');
+                    objectStep = generation <= MAX_GENERATION ? 2 : -1;
+                }
+                else if (isSeparator(c))
+                {
+                    objectStep = 3;
+                }
+                else
+                {
+                    objectStep = -1;
+                }
+                break;
+            case 3:
+            case 4:
+            case 5:
+                objectStep = (OBJ_KEYWORD[objectStep - 3] == c) ? objectStep + 1 : -1;
+                break;
+            default:
+                // found or not an object definition
+            }
+        }
+
+        private void endOfLine()
+        {
+            if (objectStep == 6)
+            {
+                markers.add(new Marker(MarkerType.OBJECT, lineStart, objectNumber,
+                        (int) generation));
+            }
+            else if (trailer && column >= TRAILER_KEYWORD.length)
+            {
+                markers.add(new Marker(MarkerType.TRAILER, lineStart, -1, -1));
+            }
+            else if (catalog)
+            {
+                markers.add(new Marker(MarkerType.CATALOG, lineStart, -1, -1));
+            }
+            else if (xref && column >= XREF_KEYWORD.length)
+            {
+                markers.add(new Marker(MarkerType.XREF, lineStart, -1, -1));
+            }
+        }
+    }
+
+    private static boolean isSeparator(int c)
+    {
+        return isWhitespace(c) && !isEOL(c);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import java.io.IOException;
+
+import org.sejda.io.BufferedSeekableSource;
+import org.sejda.io.SeekableSource;
+
+/**
+ * A buffered {@link SeekableSource} reading a view of the whole given source. Each cursor has its own position so
+ * multiple cursors can read the same source concurrently from different threads. Views requested to the cursor are
+ * created on the original source.
+ * 
+ * @author Andrea Vacondio
+ */
+class SeekableSourceCursor extends BufferedSeekableSource
+{
+    private SeekableSource source;
+
+    SeekableSourceCursor(SeekableSource source) throws IOException
+    {
+        super(source.view(0, source.size()));
+        this.source = source;
+    }
+
+    @Override
+    public SeekableSource view(long startingPosition, long length) throws IOException
+    {
+        return source.view(startingPosition, length);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSObjectKey;
+
+/**
+ * An {@link IndirectObjectsCache} holding objects through {@link SoftReference}s. Objects that are not referenced
+ * anywhere else can be claimed by the GC when memory is needed. An object handed out through an indirect reference is
+ * retained by the {@link ExistingIndirectCOSObject}s that resolved it, it's returned for its key as long as they, or
+ * anyone else, reference it.
+ * 
+ * @author Andrea Vacondio
+ */
+class SoftIndirectObjectsCache implements IndirectObjectsCache
+{
+    private final Object lock = new Object();
+    private final HandedOutObjects handedOut = new HandedOutObjects();
+    private Map<COSObjectKey, KeyedSoftReference> store = new ConcurrentHashMap<>();
+    private ReferenceQueue<COSBase> queue = new ReferenceQueue<>();
+
+    @Override
+    public COSBase get(COSObjectKey key)
+    {
+        COSBase retVal = handedOut.get(key);
+        if (nonNull(retVal))
+        {
+            return retVal;
+        }
+        purge();
+        KeyedSoftReference reference = store.get(key);
+        if (nonNull(reference))
+        {
+            return reference.get();
+        }
+        return null;
+    }
+
+    @Override
+    public COSBase getHandedOut(COSObjectKey key)
+    {
+        synchronized (lock)
+        {
+            COSBase retVal = get(key);
+            if (nonNull(retVal))
+            {
+                handedOut.add(key, retVal);
+            }
+            return retVal;
+        }
+    }
+
+    @Override
+    public COSBase handOut(COSObjectKey key, COSBase object)
+    {
+        synchronized (lock)
+        {
+            COSBase current = getHandedOut(key);
+            if (nonNull(current))
+            {
+                return current;
+            }
+            store.put(key, new KeyedSoftReference(key, object, queue));
+            handedOut.add(key, object);
+            return object;
+        }
+    }
+
+    @Override
+    public void put(COSObjectKey key, COSBase object)
+    {
+        synchronized (lock)
+        {
+            purge();
+            if (isNull(handedOut.get(key)))
+            {
+                store.put(key, new KeyedSoftReference(key, object, queue));
+            }
+        }
+    }
+
+    @Override
+    public void putIfAbsent(COSObjectKey key, COSBase object)
+    {
+        synchronized (lock)
+        {
+            if (isNull(get(key)))
+            {
+                store.put(key, new KeyedSoftReference(key, object, queue));
+            }
+        }
+    }
+
+    @Override
+    public void remove(COSObjectKey key)
+    {
+        synchronized (lock)
+        {
+            handedOut.remove(key);
+            store.remove(key);
+        }
+    }
+
+    @Override
+    public Stream<COSBase> values()
+    {
+        Set<COSBase> values = Collections.newSetFromMap(new IdentityHashMap<>());
+        store.values().stream().map(Reference::get).filter(Objects::nonNull).forEach(values::add);
+        handedOut.values().forEach(values::add);
+        return values.stream();
+    }
+
+    @Override
+    public void clear()
+    {
+        synchronized (lock)
+        {
+            handedOut.clear();
+            store.clear();
+            purge();
+        }
+    }
+
+    /**
+     * Removes the entries whose object has been claimed by the GC
+     */
+    private void purge()
+    {
+        Reference<? extends COSBase> reference;
+        while (nonNull(reference = queue.poll()))
+        {
+            KeyedSoftReference claimed = (KeyedSoftReference) reference;
+            store.remove(claimed.key, claimed);
+        }
+    }
+
+    private static class KeyedSoftReference extends SoftReference<COSBase>
+    {
+        private final COSObjectKey key;
+
+        KeyedSoftReference(COSObjectKey key, COSBase referent, ReferenceQueue<COSBase> queue)
+        {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+}
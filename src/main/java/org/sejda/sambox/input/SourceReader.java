@@ -43,6 +43,9 @@ import java.nio.charset.StandardCharsets;
 import org.sejda.io.FastByteArrayOutputStream;
 import org.sejda.io.SeekableSource;
 import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSFloat;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSNumber;
 import org.sejda.sambox.cos.COSObjectKey;
 import org.sejda.sambox.util.CharUtils;
 import org.sejda.sambox.util.Pool;
@@ -64,6 +67,15 @@ class SourceReader implements Closeable
 
     private static final long OBJECT_NUMBER_THRESHOLD = 10000000000L;
     private static final int GENERATION_NUMBER_THRESHOLD = 65535;
+    // integers with up to 18 digits always fit in a long
+    private static final int MAX_SCANNED_DIGITS = 18;
+    static final long NOT_SCANNED = Long.MIN_VALUE;
+    /**
+     * Reals with up to 15 digits have a mantissa that is exactly representable as a double
+     */
+    private static final int MAX_EXACT_REAL_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+            1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15 };
     public static final String OBJ = "obj";
 
     private Pool<StringBuilder> pool = new Pool<>(StringBuilder::new,
@@ -72,11 +84,19 @@ class SourceReader implements Closeable
                 b.trimToSize();
             });
     private SeekableSource source;
+    /**
+     * not null if the source can be read in bulk windows, same instance as source
+     */
+    private MappedSeekableSource mapped;
 
     public SourceReader(SeekableSource source)
     {
         requireNotNullArg(source, "Cannot read a null source");
         this.source = source;
+        if (source instanceof MappedSeekableSource)
+        {
+            this.mapped = (MappedSeekableSource) source;
+        }
     }
 
     /**
@@ -218,6 +238,24 @@ class SourceReader implements Closeable
     public String readToken() throws IOException
     {
         skipSpaces();
+        if (mapped != null)
+        {
+            ByteBuffer window = mapped.window();
+            int start = window.position();
+            int end = start;
+            while (end < window.limit() && !isEndOfName(window.get(end) & 0xFF))
+            {
+                end++;
+            }
+            // if the token ends beyond the window we read it the usual way
+            if (end < window.limit())
+            {
+                byte[] token = new byte[end - start];
+                window.get(token);
+                source.forward(token.length);
+                return new String(token, StandardCharsets.ISO_8859_1);
+            }
+        }
         StringBuilder builder = pool.borrow();
         try
         {
@@ -403,6 +441,14 @@ class SourceReader implements Closeable
      */
     public int readInt() throws IOException
     {
+        skipSpaces();
+        long start = position();
+        long value = scanInteger();
+        if (value != NOT_SCANNED && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+        {
+            return (int) value;
+        }
+        position(start);
         String intBuffer = readIntegerNumber();
         try
         {
@@ -424,6 +470,12 @@ class SourceReader implements Closeable
      */
     public long readLong() throws IOException
     {
+        skipSpaces();
+        long value = scanInteger();
+        if (value != NOT_SCANNED)
+        {
+            return value;
+        }
         String longBuffer = readIntegerNumber();
         try
         {
@@ -437,6 +489,109 @@ class SourceReader implements Closeable
         }
     }
 
+    /**
+     * Scans an optionally signed integer of at most {@link #MAX_SCANNED_DIGITS} digits, accumulating the value without
+     * creating intermediate objects.
+     * 
+     * @return the scanned value or {@link #NOT_SCANNED} if the token is not an integer or it's too long to be scanned,
+     * in which case the position is restored.
+     * @throws IOException
+     */
+    final long scanInteger() throws IOException
+    {
+        long start = position();
+        int c = source.read();
+        boolean negative = c == '-';
+        if (negative || c == '+')
+        {
+            c = source.read();
+        }
+        long value = 0;
+        int digits = 0;
+        while (isDigit(c) && digits < MAX_SCANNED_DIGITS)
+        {
+            value = value * 10 + (c - '0');
+            digits++;
+            c = source.read();
+        }
+        if (digits == 0 || isDigit(c))
+        {
+            position(start);
+            return NOT_SCANNED;
+        }
+        unreadIfValid(c);
+        if (negative)
+        {
+            return -value;
+        }
+        return value;
+    }
+
+    /**
+     * Reads a token conforming with PDF Numeric Objects chap 7.3.3 PDF 32000-1:2008. Integers and reals with at most
+     * {@link #MAX_EXACT_REAL_DIGITS} digits are scanned without creating intermediate Strings, other tokens are read
+     * as Strings using {@link #readNumber()}.
+     *
+     * @return the number object corresponding to the token
+     * @throws IOException If there is an error reading from the stream.
+     */
+    public final COSNumber readCOSNumber() throws IOException
+    {
+        long start = position();
+        int c = source.read();
+        boolean negative = c == '-';
+        if (negative || c == '+')
+        {
+            c = source.read();
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        while (digits <= MAX_SCANNED_DIGITS)
+        {
+            if (isDigit(c))
+            {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0)
+                {
+                    fractionDigits++;
+                }
+            }
+            else if (c == '.' && fractionDigits < 0)
+            {
+                fractionDigits = 0;
+            }
+            else
+            {
+                break;
+            }
+            c = source.read();
+        }
+        if (digits > 0 && !isNumberChar(c))
+        {
+            if (fractionDigits < 0 && digits <= MAX_SCANNED_DIGITS)
+            {
+                unreadIfValid(c);
+                return COSInteger.get(negative ? -mantissa : mantissa);
+            }
+            if (fractionDigits >= 0 && digits <= MAX_EXACT_REAL_DIGITS)
+            {
+                unreadIfValid(c);
+                // both operands are exact doubles so the quotient is correctly rounded
+                double value = mantissa / POWERS_OF_TEN[fractionDigits];
+                return new COSFloat(negative ? -value : value);
+            }
+        }
+        position(start);
+        return COSNumber.get(readNumber());
+    }
+
+    private static boolean isNumberChar(int c)
+    {
+        return isDigit(c) || c == '.' || c == 'E' || c == 'e' || c == '+' || c == '-';
+    }
+
     /**
      * Reads a a token conforming with a PDF Integer object defined in Numeric Objects chap 7.3.3 PDF 32000-1:2008.
      *
@@ -710,6 +865,10 @@ class SourceReader implements Closeable
      */
     public void skipSpaces() throws IOException
     {
+        if (mapped != null && skipSpacesInWindow())
+        {
+            return;
+        }
         int c = source.read();
         // 37 is the % character, a comment
         while (isWhitespace(c) || c == 37)
@@ -730,6 +889,51 @@ class SourceReader implements Closeable
         unreadIfValid(c);
     }
 
+    /**
+     * Skips spaces and comments scanning the current window of the mapped source
+     * 
+     * @return true if a non space character has been found, false if the window has been consumed and the caller should
+     * continue skipping from the current position
+     * @throws IOException
+     */
+    private boolean skipSpacesInWindow() throws IOException
+    {
+        ByteBuffer window = mapped.window();
+        int start = window.position();
+        int current = start;
+        boolean comment = false;
+        while (current < window.limit())
+        {
+            int c = window.get(current) & 0xFF;
+            if (comment)
+            {
+                comment = !isEOL(c);
+            }
+            // 37 is the % character, a comment
+            else if (c == 37)
+            {
+                comment = true;
+            }
+            else if (!isWhitespace(c))
+            {
+                source.forward(current - start);
+                return true;
+            }
+            current++;
+        }
+        source.forward(current - start);
+        if (comment)
+        {
+            // the comment continues after the window
+            int c;
+            while ((c = source.read()) != -1 && !isEOL(c))
+            {
+                // NOOP
+            }
+        }
+        return false;
+    }
+
     /**
      * Unreads the given character if it's not -1
      * 
@@ -16,15 +16,14 @@
  */
 package org.sejda.sambox.input;
 
-import static org.sejda.sambox.input.AbstractXrefTableParser.XREF;
-
 import java.io.IOException;
-import java.util.regex.Pattern;
 
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.input.RecoveryScanner.Marker;
+import org.sejda.sambox.input.RecoveryScanner.MarkerType;
 import org.sejda.sambox.xref.FileTrailer;
 import org.sejda.sambox.xref.XrefEntry;
 import org.sejda.sambox.xref.XrefType;
@@ -36,6 +35,7 @@ import org.slf4j.LoggerFactory;
  * assumption that xrefs found later in the file are more recent.
  * 
  * @author Andrea Vacondio
+ * @see RecoveryScanner
  */
 class XrefFullScanner
 {
@@ -45,7 +45,6 @@ class XrefFullScanner
     private AbstractXrefStreamParser xrefStreamParser;
     private AbstractXrefTableParser xrefTableParser;
     private COSParser parser;
-    private Pattern objectDefPatter = Pattern.compile("^(\\d+)[\\s](\\d+)[\\s]obj");
     private XrefScanOutcome outcome = XrefScanOutcome.NOT_FOUND;
 
     XrefFullScanner(COSParser parser)
@@ -116,22 +115,17 @@ class XrefFullScanner
     {
         LOG.info("Performing full scan looking for xrefs");
         long savedPos = parser.position();
-        parser.position(0);
-        parser.skipSpaces();
-        while (parser.source().peek() != -1)
+        for (Marker marker : new RecoveryScanner(parser.source()).scan())
         {
-            long offset = parser.position();
-            String line = parser.readLine();
-            if (line.startsWith(XREF))
+            if (marker.type == MarkerType.XREF)
             {
                 outcome = outcome.moveTo(XrefScanOutcome.FOUND);
-                parseFoundXrefTable(offset);
+                parseFoundXrefTable(marker.offset);
             }
-            if (objectDefPatter.matcher(line).find())
+            else if (marker.type == MarkerType.OBJECT)
             {
-                parseFoundObject(offset);
+                parseFoundObject(marker.offset);
             }
-            parser.skipSpaces();
         }
         parser.position(savedPos);
     }
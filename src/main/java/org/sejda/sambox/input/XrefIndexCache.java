@@ -0,0 +1,432 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static org.sejda.util.RequireUtils.requireIOCondition;
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.sejda.io.SeekableSource;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSBoolean;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSFloat;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSNull;
+import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.COSString;
+import org.sejda.sambox.encryption.MessageDigests;
+import org.sejda.sambox.util.Hex;
+import org.sejda.sambox.xref.CompressedXrefEntry;
+import org.sejda.sambox.xref.FileTrailer;
+import org.sejda.sambox.xref.XrefEntry;
+import org.sejda.sambox.xref.XrefType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On disk cache of the xref entries and trailer of parsed documents, allowing documents that are opened repeatedly to
+ * skip the xref parsing (or the full scan, for broken documents). Documents are identified by their size and a SHA-256
+ * hash of their last {@value #TAIL_SIZE} bytes, where the startxref and the most recent xref are expected to be.
+ * <p>
+ * Each document is indexed in its own file, made of a header with the identification data, fixed size records for
+ * the xref entries and the trailer dictionary, and the file is memory mapped when read. Any problem reading or writing
+ * the index is logged and the document is parsed as usual.
+ * </p>
+ * 
+ * @author Andrea Vacondio
+ */
+class XrefIndexCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(XrefIndexCache.class);
+
+    private static final int TAIL_SIZE = 64 * 1024;
+    private static final int MAGIC = 0x53584958;
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".xidx";
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte FLOAT = 4;
+    private static final byte NAME = 5;
+    private static final byte STRING = 6;
+    private static final byte HEX_STRING = 7;
+    private static final byte ARRAY = 8;
+    private static final byte DICTIONARY = 9;
+    private static final byte REFERENCE = 10;
+
+    private final File directory;
+
+    XrefIndexCache(File directory)
+    {
+        requireNotNullArg(directory, "Index directory cannot be null");
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cache in the directory configured with {@link SAMBox#XREF_INDEX_DIRECTORY_PROPERTY}, if any.
+     */
+    static Optional<XrefIndexCache> configured()
+    {
+        return Optional.ofNullable(System.getProperty(SAMBox.XREF_INDEX_DIRECTORY_PROPERTY))
+                .map(File::new).map(XrefIndexCache::new);
+    }
+
+    /**
+     * Looks for the index of the document the given parser is reading and, if found, adds the indexed xref entries to
+     * the parser provider.
+     * 
+     * @param parser
+     * @return the indexed trailer or an empty {@link Optional} if the document is not indexed or the index is not
+     * valid.
+     */
+    Optional<FileTrailer> load(COSParser parser)
+    {
+        try
+        {
+            DocumentKey key = new DocumentKey(parser.source());
+            File index = key.indexIn(directory);
+            if (index.isFile())
+            {
+                try (FileChannel channel = FileChannel.open(index.toPath(),
+                        StandardOpenOption.READ))
+                {
+                    MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+                    FileTrailer trailer = read(buffer, key, parser);
+                    LOG.debug("Xref read from index {}", index);
+                    return Optional.of(trailer);
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOG.warn("Unable to read the xref index, document will be parsed", e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Indexes the given trailer and the xref entries of the parser provider
+     * 
+     * @param parser
+     * @param trailer
+     */
+    void store(COSParser parser, FileTrailer trailer)
+    {
+        Path tmp = null;
+        try
+        {
+            DocumentKey key = new DocumentKey(parser.source());
+            Files.createDirectories(directory.toPath());
+            tmp = Files.createTempFile(directory.toPath(), "sambox", EXTENSION);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp))))
+            {
+                write(out, key, parser.provider().entries(), trailer);
+            }
+            Path index = key.indexIn(directory).toPath();
+            try
+            {
+                Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOG.debug("Xref indexed in {}", index);
+        }
+        catch (IOException e)
+        {
+            LOG.warn("Unable to write the xref index", e);
+            deleteQuietly(tmp);
+        }
+    }
+
+    private static void deleteQuietly(Path file)
+    {
+        if (file != null)
+        {
+            try
+            {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException e)
+            {
+                LOG.warn("Unable to delete temporary index " + file, e);
+            }
+        }
+    }
+
+    private static void write(DataOutputStream out, DocumentKey key, Collection<XrefEntry> entries,
+            FileTrailer trailer) throws IOException
+    {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(key.size);
+        out.write(key.tailHash);
+        out.writeLong(trailer.xrefOffset());
+        out.writeInt(entries.size());
+        for (XrefEntry entry : entries)
+        {
+            out.writeByte(entry.getType().ordinal());
+            out.writeLong(entry.getObjectNumber());
+            out.writeInt(entry.getGenerationNumber());
+            if (entry instanceof CompressedXrefEntry)
+            {
+                out.writeLong(((CompressedXrefEntry) entry).getObjectStreamNumber());
+                out.writeLong(((CompressedXrefEntry) entry).getIndex());
+            }
+            else
+            {
+                out.writeLong(entry.getByteOffset());
+                out.writeLong(0);
+            }
+        }
+        write(out, trailer.getCOSObject());
+    }
+
+    private static void write(DataOutputStream out, COSBase value) throws IOException
+    {
+        // indirect objects are written as references, they must not be resolved
+        if (value instanceof ExistingIndirectCOSObject)
+        {
+            COSObjectKey key = value.id().objectIdentifier;
+            out.writeByte(REFERENCE);
+            out.writeLong(key.objectNumber());
+            out.writeInt(key.generation());
+        }
+        else if (value == null || value instanceof COSNull)
+        {
+            out.writeByte(NULL);
+        }
+        else if (value instanceof COSBoolean)
+        {
+            out.writeByte(((COSBoolean) value).getValue() ? TRUE : FALSE);
+        }
+        else if (value instanceof COSInteger)
+        {
+            out.writeByte(INTEGER);
+            out.writeLong(((COSInteger) value).longValue());
+        }
+        else if (value instanceof COSFloat)
+        {
+            out.writeByte(FLOAT);
+            out.writeDouble(((COSFloat) value).doubleValue());
+        }
+        else if (value instanceof COSName)
+        {
+            out.writeByte(NAME);
+            writeBytes(out, ((COSName) value).getName().getBytes(StandardCharsets.UTF_8));
+        }
+        else if (value instanceof COSString)
+        {
+            out.writeByte(((COSString) value).isForceHexForm() ? HEX_STRING : STRING);
+            writeBytes(out, ((COSString) value).getBytes());
+        }
+        else if (value instanceof COSArray)
+        {
+            COSArray array = (COSArray) value;
+            out.writeByte(ARRAY);
+            out.writeInt(array.size());
+            for (COSBase item : array)
+            {
+                write(out, item);
+            }
+        }
+        else if (value instanceof COSDictionary && !(value instanceof COSStream))
+        {
+            COSDictionary dictionary = (COSDictionary) value;
+            out.writeByte(DICTIONARY);
+            out.writeInt(dictionary.size());
+            for (Map.Entry<COSName, COSBase> item : dictionary.entrySet())
+            {
+                write(out, item.getKey());
+                write(out, item.getValue());
+            }
+        }
+        else
+        {
+            throw new IOException("Unable to index trailer value " + value);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static FileTrailer read(ByteBuffer buffer, DocumentKey key, COSParser parser)
+            throws IOException
+    {
+        requireIOCondition(buffer.getInt() == MAGIC, "Not an xref index");
+        requireIOCondition(buffer.getInt() == VERSION, "Unsupported xref index version");
+        requireIOCondition(buffer.getLong() == key.size, "Xref index doesn't match the document");
+        byte[] tailHash = new byte[key.tailHash.length];
+        buffer.get(tailHash);
+        requireIOCondition(MessageDigest.isEqual(tailHash, key.tailHash),
+                "Xref index doesn't match the document");
+        long xrefOffset = buffer.getLong();
+        int entries = buffer.getInt();
+        XrefType[] types = XrefType.values();
+        List<XrefEntry> found = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++)
+        {
+            XrefType type = types[buffer.get()];
+            long objectNumber = buffer.getLong();
+            int generation = buffer.getInt();
+            long first = buffer.getLong();
+            long second = buffer.getLong();
+            switch (type)
+            {
+            case COMPRESSED:
+                found.add(CompressedXrefEntry.compressedEntry(objectNumber, first, second));
+                break;
+            case FREE:
+                found.add(XrefEntry.freeEntry(objectNumber, generation));
+                break;
+            default:
+                found.add(XrefEntry.inUseEntry(objectNumber, first, generation));
+            }
+        }
+        COSBase trailer = read(buffer, parser);
+        requireIOCondition(trailer instanceof COSDictionary, "Invalid indexed trailer");
+        FileTrailer fileTrailer = new FileTrailer((COSDictionary) trailer);
+        fileTrailer.xrefOffset(xrefOffset);
+        // entries are added only once the whole index has been successfully read
+        found.forEach(parser.provider()::addEntry);
+        return fileTrailer;
+    }
+
+    private static COSBase read(ByteBuffer buffer, COSParser parser) throws IOException
+    {
+        byte type = buffer.get();
+        switch (type)
+        {
+        case NULL:
+            return COSNull.NULL;
+        case TRUE:
+            return COSBoolean.TRUE;
+        case FALSE:
+            return COSBoolean.FALSE;
+        case INTEGER:
+            return COSInteger.get(buffer.getLong());
+        case FLOAT:
+            return new COSFloat(buffer.getDouble());
+        case NAME:
+            return COSName.getPDFName(new String(readBytes(buffer), StandardCharsets.UTF_8));
+        case STRING:
+            return new COSString(readBytes(buffer));
+        case HEX_STRING:
+            COSString hex = new COSString(readBytes(buffer));
+            hex.setForceHexForm(true);
+            return hex;
+        case ARRAY:
+            int items = buffer.getInt();
+            COSArray array = new COSArray();
+            for (int i = 0; i < items; i++)
+            {
+                array.add(read(buffer, parser));
+            }
+            return array;
+        case DICTIONARY:
+            int size = buffer.getInt();
+            COSDictionary dictionary = new COSDictionary();
+            for (int i = 0; i < size; i++)
+            {
+                COSBase key = read(buffer, parser);
+                requireIOCondition(key instanceof COSName, "Invalid indexed dictionary key");
+                dictionary.setItem((COSName) key, read(buffer, parser));
+            }
+            return dictionary;
+        case REFERENCE:
+            return new ExistingIndirectCOSObject(buffer.getLong(), buffer.getInt(),
+                    parser.provider());
+        default:
+            throw new IOException("Invalid indexed value type " + type);
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Identifies a document by size and hash of its tail
+     */
+    private static class DocumentKey
+    {
+        private final long size;
+        private final byte[] tailHash;
+
+        DocumentKey(SeekableSource source) throws IOException
+        {
+            this.size = source.size();
+            MessageDigest digest = MessageDigests.sha256();
+            int tailSize = (int) Math.min(size, TAIL_SIZE);
+            if (tailSize > 0)
+            {
+                try (SeekableSource tail = source.view(size - tailSize, tailSize))
+                {
+                    ByteBuffer buffer = ByteBuffer.allocate(tailSize);
+                    while (buffer.hasRemaining() && tail.read(buffer) > 0)
+                    {
+                        // keep reading
+                    }
+                    buffer.flip();
+                    digest.update(buffer);
+                }
+            }
+            this.tailHash = digest.digest();
+        }
+
+        File indexIn(File directory)
+        {
+            return new File(directory, Hex.getString(tailHash) + "-" + size + EXTENSION);
+        }
+    }
+}
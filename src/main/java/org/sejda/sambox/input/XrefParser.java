@@ -16,7 +16,6 @@
  */
 package org.sejda.sambox.input;
 
-import static java.util.Objects.nonNull;
 import static org.sejda.sambox.input.AbstractXrefTableParser.TRAILER;
 import static org.sejda.sambox.input.AbstractXrefTableParser.XREF;
 import static org.sejda.util.RequireUtils.requireIOCondition;
@@ -25,10 +24,12 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.input.RecoveryScanner.MarkerType;
 import org.sejda.sambox.input.XrefFullScanner.XrefScanOutcome;
 import org.sejda.sambox.xref.FileTrailer;
 import org.sejda.sambox.xref.XrefEntry;
@@ -98,6 +99,21 @@ class XrefParser
      * @throws IOException
      */
     public void parse() throws IOException
+    {
+        Optional<XrefIndexCache> index = XrefIndexCache.configured();
+        Optional<FileTrailer> indexed = index.flatMap(i -> i.load(parser));
+        if (indexed.isPresent())
+        {
+            trailer = indexed.get();
+        }
+        else
+        {
+            doParse();
+            index.ifPresent(i -> i.store(parser, trailer));
+        }
+    }
+
+    private void doParse() throws IOException
     {
         long xrefOffset = findXrefOffset();
         if (xrefOffset <= 0 || !parseXref(xrefOffset))
@@ -119,55 +135,48 @@ class XrefParser
                     private long lastObjectOffset = 0;
 
                     @Override
-                    protected void onNonObjectDefinitionLine(long offset, String line)
+                    protected void onNonObjectDefinitionLine(long offset, MarkerType type)
                             throws IOException
                     {
-                        if (nonNull(line))
+                        if (type == MarkerType.TRAILER)
+                        {
+                            LOG.debug("Parsing trailer at " + offset);
+                            parser.position(offset);
+                            parser.skipExpected(TRAILER);
+                            parser.skipSpaces();
+                            trailer.getCOSObject().merge(parser.nextDictionary());
+                        }
+                        else if (type == MarkerType.CATALOG)
                         {
-                            if (line.startsWith(TRAILER))
+                            try
                             {
-                                LOG.debug("Parsing trailer at " + offset);
-                                parser.position(offset);
-                                parser.skipExpected(TRAILER);
-                                parser.skipSpaces();
-                                trailer.getCOSObject().merge(parser.nextDictionary());
+                                // we do our best to make sure we have a catalog even in corrupted docs
+                                LOG.debug("Parsing potential Catalog at " + lastObjectOffset);
+                                parser.position(lastObjectOffset);
+                                parser.skipIndirectObjectDefinition();
                                 parser.skipSpaces();
-                            }
-                            else if (line.contains(COSName.CATALOG.getName()))
-                            {
-                                long position = parser.position();
-                                try
+                                COSDictionary possibleCatalog = parser.nextDictionary();
+                                if (COSName.CATALOG
+                                        .equals(possibleCatalog.getCOSName(COSName.TYPE)))
                                 {
-                                    // we do our best to make sure we have a catalog even in corrupted docs
-                                    LOG.debug("Parsing potential Catalog at " + lastObjectOffset);
-                                    parser.position(lastObjectOffset);
-                                    parser.skipIndirectObjectDefinition();
-                                    parser.skipSpaces();
-                                    COSDictionary possibleCatalog = parser.nextDictionary();
-                                    if (COSName.CATALOG
-                                            .equals(possibleCatalog.getCOSName(COSName.TYPE)))
-                                    {
-                                        trailer.getCOSObject().putIfAbsent(COSName.ROOT,
-                                                possibleCatalog);
-                                    }
-                                    parser.skipSpaces();
-                                }
-                                catch (IOException e)
-                                {
-                                    LOG.warn("Unable to parse potential Catalog", e);
-                                    parser.position(position);
+                                    trailer.getCOSObject().putIfAbsent(COSName.ROOT,
+                                            possibleCatalog);
                                 }
                             }
-                            else if (line.startsWith(XREF))
+                            catch (IOException e)
                             {
-                                LOG.debug("Found xref at " + offset);
-                                trailer.xrefOffset(offset);
+                                LOG.warn("Unable to parse potential Catalog", e);
                             }
                         }
+                        else if (type == MarkerType.XREF)
+                        {
+                            LOG.debug("Found xref at " + offset);
+                            trailer.xrefOffset(offset);
+                        }
                     }
 
                     @Override
-                    protected void onObjectDefinitionLine(long offset, String line)
+                    protected void onObjectDefinitionLine(long offset)
                     {
                         lastObjectOffset = offset;
                     }
@@ -22,6 +22,7 @@ import static org.sejda.sambox.util.CharUtils.isLetter;
 import static org.sejda.util.RequireUtils.requireNotNullArg;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.Map;
@@ -29,6 +30,7 @@ import java.util.Optional;
 
 import org.sejda.io.BufferedCountingChannelWriter;
 import org.sejda.io.CountingWritableByteChannel;
+import org.sejda.io.SeekableSource;
 import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSBoolean;
@@ -69,7 +71,7 @@ class DefaultCOSWriter implements COSWriter
     public DefaultCOSWriter(CountingWritableByteChannel channel)
     {
         requireNotNullArg(channel, "Cannot write to a null channel");
-        this.writer = new BufferedCountingChannelWriter(channel);
+        this.writer = new TransferringCountingChannelWriter(channel);
     }
 
     public DefaultCOSWriter(BufferedCountingChannelWriter writer)
@@ -175,7 +177,25 @@ class DefaultCOSWriter implements COSWriter
             writer.write(STREAM);
             writer.write(CRLF);
             long streamStartingPosition = writer.offset();
-            writer.write(value.getFilteredStream());
+            Optional<SeekableSource> unmodified = Optional.empty();
+            if (writer instanceof TransferringCountingChannelWriter)
+            {
+                unmodified = value.getUnmodifiedFilteredSource();
+            }
+            if (unmodified.isPresent())
+            {
+                try (SeekableSource source = unmodified.get())
+                {
+                    ((TransferringCountingChannelWriter) writer).write(source);
+                }
+            }
+            else
+            {
+                try (InputStream stream = value.getFilteredStream())
+                {
+                    writer.write(stream);
+                }
+            }
             if (length instanceof IndirectCOSObjectReference)
             {
                 ((IndirectCOSObjectReference) length)
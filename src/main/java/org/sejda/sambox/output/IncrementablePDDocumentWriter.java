@@ -117,7 +117,7 @@ public class IncrementablePDDocumentWriter implements Closeable
     private void writeBody(IncrementablePDDocument document) throws IOException
     {
         try (PDFBodyWriter bodyWriter = new IncrementalPDFBodyWriter(context,
-                objectStreamWriter(objectsWriter())))
+                objectStreamWriter(streamsEncodingWriter(objectsWriter()))))
         {
             LOG.debug("Writing body using " + bodyWriter.objectsWriter.getClass());
             bodyWriter.write(document);
@@ -133,6 +133,15 @@ public class IncrementablePDDocumentWriter implements Closeable
         return new AsyncPDFBodyObjectsWriter(writer.writer());
     }
 
+    private PDFBodyObjectsWriter streamsEncodingWriter(PDFBodyObjectsWriter wrapped)
+    {
+        if (context.hasWriteOption(WriteOption.PARALLEL_STREAMS_ENCODING))
+        {
+            return new ParallelStreamsEncodingPDFBodyObjectsWriter(wrapped);
+        }
+        return wrapped;
+    }
+
     private PDFBodyObjectsWriter objectStreamWriter(PDFBodyObjectsWriter wrapped)
     {
         if (context.hasWriteOption(WriteOption.OBJECT_STREAMS))
@@ -48,7 +48,7 @@ class IndirectObjectsWriter implements Closeable
 
     IndirectObjectsWriter(CountingWritableByteChannel channel, PDFWriteContext context)
     {
-        this(new BufferedCountingChannelWriter(channel), context);
+        this(new TransferringCountingChannelWriter(channel), context);
     }
 
     IndirectObjectsWriter(BufferedCountingChannelWriter writer, PDFWriteContext context)
@@ -16,6 +16,9 @@
  */
 package org.sejda.sambox.output;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Optional.ofNullable;
 import static org.sejda.sambox.cos.DirectCOSObject.asDirectObject;
 import static org.sejda.sambox.util.CharUtils.ASCII_SPACE;
 import static org.sejda.util.RequireUtils.requireNotNullArg;
@@ -130,6 +133,7 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
         private FastByteArrayOutputStream data = new FastByteArrayOutputStream();
         private DefaultCOSWriter dataWriter;
         private InputStream filtered;
+        private byte[] deflated;
 
         public ObjectsStream(PDFWriteContext context)
         {
@@ -178,9 +182,41 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
         @Override
         public InputStream doGetFilteredStream()
         {
+            if (nonNull(deflated))
+            {
+                return new ByteArrayInputStream(deflated);
+            }
             return this.filtered;
         }
 
+        /**
+         * @return true if the objects stream is prepared for writing and not deflated yet, it's deflated the first time
+         * its length is requested or while it's written
+         */
+        @Override
+        public boolean isEncodingRequired()
+        {
+            return isNull(deflated) && nonNull(filtered);
+        }
+
+        /**
+         * Deflates the stream in memory, this is used to deflate the objects stream ahead of writing (Ex. on a
+         * different thread), otherwise data is deflated while it's written.
+         */
+        @Override
+        protected long doGetFilteredLength() throws IOException
+        {
+            if (isNull(deflated) && nonNull(filtered))
+            {
+                try (InputStream deflating = filtered)
+                {
+                    deflated = IOUtils.toByteArray(deflating);
+                }
+                filtered = null;
+            }
+            return ofNullable(deflated).map(d -> d.length).orElse(0);
+        }
+
         void prepareForWriting()
         {
             IOUtils.closeQuietly(dataWriter);
@@ -188,8 +224,7 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
             setItem(COSName.FIRST, asDirectObject(COSInteger.get(header.size())));
             setItem(COSName.FILTER, asDirectObject(COSName.FLATE_DECODE));
             this.filtered = new DeflaterInputStream(
-                    new SequenceInputStream(new ByteArrayInputStream(header.toByteArray()),
-                            new ByteArrayInputStream(data.toByteArray())));
+                    new SequenceInputStream(header.getInputStream(), data.getInputStream()));
             this.header = null;
             this.data = null;
         }
@@ -205,6 +240,7 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
         public void releaseCOSObject()
         {
             this.filtered = null;
+            this.deflated = null;
         }
     }
 }
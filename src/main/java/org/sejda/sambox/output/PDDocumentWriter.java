@@ -90,7 +90,7 @@ public class PDDocumentWriter implements Closeable
     private void writeBody(COSDocument document) throws IOException
     {
         try (PDFBodyWriter bodyWriter = new PDFBodyWriter(context,
-                objectStreamWriter(objectsWriter())))
+                objectStreamWriter(streamsEncodingWriter(objectsWriter()))))
         {
             LOG.debug("Writing body using " + bodyWriter.objectsWriter.getClass());
             bodyWriter.write(document);
@@ -106,6 +106,15 @@ public class PDDocumentWriter implements Closeable
         return new AsyncPDFBodyObjectsWriter(writer.writer());
     }
 
+    private PDFBodyObjectsWriter streamsEncodingWriter(PDFBodyObjectsWriter wrapped)
+    {
+        if (context.hasWriteOption(WriteOption.PARALLEL_STREAMS_ENCODING))
+        {
+            return new ParallelStreamsEncodingPDFBodyObjectsWriter(wrapped);
+        }
+        return wrapped;
+    }
+
     private PDFBodyObjectsWriter objectStreamWriter(PDFBodyObjectsWriter wrapped)
     {
         if (context.hasWriteOption(WriteOption.OBJECT_STREAMS))
@@ -167,8 +167,11 @@ class PDFBodyWriter implements COSVisitor, Closeable
         {
             value.addCompression();
         }
-        // with encrypted docs we write length as an indirect ref
-        value.indirectLength(context.encryptor.isPresent());
+        if (context.encryptor.filter(e -> !e.knowsEncryptedStreamsLength()).isPresent())
+        {
+            // the encrypted length is known only once the stream is written
+            value.indirectLength(true);
+        }
         if (value.indirectLength())
         {
             IndirectCOSObjectReference length = context
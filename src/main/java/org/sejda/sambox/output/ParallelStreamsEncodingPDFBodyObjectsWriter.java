@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.output;
+
+import static org.sejda.util.RequireUtils.requireArg;
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.IndirectCOSObjectReference;
+import org.sejda.sambox.input.ExistingIndirectCOSObject;
+import org.sejda.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link PDFBodyObjectsWriter} that encodes the streams on a pool of threads before they are handed to the delegate
+ * {@link PDFBodyObjectsWriter}. Objects are handed to the delegate in the same order they are received, once their
+ * encoding is completed, so the output is the same we would get without this writer. The number of streams being
+ * encoded at the same time is bounded to cap the memory used by the encoded data.
+ * <p>
+ * Only streams holding in memory data to encode are submitted to the pool and only if their filters and decode
+ * parameters don't reference existing indirect objects, those are encoded on the calling thread, so the pool threads
+ * never resolve objects through the document objects provider.
+ * </p>
+ * 
+ * @author Andrea Vacondio
+ */
+class ParallelStreamsEncodingPDFBodyObjectsWriter implements PDFBodyObjectsWriter
+{
+    private static final Logger LOG = LoggerFactory
+            .getLogger(ParallelStreamsEncodingPDFBodyObjectsWriter.class);
+
+    private final PDFBodyObjectsWriter delegate;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int maxInFlight;
+    private final Deque<PendingObject> pending = new ArrayDeque<>();
+    private final Map<COSBase, Future<?>> encoding = new IdentityHashMap<>();
+
+    ParallelStreamsEncodingPDFBodyObjectsWriter(PDFBodyObjectsWriter delegate)
+    {
+        this(delegate, Integer.getInteger(SAMBox.ENCODING_THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates a writer encoding the streams on a pool of the given number of daemon threads. The pool is owned by this
+     * writer and it's shut down when the writer is closed.
+     */
+    ParallelStreamsEncodingPDFBodyObjectsWriter(PDFBodyObjectsWriter delegate, int threads)
+    {
+        this(delegate, newEncodingPool(threads), threads * 2, true);
+    }
+
+    /**
+     * Creates a writer encoding the streams on the given executor, with at most maxInFlight streams being encoded at the
+     * same time. The executor is owned by the caller, closing this writer only cancels the encoding tasks it submitted.
+     */
+    ParallelStreamsEncodingPDFBodyObjectsWriter(PDFBodyObjectsWriter delegate,
+            ExecutorService executor, int maxInFlight)
+    {
+        this(delegate, executor, maxInFlight, false);
+    }
+
+    private ParallelStreamsEncodingPDFBodyObjectsWriter(PDFBodyObjectsWriter delegate,
+            ExecutorService executor, int maxInFlight, boolean ownsExecutor)
+    {
+        requireNotNullArg(delegate, "Delegate writer cannot be null");
+        requireNotNullArg(executor, "Executor cannot be null");
+        requireArg(maxInFlight > 0, "Number of streams in flight must be positive");
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    private static ExecutorService newEncodingPool(int threads)
+    {
+        requireArg(threads > 0, "Number of encoding threads must be positive");
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(null, r, "pdf-stream-encoder-" + counter.incrementAndGet(),
+                    0);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void writeObject(IndirectCOSObjectReference ref) throws IOException
+    {
+        COSBase object = ref.getCOSObject().getCOSObject();
+        Future<?> task = encoding.get(object);
+        if (task == null && object instanceof COSStream)
+        {
+            COSStream stream = (COSStream) object;
+            if (isEncodableConcurrently(stream))
+            {
+                task = executor.submit(() -> {
+                    // encodes and caches the filtered data
+                    stream.getFilteredLength();
+                    return null;
+                });
+                encoding.put(object, task);
+            }
+        }
+        pending.add(new PendingObject(ref, object, task));
+        writePending(false);
+    }
+
+    /**
+     * @return true if the stream has data to encode and the encoding doesn't need to resolve existing indirect objects.
+     */
+    private static boolean isEncodableConcurrently(COSStream stream)
+    {
+        return stream.isEncodingRequired()
+                && Stream.of(COSName.FILTER, COSName.F, COSName.DECODE_PARMS, COSName.DP)
+                        .map(stream::getItem)
+                        .noneMatch(ParallelStreamsEncodingPDFBodyObjectsWriter::referencesExisting);
+    }
+
+    private static boolean referencesExisting(COSBase item)
+    {
+        if (item instanceof IndirectCOSObjectReference)
+        {
+            return referencesExisting(((IndirectCOSObjectReference) item).getCOSObject());
+        }
+        if (item instanceof COSArray)
+        {
+            return ((COSArray) item).stream().anyMatch(
+                    ParallelStreamsEncodingPDFBodyObjectsWriter::referencesExisting);
+        }
+        if (item instanceof COSDictionary)
+        {
+            return ((COSDictionary) item).getValues().stream().anyMatch(
+                    ParallelStreamsEncodingPDFBodyObjectsWriter::referencesExisting);
+        }
+        return item instanceof ExistingIndirectCOSObject;
+    }
+
+    /**
+     * Hands the pending objects to the delegate writer, in order, as long as their encoding is completed. If all is
+     * true or if there are too many streams in flight, it waits for the encoding to complete.
+     */
+    private void writePending(boolean all) throws IOException
+    {
+        while (!pending.isEmpty())
+        {
+            PendingObject head = pending.peek();
+            if (!all && !head.isEncoded() && encoding.size() <= maxInFlight)
+            {
+                break;
+            }
+            head.awaitEncoding();
+            pending.poll();
+            if (head.task != null)
+            {
+                encoding.remove(head.object);
+            }
+            delegate.writeObject(head.ref);
+        }
+    }
+
+    @Override
+    public void onWriteCompletion() throws IOException
+    {
+        writePending(true);
+        LOG.debug("Encoded document body streams");
+        delegate.onWriteCompletion();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        encoding.values().forEach(task -> task.cancel(true));
+        if (ownsExecutor)
+        {
+            executor.shutdownNow();
+        }
+        pending.clear();
+        encoding.clear();
+        IOUtils.close(delegate);
+    }
+
+    private static class PendingObject
+    {
+        final IndirectCOSObjectReference ref;
+        final COSBase object;
+        final Future<?> task;
+
+        PendingObject(IndirectCOSObjectReference ref, COSBase object, Future<?> task)
+        {
+            this.ref = ref;
+            this.object = object;
+            this.task = task;
+        }
+
+        boolean isEncoded()
+        {
+            return task == null || task.isDone();
+        }
+
+        void awaitEncoding() throws IOException
+        {
+            if (task != null)
+            {
+                try
+                {
+                    task.get();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                catch (ExecutionException e)
+                {
+                    throw new IOException(e.getCause());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.sejda.io.BufferedCountingChannelWriter;
+import org.sejda.io.CountingWritableByteChannel;
+import org.sejda.io.SeekableSource;
+
+/**
+ * A {@link BufferedCountingChannelWriter} that can transfer the content of a {@link SeekableSource} straight to the
+ * underlying channel, without going through an {@link java.io.InputStream} and the intermediate heap buffers.
+ * 
+ * @author Andrea Vacondio
+ */
+class TransferringCountingChannelWriter extends BufferedCountingChannelWriter
+{
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    private final CountingWritableByteChannel channel;
+    private ByteBuffer transferBuffer;
+
+    TransferringCountingChannelWriter(CountingWritableByteChannel channel)
+    {
+        super(channel);
+        this.channel = channel;
+    }
+
+    /**
+     * Writes the whole content of the given source, from its beginning
+     * 
+     * @param source
+     * @throws IOException
+     */
+    public void write(SeekableSource source) throws IOException
+    {
+        flush();
+        if (transferBuffer == null)
+        {
+            transferBuffer = ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE);
+        }
+        source.position(0);
+        transferBuffer.clear();
+        while (source.read(transferBuffer) > 0)
+        {
+            transferBuffer.flip();
+            // like flush, we rely on blocking channels writing the whole buffer
+            channel.write(transferBuffer);
+            transferBuffer.clear();
+        }
+    }
+}
@@ -38,5 +38,11 @@ public enum WriteOption
     /**
      * Adds a Flate filter to the streams if not already there
      */
-    COMPRESS_STREAMS;
+    COMPRESS_STREAMS,
+    /**
+     * Encodes (Ex. compresses) the streams on a pool of threads before they are written. When used with
+     * {@link #OBJECT_STREAMS}, full objects streams are deflated on the pool while the next one is filled. The output
+     * is the same we would get without this option. See {@link org.sejda.sambox.SAMBox#ENCODING_THREADS_PROPERTY}
+     */
+    PARALLEL_STREAMS_ENCODING;
 }
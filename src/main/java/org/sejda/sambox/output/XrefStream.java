@@ -20,11 +20,9 @@ import static org.sejda.sambox.cos.DirectCOSObject.asDirectObject;
 import static org.sejda.sambox.xref.XrefEntry.freeEntry;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Function;
 
 import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSDictionary;
@@ -32,6 +30,7 @@ import org.sejda.sambox.cos.COSInteger;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.cos.DirectCOSObject;
+import org.sejda.sambox.cos.StreamEncryptor;
 
 /**
  * A {@link COSStream} that represent and xref stream as defined in Chap 7.5.8 of PDF 32000-1:2008
@@ -97,7 +96,7 @@ class XrefStream extends COSStream
     }
 
     @Override
-    public void setEncryptor(Function<InputStream, InputStream> encryptor)
+    public void setEncryptor(StreamEncryptor encryptor)
     {
         // do nothing
     }
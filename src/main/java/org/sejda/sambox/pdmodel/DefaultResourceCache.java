@@ -18,9 +18,9 @@
 package org.sejda.sambox.pdmodel;
 
 import java.lang.ref.SoftReference;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.sejda.sambox.cos.COSObjectKey;
 import org.sejda.sambox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
@@ -33,19 +33,19 @@ import org.sejda.sambox.pdmodel.graphics.state.PDExtendedGraphicsState;
 
 /**
  * A resource cached based on SoftReference, retains resources until memory pressure causes them to be garbage
- * collected.
+ * collected. It can be safely shared by pages processed concurrently.
  *
  * @author John Hewson
  */
 public class DefaultResourceCache implements ResourceCache
 {
-    private final Map<COSObjectKey, SoftReference<PDFont>> fonts = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDColorSpace>> colorSpaces = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDXObject>> xobjects = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDExtendedGraphicsState>> extGStates = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDShading>> shadings = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDAbstractPattern>> patterns = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDPropertyList>> properties = new HashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDFont>> fonts = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDColorSpace>> colorSpaces = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDXObject>> xobjects = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDExtendedGraphicsState>> extGStates = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDShading>> shadings = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDAbstractPattern>> patterns = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDPropertyList>> properties = new ConcurrentHashMap<>();
 
     @Override
     public PDFont getFont(COSObjectKey key)
@@ -41,6 +41,7 @@ import java.util.Set;
 
 import org.sejda.io.CountingWritableByteChannel;
 import org.sejda.io.SeekableSources;
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
@@ -107,6 +108,7 @@ public class PDDocument implements Closeable
     private SecurityHandler securityHandler;
     private boolean open = true;
     private OnClose onClose;
+    private boolean concurrentObjectsResolution;
     private ResourceCache resourceCache = new DefaultResourceCache();
 
     // fonts to subset before saving
@@ -401,6 +403,27 @@ public class PDDocument implements Closeable
         this.onClose = onClose;
     }
 
+    /**
+     * @return true if the objects of this document can be resolved from multiple threads, that is the document has been
+     * loaded with the {@link SAMBox#CONCURRENT_OBJECTS_RESOLUTION_PROPERTY} enabled. Components processing pages
+     * concurrently fall back to a sequential processing when this is false.
+     */
+    public boolean isConcurrentObjectsResolution()
+    {
+        return concurrentObjectsResolution;
+    }
+
+    /**
+     * Sets if the objects of this document can be resolved from multiple threads. This is set by the parser according
+     * to the objects provider used to load the document.
+     * 
+     * @param concurrentObjectsResolution
+     */
+    public void setConcurrentObjectsResolution(boolean concurrentObjectsResolution)
+    {
+        this.concurrentObjectsResolution = concurrentObjectsResolution;
+    }
+
     private void requireOpen() throws IllegalStateException
     {
         if (!isOpen())
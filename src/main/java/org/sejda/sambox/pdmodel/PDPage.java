@@ -147,13 +147,17 @@ public class PDPage implements COSObjectable, PDContentStream
         return streams.iterator();
     }
 
+    /**
+     * The contents are decoded while the returned stream is read, without caching the decoded bytes in the content
+     * streams, since they are usually read once per page processing.
+     */
     @Override
     public InputStream getContents() throws IOException
     {
         COSBase base = page.getDictionaryObject(COSName.CONTENTS);
         if (base instanceof COSStream)
         {
-            return ((COSStream) base).getUnfilteredStream();
+            return ((COSStream) base).getLazyUnfilteredStream();
         }
         else if (base instanceof COSArray && ((COSArray) base).size() > 0)
         {
@@ -166,7 +170,7 @@ public class PDPage implements COSObjectable, PDContentStream
                 if (strm instanceof COSStream)
                 {
                     COSStream stream = (COSStream) strm;
-                    inputStreams.add(stream.getUnfilteredStream());
+                    inputStreams.add(stream.getLazyUnfilteredStream());
                     inputStreams.add(new ByteArrayInputStream(delimiter));
                 }
             }
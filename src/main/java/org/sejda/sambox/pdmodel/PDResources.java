@@ -203,7 +203,7 @@ public final class PDResources implements COSObjectable
         }
 
         // we can't cache PDPattern, because it holds page resources, see PDFBOX-2370
-        if (cache != null && !(colorSpace instanceof PDPattern))
+        if (cache != null && key != null && !(colorSpace instanceof PDPattern))
         {
             cache.put(key, colorSpace);
         }
@@ -245,7 +245,7 @@ public final class PDResources implements COSObjectable
             extGState = new PDExtendedGraphicsState(dict);
         }
 
-        if (cache != null)
+        if (cache != null && key != null)
         {
             cache.put(key, extGState);
         }
@@ -278,7 +278,7 @@ public final class PDResources implements COSObjectable
             shading = PDShading.create(dict);
         }
 
-        if (cache != null)
+        if (cache != null && key != null)
         {
             cache.put(key, shading);
         }
@@ -311,7 +311,7 @@ public final class PDResources implements COSObjectable
             pattern = PDAbstractPattern.create(dict);
         }
 
-        if (cache != null)
+        if (cache != null && key != null)
         {
             cache.put(key, pattern);
         }
@@ -343,7 +343,7 @@ public final class PDResources implements COSObjectable
             propertyList = PDPropertyList.create(dict);
         }
 
-        if (cache != null)
+        if (cache != null && key != null)
         {
             cache.put(key, propertyList);
         }
@@ -408,7 +408,7 @@ public final class PDResources implements COSObjectable
             xobject = PDXObject.createXObject(value.getCOSObject(), this);
         }
 
-        if (cache != null && isAllowedCache(xobject))
+        if (cache != null && key != null && isAllowedCache(xobject))
         {
             cache.put(key, xobject);
         }
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.common.function;
+
+import static org.sejda.util.RequireUtils.requireArg;
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lookup table for the results of a function whose inputs are quantized samples, like the color components of an
+ * image. Each input is given as a sample in the range 0..2^bitsPerComponent-1 and the function is evaluated with the
+ * input value min + sample * (max - min) / (2^bitsPerComponent - 1), where min and max are the range of that input.
+ * Results are calculated the first time a combination of samples is requested and then returned from the table.
+ * <p>
+ * Tables with up to 2^16 combinations are kept in an array, bigger ones in a map holding at most 2^16 results, after
+ * which new results are not cached. Samples outside of the range are evaluated but never cached. Tables can be used by
+ * multiple threads.
+ * </p>
+ * 
+ * @author Andrea Vacondio
+ */
+public final class FunctionLookupTable
+{
+    private static final int MAX_DENSE_BITS = 16;
+    private static final int MAX_SPARSE_ENTRIES = 1 << 16;
+    private static final float[] UNIT_RANGE = { 0, 1 };
+
+    private final Evaluator function;
+    private final int inputs;
+    private final int bitsPerComponent;
+    private final int maxSample;
+    private final float[] ranges;
+    private final AtomicReferenceArray<float[]> dense;
+    private final Map<Long, float[]> sparse;
+
+    /**
+     * @param function the function to evaluate
+     * @param inputs number of inputs of the function
+     * @param bitsPerComponent number of bits of the input samples
+     * @param ranges min and max pairs for each input or null if every input is in the [0, 1] range
+     */
+    public FunctionLookupTable(Evaluator function, int inputs, int bitsPerComponent, float[] ranges)
+    {
+        requireNotNullArg(function, "Function cannot be null");
+        requireArg(inputs > 0, "At least one input is required");
+        requireArg(bitsPerComponent > 0 && bitsPerComponent <= 16,
+                "Invalid bits per component " + bitsPerComponent);
+        requireArg(isSupported(inputs, bitsPerComponent), "Too many bits to index the table");
+        requireArg(ranges == null || ranges.length >= inputs * 2, "Invalid ranges");
+        this.function = function;
+        this.inputs = inputs;
+        this.bitsPerComponent = bitsPerComponent;
+        this.maxSample = (1 << bitsPerComponent) - 1;
+        this.ranges = ranges;
+        if (inputs * bitsPerComponent <= MAX_DENSE_BITS)
+        {
+            this.dense = new AtomicReferenceArray<>(1 << (inputs * bitsPerComponent));
+            this.sparse = null;
+        }
+        else
+        {
+            this.dense = null;
+            this.sparse = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * @param inputs
+     * @param bitsPerComponent
+     * @return true if a table can be created for the given number of inputs and bits per component
+     */
+    public static boolean isSupported(int inputs, int bitsPerComponent)
+    {
+        return inputs * bitsPerComponent < Long.SIZE;
+    }
+
+    /**
+     * @return the number of inputs
+     */
+    public int getNumberOfInputs()
+    {
+        return inputs;
+    }
+
+    /**
+     * @return the number of bits of the input samples
+     */
+    public int getBitsPerComponent()
+    {
+        return bitsPerComponent;
+    }
+
+    /**
+     * Evaluates the function for the given samples
+     * 
+     * @param samples one sample for each input
+     * @return the function output. The returned array is shared and must not be modified.
+     * @throws IOException if the function evaluation fails
+     */
+    public float[] eval(int[] samples) throws IOException
+    {
+        long index = 0;
+        for (int i = 0; i < inputs; i++)
+        {
+            int sample = samples[i];
+            if (sample < 0 || sample > maxSample)
+            {
+                return evaluate(samples);
+            }
+            index = (index << bitsPerComponent) | sample;
+        }
+        if (dense != null)
+        {
+            float[] result = dense.get((int) index);
+            if (result == null)
+            {
+                result = evaluate(samples);
+                dense.set((int) index, result);
+            }
+            return result;
+        }
+        float[] result = sparse.get(index);
+        if (result == null)
+        {
+            result = evaluate(samples);
+            if (sparse.size() < MAX_SPARSE_ENTRIES)
+            {
+                sparse.put(index, result);
+            }
+        }
+        return result;
+    }
+
+    private float[] evaluate(int[] samples) throws IOException
+    {
+        float[] input = new float[inputs];
+        for (int i = 0; i < inputs; i++)
+        {
+            float[] range = ranges;
+            int offset = i * 2;
+            if (range == null)
+            {
+                range = UNIT_RANGE;
+                offset = 0;
+            }
+            float min = range[offset];
+            input[i] = min + (range[offset + 1] - min) * samples[i] / maxSample;
+        }
+        return function.eval(input);
+    }
+
+    /**
+     * A function evaluating input values
+     */
+    @FunctionalInterface
+    public interface Evaluator
+    {
+        float[] eval(float[] input) throws IOException;
+    }
+}
@@ -42,6 +42,7 @@ public abstract class PDFunction implements COSObjectable
     private COSArray range = null;
     private int numberOfInputValues = -1;
     private int numberOfOutputValues = -1;
+    private volatile FunctionLookupTable lookupTable;
 
     /**
      * Constructor.
@@ -245,6 +246,31 @@ public abstract class PDFunction implements COSObjectable
      */
     public abstract float[] eval(float[] input) throws IOException;
 
+    /**
+     * Returns a lookup table caching the results of this function for inputs given as samples of the given bits, each
+     * input being sample / (2^bitsPerComponent - 1). The table is created the first time it's requested and then shared
+     * by those requesting a table with the same number of inputs and bits per component.
+     * 
+     * @param inputs number of inputs
+     * @param bitsPerComponent number of bits of the samples
+     * @return the lookup table or null if the given number of inputs and bits cannot be looked up in a table
+     */
+    public FunctionLookupTable getLookupTable(int inputs, int bitsPerComponent)
+    {
+        FunctionLookupTable table = lookupTable;
+        if (table == null || table.getNumberOfInputs() != inputs
+                || table.getBitsPerComponent() != bitsPerComponent)
+        {
+            if (inputs <= 0 || !FunctionLookupTable.isSupported(inputs, bitsPerComponent))
+            {
+                return null;
+            }
+            table = new FunctionLookupTable(this::eval, inputs, bitsPerComponent, null);
+            lookupTable = table;
+        }
+        return table;
+    }
+
     /**
      * Returns all ranges for the output values as COSArray . Required for type 0 and type 4 functions
      * 
@@ -20,6 +20,7 @@ import java.io.IOException;
 
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.pdmodel.common.PDRange;
+import org.sejda.sambox.pdmodel.common.function.type4.CompiledInstructionSequence;
 import org.sejda.sambox.pdmodel.common.function.type4.ExecutionContext;
 import org.sejda.sambox.pdmodel.common.function.type4.InstructionSequence;
 import org.sejda.sambox.pdmodel.common.function.type4.InstructionSequenceBuilder;
@@ -37,6 +38,10 @@ public class PDFunctionType4 extends PDFunction
     private static final Operators OPERATORS = new Operators();
 
     private final InstructionSequence instructions;
+    /**
+     * null if the instructions could not be compiled
+     */
+    private final CompiledInstructionSequence compiled;
 
     /**
      * Constructor.
@@ -50,6 +55,7 @@ public class PDFunctionType4 extends PDFunction
         byte[] bytes = getPDStream().toByteArray();
         String string = new String(bytes, "ISO-8859-1");
         this.instructions = InstructionSequenceBuilder.parse(string);
+        this.compiled = CompiledInstructionSequence.compile(instructions);
     }
 
     /**
@@ -65,12 +71,31 @@ public class PDFunctionType4 extends PDFunction
      */
     public float[] eval(float[] input)
     {
-        // Setup the input values
-        ExecutionContext context = new ExecutionContext(OPERATORS);
+        float[] inputValues = new float[input.length];
         for (int i = 0; i < input.length; i++)
         {
             PDRange domain = getDomainForInput(i);
-            float value = clipToRange(input[i], domain.getMin(), domain.getMax());
+            inputValues[i] = clipToRange(input[i], domain.getMin(), domain.getMax());
+        }
+        float[] outputValues = new float[getNumberOfOutputParameters()];
+        if (compiled == null || !compiled.execute(inputValues, outputValues))
+        {
+            interpret(inputValues, outputValues);
+        }
+        for (int i = 0; i < outputValues.length; i++)
+        {
+            PDRange range = getRangeForOutput(i);
+            outputValues[i] = clipToRange(outputValues[i], range.getMin(), range.getMax());
+        }
+        return outputValues;
+    }
+
+    private void interpret(float[] input, float[] outputValues)
+    {
+        // Setup the input values
+        ExecutionContext context = new ExecutionContext(OPERATORS);
+        for (float value : input)
+        {
             context.getStack().push(value);
         }
 
@@ -78,7 +103,7 @@ public class PDFunctionType4 extends PDFunction
         instructions.execute(context);
 
         // Extract the output values
-        int numberOfOutputValues = getNumberOfOutputParameters();
+        int numberOfOutputValues = outputValues.length;
         int numberOfActualOutputValues = context.getStack().size();
         if (numberOfActualOutputValues < numberOfOutputValues)
         {
@@ -86,15 +111,9 @@ public class PDFunctionType4 extends PDFunction
                     + numberOfActualOutputValues + " values but the Range entry indicates that "
                     + numberOfOutputValues + " values be returned.");
         }
-        float[] outputValues = new float[numberOfOutputValues];
         for (int i = numberOfOutputValues - 1; i >= 0; i--)
         {
-            PDRange range = getRangeForOutput(i);
             outputValues[i] = context.popReal();
-            outputValues[i] = clipToRange(outputValues[i], range.getMin(), range.getMax());
         }
-
-        // Return the resulting array
-        return outputValues;
     }
 }
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.common.function.type4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sejda.sambox.pdmodel.common.function.type4.TypedStack.Fallback;
+
+/**
+ * An {@link InstructionSequence} compiled once into a tree of {@link CompiledOperator}s. Operators are resolved at
+ * compile time, conditionals become branches of the tree and the execution works on a primitive {@link TypedStack},
+ * with no boxing and no operators lookup. Results are the same as the interpreted {@link InstructionSequence}, if the
+ * execution hits a condition where the interpreter would fail, it gives up and the caller is expected to use the
+ * interpreter, getting the same error.
+ * 
+ * @author Andrea Vacondio
+ */
+public final class CompiledInstructionSequence
+{
+    private static final ThreadLocal<TypedStack> STACKS = ThreadLocal.withInitial(TypedStack::new);
+
+    private final CompiledOperator program;
+
+    private CompiledInstructionSequence(CompiledOperator program)
+    {
+        this.program = program;
+    }
+
+    /**
+     * Compiles the given sequence. Sequences using procs other than as operands of "if" and "ifelse" or names that are
+     * not operators are not compiled.
+     * 
+     * @param sequence
+     * @return the compiled sequence or null if the sequence cannot be compiled
+     */
+    public static CompiledInstructionSequence compile(InstructionSequence sequence)
+    {
+        List<Object> instructions = sequence.getInstructions();
+        // the function body is usually a top level proc the interpreter executes after pushing it
+        if (instructions.size() == 1 && instructions.get(0) instanceof InstructionSequence)
+        {
+            instructions = ((InstructionSequence) instructions.get(0)).getInstructions();
+        }
+        CompiledOperator program = compile(instructions);
+        if (program != null)
+        {
+            return new CompiledInstructionSequence(program);
+        }
+        return null;
+    }
+
+    private static CompiledOperator compile(List<Object> instructions)
+    {
+        List<CompiledOperator> operators = new ArrayList<>(instructions.size());
+        for (int i = 0; i < instructions.size(); i++)
+        {
+            Object current = instructions.get(i);
+            if (current instanceof InstructionSequence)
+            {
+                CompiledOperator proc = compile(((InstructionSequence) current).getInstructions());
+                if (proc == null)
+                {
+                    return null;
+                }
+                Object next = elementAt(instructions, i + 1);
+                if ("if".equals(next))
+                {
+                    operators.add(s -> {
+                        if (s.popBool())
+                        {
+                            proc.execute(s);
+                        }
+                    });
+                    i++;
+                }
+                else if (next instanceof InstructionSequence
+                        && "ifelse".equals(elementAt(instructions, i + 2)))
+                {
+                    CompiledOperator elseProc = compile(((InstructionSequence) next).getInstructions());
+                    if (elseProc == null)
+                    {
+                        return null;
+                    }
+                    operators.add(s -> {
+                        if (s.popBool())
+                        {
+                            proc.execute(s);
+                        }
+                        else
+                        {
+                            elseProc.execute(s);
+                        }
+                    });
+                    i += 2;
+                }
+                else
+                {
+                    return null;
+                }
+            }
+            else if (current instanceof String)
+            {
+                CompiledOperator operator = CompiledOperators.get((String) current);
+                if (operator == null)
+                {
+                    return null;
+                }
+                operators.add(operator);
+            }
+            else if (current instanceof Integer)
+            {
+                int value = (Integer) current;
+                operators.add(s -> s.pushInt(value));
+            }
+            else if (current instanceof Float)
+            {
+                float value = (Float) current;
+                operators.add(s -> s.pushReal(value));
+            }
+            else if (current instanceof Boolean)
+            {
+                boolean value = (Boolean) current;
+                operators.add(s -> s.pushBool(value));
+            }
+            else
+            {
+                return null;
+            }
+        }
+        CompiledOperator[] sequence = operators.toArray(new CompiledOperator[operators.size()]);
+        if (sequence.length == 1)
+        {
+            return sequence[0];
+        }
+        return s -> {
+            for (CompiledOperator operator : sequence)
+            {
+                operator.execute(s);
+            }
+        };
+    }
+
+    private static Object elementAt(List<Object> instructions, int index)
+    {
+        if (index < instructions.size())
+        {
+            return instructions.get(index);
+        }
+        return null;
+    }
+
+    /**
+     * Executes the program with the given input values, pushed as reals, and pops the output values, the last output
+     * being the top of the stack.
+     * 
+     * @param input
+     * @param output where to write the output values, its length is the number of expected values
+     * @return true if the program was executed, false if it couldn't be completed and the caller should interpret the
+     * sequence instead
+     */
+    public boolean execute(float[] input, float[] output)
+    {
+        TypedStack stack = STACKS.get();
+        stack.clear();
+        try
+        {
+            for (float value : input)
+            {
+                stack.pushReal(value);
+            }
+            program.execute(stack);
+            if (stack.size() < output.length)
+            {
+                return false;
+            }
+            for (int i = output.length - 1; i >= 0; i--)
+            {
+                output[i] = (float) stack.popNumber();
+            }
+            return true;
+        }
+        catch (Fallback e)
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.common.function.type4;
+
+import static org.sejda.sambox.pdmodel.common.function.type4.TypedStack.BOOL;
+import static org.sejda.sambox.pdmodel.common.function.type4.TypedStack.INT;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sejda.sambox.pdmodel.common.function.type4.TypedStack.Fallback;
+
+/**
+ * The Type 4 operators working on a {@link TypedStack}. Each operator mirrors the corresponding interpreted one found
+ * in {@link Operators}, int and real operands are distinguished using the type of the stack elements, where the
+ * interpreter relies on the boxed value class.
+ * 
+ * @author Andrea Vacondio
+ */
+final class CompiledOperators
+{
+    private static final Map<String, CompiledOperator> OPERATORS = new HashMap<>();
+
+    static
+    {
+        // Arithmetic operators
+        OPERATORS.put("abs", s -> {
+            if (s.peekType() == INT)
+            {
+                s.pushInt(Math.abs((int) s.popNumber()));
+            }
+            else
+            {
+                s.pushReal(Math.abs((float) s.popNumber()));
+            }
+        });
+        OPERATORS.put("add", s -> {
+            boolean ints = s.peekTypeBelow() == INT && s.peekType() == INT;
+            double num2 = s.popNumber();
+            double num1 = s.popNumber();
+            if (ints)
+            {
+                pushIntOrReal(s, (long) num1 + (long) num2);
+            }
+            else
+            {
+                s.pushReal((float) num1 + (float) num2);
+            }
+        });
+        OPERATORS.put("atan", s -> {
+            float den = (float) s.popNumber();
+            float num = (float) s.popNumber();
+            float atan = (float) Math.atan2(num, den);
+            atan = (float) Math.toDegrees(atan) % 360;
+            if (atan < 0)
+            {
+                atan = atan + 360;
+            }
+            s.pushReal(atan);
+        });
+        OPERATORS.put("ceiling", s -> {
+            // ints are left as they are
+            if (s.peekType() != INT)
+            {
+                s.pushReal((float) Math.ceil(s.popNumber()));
+            }
+        });
+        OPERATORS.put("cos", s -> s.pushReal((float) Math.cos(Math.toRadians((float) s.popNumber()))));
+        OPERATORS.put("cvi", s -> s.pushInt((int) s.popNumber()));
+        OPERATORS.put("cvr", s -> s.pushReal((float) s.popNumber()));
+        OPERATORS.put("div", s -> {
+            float num2 = (float) s.popNumber();
+            float num1 = (float) s.popNumber();
+            s.pushReal(num1 / num2);
+        });
+        OPERATORS.put("exp", s -> {
+            double exp = s.popNumber();
+            double base = s.popNumber();
+            s.pushReal((float) Math.pow(base, exp));
+        });
+        OPERATORS.put("floor", s -> {
+            if (s.peekType() != INT)
+            {
+                s.pushReal((float) Math.floor(s.popNumber()));
+            }
+        });
+        OPERATORS.put("idiv", s -> {
+            int num2 = s.popInt();
+            int num1 = s.popInt();
+            if (num2 == 0)
+            {
+                throw Fallback.INSTANCE;
+            }
+            s.pushInt(num1 / num2);
+        });
+        OPERATORS.put("ln", s -> s.pushReal((float) Math.log(s.popNumber())));
+        OPERATORS.put("log", s -> s.pushReal((float) Math.log10(s.popNumber())));
+        OPERATORS.put("mod", s -> {
+            int int2 = s.popInt();
+            int int1 = s.popInt();
+            if (int2 == 0)
+            {
+                throw Fallback.INSTANCE;
+            }
+            s.pushInt(int1 % int2);
+        });
+        OPERATORS.put("mul", s -> {
+            boolean ints = s.peekTypeBelow() == INT && s.peekType() == INT;
+            double num2 = s.popNumber();
+            double num1 = s.popNumber();
+            if (ints)
+            {
+                pushIntOrReal(s, (long) num1 * (long) num2);
+            }
+            else
+            {
+                s.pushReal((float) (num1 * num2));
+            }
+        });
+        OPERATORS.put("neg", s -> {
+            boolean isInt = s.peekType() == INT;
+            double num = s.popNumber();
+            if (isInt && num != Integer.MIN_VALUE)
+            {
+                s.pushInt(-(int) num);
+            }
+            else
+            {
+                s.pushReal(-(float) num);
+            }
+        });
+        OPERATORS.put("round", s -> {
+            if (s.peekType() != INT)
+            {
+                s.pushReal(Math.round(s.popNumber()));
+            }
+        });
+        OPERATORS.put("sin", s -> s.pushReal((float) Math.sin(Math.toRadians((float) s.popNumber()))));
+        OPERATORS.put("sqrt", s -> {
+            float num = (float) s.popNumber();
+            if (num < 0)
+            {
+                throw Fallback.INSTANCE;
+            }
+            s.pushReal((float) Math.sqrt(num));
+        });
+        OPERATORS.put("sub", s -> {
+            boolean ints = s.peekTypeBelow() == INT && s.peekType() == INT;
+            double num2 = s.popNumber();
+            double num1 = s.popNumber();
+            if (ints)
+            {
+                pushIntOrReal(s, (long) num1 - (long) num2);
+            }
+            else
+            {
+                s.pushReal((float) num1 - (float) num2);
+            }
+        });
+        OPERATORS.put("truncate", s -> {
+            if (s.peekType() != INT)
+            {
+                s.pushReal((int) (float) s.popNumber());
+            }
+        });
+        // Relational, boolean and bitwise operators
+        OPERATORS.put("and", logical((a, b) -> a & b, (a, b) -> a & b));
+        OPERATORS.put("bitshift", s -> {
+            int shift = s.popInt();
+            int int1 = s.popInt();
+            if (shift < 0)
+            {
+                s.pushInt(int1 >> Math.abs(shift));
+            }
+            else
+            {
+                s.pushInt(int1 << shift);
+            }
+        });
+        OPERATORS.put("eq", s -> s.pushBool(isEqual(s)));
+        OPERATORS.put("false", s -> s.pushBool(false));
+        OPERATORS.put("ge", s -> {
+            float num2 = (float) s.popNumber();
+            float num1 = (float) s.popNumber();
+            s.pushBool(num1 >= num2);
+        });
+        OPERATORS.put("gt", s -> {
+            float num2 = (float) s.popNumber();
+            float num1 = (float) s.popNumber();
+            s.pushBool(num1 > num2);
+        });
+        OPERATORS.put("le", s -> {
+            float num2 = (float) s.popNumber();
+            float num1 = (float) s.popNumber();
+            s.pushBool(num1 <= num2);
+        });
+        OPERATORS.put("lt", s -> {
+            float num2 = (float) s.popNumber();
+            float num1 = (float) s.popNumber();
+            s.pushBool(num1 < num2);
+        });
+        OPERATORS.put("ne", s -> s.pushBool(!isEqual(s)));
+        OPERATORS.put("not", s -> {
+            if (s.peekType() == BOOL)
+            {
+                s.pushBool(!s.popBool());
+            }
+            else
+            {
+                s.pushInt(-s.popInt());
+            }
+        });
+        OPERATORS.put("or", logical((a, b) -> a | b, (a, b) -> a | b));
+        OPERATORS.put("true", s -> s.pushBool(true));
+        OPERATORS.put("xor", logical((a, b) -> a ^ b, (a, b) -> a ^ b));
+        // Stack operators
+        OPERATORS.put("copy", s -> {
+            int n = (int) s.popNumber();
+            if (n > 0)
+            {
+                s.copy(n);
+            }
+        });
+        OPERATORS.put("dup", s -> s.pushCopyOf(0));
+        OPERATORS.put("exch", s -> s.rotate(2, 1));
+        OPERATORS.put("index", s -> s.pushCopyOf((int) s.popNumber()));
+        OPERATORS.put("pop", TypedStack::pop);
+        OPERATORS.put("roll", s -> {
+            int j = (int) s.popNumber();
+            int n = (int) s.popNumber();
+            if (j != 0)
+            {
+                // the interpreter pops max(n, |j|) elements and rotates only if |j| < n
+                int amount = Math.abs(j);
+                s.requireSize(n);
+                s.requireSize(amount);
+                if (amount < n)
+                {
+                    s.rotate(n, j > 0 ? j : n + j);
+                }
+            }
+        });
+    }
+
+    private CompiledOperators()
+    {
+        // hide
+    }
+
+    /**
+     * @param name
+     * @return the operator with the given name or null if there is no such operator
+     */
+    static CompiledOperator get(String name)
+    {
+        return OPERATORS.get(name);
+    }
+
+    private static void pushIntOrReal(TypedStack stack, long value)
+    {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+        {
+            stack.pushReal(value);
+        }
+        else
+        {
+            stack.pushInt((int) value);
+        }
+    }
+
+    private static boolean isEqual(TypedStack stack)
+    {
+        byte type2 = stack.peekType();
+        double op2 = stack.pop();
+        byte type1 = stack.peekType();
+        double op1 = stack.pop();
+        if (type1 != BOOL && type2 != BOOL)
+        {
+            return (float) op1 == (float) op2;
+        }
+        return type1 == type2 && op1 == op2;
+    }
+
+    private static CompiledOperator logical(BooleanOperation forBoolean, IntOperation forInteger)
+    {
+        return s -> {
+            byte type2 = s.peekType();
+            byte type1 = s.peekTypeBelow();
+            if (type1 == BOOL && type2 == BOOL)
+            {
+                boolean bool2 = s.popBool();
+                s.pushBool(forBoolean.apply(s.popBool(), bool2));
+            }
+            else
+            {
+                int int2 = s.popInt();
+                s.pushInt(forInteger.apply(s.popInt(), int2));
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface BooleanOperation
+    {
+        boolean apply(boolean bool1, boolean bool2);
+    }
+
+    @FunctionalInterface
+    private interface IntOperation
+    {
+        int apply(int int1, int int2);
+    }
+}
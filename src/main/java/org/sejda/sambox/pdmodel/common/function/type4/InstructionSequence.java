@@ -73,6 +73,14 @@ public class InstructionSequence
         this.instructions.add(child);
     }
 
+    /**
+     * @return the values, names and nested procs of this sequence
+     */
+    List<Object> getInstructions()
+    {
+        return instructions;
+    }
+
     /**
      * Executes the instruction sequence.
      * @param context the execution context
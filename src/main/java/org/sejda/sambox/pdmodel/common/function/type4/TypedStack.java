@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.common.function.type4;
+
+import java.util.Arrays;
+
+/**
+ * Execution stack for compiled Type 4 functions. Values are kept in a primitive array together with their type, ints,
+ * reals and booleans are stored as doubles which represent all of them exactly. Any condition the interpreter would
+ * fail on (underflow, wrong operand type, range errors) results in a {@link Fallback} so that the program can be
+ * executed by the interpreter, reproducing its exact behavior.
+ * 
+ * @author Andrea Vacondio
+ */
+final class TypedStack
+{
+    static final byte INT = 0;
+    static final byte REAL = 1;
+    static final byte BOOL = 2;
+
+    private double[] values = new double[32];
+    private byte[] types = new byte[32];
+    private int size;
+
+    void clear()
+    {
+        size = 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    void push(double value, byte type)
+    {
+        if (size == values.length)
+        {
+            values = Arrays.copyOf(values, size * 2);
+            types = Arrays.copyOf(types, size * 2);
+        }
+        values[size] = value;
+        types[size++] = type;
+    }
+
+    void pushInt(int value)
+    {
+        push(value, INT);
+    }
+
+    void pushReal(float value)
+    {
+        push(value, REAL);
+    }
+
+    void pushBool(boolean value)
+    {
+        push(value ? 1 : 0, BOOL);
+    }
+
+    /**
+     * @return the type of the element on top of the stack
+     */
+    byte peekType()
+    {
+        requireSize(1);
+        return types[size - 1];
+    }
+
+    /**
+     * @return the type of the element below the top of the stack
+     */
+    byte peekTypeBelow()
+    {
+        requireSize(2);
+        return types[size - 2];
+    }
+
+    /**
+     * @return the top element, an int or a real
+     */
+    double popNumber()
+    {
+        if (peekType() == BOOL)
+        {
+            throw Fallback.INSTANCE;
+        }
+        return values[--size];
+    }
+
+    int popInt()
+    {
+        if (peekType() != INT)
+        {
+            throw Fallback.INSTANCE;
+        }
+        return (int) values[--size];
+    }
+
+    boolean popBool()
+    {
+        if (peekType() != BOOL)
+        {
+            throw Fallback.INSTANCE;
+        }
+        return values[--size] != 0;
+    }
+
+    /**
+     * Removes the top element, whatever its type
+     */
+    double pop()
+    {
+        requireSize(1);
+        return values[--size];
+    }
+
+    /**
+     * Pushes a copy of the element at the given depth, 0 being the top of the stack
+     */
+    void pushCopyOf(int depth)
+    {
+        if (depth < 0)
+        {
+            throw Fallback.INSTANCE;
+        }
+        requireSize(depth + 1);
+        int index = size - depth - 1;
+        push(values[index], types[index]);
+    }
+
+    /**
+     * Pushes a copy of the top n elements
+     */
+    void copy(int n)
+    {
+        requireSize(n);
+        for (int i = size - n, end = size; i < end; i++)
+        {
+            push(values[i], types[i]);
+        }
+    }
+
+    /**
+     * Rotates the top n elements moving them up by the given amount, wrapping around
+     */
+    void rotate(int n, int amount)
+    {
+        requireSize(n);
+        int from = size - n;
+        reverse(from, size);
+        reverse(from, from + amount);
+        reverse(from + amount, size);
+    }
+
+    private void reverse(int from, int to)
+    {
+        for (int i = from, j = to - 1; i < j; i++, j--)
+        {
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+            byte type = types[i];
+            types[i] = types[j];
+            types[j] = type;
+        }
+    }
+
+    void requireSize(int required)
+    {
+        if (required < 0 || size < required)
+        {
+            throw Fallback.INSTANCE;
+        }
+    }
+
+    /**
+     * Signals the compiled program cannot complete and the interpreter should execute it instead
+     */
+    static final class Fallback extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+        static final Fallback INSTANCE = new Fallback();
+
+        private Fallback()
+        {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.encryption;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.io.IOUtils;
+import org.bouncycastle.crypto.engines.AESFastEngine;
+import org.bouncycastle.crypto.io.CipherInputStream;
+import org.bouncycastle.crypto.modes.CBCBlockCipher;
+import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.sejda.io.SeekableSource;
+import org.sejda.sambox.cos.StreamDecryptor;
+
+/**
+ * {@link StreamDecryptor} for streams encrypted with AES in CBC mode with PKCS#5 padding, where the encrypted data
+ * starts with the 16 bytes initialization vector.
+ * 
+ * @author Andrea Vacondio
+ */
+final class AESStreamDecryptor implements StreamDecryptor
+{
+    private static final int BLOCK_SIZE = 16;
+
+    private final byte[] key;
+
+    AESStreamDecryptor(byte[] key)
+    {
+        this.key = key;
+    }
+
+    @Override
+    public InputStream decrypt(InputStream encrypted) throws IOException
+    {
+        byte[] iv = new byte[BLOCK_SIZE];
+        int ivSize = IOUtils.read(encrypted, iv);
+        if (ivSize == 0)
+        {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        if (ivSize != iv.length)
+        {
+            throw new IOException("AES initialization vector not fully read: only " + ivSize
+                    + " bytes read instead of " + iv.length);
+        }
+        PaddedBufferedBlockCipher cipher = new PaddedBufferedBlockCipher(
+                new CBCBlockCipher(new AESFastEngine()));
+        cipher.init(false, new ParametersWithIV(new KeyParameter(key), iv));
+        return new CipherInputStream(encrypted, cipher);
+    }
+
+    /**
+     * The length is the encrypted one minus the initialization vector and the padding. The padding length is found
+     * decrypting the last block only, using the previous one as initialization vector.
+     */
+    @Override
+    public long decryptedLength(SeekableSource encrypted) throws IOException
+    {
+        long size = encrypted.size();
+        if (size == 0)
+        {
+            return 0;
+        }
+        if (size >= 2 * BLOCK_SIZE && size % BLOCK_SIZE == 0)
+        {
+            ByteBuffer tail = ByteBuffer.allocate(2 * BLOCK_SIZE);
+            encrypted.position(size - tail.capacity());
+            while (tail.hasRemaining() && encrypted.read(tail) > 0)
+            {
+                // keep reading
+            }
+            if (!tail.hasRemaining())
+            {
+                AESFastEngine engine = new AESFastEngine();
+                engine.init(false, new KeyParameter(key));
+                byte[] last = new byte[BLOCK_SIZE];
+                engine.processBlock(tail.array(), BLOCK_SIZE, last, 0);
+                int padding = (last[BLOCK_SIZE - 1] ^ tail.get(BLOCK_SIZE - 1)) & 0xFF;
+                if (padding > 0 && padding <= BLOCK_SIZE)
+                {
+                    return size - BLOCK_SIZE - padding;
+                }
+            }
+        }
+        // malformed data, we count what the decryption gives us (or fail the same way reading it would)
+        encrypted.position(0);
+        try (InputStream decrypted = decrypt(encrypted.asInputStream()))
+        {
+            return IOUtils.skip(decrypted, Long.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.encryption;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.bouncycastle.crypto.StreamCipher;
+import org.bouncycastle.crypto.engines.RC4Engine;
+import org.bouncycastle.crypto.io.CipherInputStream;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.sejda.io.SeekableSource;
+import org.sejda.sambox.cos.StreamDecryptor;
+
+/**
+ * {@link StreamDecryptor} for streams encrypted with RC4. Decrypted data has the same length of the encrypted one.
+ * 
+ * @author Andrea Vacondio
+ */
+final class RC4StreamDecryptor implements StreamDecryptor
+{
+    private final byte[] key;
+
+    RC4StreamDecryptor(byte[] key)
+    {
+        this.key = key;
+    }
+
+    @Override
+    public InputStream decrypt(InputStream encrypted)
+    {
+        StreamCipher cipher = new RC4Engine();
+        cipher.init(false, new KeyParameter(key));
+        return new CipherInputStream(encrypted, cipher);
+    }
+
+    @Override
+    public long decryptedLength(SeekableSource encrypted)
+    {
+        return encrypted.size();
+    }
+}
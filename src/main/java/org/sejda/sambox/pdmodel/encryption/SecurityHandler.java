@@ -52,6 +52,7 @@ import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.cos.COSString;
+import org.sejda.sambox.cos.StreamDecryptor;
 import org.sejda.sambox.pdmodel.PDDocument;
 import org.sejda.util.IOUtils;
 import org.slf4j.Logger;
@@ -338,7 +339,8 @@ public abstract class SecurityHandler
     }
 
     /**
-     * This will decrypt a stream.
+     * This will decrypt a stream. The stream dictionary is decrypted right away while the stream data is decrypted when
+     * it's read.
      *
      * @param stream The stream to decrypt.
      * @param objNum The object number.
@@ -374,12 +376,25 @@ public abstract class SecurityHandler
             }
         }
         decryptDictionary(stream, objNum, genNum);
-        byte[] encrypted = IOUtils.toByteArray(stream.getFilteredStream());
-        ByteArrayInputStream encryptedStream = new ByteArrayInputStream(encrypted);
-        try (OutputStream output = stream.createFilteredStream())
+        stream.setDecryptor(streamDecryptor(objNum, genNum));
+    }
+
+    /**
+     * @return a decryptor for the data of the stream with the given object and generation number
+     */
+    private StreamDecryptor streamDecryptor(long objNum, long genNum)
+    {
+        // Determine whether we're using Algorithm 1 (for RC4 and AES-128), or 1.A (for AES-256)
+        if (useAES && encryptionKey.length == 32)
+        {
+            return new AESStreamDecryptor(encryptionKey);
+        }
+        byte[] finalKey = calcFinalKey(objNum, genNum);
+        if (useAES)
         {
-            decryptData(objNum, genNum, encryptedStream, output);
+            return new AESStreamDecryptor(finalKey);
         }
+        return new RC4StreamDecryptor(finalKey);
     }
 
     /**
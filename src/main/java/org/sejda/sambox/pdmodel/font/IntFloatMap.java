@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.font;
+
+/**
+ * A map of primitive int keys to primitive float values, using open addressing with linear probing. It's used for the
+ * font metrics looked up for every shown glyph, where a {@code Map<Integer, Float>} would box the key and unbox the
+ * value on each lookup. Not thread safe, fonts populate it when created and only read it afterwards.
+ * 
+ * @author Andrea Vacondio
+ */
+final class IntFloatMap
+{
+    private int[] keys;
+    private float[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    IntFloatMap()
+    {
+        this(16);
+    }
+
+    IntFloatMap(int expectedSize)
+    {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new float[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Associates the given value to the given key, replacing any previous value
+     */
+    void put(int key, float value)
+    {
+        int slot = slot(key);
+        if (used[slot])
+        {
+            values[slot] = value;
+            return;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        // keep the load factor below 0.5 so probe sequences stay short
+        if (++size * 2 > keys.length)
+        {
+            grow();
+        }
+    }
+
+    /**
+     * @return the value associated to the given key or the given default value if there is no such key
+     */
+    float get(int key, float defaultValue)
+    {
+        int slot = slot(key);
+        if (used[slot])
+        {
+            return values[slot];
+        }
+        return defaultValue;
+    }
+
+    boolean containsKey(int key)
+    {
+        return used[slot(key)];
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return a copy of the values of the map, in no particular order
+     */
+    float[] values()
+    {
+        float[] result = new float[size];
+        for (int i = 0, j = 0; i < used.length; i++)
+        {
+            if (used[i])
+            {
+                result[j++] = values[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the slot where the key is stored or, if not present, the free slot where it would be stored
+     */
+    private int slot(int key)
+    {
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (used[slot] && keys[slot] != key)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow()
+    {
+        int[] oldKeys = keys;
+        float[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new int[oldKeys.length * 2];
+        values = new float[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldUsed[i])
+            {
+                int slot = slot(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IntFloatMap[size=" + size + ", capacity=" + keys.length + "]";
+    }
+}
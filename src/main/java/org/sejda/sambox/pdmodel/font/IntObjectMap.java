@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.font;
+
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
+/**
+ * A map of primitive int keys to object values, using open addressing with linear probing like {@link IntFloatMap}.
+ * It's used for the font metrics objects looked up for every shown glyph, where a {@code Map<Integer, V>} would box
+ * the key on each lookup. Not thread safe, fonts populate it when created and only read it afterwards.
+ * 
+ * @author Andrea Vacondio
+ */
+final class IntObjectMap<V>
+{
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    IntObjectMap()
+    {
+        this(16);
+    }
+
+    IntObjectMap(int expectedSize)
+    {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Associates the given non null value to the given key, replacing any previous value
+     */
+    void put(int key, V value)
+    {
+        requireNotNullArg(value, "Value cannot be null");
+        int slot = slot(key);
+        if (values[slot] != null)
+        {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        // keep the load factor below 0.5 so probe sequences stay short
+        if (++size * 2 > keys.length)
+        {
+            grow();
+        }
+    }
+
+    /**
+     * @return the value associated to the given key or null if there is no such key
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key)
+    {
+        return (V) values[slot(key)];
+    }
+
+    boolean containsKey(int key)
+    {
+        return values[slot(key)] != null;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return the slot where the key is stored or, if not present, the free slot where it would be stored
+     */
+    private int slot(int key)
+    {
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (values[slot] != null && keys[slot] != key)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow()
+    {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldValues[i] != null)
+            {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IntObjectMap[size=" + size + ", capacity=" + keys.length + "]";
+    }
+}
@@ -20,8 +20,6 @@ import static java.util.Objects.nonNull;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.fontbox.util.BoundingBox;
@@ -42,12 +40,15 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
 {
     protected final PDType0Font parent;
 
-    private Map<Integer, Float> widths;
+    private final IntFloatMap widths = new IntFloatMap();
     private float defaultWidth;
     private float averageWidth;
 
-    private final Map<Integer, Float> verticalDisplacementY = new HashMap<>(); // w1y
-    private final Map<Integer, Vector> positionVectors = new HashMap<>(); // v
+    private final IntFloatMap verticalDisplacementY = new IntFloatMap(); // w1y
+    // position vectors (v), same keys as the vertical displacements
+    private final IntObjectMap<Vector> positionVectors = new IntObjectMap<>();
+    // default position vectors by the float bits of the width they are computed from
+    private final IntObjectMap<Vector> defaultPositionVectors = new IntObjectMap<>();
     private float[] dw2 = new float[] { 880, -1000 };
 
     protected final COSDictionary dict;
@@ -68,7 +69,6 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
 
     private void readWidths()
     {
-        widths = new HashMap<>();
         COSArray wArray = dict.getDictionaryObject(COSName.W, COSArray.class);
         if (nonNull(wArray))
         {
@@ -150,14 +150,32 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
                     COSNumber w1y = (COSNumber) w2Array.getObject(++i);
                     COSNumber v1x = (COSNumber) w2Array.getObject(++i);
                     COSNumber v1y = (COSNumber) w2Array.getObject(++i);
+                    // immutable, shared by the whole range
+                    Vector v = new Vector(v1x.floatValue(), v1y.floatValue());
                     for (int cid = first; cid <= last; cid++)
                     {
                         verticalDisplacementY.put(cid, w1y.floatValue());
-                        positionVectors.put(cid, new Vector(v1x.floatValue(), v1y.floatValue()));
+                        positionVectors.put(cid, v);
                     }
                 }
             }
         }
+
+        // fonts have a few distinct widths, the default position vectors are built once for each of them
+        putDefaultPositionVector(getDefaultWidth());
+        for (float width : widths.values())
+        {
+            putDefaultPositionVector(width);
+        }
+    }
+
+    private void putDefaultPositionVector(float width)
+    {
+        int key = Float.floatToIntBits(width);
+        if (!defaultPositionVectors.containsKey(key))
+        {
+            defaultPositionVectors.put(key, new Vector(width / 2, dw2[0]));
+        }
     }
 
     @Override
@@ -241,15 +259,15 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
      */
     private Vector getDefaultPositionVector(int cid)
     {
-        return new Vector(getWidthForCID(cid) / 2, dw2[0]);
+        return defaultPositionVectors.get(Float.floatToIntBits(getWidthForCID(cid)));
     }
 
     private float getWidthForCID(int cid)
     {
-        Float width = widths.get(cid);
-        if (width == null)
+        float width = widths.get(cid, Float.NaN);
+        if (Float.isNaN(width))
         {
-            width = getDefaultWidth();
+            return getDefaultWidth();
         }
         return width;
     }
@@ -257,7 +275,7 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
     @Override
     public boolean hasExplicitWidth(int code) throws IOException
     {
-        return widths.get(codeToCID(code)) != null;
+        return widths.containsKey(codeToCID(code));
     }
 
     @Override
@@ -265,11 +283,11 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
     {
         int cid = codeToCID(code);
         Vector v = positionVectors.get(cid);
-        if (v == null)
+        if (nonNull(v))
         {
-            v = getDefaultPositionVector(cid);
+            return v;
         }
-        return v;
+        return getDefaultPositionVector(cid);
     }
 
     /**
@@ -281,12 +299,7 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
     public float getVerticalDisplacementVectorY(int code)
     {
         int cid = codeToCID(code);
-        Float w1y = verticalDisplacementY.get(cid);
-        if (w1y == null)
-        {
-            w1y = dw2[1];
-        }
-        return w1y;
+        return verticalDisplacementY.get(cid, dw2[1]);
     }
 
     @Override
@@ -315,15 +328,12 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
         {
             float totalWidths = 0.0f;
             int characterCount = 0;
-            if (widths != null)
+            for (float width : widths.values())
             {
-                for (Float width : widths.values())
+                if (width > 0)
                 {
-                    if (width > 0)
-                    {
-                        totalWidths += width;
-                        ++characterCount;
-                    }
+                    totalWidths += width;
+                    ++characterCount;
                 }
             }
             averageWidth = totalWidths / characterCount;
@@ -22,11 +22,9 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.fontbox.afm.FontMetrics;
@@ -64,7 +62,9 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
     private List<Float> widths;
     private float avgFontWidth;
     private float fontWidthOfSpace = -1f;
-    private final Map<Integer, Float> codeToWidthMap;
+    // widths of the single byte codes, NaN until resolved. Fonts are singletons (standard 14) or shared by the pages
+    // processed concurrently, racing threads resolve the same width and float writes are atomic
+    private final float[] codeToWidth = newCodeToWidth();
 
     PDFont()
     {
@@ -73,7 +73,6 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
         toUnicodeCMap = null;
         fontDescriptor = null;
         afmStandard14 = null;
-        codeToWidthMap = new HashMap<>();
     }
 
     /**
@@ -90,8 +89,6 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
             throw new IllegalArgumentException("No AFM for font " + baseFont);
         }
         fontDescriptor = PDType1FontEmbedder.buildFontDescriptor(afmStandard14);
-        // standard 14 fonts may be accessed concurrently, as they are singletons
-        codeToWidthMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -102,7 +99,6 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
     protected PDFont(COSDictionary fontDictionary) throws IOException
     {
         dict = fontDictionary;
-        codeToWidthMap = new HashMap<>();
 
         // standard 14 fonts use an AFM
         afmStandard14 = Standard14Fonts.getAFM(getName()); // may be null (it usually is)
@@ -228,14 +224,31 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
         return new Vector(getWidth(code) / 1000, 0);
     }
 
+    private static float[] newCodeToWidth()
+    {
+        float[] codeToWidth = new float[256];
+        Arrays.fill(codeToWidth, Float.NaN);
+        return codeToWidth;
+    }
+
     @Override
     public float getWidth(int code) throws IOException
     {
-        Float width = codeToWidthMap.get(code);
-        if (width != null)
+        if (code < 0 || code >= codeToWidth.length)
         {
-            return width;
+            return resolveWidth(code);
         }
+        float width = codeToWidth[code];
+        if (Float.isNaN(width))
+        {
+            width = resolveWidth(code);
+            codeToWidth[code] = width;
+        }
+        return width;
+    }
+
+    private float resolveWidth(int code) throws IOException
+    {
 
         // Acrobat overrides the widths in the font program on the conforming reader's system with
         // the widths specified in the font dictionary." (Adobe Supplement to the ISO 32000)
@@ -253,12 +266,11 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
             int idx = code - firstChar;
             if (siz > 0 && code >= firstChar && code <= lastChar && idx < siz)
             {
-                width = getWidths().get(idx);
+                Float width = getWidths().get(idx);
                 if (width == null)
                 {
-                    width = 0f;
+                    return 0f;
                 }
-                codeToWidthMap.put(code, width);
                 return width;
             }
 
@@ -266,24 +278,18 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
             if (fd != null)
             {
                 // get entry from /MissingWidth entry
-                width = fd.getMissingWidth();
-                codeToWidthMap.put(code, width);
-                return width;
+                return fd.getMissingWidth();
             }
         }
 
         // standard 14 font widths are specified by an AFM
         if (isStandard14())
         {
-            width = getStandard14Width(code);
-            codeToWidthMap.put(code, width);
-            return width;
+            return getStandard14Width(code);
         }
 
         // if there's nothing to override with, then obviously we fall back to the font
-        width = getWidthFromFont(code);
-        codeToWidthMap.put(code, width);
-        return width;
+        return getWidthFromFont(code);
     }
 
     /**
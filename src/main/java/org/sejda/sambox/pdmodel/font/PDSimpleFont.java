@@ -20,9 +20,9 @@ import static java.util.Objects.isNull;
 
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.fontbox.FontBoxFont;
 import org.sejda.sambox.cos.COSBase;
@@ -49,7 +49,7 @@ public abstract class PDSimpleFont extends PDFont
     protected Encoding encoding;
     protected GlyphList glyphList;
     private Boolean isSymbolic;
-    private final Set<Integer> noUnicode = new HashSet<>(); // for logging
+    private final Set<Integer> noUnicode = ConcurrentHashMap.newKeySet(); // for logging
 
     /**
      * Constructor for embedding.
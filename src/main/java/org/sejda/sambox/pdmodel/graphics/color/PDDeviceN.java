@@ -34,6 +34,7 @@ import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSNull;
+import org.sejda.sambox.pdmodel.common.function.FunctionLookupTable;
 import org.sejda.sambox.pdmodel.common.function.PDFunction;
 
 /**
@@ -280,6 +281,13 @@ public class PDDeviceN extends PDSpecialColorSpace
     //
     private BufferedImage toRGBWithTintTransform(WritableRaster raster) throws IOException
     {
+        int numSrcComponents = getColorantNames().size();
+        FunctionLookupTable lookupTable = tintTransform.getLookupTable(numSrcComponents, 8);
+        if (lookupTable != null)
+        {
+            return toRGBWithLookupTable(raster, lookupTable);
+        }
+
         // cache color mappings
         Map<String, int[]> map1 = new HashMap<String, int[]>();
         String key = null;
@@ -292,7 +300,6 @@ public class PDDeviceN extends PDSpecialColorSpace
         BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         WritableRaster rgbRaster = rgbImage.getRaster();
         int[] rgb = new int[3];
-        int numSrcComponents = getColorantNames().size();
         float[] src = new float[numSrcComponents];
         for (int y = 0; y < height; y++)
         {
@@ -339,6 +346,65 @@ public class PDDeviceN extends PDSpecialColorSpace
         return rgbImage;
     }
 
+    /**
+     * Converts the raster using the tint transform lookup table, samples are 0..255 and each combination of them is
+     * converted to RGB only once
+     */
+    private BufferedImage toRGBWithLookupTable(WritableRaster raster,
+            FunctionLookupTable lookupTable) throws IOException
+    {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        WritableRaster rgbRaster = rgbImage.getRaster();
+        Map<Long, int[]> rgbValues = new HashMap<>();
+        int numSrcComponents = lookupTable.getNumberOfInputs();
+        int[] src = new int[numSrcComponents];
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                raster.getPixel(x, y, src);
+                Long key = key(src);
+                int[] rgb = rgbValues.get(key);
+                if (rgb == null)
+                {
+                    // the table result is shared, the alternate color space gets a copy
+                    float[] rgbFloat = alternateColorSpace.toRGB(lookupTable.eval(src).clone());
+                    rgb = new int[3];
+                    for (int s = 0; s < 3; s++)
+                    {
+                        // scale to 0..255
+                        rgb[s] = (int) (rgbFloat[s] * 255f);
+                    }
+                    if (key != null)
+                    {
+                        rgbValues.put(key, rgb);
+                    }
+                }
+                rgbRaster.setPixel(x, y, rgb);
+            }
+        }
+        return rgbImage;
+    }
+
+    /**
+     * @return the samples packed in a long or null if any sample is not in the 0..255 range
+     */
+    private static Long key(int[] samples)
+    {
+        long key = 0;
+        for (int sample : samples)
+        {
+            if (sample < 0 || sample > 255)
+            {
+                return null;
+            }
+            key = (key << 8) | sample;
+        }
+        return key;
+    }
+
     @Override
     public float[] toRGB(float[] value) throws IOException
     {
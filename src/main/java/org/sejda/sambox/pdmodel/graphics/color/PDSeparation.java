@@ -24,6 +24,7 @@ import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSBase;
@@ -52,6 +53,8 @@ public class PDSeparation extends PDSpecialColorSpace
     // fields
     private PDColorSpace alternateColorSpace = null;
     private PDFunction tintTransform = null;
+    // alternate color space components in 0..255 for each sample in 0..255, built once for the color space lifetime
+    private volatile int[][] altComponents;
 
     /**
      * Map used to speed up {@link #toRGB(float[])}. Note that this class contains three maps (this and the two in
@@ -59,7 +62,8 @@ public class PDSeparation extends PDSpecialColorSpace
      * maps use different key intervals. This map here is needed for shading, which produce more than 256 different
      * float values, which we cast to int so that the map can work.
      */
-    private Map<Integer, float[]> toRGBMap = null;
+    // color spaces may be shared by the pages processed concurrently
+    private final Map<Integer, float[]> toRGBMap = new ConcurrentHashMap<>();
 
     /**
      * Creates a new Separation color space.
@@ -114,10 +118,6 @@ public class PDSeparation extends PDSpecialColorSpace
     @Override
     public float[] toRGB(float[] value) throws IOException
     {
-        if (toRGBMap == null)
-        {
-            toRGBMap = new HashMap<>();
-        }
         int key = (int) (value[0] * 255);
         float[] retval = toRGBMap.get(key);
         if (retval != null)
@@ -148,26 +148,16 @@ public class PDSeparation extends PDSpecialColorSpace
                 raster.getWidth(), raster.getHeight(), alternateColorSpace.getNumberOfComponents(),
                 new Point(0, 0));
 
-        int numAltComponents = alternateColorSpace.getNumberOfComponents();
+        int[][] altComponents = getAltComponents();
         int width = raster.getWidth();
         int height = raster.getHeight();
-        float[] samples = new float[1];
-
-        Map<Integer, int[]> calculatedValues = new HashMap<Integer, int[]>();
-        Integer hash;
+        int[] samples = new int[1];
         for (int y = 0; y < height; y++)
         {
             for (int x = 0; x < width; x++)
             {
                 raster.getPixel(x, y, samples);
-                int[] alt = calculatedValues.get(hash = Float.floatToIntBits(samples[0]));
-                if (alt == null)
-                {
-                    alt = new int[numAltComponents];
-                    tintTransform(samples, alt);
-                    calculatedValues.put(hash, alt);
-                }
-                altRaster.setPixel(x, y, alt);
+                altRaster.setPixel(x, y, altComponents[samples[0]]);
             }
         }
 
@@ -209,6 +199,37 @@ public class PDSeparation extends PDSpecialColorSpace
         return rgbImage;
     }
 
+    /**
+     * @return the alternate color space components for each of the 0..255 samples, converted through
+     * {@link #tintTransform(float[], int[])}
+     */
+    private int[][] getAltComponents() throws IOException
+    {
+        int[][] retVal = altComponents;
+        if (retVal == null)
+        {
+            // concurrent callers might build it twice, with the same result
+            retVal = new int[256][];
+            float[] samples = new float[1];
+            for (int i = 0; i < retVal.length; i++)
+            {
+                samples[0] = i;
+                retVal[i] = new int[alternateColorSpace.getNumberOfComponents()];
+                tintTransform(samples, retVal[i]);
+            }
+            altComponents = retVal;
+        }
+        return retVal;
+    }
+
+    /**
+     * Converts a sample in 0..255 to the alternate color space components in 0..255. It's called once for each of the
+     * 256 samples values, {@link #toRGBImage(WritableRaster)} caches the results for the color space lifetime.
+     * 
+     * @param samples the sample, it's scaled to 0..1 in place
+     * @param alt the resulting components of the alternate color space
+     * @throws IOException
+     */
     protected void tintTransform(float[] samples, int[] alt) throws IOException
     {
         samples[0] /= 255; // 0..1
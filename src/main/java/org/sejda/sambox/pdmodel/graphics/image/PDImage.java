@@ -16,7 +16,10 @@
  */
 package org.sejda.sambox.pdmodel.graphics.image;
 
+import static org.sejda.util.RequireUtils.requireArg;
+
 import java.awt.Paint;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
@@ -42,6 +45,50 @@ public interface PDImage extends COSObjectable
      */
     BufferedImage getImage() throws IOException;
 
+    /**
+     * Returns the content of the given region of this image as an AWT buffered image with an (A)RGB color space,
+     * reading only one every {@code subsampling} samples in both directions. This allows to draw large images at a
+     * small size without decoding samples that would never be visible.
+     * 
+     * @param region the region of the image, in image pixels, null for the whole image. It's clipped to the image
+     * bounds.
+     * @param subsampling the subsampling factor, 1 reads every sample
+     * @return content of the region of this image as a buffered image.
+     * @throws IOException
+     */
+    default BufferedImage getImage(Rectangle region, int subsampling) throws IOException
+    {
+        requireArg(subsampling > 0, "Subsampling must be positive");
+        // by default the whole image is decoded and the samples are picked from it
+        BufferedImage image = getImage();
+        Rectangle clipped = new Rectangle(image.getWidth(), image.getHeight());
+        if (region != null)
+        {
+            clipped = clipped.intersection(region);
+        }
+        if (clipped.isEmpty())
+        {
+            throw new IOException("Image region " + region + " outside of the image bounds");
+        }
+        if (subsampling == 1)
+        {
+            return image.getSubimage(clipped.x, clipped.y, clipped.width, clipped.height);
+        }
+        BufferedImage sampled = new BufferedImage((clipped.width + subsampling - 1) / subsampling,
+                (clipped.height + subsampling - 1) / subsampling,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB
+                        : BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < sampled.getHeight(); y++)
+        {
+            for (int x = 0; x < sampled.getWidth(); x++)
+            {
+                sampled.setRGB(x, y, image.getRGB(clipped.x + x * subsampling,
+                        clipped.y + y * subsampling));
+            }
+        }
+        return sampled;
+    }
+
     /**
      * Returns an ARGB image filled with the given paint and using this image as a mask.
      * 
@@ -247,6 +247,62 @@ public final class PDImageXObject extends PDXObject implements PDImage
         return image;
     }
 
+    /**
+     * {@inheritDoc} Images of a region or subsampled are not cached.
+     */
+    @Override
+    public BufferedImage getImage(Rectangle region, int subsampling) throws IOException
+    {
+        if (region == null && subsampling == 1)
+        {
+            return getImage();
+        }
+        Rectangle clipped = new Rectangle(getWidth(), getHeight());
+        if (region != null)
+        {
+            clipped = clipped.intersection(region);
+        }
+
+        // get image as RGB
+        BufferedImage image = SampledImageReader.getRGBImage(this, clipped, subsampling,
+                getColorKeyMask());
+
+        // soft mask (overrides explicit mask)
+        PDImageXObject softMask = getSoftMask();
+        if (softMask != null)
+        {
+            image = applyMask(image, softMask.getOpaqueImage(clipped, subsampling, this), true);
+        }
+        else
+        {
+            // explicit mask - to be applied only if /ImageMask true
+            PDImageXObject mask = getMask();
+            if (mask != null && mask.isStencil())
+            {
+                image = applyMask(image, mask.getOpaqueImage(clipped, subsampling, this), false);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * @return the opaque image of the region of this mask covering the given region of the masked image, subsampled to
+     * the same resolution of the masked image samples.
+     */
+    private BufferedImage getOpaqueImage(Rectangle region, int subsampling, PDImage masked)
+            throws IOException
+    {
+        // masks don't necessarily have the size of the image they mask
+        double scaleX = getWidth() / (double) masked.getWidth();
+        double scaleY = getHeight() / (double) masked.getHeight();
+        Rectangle maskRegion = new Rectangle((int) Math.floor(region.x * scaleX),
+                (int) Math.floor(region.y * scaleY), (int) Math.ceil(region.width * scaleX),
+                (int) Math.ceil(region.height * scaleY));
+        int maskSubsampling = Math.max(1,
+                (int) Math.round(subsampling * Math.min(scaleX, scaleY)));
+        return SampledImageReader.getRGBImage(this, maskRegion, maskSubsampling, null);
+    }
+
     /**
      * 
      * @return the image without mask applied. The image is not cached
@@ -319,6 +319,12 @@ public final class PDInlineImage implements PDImage
         return SampledImageReader.getRGBImage(this, null);
     }
 
+    @Override
+    public BufferedImage getImage(Rectangle region, int subsampling) throws IOException
+    {
+        return SampledImageReader.getRGBImage(this, region, subsampling, null);
+    }
+
     @Override
     public BufferedImage getStencilImage(Paint paint) throws IOException
     {
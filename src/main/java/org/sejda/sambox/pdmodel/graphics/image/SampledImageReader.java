@@ -16,9 +16,12 @@
  */
 package org.sejda.sambox.pdmodel.graphics.image;
 
+import static org.sejda.util.RequireUtils.requireArg;
+
 import java.awt.Graphics2D;
 import java.awt.Paint;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
@@ -141,6 +144,25 @@ final class SampledImageReader
      * @throws IOException if the image cannot be read
      */
     public static BufferedImage getRGBImage(PDImage pdImage, COSArray colorKey) throws IOException
+    {
+        return getRGBImage(pdImage, null, 1, colorKey);
+    }
+
+    /**
+     * Returns the content of the given region of the image as an AWT buffered image with an RGB color space, reading
+     * only one every {@code subsampling} samples in both directions. If a color key mask is provided then an ARGB image
+     * is returned instead. This method never returns null.
+     * 
+     * @param pdImage the image to read
+     * @param region the region of the image to read, in image pixels, null for the whole image. It's clipped to the
+     * image bounds.
+     * @param subsampling the subsampling factor, 1 reads every sample
+     * @param colorKey an optional color key mask
+     * @return content of the region of this image as an RGB buffered image
+     * @throws IOException if the image cannot be read
+     */
+    public static BufferedImage getRGBImage(PDImage pdImage, Rectangle region, int subsampling,
+            COSArray colorKey) throws IOException
     {
 
         if (pdImage.isEmpty())
@@ -160,10 +182,22 @@ final class SampledImageReader
         {
             throw new IOException("image width and height must be positive");
         }
+        requireArg(subsampling > 0, "Subsampling must be positive");
+
+        Rectangle clipped = new Rectangle(width, height);
+        if (region != null)
+        {
+            clipped = clipped.intersection(region);
+            if (clipped.isEmpty())
+            {
+                throw new IOException("Image region " + region + " outside of the image bounds");
+            }
+        }
+        Sampling sampling = new Sampling(clipped, subsampling);
 
         if (bitsPerComponent == 1 && colorKey == null && numComponents == 1)
         {
-            return from1Bit(pdImage);
+            return from1Bit(pdImage, sampling);
         }
 
         //
@@ -172,22 +206,21 @@ final class SampledImageReader
         // in depth to 8bpc as they will be drawn to TYPE_INT_RGB images anyway. All code
         // in PDColorSpace#toRGBImage expects an 8-bit range, i.e. 0-255.
         //
-        WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, width, height,
-                numComponents, new Point(0, 0));
+        WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, sampling.width,
+                sampling.height, numComponents, new Point(0, 0));
         final float[] defaultDecode = pdImage.getColorSpace().getDefaultDecode(8);
         if (bitsPerComponent == 8 && Arrays.equals(decode, defaultDecode) && colorKey == null)
         {
             // convert image, faster path for non-decoded, non-colormasked 8-bit images
-            return from8bit(pdImage, raster);
+            return from8bit(pdImage, raster, sampling);
         }
-        return fromAny(pdImage, raster, colorKey);
+        return fromAny(pdImage, raster, colorKey, sampling);
     }
 
-    private static BufferedImage from1Bit(PDImage pdImage) throws IOException
+    private static BufferedImage from1Bit(PDImage pdImage, Sampling sampling) throws IOException
     {
         final PDColorSpace colorSpace = pdImage.getColorSpace();
         final int width = pdImage.getWidth();
-        final int height = pdImage.getHeight();
         final float[] decode = getDecodeArray(pdImage);
         BufferedImage bim = null;
         WritableRaster raster;
@@ -197,13 +230,13 @@ final class SampledImageReader
             // TYPE_BYTE_GRAY and not TYPE_BYTE_BINARY because this one is handled
             // without conversion to RGB by Graphics.drawImage
             // this reduces the memory footprint, only one byte per pixel instead of three.
-            bim = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+            bim = new BufferedImage(sampling.width, sampling.height, BufferedImage.TYPE_BYTE_GRAY);
             raster = bim.getRaster();
         }
         else
         {
-            raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, width, height, 1,
-                    new Point(0, 0));
+            raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, sampling.width,
+                    sampling.height, 1, new Point(0, 0));
         }
         output = ((DataBufferByte) raster.getDataBuffer()).getData();
 
@@ -233,24 +266,22 @@ final class SampledImageReader
             }
             byte[] buff = new byte[rowLen];
             int idx = 0;
-            for (int y = 0; y < height; y++)
+            // rows are read up to the last one we sample, skipped rows are read and discarded
+            int lastRow = sampling.sourceY(sampling.height - 1);
+            for (int y = 0; y <= lastRow; y++)
             {
-                int x = 0;
                 int readLen = iis.read(buff);
-                for (int r = 0; r < rowLen && r < readLen; r++)
+                if (sampling.isSampledRow(y))
                 {
-                    int value = buff[r];
-                    int mask = 128;
-                    for (int i = 0; i < 8; i++)
+                    for (int x = 0; x < sampling.width; x++)
                     {
-                        int bit = value & mask;
-                        mask >>= 1;
-                        output[idx++] = bit == 0 ? value0 : value1;
-                        x++;
-                        if (x == width)
+                        int sourceX = sampling.sourceX(x);
+                        if ((sourceX >> 3) >= readLen)
                         {
                             break;
                         }
+                        int bit = buff[sourceX >> 3] & (128 >> (sourceX & 7));
+                        output[idx++] = bit == 0 ? value0 : value1;
                     }
                 }
                 if (readLen != rowLen)
@@ -271,24 +302,29 @@ final class SampledImageReader
     }
 
     // faster, 8-bit non-decoded, non-colormasked image conversion
-    private static BufferedImage from8bit(PDImage pdImage, WritableRaster raster) throws IOException
+    private static BufferedImage from8bit(PDImage pdImage, WritableRaster raster,
+            Sampling sampling) throws IOException
     {
         // get the raster's underlying byte buffer
         byte[][] banks = ((DataBufferByte) raster.getDataBuffer()).getBankData();
         ByteBuffer source = pdImage.asByteBuffer();
 
         final int width = pdImage.getWidth();
-        final int height = pdImage.getHeight();
         final int numComponents = pdImage.getColorSpace().getNumberOfComponents();
-        int max = width * height;
+        final int step = sampling.subsampling * numComponents;
 
         for (int c = 0; c < numComponents; c++)
         {
-            int sourceOffset = c;
-            for (int i = 0; i < max; i++)
+            int i = 0;
+            for (int y = 0; y < sampling.height; y++)
             {
-                banks[c][i] = source.get(sourceOffset);
-                sourceOffset += numComponents;
+                int sourceOffset = (sampling.sourceY(y) * width + sampling.region.x)
+                        * numComponents + c;
+                for (int x = 0; x < sampling.width; x++)
+                {
+                    banks[c][i++] = source.get(sourceOffset);
+                    sourceOffset += step;
+                }
             }
         }
 
@@ -297,13 +333,12 @@ final class SampledImageReader
     }
 
     // slower, general-purpose image conversion from any image format
-    private static BufferedImage fromAny(PDImage pdImage, WritableRaster raster, COSArray colorKey)
-            throws IOException
+    private static BufferedImage fromAny(PDImage pdImage, WritableRaster raster, COSArray colorKey,
+            Sampling sampling) throws IOException
     {
         final PDColorSpace colorSpace = pdImage.getColorSpace();
         final int numComponents = colorSpace.getNumberOfComponents();
         final int width = pdImage.getWidth();
-        final int height = pdImage.getHeight();
         final int bitsPerComponent = pdImage.getBitsPerComponent();
         final float[] decode = getDecodeArray(pdImage);
 
@@ -318,23 +353,29 @@ final class SampledImageReader
             if (colorKey != null)
             {
                 colorKeyRanges = colorKey.toFloatArray();
-                colorKeyMask = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+                colorKeyMask = new BufferedImage(sampling.width, sampling.height,
+                        BufferedImage.TYPE_BYTE_GRAY);
             }
 
-            // calculate row padding
-            int padding = 0;
-            if (width * numComponents * bitsPerComponent % 8 > 0)
-            {
-                padding = 8 - (width * numComponents * bitsPerComponent % 8);
-            }
+            // rows are padded to the nearest byte
+            final long pixelBits = (long) numComponents * bitsPerComponent;
+            final long rowLength = (width * pixelBits + 7) / 8;
 
             // read stream
             byte[] srcColorValues = new byte[numComponents];
             byte[] alpha = new byte[1];
-            for (int y = 0; y < height; y++)
+            for (int y = 0; y < sampling.height; y++)
             {
-                for (int x = 0; x < width; x++)
+                long rowStart = sampling.sourceY(y) * rowLength;
+                for (int x = 0; x < sampling.width; x++)
                 {
+                    // samples are contiguous when reading all of them
+                    if (x == 0 || sampling.subsampling > 1)
+                    {
+                        long bitPosition = sampling.sourceX(x) * pixelBits;
+                        iis.seek(rowStart + bitPosition / 8);
+                        iis.setBitOffset((int) (bitPosition % 8));
+                    }
                     boolean isMasked = true;
                     for (int c = 0; c < numComponents; c++)
                     {
@@ -380,9 +421,8 @@ final class SampledImageReader
                         colorKeyMask.getRaster().setDataElements(x, y, alpha);
                     }
                 }
-
-                // rows are padded to the nearest byte
-                iis.readBits(padding);
+                // rows before this one are not going to be read again
+                iis.flushBefore(rowStart);
             }
 
             // use the color space to convert the image to RGB
@@ -397,6 +437,40 @@ final class SampledImageReader
         }
     }
 
+    /**
+     * The samples of an image read when decoding a region of it, one every {@code subsampling} in both directions
+     */
+    private static final class Sampling
+    {
+        final Rectangle region;
+        final int subsampling;
+        final int width;
+        final int height;
+
+        Sampling(Rectangle region, int subsampling)
+        {
+            this.region = region;
+            this.subsampling = subsampling;
+            this.width = (region.width + subsampling - 1) / subsampling;
+            this.height = (region.height + subsampling - 1) / subsampling;
+        }
+
+        int sourceX(int x)
+        {
+            return region.x + x * subsampling;
+        }
+
+        int sourceY(int y)
+        {
+            return region.y + y * subsampling;
+        }
+
+        boolean isSampledRow(int sourceY)
+        {
+            return sourceY >= region.y && (sourceY - region.y) % subsampling == 0;
+        }
+    }
+
     // color key mask: RGB + Binary -> ARGB
     private static BufferedImage applyColorKeyMask(BufferedImage image, BufferedImage mask)
 
@@ -23,9 +23,12 @@ import java.awt.image.ColorModel;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import org.sejda.sambox.pdmodel.common.PDRange;
+import org.sejda.sambox.pdmodel.common.function.FunctionLookupTable;
 import org.sejda.sambox.util.Matrix;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,12 +43,22 @@ import org.slf4j.LoggerFactory;
 abstract class TriangleBasedShadingContext extends ShadingContext implements PaintContext
 {
     private static final Logger LOG = LoggerFactory.getLogger(TriangleBasedShadingContext.class);
+    /**
+     * the parametric value is quantized to 4096 steps, well below the 8 bits precision of the RGB result
+     */
+    private static final int FUNCTION_TABLE_BITS = 12;
 
     protected int bitsPerCoordinate;
     protected int bitsPerColorComponent;
     protected int numberOfColorComponents;
     
     private final boolean hasFunction;
+    // function results for the parametric value quantized on the decode range, null if there is no function
+    private FunctionLookupTable functionTable;
+    private float minT;
+    private float maxT;
+    // RGB values for each sample of the function table, -1 if not converted yet
+    private int[] sampledRGB;
 
     // map of pixels within triangles to their RGB color
     private Map<Point, Integer> pixelTable;
@@ -70,6 +83,19 @@ abstract class TriangleBasedShadingContext extends ShadingContext implements Pai
         bitsPerColorComponent = triangleBasedShadingType.getBitsPerComponent();
         LOG.debug("bitsPerColorComponent: " + bitsPerColorComponent);
         numberOfColorComponents = hasFunction ? 1 : getShadingColorSpace().getNumberOfComponents();
+        if (hasFunction)
+        {
+            PDRange range = triangleBasedShadingType.getDecodeForParameter(2);
+            if (range != null && range.getMax() > range.getMin())
+            {
+                minT = range.getMin();
+                maxT = range.getMax();
+                functionTable = new FunctionLookupTable(shading::evalFunction, 1,
+                        FUNCTION_TABLE_BITS, new float[] { minT, maxT });
+                sampledRGB = new int[1 << FUNCTION_TABLE_BITS];
+                Arrays.fill(sampledRGB, -1);
+            }
+        }
         LOG.debug("numberOfColorComponents: " + numberOfColorComponents);
     }
 
@@ -133,6 +159,16 @@ abstract class TriangleBasedShadingContext extends ShadingContext implements Pai
      */
     private int evalFunctionAndConvertToRGB(float[] values) throws IOException
     {
+        if (functionTable != null)
+        {
+            int sample = sampleOf(values[0]);
+            if (sampledRGB[sample] == -1)
+            {
+                sampledRGB[sample] = convertToRGB(
+                        functionTable.eval(new int[] { sample }).clone());
+            }
+            return sampledRGB[sample];
+        }
         if (hasFunction)
         {
             values = getShading().evalFunction(values);
@@ -140,6 +176,16 @@ abstract class TriangleBasedShadingContext extends ShadingContext implements Pai
         return convertToRGB(values);
     }
 
+    /**
+     * @return the function table sample closest to the given parametric value
+     */
+    private int sampleOf(float t)
+    {
+        int maxSample = (1 << FUNCTION_TABLE_BITS) - 1;
+        float sample = (t - minT) / (maxT - minT) * maxSample;
+        return Math.max(0, Math.min(maxSample, Math.round(sample)));
+    }
+
     /**
      * Returns true if the shading has an empty data stream.
      */
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.rendering;
+
+import static java.util.Objects.nonNull;
+import static org.sejda.util.RequireUtils.requireArg;
+
+import java.awt.Shape;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
+
+/**
+ * A cache of glyph outlines shared by the pages rendered by a {@link PDFRenderer}. Glyphs are identified by the font
+ * dictionary id and the character code and least recently used glyphs are evicted when the estimated size of the
+ * cached outlines exceeds the maximum. Cached paths are shared and must not be modified.
+ * 
+ * @author Andrea Vacondio
+ */
+final class GlyphCache
+{
+    private static final int ENTRY_SIZE = 64;
+    private static final int SEGMENT_SIZE = 1;
+    private static final int COORDINATE_SIZE = 4;
+
+    private final long maxSize;
+    private long size = 0;
+    private Map<GlyphKey, CachedGlyph> store = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxSize the maximum estimated size in bytes of the cached glyphs
+     */
+    GlyphCache(long maxSize)
+    {
+        requireArg(maxSize > 0, "Cache size must be a positive number");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param font id of the font dictionary
+     * @param code character code
+     * @return the cached glyph outline or null
+     */
+    synchronized GeneralPath get(IndirectCOSObjectIdentifier font, int code)
+    {
+        CachedGlyph cached = store.get(new GlyphKey(font, code));
+        if (nonNull(cached))
+        {
+            return cached.path;
+        }
+        return null;
+    }
+
+    /**
+     * Caches the given glyph outline
+     * 
+     * @param font id of the font dictionary
+     * @param code character code
+     * @param path
+     */
+    synchronized void put(IndirectCOSObjectIdentifier font, int code, GeneralPath path)
+    {
+        CachedGlyph cached = new CachedGlyph(path);
+        CachedGlyph previous = store.put(new GlyphKey(font, code), cached);
+        if (nonNull(previous))
+        {
+            size -= previous.size;
+        }
+        size += cached.size;
+        evict();
+    }
+
+    synchronized void clear()
+    {
+        store.clear();
+        size = 0;
+    }
+
+    /**
+     * @return the estimated size in bytes of the cached glyphs
+     */
+    synchronized long size()
+    {
+        return size;
+    }
+
+    private void evict()
+    {
+        Iterator<CachedGlyph> eldest = store.values().iterator();
+        while (size > maxSize && eldest.hasNext())
+        {
+            size -= eldest.next().size;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * @param shape
+     * @return an estimate of the heap retained by the given shape, based on its segments and coordinates
+     */
+    static long sizeOf(Shape shape)
+    {
+        long retVal = ENTRY_SIZE;
+        float[] coords = new float[6];
+        for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone(); iterator
+                .next())
+        {
+            retVal += SEGMENT_SIZE;
+            switch (iterator.currentSegment(coords))
+            {
+            case PathIterator.SEG_MOVETO:
+            case PathIterator.SEG_LINETO:
+                retVal += 2 * COORDINATE_SIZE;
+                break;
+            case PathIterator.SEG_QUADTO:
+                retVal += 4 * COORDINATE_SIZE;
+                break;
+            case PathIterator.SEG_CUBICTO:
+                retVal += 6 * COORDINATE_SIZE;
+                break;
+            default:
+                break;
+            }
+        }
+        return retVal;
+    }
+
+    private static final class GlyphKey
+    {
+        private final IndirectCOSObjectIdentifier font;
+        private final int code;
+
+        GlyphKey(IndirectCOSObjectIdentifier font, int code)
+        {
+            this.font = font;
+            this.code = code;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof GlyphKey))
+            {
+                return false;
+            }
+            GlyphKey other = (GlyphKey) obj;
+            return code == other.code && font.equals(other.font);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(font, code);
+        }
+    }
+
+    private static final class CachedGlyph
+    {
+        private final GeneralPath path;
+        private final long size;
+
+        CachedGlyph(GeneralPath path)
+        {
+            this.path = path;
+            this.size = sizeOf(path);
+        }
+    }
+}
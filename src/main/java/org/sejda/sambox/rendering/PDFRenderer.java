@@ -16,10 +16,25 @@
  */
 package org.sejda.sambox.rendering;
 
+import static org.sejda.util.RequireUtils.requireArg;
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.pdmodel.PDDocument;
 import org.sejda.sambox.pdmodel.PDPage;
@@ -29,6 +44,8 @@ import org.sejda.sambox.pdmodel.graphics.blend.BlendMode;
 import org.sejda.sambox.pdmodel.graphics.state.PDExtendedGraphicsState;
 import org.sejda.sambox.pdmodel.interactive.annotation.AnnotationFilter;
 import org.sejda.sambox.pdmodel.interactive.annotation.PDAnnotation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Renders a PDF document to an AWT BufferedImage.
@@ -38,8 +55,14 @@ import org.sejda.sambox.pdmodel.interactive.annotation.PDAnnotation;
  */
 public class PDFRenderer
 {
+    private static final Logger LOG = LoggerFactory.getLogger(PDFRenderer.class);
+
     protected final PDDocument document;
-    // TODO keep rendering state such as caches here
+    // glyph outlines shared by the rendered pages
+    private final GlyphCache glyphCache = new GlyphCache(
+            Long.getLong(SAMBox.GLYPH_CACHE_SIZE_PROPERTY, 1 << 25));
+
+    private boolean subsamplingAllowed = false;
 
     /**
      * Default annotations filter, returns all annotations
@@ -84,6 +107,28 @@ public class PDFRenderer
         this.annotationFilter = annotationsFilter;
     }
 
+    /**
+     * @return true if images can be subsampled when drawn
+     * @see #setSubsamplingAllowed(boolean)
+     */
+    public boolean isSubsamplingAllowed()
+    {
+        return subsamplingAllowed;
+    }
+
+    /**
+     * Allows images to be subsampled when they are drawn at a resolution lower than their own, decoding only the samples
+     * needed for the device size of the image and only the region of the image that is visible on the rendered page
+     * or tile. This makes rendering thumbnails and previews of scanned documents much faster and lighter on memory, at
+     * the cost of some quality since samples are skipped rather than averaged. Default is false.
+     *
+     * @param subsamplingAllowed
+     */
+    public void setSubsamplingAllowed(boolean subsamplingAllowed)
+    {
+        this.subsamplingAllowed = subsamplingAllowed;
+    }
+
     /**
      * Returns the given page as an RGB image at 72 DPI
      * @param pageIndex the zero-based index of the page to be converted.
@@ -145,35 +190,184 @@ public class PDFRenderer
     public BufferedImage renderImage(int pageIndex, float scale, ImageType imageType)
             throws IOException
     {
+        return renderImage(document.getPage(pageIndex), scale, imageType);
+    }
+
+    /**
+     * Renders the pages in the given range on the given executor, delivering each image to the consumer as soon as it's
+     * completed, in completion order. Pages share the read only state of the document (resources cache, fonts, color
+     * spaces, glyph outlines) and at most {@code maxInFlight} pages are rendered, or waiting to be consumed, at the same
+     * time. The consumer is called by the calling thread, which blocks until all the pages are consumed.
+     * <p>
+     * Pages are rendered concurrently only if the document has been loaded with the
+     * {@link SAMBox#CONCURRENT_OBJECTS_RESOLUTION_PROPERTY} enabled, otherwise they are rendered sequentially by the
+     * calling thread and the executor is not used.
+     * </p>
+     * 
+     * @param fromPage the zero-based index of the first page to render, inclusive
+     * @param toPage the zero-based index of the last page to render, exclusive
+     * @param scale the scaling factor, where 1 = 72 DPI
+     * @param imageType the type of the images
+     * @param executor the executor rendering the pages
+     * @param maxInFlight maximum number of pages rendered at the same time
+     * @param consumer receives the rendered pages
+     * @throws IOException if a page cannot be rendered or consumed. Pages still in flight are cancelled.
+     */
+    public void renderImages(int fromPage, int toPage, float scale, ImageType imageType,
+            Executor executor, int maxInFlight, RenderedPageConsumer consumer) throws IOException
+    {
+        requireArg(fromPage >= 0 && fromPage <= toPage && toPage <= document.getNumberOfPages(),
+                "Invalid pages range");
+        requireArg(maxInFlight > 0, "Max in flight pages must be positive");
+        requireNotNullArg(executor, "Executor cannot be null");
+        requireNotNullArg(consumer, "Consumer cannot be null");
+
+        Executor renderer = executor;
+        if (!document.isConcurrentObjectsResolution())
+        {
+            LOG.warn(
+                    "Document not loaded with concurrent objects resolution, rendering pages sequentially");
+            renderer = Runnable::run;
+        }
+        CompletionService<RenderedPage> completion = new ExecutorCompletionService<>(renderer);
+        List<Future<RenderedPage>> submitted = new ArrayList<>(
+                Math.min(maxInFlight, toPage - fromPage));
+        int next = fromPage;
+        int consumed = fromPage;
+        try
+        {
+            while (consumed < toPage)
+            {
+                while (next < toPage && next - consumed < maxInFlight)
+                {
+                    // the page tree is navigated by the calling thread only
+                    PDPage page = document.getPage(next);
+                    int pageIndex = next++;
+                    submitted.add(completion.submit(() -> new RenderedPage(pageIndex,
+                            renderImage(page, scale, imageType))));
+                }
+                Future<RenderedPage> done = completion.take();
+                submitted.remove(done);
+                RenderedPage rendered = done.get();
+                consumer.accept(rendered.pageIndex, rendered.image);
+                consumed++;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering pages", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        finally
+        {
+            submitted.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private BufferedImage renderImage(PDPage page, float scale, ImageType imageType)
+            throws IOException
+    {
+        return renderRegion(page, scale, imageType, renderingType(page, imageType),
+                new Rectangle(imageSize(page, scale)));
+    }
+
+    /**
+     * Renders the given page in tiles of the given size, delivering each tile to the consumer as soon as it's rendered,
+     * row by row, from the top left corner. Tiles on the right and bottom edges are cropped to the page image size.
+     * Only one tile is held in memory at a time, this allows to render pages whose full image would not fit the heap.
+     * Use a tile width of {@link Integer#MAX_VALUE} to render the page in horizontal bands.
+     * 
+     * @param pageIndex the zero-based index of the page to be converted
+     * @param scale the scaling factor, where 1 = 72 DPI
+     * @param imageType the type of the tiles images
+     * @param tileWidth width of the tiles in pixels
+     * @param tileHeight height of the tiles in pixels
+     * @param consumer receives the rendered tiles
+     * @throws IOException if the PDF cannot be read or a tile cannot be consumed
+     */
+    public void renderTiles(int pageIndex, float scale, ImageType imageType, int tileWidth,
+            int tileHeight, RenderedTileConsumer consumer) throws IOException
+    {
+        requireArg(tileWidth > 0 && tileHeight > 0, "Tiles size must be positive");
+        requireNotNullArg(consumer, "Consumer cannot be null");
         PDPage page = document.getPage(pageIndex);
+        Dimension size = imageSize(page, scale);
+        int bimType = renderingType(page, imageType);
+        for (long y = 0; y < size.height; y += tileHeight)
+        {
+            for (long x = 0; x < size.width; x += tileWidth)
+            {
+                Rectangle tile = new Rectangle((int) x, (int) y,
+                        (int) Math.min(tileWidth, size.width - x),
+                        (int) Math.min(tileHeight, size.height - y));
+                consumer.accept(tile.x, tile.y,
+                        renderRegion(page, scale, imageType, bimType, tile));
+            }
+        }
+    }
 
+    /**
+     * @return the size of the image of the given page rendered at the given scale
+     */
+    private static Dimension imageSize(PDPage page, float scale)
+    {
         PDRectangle cropbBox = page.getCropBox();
-        float widthPt = cropbBox.getWidth();
-        float heightPt = cropbBox.getHeight();
-        int widthPx = Math.round(widthPt * scale);
-        int heightPx = Math.round(heightPt * scale);
+        int widthPx = Math.round(cropbBox.getWidth() * scale);
+        int heightPx = Math.round(cropbBox.getHeight() * scale);
         int rotationAngle = page.getRotation();
+        // swap width and height
+        if (rotationAngle == 90 || rotationAngle == 270)
+        {
+            return new Dimension(heightPx, widthPx);
+        }
+        return new Dimension(widthPx, heightPx);
+    }
 
-        int bimType = imageType.toBufferedImageType();
+    /**
+     * @return the {@link BufferedImage} type the given page is drawn on
+     */
+    private int renderingType(PDPage page, ImageType imageType)
+    {
         if (imageType != ImageType.ARGB && hasBlendMode(page))
         {
             // PDFBOX-4095: if the PDF has blending on the top level, draw on transparent background
             // Inpired from PDF.js: if a PDF page uses any blend modes other than Normal, 
             // PDF.js renders everything on a fully transparent RGBA canvas. 
             // Finally when the page has been rendered, PDF.js draws the RGBA canvas on a white canvas.
-            bimType = BufferedImage.TYPE_INT_ARGB;
+            return BufferedImage.TYPE_INT_ARGB;
         }
+        return imageType.toBufferedImageType();
+    }
 
-        // swap width and height
-        BufferedImage image;
-        if (rotationAngle == 90 || rotationAngle == 270)
-        {
-            image = new BufferedImage(heightPx, widthPx, bimType);
-        }
-        else
+    /**
+     * @return the given region of the page image, or null if it's the whole page image
+     */
+    private Rectangle partialRegion(PDPage page, float scale, Rectangle region)
+    {
+        if (region.getLocation().equals(new Point())
+                && region.getSize().equals(imageSize(page, scale)))
         {
-            image = new BufferedImage(widthPx, heightPx, bimType);
+            return null;
         }
+        return region;
+    }
+
+    /**
+     * Renders the given region of the page image, the content falling outside the region is clipped away by the
+     * graphics device.
+     */
+    private BufferedImage renderRegion(PDPage page, float scale, ImageType imageType, int bimType,
+            Rectangle region) throws IOException
+    {
+        BufferedImage image = new BufferedImage(region.width, region.height, bimType);
 
         // use a transparent background if the image type supports alpha
         Graphics2D g = image.createGraphics();
@@ -187,10 +381,12 @@ public class PDFRenderer
         }
         g.clearRect(0, 0, image.getWidth(), image.getHeight());
 
+        g.translate(-region.x, -region.y);
         transform(g, page, scale);
 
         // the end-user may provide a custom PageDrawer
-        PageDrawerParameters parameters = new PageDrawerParameters(this, page);
+        PageDrawerParameters parameters = new PageDrawerParameters(this, page,
+                partialRegion(page, scale, region));
         PageDrawer drawer = createPageDrawer(parameters);
         drawer.drawPage(g, page.getCropBox());
 
@@ -280,6 +476,26 @@ public class PDFRenderer
         }
     }
 
+    /**
+     * @return the glyph outlines cache shared by the pages rendered by this renderer
+     */
+    GlyphCache getGlyphCache()
+    {
+        return glyphCache;
+    }
+
+    private static class RenderedPage
+    {
+        final int pageIndex;
+        final BufferedImage image;
+
+        RenderedPage(int pageIndex, BufferedImage image)
+        {
+            this.pageIndex = pageIndex;
+            this.image = image;
+        }
+    }
+
     /**
      * Returns a new PageDrawer instance, using the given parameters. May be overridden.
      */
@@ -23,6 +23,7 @@ import java.awt.Graphics2D;
 import java.awt.GraphicsDevice;
 import java.awt.Paint;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.Stroke;
@@ -32,6 +33,7 @@ import java.awt.color.ColorSpace;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.GeneralPath;
+import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -112,6 +114,15 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 
     private int pageRotation;
 
+    // the region of the page image being drawn, if only a region of the page is drawn (e.g. a tile). The origin of
+    // the page graphics device is the origin of the region
+    private final Rectangle region;
+    private Graphics2D pageGraphics;
+    // the region in the page coordinates, used to bound the transparency groups and soft masks
+    private Area regionClip;
+    // tiling patterns are drawn in the pattern coordinates, where the region clip doesn't apply
+    private boolean drawingTilingPattern = false;
+
     // whether image of a transparency group must be flipped
     // needed when in a tiling pattern
     private boolean flipTG = false;
@@ -156,6 +167,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     {
         super(parameters.getPage());
         this.renderer = parameters.getRenderer();
+        this.region = parameters.getRegion();
     }
 
     /**
@@ -239,6 +251,21 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         // adjust for non-(0,0) crop box
         graphics.translate(-pageSize.getLowerLeftX(), -pageSize.getLowerLeftY());
 
+        pageGraphics = graphics;
+        regionClip = null;
+        if (region != null)
+        {
+            try
+            {
+                regionClip = new Area(graphics.getTransform().createInverse()
+                        .createTransformedShape(new Rectangle(region.getSize())));
+            }
+            catch (NoninvertibleTransformException e)
+            {
+                LOG.debug("Unable to map the device region to the page", e);
+            }
+        }
+
         processPage(getPage());
 
         for (PDAnnotation annotation : getPage().getAnnotations(annotationFilter))
@@ -247,6 +274,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
 
         graphics = null;
+        pageGraphics = null;
     }
 
     /**
@@ -276,9 +304,13 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         boolean oldFlipTG = flipTG;
         flipTG = true;
 
+        boolean oldDrawingTilingPattern = drawingTilingPattern;
+        drawingTilingPattern = true;
+
         setRenderingHints();
         processTilingPattern(pattern, color, colorSpace, patternMatrix);
 
+        drawingTilingPattern = oldDrawingTilingPattern;
         flipTG = oldFlipTG;
         graphics = oldGraphics;
         linePath = oldLinePath;
@@ -523,6 +555,12 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             throw new IllegalStateException("Bad font type: " + font.getClass().getSimpleName());
         }
 
+        // outlines of fonts coming from the document are shared by the rendered pages
+        if (glyph2D != null && font.getCOSObject().hasId())
+        {
+            glyph2D = new SharedGlyph2D(glyph2D, renderer.getGlyphCache(), font);
+        }
+
         // cache the Glyph2D instance
         if (glyph2D != null)
         {
@@ -598,6 +636,12 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         gray = getRotatedImage(gray);
         Rectangle2D tpgBounds = transparencyGroup.getBounds();
         adjustRectangle(tpgBounds);
+        if (region != null && graphics == pageGraphics)
+        {
+            // the bounds are in the page image pixels, the page device origin is the region origin
+            tpgBounds.setRect(tpgBounds.getX() - region.x, tpgBounds.getY() - region.y,
+                    tpgBounds.getWidth(), tpgBounds.getHeight());
+        }
         return new SoftMask(parentPaint, gray, tpgBounds, backdropColor,
                 softMask.getTransferFunction());
     }
@@ -1029,7 +1073,29 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         else
         {
             // draw the image
-            drawBufferedImage(pdImage.getImage(), at);
+            if (renderer.isSubsamplingAllowed())
+            {
+                int subsampling = getSubsampling(pdImage, at);
+                Rectangle visible = getVisibleRegion(pdImage, at, subsampling);
+                if (visible == null)
+                {
+                    drawBufferedImage(pdImage.getImage(null, subsampling), at);
+                }
+                else if (!visible.isEmpty())
+                {
+                    // the region is drawn on its own portion of the image unit square
+                    AffineTransform regionAt = new AffineTransform(at);
+                    regionAt.translate(visible.getX() / pdImage.getWidth(),
+                            1 - visible.getMaxY() / pdImage.getHeight());
+                    regionAt.scale(visible.getWidth() / pdImage.getWidth(),
+                            visible.getHeight() / pdImage.getHeight());
+                    drawBufferedImage(pdImage.getImage(visible, subsampling), regionAt);
+                }
+            }
+            else
+            {
+                drawBufferedImage(pdImage.getImage(), at);
+            }
         }
 
         if (!pdImage.getInterpolate())
@@ -1040,6 +1106,74 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
     }
 
+    /**
+     * @return the largest subsampling factor that still gives at least one image sample per device pixel along both
+     * axes of the image
+     */
+    private int getSubsampling(PDImage pdImage, AffineTransform at)
+    {
+        AffineTransform device = new AffineTransform(xform);
+        device.concatenate(at);
+        // device length of the image sides
+        double deviceWidth = Math.hypot(device.getScaleX(), device.getShearY());
+        double deviceHeight = Math.hypot(device.getShearX(), device.getScaleY());
+        int subsampling = (int) Math.floor(Math.min(pdImage.getWidth() / deviceWidth,
+                pdImage.getHeight() / deviceHeight));
+        // very small images can't be subsampled to nothing
+        return Math.max(1, Math.min(subsampling,
+                Math.min(pdImage.getWidth(), pdImage.getHeight())));
+    }
+
+    /**
+     * @return the region of the image, in image pixels, that is visible through the current clip and the drawn region
+     * of the page, aligned to the subsampling grid. Null if the whole image is visible, empty if nothing is.
+     */
+    private Rectangle getVisibleRegion(PDImage pdImage, AffineTransform at, int subsampling)
+    {
+        Area visible = new Area(getGraphicsState().getCurrentClippingPath());
+        if (regionClip != null && !drawingTilingPattern)
+        {
+            visible.intersect(regionClip);
+        }
+        Rectangle2D bounds;
+        try
+        {
+            // from page space to image pixels
+            AffineTransform toImage = new AffineTransform(at);
+            toImage.scale(1.0 / pdImage.getWidth(), -1.0 / pdImage.getHeight());
+            toImage.translate(0, -pdImage.getHeight());
+            bounds = toImage.createInverse().createTransformedShape(visible).getBounds2D();
+        }
+        catch (NoninvertibleTransformException e)
+        {
+            LOG.debug("Unable to map the visible region to the image", e);
+            return null;
+        }
+        Rectangle2D.intersect(bounds, new Rectangle(pdImage.getWidth(), pdImage.getHeight()),
+                bounds);
+        if (bounds.isEmpty())
+        {
+            return new Rectangle();
+        }
+        // one more sample around the region for the interpolation at its edges
+        int x = Math.max(0, (int) Math.floor(bounds.getMinX()) - subsampling);
+        int y = Math.max(0, (int) Math.floor(bounds.getMinY()) - subsampling);
+        x -= x % subsampling;
+        y -= y % subsampling;
+        int width = (int) Math.ceil(bounds.getMaxX()) + subsampling - x;
+        int height = (int) Math.ceil(bounds.getMaxY()) + subsampling - y;
+        // whole samples, so that the region is not stretched when drawn
+        Rectangle region = new Rectangle(x, y,
+                width + (subsampling - width % subsampling) % subsampling,
+                height + (subsampling - height % subsampling) % subsampling)
+                        .intersection(new Rectangle(pdImage.getWidth(), pdImage.getHeight()));
+        if (region.width == pdImage.getWidth() && region.height == pdImage.getHeight())
+        {
+            return null;
+        }
+        return region;
+    }
+
     private void drawBufferedImage(BufferedImage image, AffineTransform at) throws IOException
     {
         graphics.setComposite(getGraphicsState().getNonStrokingJavaComposite());
@@ -1486,6 +1620,11 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             // clip the bbox to prevent giant bboxes from consuming all memory
             Area clip = (Area) getGraphicsState().getCurrentClippingPath().clone();
             clip.intersect(new Area(transformedBox));
+            if (regionClip != null && !drawingTilingPattern)
+            {
+                // only the drawn region of the page is needed (e.g. a tile)
+                clip.intersect(regionClip);
+            }
             Rectangle2D clipRect = clip.getBounds2D();
             if (clipRect.isEmpty())
             {
@@ -17,6 +17,8 @@
 
 package org.sejda.sambox.rendering;
 
+import java.awt.Rectangle;
+
 import org.sejda.sambox.pdmodel.PDPage;
 
 /**
@@ -30,14 +32,27 @@ public final class PageDrawerParameters
 {
     private final PDFRenderer renderer;
     private final PDPage page;
+    private final Rectangle region;
 
     /**
      * Package-private constructor.
      */
     PageDrawerParameters(PDFRenderer renderer, PDPage page)
+    {
+        this(renderer, page, null);
+    }
+
+    /**
+     * Package-private constructor.
+     * 
+     * @param region the region of the page image being drawn, in pixels, or null if the whole page is drawn. The origin
+     * of the graphics device is the origin of the region.
+     */
+    PageDrawerParameters(PDFRenderer renderer, PDPage page, Rectangle region)
     {
         this.renderer = renderer;
         this.page = page;
+        this.region = region;
     }
 
     /**
@@ -55,4 +70,12 @@ public final class PageDrawerParameters
     {
         return renderer;
     }
+
+    /**
+     * Returns the region of the page image being drawn, or null if the whole page is drawn.
+     */
+    Rectangle getRegion()
+    {
+        return region;
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.rendering;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Receives the pages rendered by {@link PDFRenderer#renderImages(int, int, float, ImageType, java.util.concurrent.Executor, int, RenderedPageConsumer)}
+ * as they are completed.
+ * 
+ * @author Andrea Vacondio
+ */
+@FunctionalInterface
+public interface RenderedPageConsumer
+{
+    /**
+     * @param pageIndex the zero-based index of the rendered page
+     * @param image the rendered page image
+     * @throws IOException
+     */
+    void accept(int pageIndex, BufferedImage image) throws IOException;
+}
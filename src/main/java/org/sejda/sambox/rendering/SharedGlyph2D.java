@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.rendering;
+
+import java.awt.geom.GeneralPath;
+import java.io.IOException;
+
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
+import org.sejda.sambox.pdmodel.font.PDFont;
+
+/**
+ * A {@link Glyph2D} looking up glyph outlines in the {@link GlyphCache} shared by the rendered pages before asking the
+ * font specific {@link Glyph2D}. Outlines are extracted holding the font lock, since the font program can be shared by
+ * pages rendered concurrently.
+ * 
+ * @author Andrea Vacondio
+ */
+final class SharedGlyph2D implements Glyph2D
+{
+    private final Glyph2D glyph2D;
+    private final GlyphCache cache;
+    private final PDFont font;
+    private final IndirectCOSObjectIdentifier fontId;
+
+    /**
+     * @param glyph2D the font specific glyph provider
+     * @param cache the shared cache
+     * @param font the font, its dictionary is expected to be an indirect object
+     */
+    SharedGlyph2D(Glyph2D glyph2D, GlyphCache cache, PDFont font)
+    {
+        this.glyph2D = glyph2D;
+        this.cache = cache;
+        this.font = font;
+        this.fontId = font.getCOSObject().id();
+    }
+
+    @Override
+    public GeneralPath getPathForCharacterCode(int code) throws IOException
+    {
+        GeneralPath path = cache.get(fontId, code);
+        if (path == null)
+        {
+            synchronized (font)
+            {
+                path = glyph2D.getPathForCharacterCode(code);
+            }
+            if (path != null)
+            {
+                cache.put(fontId, code, path);
+            }
+        }
+        return path;
+    }
+
+    @Override
+    public void dispose()
+    {
+        glyph2D.dispose();
+    }
+}
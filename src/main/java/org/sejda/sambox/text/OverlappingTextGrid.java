@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spatial hash grid of the text positions shown in a page, used to find text drawn more than once at almost the same
+ * position (ex. fake bold). Positions are bucketed in square cells and each entry is stored as primitives, the code
+ * point of the text (or an id for text made of multiple code points) and its coordinates, so the lookup doesn't
+ * allocate and only visits the cells covered by the tolerance.
+ * 
+ * @author Andrea Vacondio
+ */
+final class OverlappingTextGrid
+{
+    private static final float CELL_SIZE = 4f;
+    private static final int EMPTY = -1;
+
+    // entries
+    private int size = 0;
+    private int[] codes = new int[256];
+    private float[] xs = new float[256];
+    private float[] ys = new float[256];
+    // next entry in the same cell
+    private int[] next = new int[256];
+
+    // open addressing cells table, cell key -> first entry in the cell
+    private int cells = 0;
+    private long[] keys = new long[512];
+    private int[] heads = emptyHeads(512);
+
+    // ids of the text made of multiple code points
+    private final Map<String, Integer> sequences = new HashMap<>();
+
+    /**
+     * Adds the given text at the given position, unless the same text is already at a position whose coordinates are
+     * both within [coordinate - tolerance, coordinate + tolerance).
+     * 
+     * @param unicode
+     * @param x
+     * @param y
+     * @param tolerance
+     * @return true if the text has been added, false if it overlaps text already in the grid
+     */
+    boolean addIfNotOverlapping(String unicode, float x, float y, float tolerance)
+    {
+        int code = codeOf(unicode);
+        float minX = x - tolerance;
+        float maxX = x + tolerance;
+        float minY = y - tolerance;
+        float maxY = y + tolerance;
+        int fromCellX = cell(minX);
+        int toCellX = cell(maxX);
+        int fromCellY = cell(minY);
+        int toCellY = cell(maxY);
+        long coveredColumns = (long) toCellX - fromCellX + 1;
+        long coveredRows = (long) toCellY - fromCellY + 1;
+        if (coveredColumns > size || coveredRows > size || coveredColumns * coveredRows > size)
+        {
+            // a huge tolerance, faster to look at all the entries
+            for (int i = 0; i < size; i++)
+            {
+                if (matches(i, code, minX, maxX, minY, maxY))
+                {
+                    return false;
+                }
+            }
+        }
+        else
+        {
+            for (int cellX = fromCellX; cellX <= toCellX; cellX++)
+            {
+                for (int cellY = fromCellY; cellY <= toCellY; cellY++)
+                {
+                    int slot = slotOf(key(cellX, cellY));
+                    for (int i = heads[slot]; i != EMPTY; i = next[i])
+                    {
+                        if (matches(i, code, minX, maxX, minY, maxY))
+                        {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        add(code, x, y);
+        return true;
+    }
+
+    private boolean matches(int entry, int code, float minX, float maxX, float minY, float maxY)
+    {
+        return codes[entry] == code && xs[entry] >= minX && xs[entry] < maxX && ys[entry] >= minY
+                && ys[entry] < maxY;
+    }
+
+    private void add(int code, float x, float y)
+    {
+        if (size == codes.length)
+        {
+            int capacity = size * 2;
+            codes = Arrays.copyOf(codes, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        if ((cells + 1) * 2 > keys.length)
+        {
+            rehash(keys.length * 2);
+        }
+        codes[size] = code;
+        xs[size] = x;
+        ys[size] = y;
+        long key = key(cell(x), cell(y));
+        int slot = slotOf(key);
+        if (heads[slot] == EMPTY)
+        {
+            keys[slot] = key;
+            cells++;
+        }
+        next[size] = heads[slot];
+        heads[slot] = size;
+        size++;
+    }
+
+    /**
+     * @return the slot of the given cell key, or the empty slot where it should be inserted
+     */
+    private int slotOf(long key)
+    {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (heads[slot] != EMPTY && keys[slot] != key)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        keys = new long[capacity];
+        heads = emptyHeads(capacity);
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldHeads[i] != EMPTY)
+            {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private int codeOf(String unicode)
+    {
+        if (unicode.length() == 1)
+        {
+            return unicode.charAt(0);
+        }
+        if (unicode.length() == 2
+                && Character.isSurrogatePair(unicode.charAt(0), unicode.charAt(1)))
+        {
+            return unicode.codePointAt(0);
+        }
+        // negative ids don't clash with code points
+        return -1 - sequences.computeIfAbsent(unicode, k -> sequences.size());
+    }
+
+    /**
+     * Removes all the entries
+     */
+    void clear()
+    {
+        if (size > 0)
+        {
+            size = 0;
+            cells = 0;
+            Arrays.fill(heads, EMPTY);
+            sequences.clear();
+        }
+    }
+
+    private static int cell(float coordinate)
+    {
+        // out of range coordinates are clamped, entries are checked against the actual coordinates anyway
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static long key(int cellX, int cellY)
+    {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int[] emptyHeads(int capacity)
+    {
+        int[] heads = new int[capacity];
+        Arrays.fill(heads, EMPTY);
+        return heads;
+    }
+}
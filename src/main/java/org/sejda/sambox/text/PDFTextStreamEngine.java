@@ -145,64 +145,9 @@ public class PDFTextStreamEngine extends PDFStreamEngine
         float horizontalScaling = state.getTextState().getHorizontalScaling() / 100f;
         Matrix textMatrix = getTextMatrix();
 
-        BoundingBox bbox = font.getBoundingBox();
-        if (bbox.getLowerLeftY() < Short.MIN_VALUE)
-        {
-            // PDFBOX-2158 and PDFBOX-3130
-            // files by Salmat eSolutions / ClibPDF Library
-            bbox.setLowerLeftY(-(bbox.getLowerLeftY() + 65536));
-        }
-        // 1/2 the bbox is used as the height todo: why?
-        float glyphHeight = bbox.getHeight() / 2;
+        float height = glyphHeight(font);
 
-        // sometimes the bbox has very high values, but CapHeight is OK
-        PDFontDescriptor fontDescriptor = font.getFontDescriptor();
-        if (fontDescriptor != null)
-        {
-            float capHeight = fontDescriptor.getCapHeight();
-            if (capHeight != 0 && (capHeight < glyphHeight || glyphHeight == 0))
-            {
-                glyphHeight = capHeight;
-            }
-        }
-
-        // transformPoint from glyph space -> text space
-        float height;
-        if (font instanceof PDType3Font)
-        {
-            height = font.getFontMatrix().transformPoint(0, glyphHeight).y;
-        }
-        else
-        {
-            height = glyphHeight / 1000;
-        }
-
-        float displacementX = displacement.getX();
-        // the sorting algorithm is based on the width of the character. As the displacement
-        // for vertical characters doesn't provide any suitable value for it, we have to
-        // calculate our own
-        if (font.isVertical())
-        {
-            displacementX = font.getWidth(code) / 1000;
-            // there may be an additional scaling factor for true type fonts
-            TrueTypeFont ttf = null;
-            if (font instanceof PDTrueTypeFont)
-            {
-                ttf = ((PDTrueTypeFont) font).getTrueTypeFont();
-            }
-            else if (font instanceof PDType0Font)
-            {
-                PDCIDFont cidFont = ((PDType0Font) font).getDescendantFont();
-                if (cidFont instanceof PDCIDFontType2)
-                {
-                    ttf = ((PDCIDFontType2) cidFont).getTrueTypeFont();
-                }
-            }
-            if (ttf != null && ttf.getUnitsPerEm() != 1000)
-            {
-                displacementX *= 1000f / ttf.getUnitsPerEm();
-            }
-        }
+        float displacementX = horizontalDisplacement(font, code, displacement);
         // (modified) combined displacement, this is calculated *without* taking the character
         // spacing and word spacing into account, due to legacy code in TextStripper
         float tx = displacementX * fontSize * horizontalScaling;
@@ -305,6 +250,86 @@ public class PDFTextStreamEngine extends PDFStreamEngine
                 (int) (fontSize * textMatrix.getScalingFactorX())));
     }
 
+    /**
+     * @param font
+     * @return the height of the glyphs of the given font, in text space
+     * @throws IOException
+     */
+    static float glyphHeight(PDFont font) throws IOException
+    {
+        BoundingBox bbox = font.getBoundingBox();
+        if (bbox.getLowerLeftY() < Short.MIN_VALUE)
+        {
+            // PDFBOX-2158 and PDFBOX-3130
+            // files by Salmat eSolutions / ClibPDF Library
+            bbox.setLowerLeftY(-(bbox.getLowerLeftY() + 65536));
+        }
+        // 1/2 the bbox is used as the height todo: why?
+        float glyphHeight = bbox.getHeight() / 2;
+
+        // sometimes the bbox has very high values, but CapHeight is OK
+        PDFontDescriptor fontDescriptor = font.getFontDescriptor();
+        if (fontDescriptor != null)
+        {
+            float capHeight = fontDescriptor.getCapHeight();
+            if (capHeight != 0 && (capHeight < glyphHeight || glyphHeight == 0))
+            {
+                glyphHeight = capHeight;
+            }
+        }
+
+        // transformPoint from glyph space -> text space
+        if (font instanceof PDType3Font)
+        {
+            return font.getFontMatrix().transformPoint(0, glyphHeight).y;
+        }
+        return glyphHeight / 1000;
+    }
+
+    /**
+     * @param font
+     * @param code
+     * @param displacement
+     * @return the horizontal displacement of the glyph, in text space
+     * @throws IOException
+     */
+    static float horizontalDisplacement(PDFont font, int code, Vector displacement)
+            throws IOException
+    {
+        // the sorting algorithm is based on the width of the character. As the displacement
+        // for vertical characters doesn't provide any suitable value for it, we have to
+        // calculate our own
+        if (font.isVertical())
+        {
+            float displacementX = font.getWidth(code) / 1000;
+            // there may be an additional scaling factor for true type fonts
+            TrueTypeFont ttf = null;
+            if (font instanceof PDTrueTypeFont)
+            {
+                ttf = ((PDTrueTypeFont) font).getTrueTypeFont();
+            }
+            else if (font instanceof PDType0Font)
+            {
+                PDCIDFont cidFont = ((PDType0Font) font).getDescendantFont();
+                if (cidFont instanceof PDCIDFontType2)
+                {
+                    ttf = ((PDCIDFontType2) cidFont).getTrueTypeFont();
+                }
+            }
+            if (ttf != null && ttf.getUnitsPerEm() != 1000)
+            {
+                displacementX *= 1000f / ttf.getUnitsPerEm();
+            }
+            return displacementX;
+        }
+        return displacement.getX();
+    }
+
+    GlyphList glyphList()
+    {
+        return glyphList;
+    }
+
     /**
      * A method provided as an event interface to allow a subclass to perform some specific functionality when text
      * needs to be processed.
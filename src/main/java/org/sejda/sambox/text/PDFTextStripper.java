@@ -22,16 +22,11 @@ import java.io.Writer;
 import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.SortedSet;
 import java.util.StringTokenizer;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -189,7 +184,7 @@ public class PDFTextStripper extends PDFTextStreamEngine
      */
     protected ArrayList<List<TextPosition>> charactersByArticle = new ArrayList<>();
 
-    private Map<String, TreeMap<Float, TreeSet<Float>>> characterListMapping = new HashMap<String, TreeMap<Float, TreeSet<Float>>>();
+    private final OverlappingTextGrid overlappingText = new OverlappingTextGrid();
 
     protected PDDocument document;
     protected Writer output;
@@ -227,14 +222,12 @@ public class PDFTextStripper extends PDFTextStreamEngine
     {
         currentPageNo = 0;
         document = null;
+        inParagraph = false;
         if (charactersByArticle != null)
         {
             charactersByArticle.clear();
         }
-        if (characterListMapping != null)
-        {
-            characterListMapping.clear();
-        }
+        overlappingText.clear();
     }
 
     /**
@@ -246,6 +239,17 @@ public class PDFTextStripper extends PDFTextStreamEngine
      * @throws IOException If the doc is in an invalid state.
      */
     public void writeText(PDDocument doc, Writer outputStream) throws IOException
+    {
+        initialize(doc, outputStream);
+        startDocument(document);
+        processPages(document.getPages());
+        endDocument(document);
+    }
+
+    /**
+     * Prepares the engine to write the text of the given document to the given writer
+     */
+    void initialize(PDDocument doc, Writer outputStream)
     {
         resetEngine();
         document = doc;
@@ -257,9 +261,6 @@ public class PDFTextStripper extends PDFTextStreamEngine
             articleStart = lineSeparator;
             articleEnd = lineSeparator;
         }
-        startDocument(document);
-        processPages(document.getPages());
-        endDocument(document);
     }
 
     /**
@@ -270,6 +271,18 @@ public class PDFTextStripper extends PDFTextStreamEngine
      * @throws IOException If there is an error parsing the text.
      */
     protected void processPages(PDPageTree pages) throws IOException
+    {
+        resolveBookmarkPages(pages);
+        for (PDPage page : pages)
+        {
+            writePageText(page, currentPageNo + 1);
+        }
+    }
+
+    /**
+     * Finds the numbers of the pages the start and end bookmarks point to, if any
+     */
+    void resolveBookmarkPages(PDPageTree pages) throws IOException
     {
         PDPage startBookmarkPage = startBookmark == null ? null
                 : startBookmark.findDestinationPage(document);
@@ -305,21 +318,38 @@ public class PDFTextStripper extends PDFTextStreamEngine
             startBookmarkPageNumber = 0;
             endBookmarkPageNumber = 0;
         }
+    }
 
-        for (PDPage page : pages)
+    /**
+     * @param pageNumber
+     * @return true if the page with the given number is within the pages and bookmarks range text is extracted from
+     */
+    boolean isInRange(int pageNumber)
+    {
+        return pageNumber >= startPage && pageNumber <= endPage
+                && (startBookmarkPageNumber == -1 || pageNumber >= startBookmarkPageNumber)
+                && (endBookmarkPageNumber == -1 || pageNumber <= endBookmarkPageNumber);
+    }
+
+    /**
+     * Writes the text of a single page, the engine must have been initialized with the document the page belongs to.
+     * 
+     * @param page
+     * @param pageNumber the one-based number of the page in the document
+     */
+    void writePageText(PDPage page, int pageNumber)
+    {
+        currentPageNo = pageNumber;
+        LOG.trace("Processing page {}", currentPageNo);
+        if (page.hasContents())
         {
-            currentPageNo++;
-            LOG.trace("Processing page {}", currentPageNo);
-            if (page.hasContents())
+            try
             {
-                try
-                {
-                    processPage(page);
-                }
-                catch (IOException e)
-                {
-                    LOG.warn("Unable to extract text from page " + currentPageNo, e);
-                }
+                processPage(page);
+            }
+            catch (IOException e)
+            {
+                LOG.warn("Unable to extract text from page " + currentPageNo, e);
             }
         }
     }
@@ -357,9 +387,7 @@ public class PDFTextStripper extends PDFTextStreamEngine
     @Override
     public void processPage(PDPage page) throws IOException
     {
-        if (currentPageNo >= startPage && currentPageNo <= endPage
-                && (startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber)
-                && (endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber))
+        if (isInRange(currentPageNo))
         {
             startPage(page);
 
@@ -390,7 +418,7 @@ public class PDFTextStripper extends PDFTextStreamEngine
                     }
                 }
             }
-            characterListMapping.clear();
+            overlappingText.clear();
             super.processPage(page);
             writePage();
             endPage(page);
@@ -811,21 +839,24 @@ public class PDFTextStripper extends PDFTextStreamEngine
      */
     @Override
     protected void processTextPosition(TextPosition text)
+    {
+        if (isShown(text))
+        {
+            addCharacter(text);
+        }
+    }
+
+    /**
+     * @param text
+     * @return false if the text is a duplicate of some overlapping text already shown in the page and it has to be
+     * suppressed, true otherwise.
+     */
+    boolean isShown(TextPosition text)
     {
         boolean showCharacter = true;
         if (suppressDuplicateOverlappingText)
         {
-            showCharacter = false;
             String textCharacter = text.getUnicode();
-            float textX = text.getX();
-            float textY = text.getY();
-            TreeMap<Float, TreeSet<Float>> sameTextCharacters = characterListMapping
-                    .get(textCharacter);
-            if (sameTextCharacters == null)
-            {
-                sameTextCharacters = new TreeMap<Float, TreeSet<Float>>();
-                characterListMapping.put(textCharacter, sameTextCharacters);
-            }
             // RDD - Here we compute the value that represents the end of the rendered
             // text. This value is used to determine whether subsequent text rendered
             // on the same line overwrites the current text.
@@ -836,134 +867,119 @@ public class PDFTextStripper extends PDFTextStreamEngine
             // the TJ just backs up to compensate after each character). Also, we subtract
             // an amount to allow for kerning (a percentage of the width of the last
             // character).
-            boolean suppressCharacter = false;
             float tolerance = text.getWidth() / textCharacter.length() / 3.0f;
-
-            SortedMap<Float, TreeSet<Float>> xMatches = sameTextCharacters.subMap(textX - tolerance,
-                    textX + tolerance);
-            for (TreeSet<Float> xMatch : xMatches.values())
-            {
-                SortedSet<Float> yMatches = xMatch.subSet(textY - tolerance, textY + tolerance);
-                if (!yMatches.isEmpty())
-                {
-                    suppressCharacter = true;
-                    break;
-                }
-            }
-            if (!suppressCharacter)
-            {
-                TreeSet<Float> ySet = sameTextCharacters.get(textX);
-                if (ySet == null)
-                {
-                    ySet = new TreeSet<Float>();
-                    sameTextCharacters.put(textX, ySet);
-                }
-                ySet.add(textY);
-                showCharacter = true;
-            }
+            showCharacter = overlappingText.addIfNotOverlapping(textCharacter, text.getX(),
+                    text.getY(), tolerance);
         }
-        if (showCharacter)
+        return showCharacter;
+    }
+
+    /**
+     * Adds the text to the characters of the article it belongs to
+     * 
+     * @param text
+     */
+    void addCharacter(TextPosition text)
+    {
+        // we need to determine which article the character belongs to
+        int foundArticleDivisionIndex = -1;
+        int notFoundButFirstLeftAndAboveArticleDivisionIndex = -1;
+        int notFoundButFirstLeftArticleDivisionIndex = -1;
+        int notFoundButFirstAboveArticleDivisionIndex = -1;
+        float x = text.getX();
+        float y = text.getY();
+        if (shouldSeparateByBeads)
         {
-            // if we are showing the character then we need to determine which article it belongs to
-            int foundArticleDivisionIndex = -1;
-            int notFoundButFirstLeftAndAboveArticleDivisionIndex = -1;
-            int notFoundButFirstLeftArticleDivisionIndex = -1;
-            int notFoundButFirstAboveArticleDivisionIndex = -1;
-            float x = text.getX();
-            float y = text.getY();
-            if (shouldSeparateByBeads)
+            for (int i = 0; i < beadRectangles.size() && foundArticleDivisionIndex == -1; i++)
             {
-                for (int i = 0; i < beadRectangles.size() && foundArticleDivisionIndex == -1; i++)
+                PDRectangle rect = beadRectangles.get(i);
+                if (rect != null)
                 {
-                    PDRectangle rect = beadRectangles.get(i);
-                    if (rect != null)
+                    if (rect.contains(x, y))
                     {
-                        if (rect.contains(x, y))
-                        {
-                            foundArticleDivisionIndex = i * 2 + 1;
-                        }
-                        else if ((x < rect.getLowerLeftX() || y < rect.getUpperRightY())
-                                && notFoundButFirstLeftAndAboveArticleDivisionIndex == -1)
-                        {
-                            notFoundButFirstLeftAndAboveArticleDivisionIndex = i * 2;
-                        }
-                        else if (x < rect.getLowerLeftX()
-                                && notFoundButFirstLeftArticleDivisionIndex == -1)
-                        {
-                            notFoundButFirstLeftArticleDivisionIndex = i * 2;
-                        }
-                        else if (y < rect.getUpperRightY()
-                                && notFoundButFirstAboveArticleDivisionIndex == -1)
-                        {
-                            notFoundButFirstAboveArticleDivisionIndex = i * 2;
-                        }
+                        foundArticleDivisionIndex = i * 2 + 1;
                     }
-                    else
+                    else if ((x < rect.getLowerLeftX() || y < rect.getUpperRightY())
+                            && notFoundButFirstLeftAndAboveArticleDivisionIndex == -1)
+                    {
+                        notFoundButFirstLeftAndAboveArticleDivisionIndex = i * 2;
+                    }
+                    else if (x < rect.getLowerLeftX()
+                            && notFoundButFirstLeftArticleDivisionIndex == -1)
+                    {
+                        notFoundButFirstLeftArticleDivisionIndex = i * 2;
+                    }
+                    else if (y < rect.getUpperRightY()
+                            && notFoundButFirstAboveArticleDivisionIndex == -1)
                     {
-                        foundArticleDivisionIndex = 0;
+                        notFoundButFirstAboveArticleDivisionIndex = i * 2;
                     }
                 }
+                else
+                {
+                    foundArticleDivisionIndex = 0;
+                }
             }
-            else
-            {
-                foundArticleDivisionIndex = 0;
-            }
-            int articleDivisionIndex;
-            if (foundArticleDivisionIndex != -1)
-            {
-                articleDivisionIndex = foundArticleDivisionIndex;
-            }
-            else if (notFoundButFirstLeftAndAboveArticleDivisionIndex != -1)
-            {
-                articleDivisionIndex = notFoundButFirstLeftAndAboveArticleDivisionIndex;
-            }
-            else if (notFoundButFirstLeftArticleDivisionIndex != -1)
-            {
-                articleDivisionIndex = notFoundButFirstLeftArticleDivisionIndex;
-            }
-            else if (notFoundButFirstAboveArticleDivisionIndex != -1)
-            {
-                articleDivisionIndex = notFoundButFirstAboveArticleDivisionIndex;
-            }
-            else
-            {
-                articleDivisionIndex = charactersByArticle.size() - 1;
-            }
+        }
+        else
+        {
+            foundArticleDivisionIndex = 0;
+        }
+        int articleDivisionIndex;
+        if (foundArticleDivisionIndex != -1)
+        {
+            articleDivisionIndex = foundArticleDivisionIndex;
+        }
+        else if (notFoundButFirstLeftAndAboveArticleDivisionIndex != -1)
+        {
+            articleDivisionIndex = notFoundButFirstLeftAndAboveArticleDivisionIndex;
+        }
+        else if (notFoundButFirstLeftArticleDivisionIndex != -1)
+        {
+            articleDivisionIndex = notFoundButFirstLeftArticleDivisionIndex;
+        }
+        else if (notFoundButFirstAboveArticleDivisionIndex != -1)
+        {
+            articleDivisionIndex = notFoundButFirstAboveArticleDivisionIndex;
+        }
+        else
+        {
+            articleDivisionIndex = charactersByArticle.size() - 1;
+        }
 
-            List<TextPosition> textList = charactersByArticle.get(articleDivisionIndex);
+        List<TextPosition> textList = charactersByArticle.get(articleDivisionIndex);
 
-            // In the wild, some PDF encoded documents put diacritics (accents on
-            // top of characters) into a separate Tj element. When displaying them
-            // graphically, the two chunks get overlayed. With text output though,
-            // we need to do the overlay. This code recombines the diacritic with
-            // its associated character if the two are consecutive.
-            if (textList.isEmpty())
+        // In the wild, some PDF encoded documents put diacritics (accents on
+        // top of characters) into a separate Tj element. When displaying them
+        // graphically, the two chunks get overlayed. With text output though,
+        // we need to do the overlay. This code recombines the diacritic with
+        // its associated character if the two are consecutive.
+        if (textList.isEmpty())
+        {
+            textList.add(text);
+        }
+        else
+        {
+            // test if we overlap the previous entry.
+            // Note that we are making an assumption that we need to only look back
+            // one TextPosition to find what we are overlapping.
+            // This may not always be true. */
+            TextPosition previousTextPosition = textList.get(textList.size() - 1);
+            if (text.isDiacritic() && previousTextPosition.contains(text))
+            {
+                previousTextPosition.mergeDiacritic(text);
+            }
+            // If the previous TextPosition was the diacritic, merge it into this
+            // one and remove it from the list.
+            else if (previousTextPosition.isDiacritic() && text.contains(previousTextPosition))
             {
+                text.mergeDiacritic(previousTextPosition);
+                textList.remove(textList.size() - 1);
                 textList.add(text);
             }
             else
             {
-                // test if we overlap the previous entry.
-                // Note that we are making an assumption that we need to only look back
-                // one TextPosition to find what we are overlapping.
-                // This may not always be true. */
-                TextPosition previousTextPosition = textList.get(textList.size() - 1);
-                if (text.isDiacritic() && previousTextPosition.contains(text))
-                {
-                    previousTextPosition.mergeDiacritic(text);
-                }
-                // If the previous TextPosition was the diacritic, merge it into this
-                // one and remove it from the list.
-                else if (previousTextPosition.isDiacritic() && text.contains(previousTextPosition))
-                {
-                    text.mergeDiacritic(previousTextPosition);
-                    textList.remove(textList.size() - 1);
-                    textList.add(text);
-                }
-                else
-                {
-                    textList.add(text);
-                }
+                textList.add(text);
             }
         }
     }
@@ -16,27 +16,39 @@
  */
 package org.sejda.sambox.text;
 
+import static org.sejda.util.RequireUtils.requireArg;
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.sejda.sambox.pdmodel.PDDocument;
 import org.sejda.sambox.pdmodel.PDPage;
 
 /**
  * This will extract text from a specified region in the PDF.
+ * <p>
+ * Regions are indexed once per page, so each text position is tested only against the regions it might fall in and
+ * it's added to all the regions containing it.
+ * </p>
  *
  * @author Ben Litchfield
  */
 public class PDFTextStripperByArea extends PDFTextStripper
 {
     private final List<String> regions = new ArrayList<>();
-    private final Map<String, Rectangle2D> regionArea = new HashMap<>();
-    private final Map<String, ArrayList<List<TextPosition>>> regionCharacterList = new HashMap<>();
+    private final Map<String, Rectangle2D> regionArea = new LinkedHashMap<>();
     private final Map<String, StringWriter> regionText = new HashMap<>();
+    private RegionsIndex index = new RegionsIndex(new ArrayList<>());
+    // characters of the regions in the index, by region index
+    private final List<ArrayList<List<TextPosition>>> regionCharacterList = new ArrayList<>();
+    private final List<String> indexedRegions = new ArrayList<>();
 
     /**
      * Constructor.
@@ -112,39 +124,115 @@ public class PDFTextStripperByArea extends PDFTextStripper
      */
     public void extractRegions(PDPage page) throws IOException
     {
-        for (String region : regions)
+        setStartPage(getCurrentPageNo());
+        setEndPage(getCurrentPageNo());
+        resetRegions();
+        if (page.hasContents())
         {
-            setStartPage(getCurrentPageNo());
-            setEndPage(getCurrentPageNo());
-            // reset the stored text for the region so this class
-            // can be reused.
-            ArrayList<List<TextPosition>> regionCharactersByArticle = new ArrayList<>();
-            regionCharactersByArticle.add(new ArrayList<TextPosition>());
-            regionCharacterList.put(region, regionCharactersByArticle);
-            regionText.put(region, new StringWriter());
+            processPage(page);
         }
+    }
 
-        if (page.hasContents())
+    /**
+     * Extracts the text of the regions from each page in the given range, in a single pass over the pages. The same
+     * regions are used for all the pages and the text of the regions of each page is handed to the consumer once the
+     * page is processed.
+     * 
+     * @param document the document to extract the text from
+     * @param startPage the one-based number of the first page, inclusive
+     * @param endPage the one-based number of the last page, inclusive
+     * @param consumer receives the text of the regions of each page
+     * @throws IOException if an error occurs consuming the text
+     */
+    public void extractRegions(PDDocument document, int startPage, int endPage,
+            RegionsTextConsumer consumer) throws IOException
+    {
+        requireNotNullArg(document, "Document cannot be null");
+        requireArg(startPage > 0 && startPage <= endPage
+                && endPage <= document.getNumberOfPages(), "Invalid pages range");
+        requireNotNullArg(consumer, "Consumer cannot be null");
+        initialize(document, new StringWriter());
+        setStartPage(startPage);
+        setEndPage(endPage);
+        int pageNumber = 0;
+        for (PDPage page : document.getPages())
         {
-            processPage(page);
+            pageNumber++;
+            if (pageNumber >= startPage)
+            {
+                resetRegions();
+                writePageText(page, pageNumber);
+                Map<String, String> text = new LinkedHashMap<>();
+                for (String region : indexedRegions)
+                {
+                    text.put(region, getTextForRegion(region));
+                }
+                consumer.accept(pageNumber, text);
+            }
+            if (pageNumber == endPage)
+            {
+                break;
+            }
         }
     }
 
+    /**
+     * Indexes the current regions and resets their text so this class can be reused.
+     */
+    private void resetRegions()
+    {
+        indexedRegions.clear();
+        regionCharacterList.clear();
+        regionText.clear();
+        List<Rectangle2D> areas = new ArrayList<>(regionArea.size());
+        for (Map.Entry<String, Rectangle2D> region : regionArea.entrySet())
+        {
+            indexedRegions.add(region.getKey());
+            areas.add(region.getValue());
+            ArrayList<List<TextPosition>> regionCharactersByArticle = new ArrayList<>();
+            regionCharactersByArticle.add(new ArrayList<TextPosition>());
+            regionCharacterList.add(regionCharactersByArticle);
+            regionText.put(region.getKey(), new StringWriter());
+        }
+        index = new RegionsIndex(areas);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     protected void processTextPosition(TextPosition text)
     {
-        for (String region : regionArea.keySet())
+        float x = text.getX();
+        float y = text.getY();
+        int first = -1;
+        for (int region : index.candidates(x, y))
         {
-            Rectangle2D rect = regionArea.get(region);
-            if (rect.contains(text.getX(), text.getY()))
+            if (index.contains(region, x, y))
             {
-                charactersByArticle = regionCharacterList.get(region);
-                super.processTextPosition(text);
+                // duplicate overlapping text is found once for all the regions
+                if (first < 0)
+                {
+                    if (!isShown(text))
+                    {
+                        return;
+                    }
+                    first = region;
+                }
+                else
+                {
+                    // diacritics are merged into the text positions, so every other region gets its own copy, taken
+                    // before the text position is added to the first region
+                    charactersByArticle = regionCharacterList.get(region);
+                    addCharacter(new TextPosition(text));
+                }
             }
         }
+        if (first >= 0)
+        {
+            charactersByArticle = regionCharacterList.get(first);
+            addCharacter(text);
+        }
     }
 
     /**
@@ -155,10 +243,10 @@ public class PDFTextStripperByArea extends PDFTextStripper
     @Override
     protected void writePage() throws IOException
     {
-        for (String region : regionArea.keySet())
+        for (int region = 0; region < indexedRegions.size(); region++)
         {
             charactersByArticle = regionCharacterList.get(region);
-            output = regionText.get(region);
+            output = regionText.get(indexedRegions.get(region));
             super.writePage();
         }
     }
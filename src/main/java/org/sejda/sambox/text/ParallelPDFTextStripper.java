@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import static org.sejda.util.RequireUtils.requireArg;
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.pdmodel.PDDocument;
+import org.sejda.sambox.pdmodel.PDPage;
+import org.sejda.sambox.pdmodel.PDPageTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Extracts the text of a document processing its pages concurrently. Each page is processed by a
+ * {@link PDFTextStripper} used by one thread at a time, while the document state (resources cache, fonts) is shared by
+ * all the pages. The text of the pages is written in page order, as soon as all the previous pages have been written,
+ * so the output is the same as the one of {@link PDFTextStripper#writeText(PDDocument, Writer)}.
+ * <p>
+ * Strippers are created by the given supplier, which must return a new and equally configured instance at every call.
+ * Start and end pages, bookmarks and the {@link PDFTextStripper#startDocument(PDDocument)} and
+ * {@link PDFTextStripper#endDocument(PDDocument)} callbacks are taken from, and called on, the first created stripper.
+ * </p>
+ * <p>
+ * Pages are processed concurrently only if the document has been loaded with the
+ * {@link SAMBox#CONCURRENT_OBJECTS_RESOLUTION_PROPERTY} enabled, otherwise they are processed sequentially by the
+ * calling thread.
+ * </p>
+ * 
+ * @author Andrea Vacondio
+ */
+public class ParallelPDFTextStripper
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelPDFTextStripper.class);
+
+    private final Supplier<? extends PDFTextStripper> strippers;
+
+    /**
+     * @param strippers supplies the strippers processing the pages
+     */
+    public ParallelPDFTextStripper(Supplier<? extends PDFTextStripper> strippers)
+    {
+        requireNotNullArg(strippers, "Strippers supplier cannot be null");
+        this.strippers = strippers;
+    }
+
+    /**
+     * @param doc
+     * @return the text of the given document, extracted using the common {@link ForkJoinPool} if the document objects
+     * can be resolved concurrently
+     * @throws IOException
+     */
+    public String getText(PDDocument doc) throws IOException
+    {
+        StringWriter output = new StringWriter();
+        writeText(doc, output);
+        return output.toString();
+    }
+
+    /**
+     * Writes the text of the given document to the given writer, processing pages on the common {@link ForkJoinPool} if
+     * the document objects can be resolved concurrently
+     * 
+     * @param doc
+     * @param output
+     * @throws IOException
+     */
+    public void writeText(PDDocument doc, Writer output) throws IOException
+    {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        writeText(doc, output, pool, pool.getParallelism() * 2);
+    }
+
+    /**
+     * Writes the text of the given document to the given writer, processing pages on the given executor. At most
+     * {@code maxInFlight} pages are processed, or waiting to be written, at the same time. The output is written by the
+     * calling thread, which is also the only one navigating the page tree. If the document objects cannot be resolved
+     * concurrently the pages are processed by the calling thread and the executor is not used.
+     * 
+     * @param doc
+     * @param output
+     * @param executor the executor processing the pages
+     * @param maxInFlight maximum number of pages processed at the same time
+     * @throws IOException if the text cannot be written or a page cannot be processed. Pages still in flight are
+     * cancelled.
+     */
+    public void writeText(PDDocument doc, Writer output, Executor executor, int maxInFlight)
+            throws IOException
+    {
+        requireNotNullArg(doc, "Document cannot be null");
+        requireNotNullArg(output, "Output cannot be null");
+        requireNotNullArg(executor, "Executor cannot be null");
+        requireArg(maxInFlight > 0, "Max in flight pages must be positive");
+
+        Executor processor = executor;
+        if (!doc.isConcurrentObjectsResolution())
+        {
+            LOG.warn(
+                    "Document not loaded with concurrent objects resolution, processing pages sequentially");
+            processor = Runnable::run;
+        }
+        PDFTextStripper main = strippers.get();
+        main.initialize(doc, output);
+        PDPageTree pages = doc.getPages();
+        main.resolveBookmarkPages(pages);
+        main.startDocument(doc);
+
+        // strippers are reused by the following pages once a page is done
+        Queue<PDFTextStripper> idle = new ConcurrentLinkedQueue<>();
+        Deque<Future<String>> inFlight = new ArrayDeque<>(maxInFlight);
+        int pageNumber = 0;
+        try
+        {
+            for (PDPage page : pages)
+            {
+                pageNumber++;
+                if (main.isInRange(pageNumber))
+                {
+                    if (inFlight.size() >= maxInFlight)
+                    {
+                        output.write(inFlight.poll().get());
+                    }
+                    int currentPage = pageNumber;
+                    inFlight.add(CompletableFuture
+                            .supplyAsync(() -> pageText(doc, page, currentPage, idle), processor));
+                }
+            }
+            while (!inFlight.isEmpty())
+            {
+                output.write(inFlight.poll().get());
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting text", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        finally
+        {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+        main.endDocument(doc);
+    }
+
+    private String pageText(PDDocument doc, PDPage page, int pageNumber,
+            Queue<PDFTextStripper> idle)
+    {
+        PDFTextStripper stripper = idle.poll();
+        if (stripper == null)
+        {
+            stripper = strippers.get();
+        }
+        try
+        {
+            StringWriter pageOutput = new StringWriter();
+            stripper.initialize(doc, pageOutput);
+            stripper.writePageText(page, pageNumber);
+            return pageOutput.toString();
+        }
+        finally
+        {
+            idle.add(stripper);
+        }
+    }
+}
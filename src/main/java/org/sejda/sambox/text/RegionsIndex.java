@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid index of the regions of a {@link PDFTextStripperByArea}, used to find the regions containing a point
+ * without testing all of them. The bounds of all the regions are split in cells and each cell holds the indexes of the
+ * regions intersecting it, in ascending order.
+ * 
+ * @author Andrea Vacondio
+ */
+final class RegionsIndex
+{
+    private static final int[] NONE = new int[0];
+    private static final int MAX_CELLS_PER_SIDE = 64;
+
+    private final Rectangle2D[] regions;
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells;
+
+    RegionsIndex(List<Rectangle2D> areas)
+    {
+        this.regions = areas.toArray(new Rectangle2D[areas.size()]);
+        Rectangle2D bounds = null;
+        for (Rectangle2D region : regions)
+        {
+            if (!region.isEmpty())
+            {
+                if (bounds == null)
+                {
+                    bounds = new Rectangle2D.Double();
+                    bounds.setRect(region);
+                }
+                else
+                {
+                    bounds.add(region);
+                }
+            }
+        }
+        if (bounds == null)
+        {
+            minX = minY = maxX = maxY = 0;
+            cellWidth = cellHeight = 1;
+            columns = rows = 0;
+            cells = new int[0][];
+        }
+        else
+        {
+            // roughly one region per cell
+            int side = (int) Math.min(MAX_CELLS_PER_SIDE, Math.ceil(Math.sqrt(regions.length)));
+            minX = bounds.getMinX();
+            minY = bounds.getMinY();
+            maxX = bounds.getMaxX();
+            maxY = bounds.getMaxY();
+            columns = side;
+            rows = side;
+            cellWidth = Math.max(bounds.getWidth(), Double.MIN_NORMAL) / columns;
+            cellHeight = Math.max(bounds.getHeight(), Double.MIN_NORMAL) / rows;
+            cells = fill();
+        }
+    }
+
+    private int[][] fill()
+    {
+        int[] sizes = new int[columns * rows];
+        int[][] filled = new int[columns * rows][];
+        for (int pass = 0; pass < 2; pass++)
+        {
+            for (int i = 0; i < regions.length; i++)
+            {
+                Rectangle2D region = regions[i];
+                if (!region.isEmpty())
+                {
+                    int fromColumn = column(region.getMinX());
+                    int toColumn = column(region.getMaxX());
+                    int fromRow = row(region.getMinY());
+                    int toRow = row(region.getMaxY());
+                    for (int row = fromRow; row <= toRow; row++)
+                    {
+                        for (int column = fromColumn; column <= toColumn; column++)
+                        {
+                            int cell = row * columns + column;
+                            if (pass == 0)
+                            {
+                                sizes[cell]++;
+                            }
+                            else
+                            {
+                                filled[cell][sizes[cell]++] = i;
+                            }
+                        }
+                    }
+                }
+            }
+            if (pass == 0)
+            {
+                for (int cell = 0; cell < filled.length; cell++)
+                {
+                    filled[cell] = sizes[cell] == 0 ? NONE : new int[sizes[cell]];
+                }
+                Arrays.fill(sizes, 0);
+            }
+        }
+        return filled;
+    }
+
+    private int column(double x)
+    {
+        return clamp((int) Math.floor((x - minX) / cellWidth), columns);
+    }
+
+    private int row(double y)
+    {
+        return clamp((int) Math.floor((y - minY) / cellHeight), rows);
+    }
+
+    private static int clamp(int value, int size)
+    {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    /**
+     * @return the number of indexed regions
+     */
+    int size()
+    {
+        return regions.length;
+    }
+
+    /**
+     * @param x
+     * @param y
+     * @return the indexes of the regions that might contain the given point, in ascending order. The returned array
+     * must not be modified.
+     */
+    int[] candidates(double x, double y)
+    {
+        if (cells.length == 0 || !(x >= minX && y >= minY && x <= maxX && y <= maxY))
+        {
+            return NONE;
+        }
+        return cells[row(y) * columns + column(x)];
+    }
+
+    /**
+     * @param region
+     * @param x
+     * @param y
+     * @return true if the region with the given index contains the given point
+     */
+    boolean contains(int region, double x, double y)
+    {
+        return regions[region].contains(x, y);
+    }
+}
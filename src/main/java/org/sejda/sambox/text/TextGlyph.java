@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import org.sejda.sambox.pdmodel.font.PDFont;
+import org.sejda.sambox.pdmodel.graphics.state.RenderingMode;
+
+/**
+ * A glyph shown on a page, as streamed by a {@link TextGlyphStreamer}. Instances are reused by the streamer, one for
+ * all the glyphs it shows, so they are only valid for the duration of the {@link TextGlyphConsumer} call and they
+ * shouldn't be retained. Coordinates are in user space units, relative to the lower left corner of the page crop box
+ * and without taking the page rotation into account.
+ * 
+ * @author Andrea Vacondio
+ */
+public final class TextGlyph
+{
+    int pageNumber;
+    float x;
+    float y;
+    float endX;
+    float endY;
+    float height;
+    float fontSize;
+    float fontSizeInPt;
+    PDFont font;
+    int code;
+    String unicode;
+    RenderingMode renderingMode;
+
+    TextGlyph()
+    {
+        // reused by the streamer
+    }
+
+    /**
+     * @return the one-based number of the page the glyph is shown on
+     */
+    public int getPageNumber()
+    {
+        return pageNumber;
+    }
+
+    /**
+     * @return the x coordinate of the glyph origin
+     */
+    public float getX()
+    {
+        return x;
+    }
+
+    /**
+     * @return the y coordinate of the glyph origin
+     */
+    public float getY()
+    {
+        return y;
+    }
+
+    /**
+     * @return the x coordinate where the glyph ends and the next one would start
+     */
+    public float getEndX()
+    {
+        return endX;
+    }
+
+    /**
+     * @return the y coordinate where the glyph ends and the next one would start
+     */
+    public float getEndY()
+    {
+        return endY;
+    }
+
+    /**
+     * @return the width of the glyph, the distance between its origin and its end along the x axis
+     */
+    public float getWidth()
+    {
+        return endX - x;
+    }
+
+    /**
+     * @return the height of the glyph
+     */
+    public float getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * @return the font size, as set in the text state
+     */
+    public float getFontSize()
+    {
+        return fontSize;
+    }
+
+    /**
+     * @return the font size in points, taking into account the text and transformation matrices
+     */
+    public float getFontSizeInPt()
+    {
+        return fontSizeInPt;
+    }
+
+    /**
+     * @return the font the glyph is shown with
+     */
+    public PDFont getFont()
+    {
+        return font;
+    }
+
+    /**
+     * @return the character code of the glyph
+     */
+    public int getCode()
+    {
+        return code;
+    }
+
+    /**
+     * @return the unicode value of the glyph or null if the font doesn't map the code to unicode
+     */
+    public String getUnicode()
+    {
+        return unicode;
+    }
+
+    /**
+     * @return the text rendering mode the glyph is shown with
+     */
+    public RenderingMode getRenderingMode()
+    {
+        return renderingMode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TextGlyph[page=" + pageNumber + ", x=" + x + ", y=" + y + ", code=" + code
+                + ", unicode=" + unicode + "]";
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import static org.sejda.util.RequireUtils.requireArg;
+import static org.sejda.util.RequireUtils.requireNotNullArg;
+
+import java.io.IOException;
+
+import org.sejda.sambox.pdmodel.PDDocument;
+import org.sejda.sambox.pdmodel.PDPage;
+import org.sejda.sambox.pdmodel.common.PDRectangle;
+import org.sejda.sambox.pdmodel.font.PDFont;
+import org.sejda.sambox.pdmodel.graphics.state.PDGraphicsState;
+import org.sejda.sambox.pdmodel.graphics.state.PDTextState;
+import org.sejda.sambox.util.Matrix;
+import org.sejda.sambox.util.Vector;
+
+/**
+ * Streams the glyphs shown on the pages of a document to a {@link TextGlyphConsumer}, as they are found in the content
+ * streams. Unlike {@link PDFTextStripper}, glyphs are not buffered, sorted or merged into lines and no
+ * {@link TextPosition} is created. A single {@link TextGlyph} holding primitive values is reused and handed to the
+ * consumer for every glyph, making this suitable for use cases like search indexing or redaction, where a forward
+ * stream of glyphs with their position is enough, also on pages with a very large number of glyphs.
+ * 
+ * @author Andrea Vacondio
+ */
+public class TextGlyphStreamer extends PDFTextStreamEngine
+{
+    private final TextGlyphConsumer consumer;
+    private final TextGlyph glyph = new TextGlyph();
+    private float cropBoxX;
+    private float cropBoxY;
+    private PDFont heightFont;
+    private float fontHeight;
+
+    /**
+     * @param consumer receives the glyphs
+     * @throws IOException
+     */
+    public TextGlyphStreamer(TextGlyphConsumer consumer) throws IOException
+    {
+        requireNotNullArg(consumer, "Consumer cannot be null");
+        this.consumer = consumer;
+    }
+
+    /**
+     * Streams the glyphs of all the pages of the given document
+     * 
+     * @param document
+     * @throws IOException
+     */
+    public void stream(PDDocument document) throws IOException
+    {
+        requireNotNullArg(document, "Document cannot be null");
+        stream(document, 1, document.getNumberOfPages());
+    }
+
+    /**
+     * Streams the glyphs of the pages of the given document in the given range
+     * 
+     * @param document
+     * @param startPage the one-based number of the first page, inclusive
+     * @param endPage the one-based number of the last page, inclusive
+     * @throws IOException
+     */
+    public void stream(PDDocument document, int startPage, int endPage) throws IOException
+    {
+        requireNotNullArg(document, "Document cannot be null");
+        requireArg(startPage > 0 && startPage <= endPage
+                && endPage <= document.getNumberOfPages(), "Invalid pages range");
+        int pageNumber = 0;
+        for (PDPage page : document.getPages())
+        {
+            pageNumber++;
+            if (pageNumber >= startPage)
+            {
+                stream(page, pageNumber);
+            }
+            if (pageNumber == endPage)
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Streams the glyphs of the given page
+     * 
+     * @param page
+     * @param pageNumber the one-based number of the page, reported by the streamed glyphs
+     * @throws IOException
+     */
+    public void stream(PDPage page, int pageNumber) throws IOException
+    {
+        glyph.pageNumber = pageNumber;
+        processPage(page);
+    }
+
+    @Override
+    public void processPage(PDPage page) throws IOException
+    {
+        PDRectangle cropBox = page.getCropBox();
+        cropBoxX = cropBox.getLowerLeftX();
+        cropBoxY = cropBox.getLowerLeftY();
+        heightFont = null;
+        super.processPage(page);
+    }
+
+    @Override
+    protected void showGlyph(Matrix textRenderingMatrix, PDFont font, int code, String unicode,
+            Vector displacement) throws IOException
+    {
+        PDGraphicsState state = getGraphicsState();
+        PDTextState textState = state.getTextState();
+        Matrix ctm = state.getCurrentTransformationMatrix();
+        Matrix textMatrix = getTextMatrix();
+        float fontSize = textState.getFontSize();
+
+        // same displacement PDFTextStreamEngine uses, without the character and word spacing, computed without
+        // creating the intermediate matrices
+        float tx = horizontalDisplacement(font, code, displacement) * fontSize
+                * textState.getHorizontalScaling() / 100f;
+        float ty = displacement.getY() * fontSize;
+        float textX = tx * textMatrix.getScaleX() + ty * textMatrix.getShearX()
+                + textMatrix.getTranslateX();
+        float textY = tx * textMatrix.getShearY() + ty * textMatrix.getScaleY()
+                + textMatrix.getTranslateY();
+
+        if (font != heightFont)
+        {
+            heightFont = font;
+            fontHeight = glyphHeight(font);
+        }
+
+        glyph.x = textRenderingMatrix.getTranslateX() - cropBoxX;
+        glyph.y = textRenderingMatrix.getTranslateY() - cropBoxY;
+        glyph.endX = textX * ctm.getScaleX() + textY * ctm.getShearX() + ctm.getTranslateX()
+                - cropBoxX;
+        glyph.endY = textX * ctm.getShearY() + textY * ctm.getScaleY() + ctm.getTranslateY()
+                - cropBoxY;
+        glyph.height = Math.abs(fontHeight * textRenderingMatrix.getScalingFactorY());
+        glyph.fontSize = fontSize;
+        glyph.fontSizeInPt = textRenderingMatrix.getScalingFactorX();
+        glyph.font = font;
+        glyph.code = code;
+        glyph.unicode = font.toUnicode(code, glyphList());
+        glyph.renderingMode = textState.getRenderingMode();
+        consumer.accept(glyph);
+    }
+}
@@ -118,6 +118,32 @@ public class TextPosition
         }
     }
 
+    /**
+     * Copy constructor. The copy can be merged with diacritics independently from the given text position.
+     *
+     * @param position the text position to copy
+     */
+    TextPosition(TextPosition position)
+    {
+        this.textMatrix = position.textMatrix;
+        this.endX = position.endX;
+        this.endY = position.endY;
+        this.maxHeight = position.maxHeight;
+        this.rotation = position.rotation;
+        this.x = position.x;
+        this.y = position.y;
+        this.pageHeight = position.pageHeight;
+        this.pageWidth = position.pageWidth;
+        this.widthOfSpace = position.widthOfSpace;
+        this.charCodes = position.charCodes;
+        this.font = position.font;
+        this.fontSize = position.fontSize;
+        this.fontSizePt = position.fontSizePt;
+        this.widths = position.widths.clone();
+        this.unicode = position.unicode;
+        this.direction = position.direction;
+    }
+
     // Adds non-decomposing diacritics to the hash with their related combining character.
     // These are values that the unicode spec claims are equivalent but are not mapped in the form
     // NFKC normalization method. Determined by going through the Combining Diacritical Marks
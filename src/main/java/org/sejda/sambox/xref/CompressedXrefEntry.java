@@ -47,6 +47,14 @@ public final class CompressedXrefEntry extends XrefEntry
         return objectStreamNumber;
     }
 
+    /**
+     * @return The index of this object within the object stream.
+     */
+    public long getIndex()
+    {
+        return index;
+    }
+
     @Override
     public byte[] toXrefStreamEntry(int secondFieldLength, int thirdFieldLength)
     {
@@ -108,6 +108,17 @@ public class ShakeDownTest
         doTestEncrypted(WriteOption.OBJECT_STREAMS, WriteOption.COMPRESS_STREAMS);
     }
 
+    @Test
+    public void writeParallelStreamsEncoding() throws IOException
+    {
+        doTest(WriteOption.COMPRESS_STREAMS, WriteOption.PARALLEL_STREAMS_ENCODING);
+        doIncrementalTest(WriteOption.COMPRESS_STREAMS, WriteOption.PARALLEL_STREAMS_ENCODING);
+        doTest(WriteOption.OBJECT_STREAMS, WriteOption.PARALLEL_STREAMS_ENCODING);
+        doIncrementalTest(WriteOption.OBJECT_STREAMS, WriteOption.PARALLEL_STREAMS_ENCODING);
+        doTestEncrypted(WriteOption.OBJECT_STREAMS, WriteOption.COMPRESS_STREAMS,
+                WriteOption.PARALLEL_STREAMS_ENCODING);
+    }
+
     @Test
     public void writeSync() throws IOException
     {
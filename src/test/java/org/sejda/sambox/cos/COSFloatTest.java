@@ -139,4 +139,35 @@ public class COSFloatTest
         assertEquals(415.750795f, COSFloat.get("415.75.795").floatValue(), 0);
         assertEquals(-415.750795f, COSFloat.get("-415.75.795").floatValue(), 0);
     }
+
+    @Test
+    public void stringValue() throws IOException
+    {
+        assertEquals("2.2", new COSFloat(2.2f).toString());
+        assertEquals("2.04", COSFloat.get("2.040").toString());
+        assertEquals("0.0000204", COSFloat.get("2.04E-5").toString());
+        assertEquals("3.14159265358979", COSFloat.get("3.14159265358979").toString());
+        assertEquals("120", new COSFloat(120.0).toString());
+    }
+
+    @Test
+    public void negativeZero() throws IOException
+    {
+        assertEquals(new COSFloat(0f), COSFloat.get("-0.0"));
+        assertEquals("0", COSFloat.get("-0.0").toString());
+    }
+
+    @Test
+    public void hugeValue() throws IOException
+    {
+        assertEquals(Float.MAX_VALUE, COSFloat.get("1e400").floatValue(), 0);
+        assertEquals(-Float.MAX_VALUE, new COSFloat(-1e300).floatValue(), 0);
+    }
+
+    @Test
+    public void tinyValue() throws IOException
+    {
+        assertEquals(Float.MIN_NORMAL, COSFloat.get("1e-60").floatValue(), 0);
+        assertEquals(-Float.MIN_NORMAL, new COSFloat(-1e-60).floatValue(), 0);
+    }
 }
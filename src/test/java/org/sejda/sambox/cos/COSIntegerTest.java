@@ -17,6 +17,7 @@
 package org.sejda.sambox.cos;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -66,4 +67,20 @@ public class COSIntegerTest
         assertEquals(2, COSInteger.get(2).floatValue(), 0);
     }
 
+
+    @Test
+    public void smallValuesAreCached()
+    {
+        assertSame(COSInteger.get(-256), COSInteger.get(-256));
+        assertSame(COSInteger.get(65535), COSInteger.get(65535));
+        assertSame(COSInteger.ZERO, COSInteger.get(0));
+    }
+
+    @Test
+    public void bigValues()
+    {
+        assertEquals(COSInteger.get(65536), COSInteger.get(65536));
+        assertEquals(-257, COSInteger.get(-257).longValue());
+        assertEquals(Long.MAX_VALUE, COSInteger.get(Long.MAX_VALUE).longValue());
+    }
 }
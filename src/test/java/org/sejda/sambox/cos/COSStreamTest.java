@@ -16,16 +16,30 @@
  */
 package org.sejda.sambox.cos;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
+import org.sejda.io.SeekableSource;
+import org.sejda.io.SeekableSources;
 import org.sejda.sambox.filter.Filter;
 import org.sejda.sambox.filter.FilterFactory;
 import org.sejda.util.IOUtils;
@@ -186,6 +200,33 @@ public class COSStreamTest
         validateDecoded(stream, testString);
     }
 
+    @Test
+    public void lazyDecodeChain() throws IOException
+    {
+        byte[] testString = "This is a test string to be used as input for TestCOSStream"
+                .getBytes("ASCII");
+        byte[] testStringEncoded = encodeData(testString, COSName.FLATE_DECODE);
+        testStringEncoded = encodeData(testStringEncoded, COSName.ASCII85_DECODE);
+        COSStream stream = new COSStream();
+        stream.setItem(COSName.FILTER, new COSArray(COSName.ASCII85_DECODE, COSName.FLATE_DECODE));
+        try (OutputStream output = stream.createFilteredStream())
+        {
+            output.write(testStringEncoded);
+        }
+        assertArrayEquals(testString, IOUtils.toByteArray(stream.getLazyUnfilteredStream()));
+        assertArrayEquals(testString, IOUtils.toByteArray(stream.getLazyUnfilteredStream()));
+        assertArrayEquals(testString, IOUtils.toByteArray(stream.getUnfilteredStream()));
+    }
+
+    @Test
+    public void lazyDecodeNoFilters() throws IOException
+    {
+        byte[] testString = "This is a test string to be used as input for TestCOSStream"
+                .getBytes("ASCII");
+        COSStream stream = createStream(testString);
+        assertArrayEquals(testString, IOUtils.toByteArray(stream.getLazyUnfilteredStream()));
+    }
+
     @Test
     public void hasFiltersName() throws IOException
     {
@@ -212,6 +253,243 @@ public class COSStreamTest
         }
     }
 
+    @Test
+    public void decryptedExistingStream() throws IOException
+    {
+        byte[] plain = "This is a test string to be used as input for TestCOSStream"
+                .getBytes("ASCII");
+        byte[] encrypted = xor(plain);
+        COSStream stream = new COSStream(new COSDictionary(),
+                SeekableSources.inMemorySeekableSourceFrom(encrypted), 0, encrypted.length);
+        stream.setDecryptor(new XorDecryptor());
+        assertFalse(stream.getUnmodifiedFilteredSource().isPresent());
+        assertEquals(plain.length, stream.getFilteredLength());
+        assertArrayEquals(plain, IOUtils.toByteArray(stream.getFilteredStream()));
+        assertArrayEquals(plain, IOUtils.toByteArray(stream.getUnfilteredStream()));
+        assertArrayEquals(plain, IOUtils.toByteArray(stream.getFilteredSource().asInputStream()));
+        // data is decrypted every time it's read
+        assertArrayEquals(plain, IOUtils.toByteArray(stream.getFilteredStream()));
+
+        // new data is not encrypted
+        try (OutputStream output = stream.createFilteredStream())
+        {
+            output.write(encrypted);
+        }
+        assertArrayEquals(encrypted, IOUtils.toByteArray(stream.getFilteredStream()));
+    }
+
+    @Test
+    public void decryptedExistingFilteredStream() throws IOException
+    {
+        byte[] plain = "This is a test string to be used as input for TestCOSStream"
+                .getBytes("ASCII");
+        byte[] encrypted = xor(encodeData(plain, COSName.FLATE_DECODE));
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        COSStream stream = new COSStream(dictionary,
+                SeekableSources.inMemorySeekableSourceFrom(encrypted), 0, encrypted.length);
+        stream.setDecryptor(new XorDecryptor());
+        assertFalse(stream.isEmpty());
+        assertArrayEquals(plain, IOUtils.toByteArray(stream.getUnfilteredStream()));
+        assertArrayEquals(plain, IOUtils.toByteArray(stream.getUnfilteredSource().asInputStream()));
+        assertEquals(plain.length, stream.getUnfilteredLength());
+    }
+
+    @Test
+    public void interleavedLazyReadsOfExistingStream() throws IOException
+    {
+        byte[] plain = new byte[64 * 1024];
+        new Random(3).nextBytes(plain);
+        byte[] encoded = encodeData(plain, COSName.FLATE_DECODE);
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        COSStream stream = new COSStream(dictionary,
+                SeekableSources.inMemorySeekableSourceFrom(encoded), 0, encoded.length);
+        try (InputStream first = stream.getLazyUnfilteredStream();
+                InputStream second = stream.getLazyUnfilteredStream())
+        {
+            ByteArrayOutputStream firstRead = new ByteArrayOutputStream();
+            ByteArrayOutputStream secondRead = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1000];
+            int read;
+            while ((read = first.read(buffer)) > 0)
+            {
+                firstRead.write(buffer, 0, read);
+                assertArrayEquals(plain, IOUtils.toByteArray(stream.getUnfilteredStream()));
+                read = second.read(buffer);
+                if (read > 0)
+                {
+                    secondRead.write(buffer, 0, read);
+                }
+            }
+            secondRead.write(IOUtils.toByteArray(second));
+            assertArrayEquals(plain, firstRead.toByteArray());
+            assertArrayEquals(plain, secondRead.toByteArray());
+        }
+    }
+
+    @Test
+    public void everyReaderOfExistingStreamHasItsOwnView() throws IOException
+    {
+        byte[] plain = new byte[4 * 1024];
+        new Random(5).nextBytes(plain);
+        COSStream stream = new COSStream(new COSDictionary(),
+                SeekableSources.inMemorySeekableSourceFrom(plain), 0, plain.length);
+        try (InputStream first = stream.getFilteredStream())
+        {
+            byte[] read = new byte[plain.length];
+            assertEquals(1024, first.read(read, 0, 1024));
+            try (SeekableSource source = stream.getFilteredSource();
+                    SeekableSource other = stream.getFilteredSource())
+            {
+                assertNotSame(source, other);
+                assertArrayEquals(plain, IOUtils.toByteArray(source.asInputStream()));
+            }
+            try (InputStream second = stream.getFilteredStream())
+            {
+                assertArrayEquals(plain, IOUtils.toByteArray(second));
+            }
+            stream.close();
+            org.apache.commons.io.IOUtils.readFully(first, read, 1024, plain.length - 1024);
+            assertArrayEquals(plain, read);
+        }
+    }
+
+    @Test
+    public void concurrentReadOfExistingStream() throws Exception
+    {
+        byte[] plain = new byte[256 * 1024];
+        new Random(7).nextBytes(plain);
+        byte[] encoded = encodeData(plain, COSName.FLATE_DECODE);
+        COSDictionary filtered = new COSDictionary();
+        filtered.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        COSStream decoded = new COSStream(filtered,
+                SeekableSources.inMemorySeekableSourceFrom(encoded), 0, encoded.length);
+        COSStream unfiltered = new COSStream(new COSDictionary(),
+                SeekableSources.inMemorySeekableSourceFrom(plain), 0, plain.length);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++)
+            {
+                COSStream stream = i % 2 == 0 ? decoded : unfiltered;
+                results.add(executor
+                        .submit(() -> IOUtils.toByteArray(stream.getUnfilteredStream())));
+            }
+            for (Future<byte[]> result : results)
+            {
+                assertArrayEquals(plain, result.get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void encryptedLength() throws IOException
+    {
+        byte[] plain = "This is a test string to be used as input for TestCOSStream"
+                .getBytes("ASCII");
+        COSStream stream = new COSStream();
+        try (OutputStream output = stream.createFilteredStream())
+        {
+            output.write(plain);
+        }
+        stream.setEncryptor(new StreamEncryptor()
+        {
+            @Override
+            public InputStream encrypt(InputStream filtered)
+            {
+                return new SequenceInputStream(filtered, new ByteArrayInputStream(new byte[3]));
+            }
+
+            @Override
+            public long encryptedLength(long length)
+            {
+                return length + 3;
+            }
+        });
+        assertEquals(plain.length + 3, stream.getFilteredLength());
+        assertEquals(plain.length + 3, IOUtils.toByteArray(stream.getFilteredStream()).length);
+        assertFalse(stream.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void encryptionFunction() throws IOException
+    {
+        byte[] plain = "This is a test string to be used as input for TestCOSStream"
+                .getBytes("ASCII");
+        COSStream stream = new COSStream();
+        try (OutputStream output = stream.createFilteredStream())
+        {
+            output.write(plain);
+        }
+        stream.setEncryptor(
+                (InputStream filtered) -> new SequenceInputStream(filtered,
+                        new ByteArrayInputStream(new byte[3])));
+        // the encrypted length is not known upfront
+        assertEquals(plain.length, stream.getFilteredLength());
+        assertEquals(plain.length + 3, IOUtils.toByteArray(stream.getFilteredStream()).length);
+    }
+
+    private static byte[] xor(byte[] data)
+    {
+        byte[] result = new byte[data.length];
+        for (int i = 0; i < data.length; i++)
+        {
+            result[i] = (byte) (data[i] ^ 0x5A);
+        }
+        return result;
+    }
+
+    /**
+     * Decrypts data "encrypted" with {@link #xor(byte[])}. Like cipher streams, the returned stream doesn't know how
+     * many bytes are available.
+     */
+    private static class XorDecryptor implements StreamDecryptor
+    {
+        @Override
+        public InputStream decrypt(InputStream data)
+        {
+            return new FilterInputStream(data)
+            {
+                @Override
+                public int read() throws IOException
+                {
+                    int b = super.read();
+                    return b < 0 ? b : (b ^ 0x5A);
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException
+                {
+                    int read = super.read(b, off, len);
+                    for (int i = off; i < off + read; i++)
+                    {
+                        b[i] ^= 0x5A;
+                    }
+                    return read;
+                }
+
+                @Override
+                public int available()
+                {
+                    return 0;
+                }
+            };
+        }
+
+        @Override
+        public long decryptedLength(SeekableSource data)
+        {
+            return data.size();
+        }
+    }
+
     private static byte[] encodeData(byte[] original, COSName filter) throws IOException
     {
         Filter encodingFilter = FilterFactory.INSTANCE.getFilter(filter);
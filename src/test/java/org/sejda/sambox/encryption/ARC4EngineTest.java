@@ -17,6 +17,7 @@
 package org.sejda.sambox.encryption;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
@@ -56,4 +57,9 @@ public class ARC4EngineTest
                         "ABCDE".getBytes(StandardCharsets.UTF_8))));
     }
 
+    @Test
+    public void encryptedLength()
+    {
+        assertEquals(11, new ARC4Engine().encryptedLength(11));
+    }
 }
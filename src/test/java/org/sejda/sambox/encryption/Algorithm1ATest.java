@@ -29,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.cos.COSString;
+import org.sejda.sambox.cos.StreamEncryptor;
 
 /**
  * @author Andrea Vacondio
@@ -89,7 +90,7 @@ public class Algorithm1ATest
         COSStream str = spy(new COSStream());
         str.encryptable(false);
         str.accept(victim);
-        verify(str, never()).setEncryptor(any());
+        verify(str, never()).setEncryptor(any(StreamEncryptor.class));
     }
 
     @Test
@@ -98,6 +99,6 @@ public class Algorithm1ATest
         COSStream str = spy(new COSStream());
         str.encryptable(true);
         str.accept(victim);
-        verify(str).setEncryptor(any());
+        verify(str).setEncryptor(any(StreamEncryptor.class));
     }
 }
@@ -25,6 +25,7 @@ import org.junit.Test;
 import org.sejda.sambox.cos.COSObjectKey;
 import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.cos.COSString;
+import org.sejda.sambox.cos.StreamEncryptor;
 
 /**
  * @author Andrea Vacondio
@@ -95,6 +96,6 @@ public class Algorithm1Test
                 -83, 113, 101, 21, -10, -13, -22, 42, 116 });
         victim.setCurrentCOSObjectKey(new COSObjectKey(1, 0));
         str.accept(victim);
-        verify(str).setEncryptor(any());
+        verify(str).setEncryptor(any(StreamEncryptor.class));
     }
 }
@@ -17,6 +17,7 @@
 package org.sejda.sambox.encryption;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -62,4 +63,20 @@ public class ConcatenatingAESEngineTest
         assertArrayEquals(Arrays.concatenate(iv, expected), IOUtils.toByteArray(inputStream));
 
     }
+
+    @Test
+    public void encryptedLength() throws IOException
+    {
+        byte[] key = new byte[] { -40, -23, -118, -66, -77, -34, 42, 9, 11, 22, 105, 86, -92, 23,
+                57, 4 };
+        for (int length = 0; length < 100_000; length += 997)
+        {
+            for (int delta = 0; delta < 17; delta++)
+            {
+                byte[] data = new byte[length + delta];
+                assertEquals(victim.encryptedLength(data.length), IOUtils
+                        .toByteArray(victim.encryptStream(new ByteArrayInputStream(data), key)).length);
+            }
+        }
+    }
 }
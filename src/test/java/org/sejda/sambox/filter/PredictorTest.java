@@ -17,6 +17,12 @@ package org.sejda.sambox.filter;
 import static org.sejda.sambox.filter.Predictor.calcSetBitSeq;
 import static org.sejda.sambox.filter.Predictor.getBitSeq;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.Test;
 /**
@@ -125,4 +131,35 @@ public class PredictorTest
         Assert.assertEquals(Integer.parseInt("00000010", 2),
                 calcSetBitSeq(Integer.parseInt("00000000", 2), 1, 1, 3));
     }
+
+    @Test
+    public void wrapPredictor() throws IOException
+    {
+        Random random = new Random(42);
+        // PNG rows with a predictor type byte, the last row is truncated
+        int rowlength = Predictor.rowLength(3, 8, 50);
+        byte[] png = new byte[(rowlength + 1) * 20 + 7];
+        random.nextBytes(png);
+        for (int i = 0; i < png.length; i += rowlength + 1)
+        {
+            png[i] = (byte) random.nextInt(5);
+        }
+        assertSameDecoding(15, 3, 8, 50, png);
+        byte[] tiff = new byte[Predictor.rowLength(1, 4, 33) * 10 + 3];
+        random.nextBytes(tiff);
+        assertSameDecoding(2, 1, 4, 33, tiff);
+        assertSameDecoding(2, 3, 16, 10, tiff);
+        assertSameDecoding(1, 1, 8, 1, tiff);
+    }
+
+    private static void assertSameDecoding(int predictor, int colors, int bitsPerComponent,
+            int columns, byte[] data) throws IOException
+    {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        Predictor.decodePredictor(predictor, colors, bitsPerComponent, columns,
+                new ByteArrayInputStream(data), expected);
+        Assert.assertArrayEquals(expected.toByteArray(),
+                IOUtils.toByteArray(Predictor.wrapPredictor(predictor, colors, bitsPerComponent,
+                        columns, new ByteArrayInputStream(data))));
+    }
 }
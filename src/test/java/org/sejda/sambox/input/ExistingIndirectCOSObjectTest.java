@@ -67,6 +67,15 @@ public class ExistingIndirectCOSObjectTest
         when(provider.get(key)).thenReturn(value);
         assertEquals(value, victim.getCOSObject());
         assertEquals(value, victim.getCOSObject());
+        // the resolved object is retained
+        verify(provider).get(key);
+    }
+
+    @Test
+    public void nonExistingIsNotRetained()
+    {
+        assertEquals(COSNull.NULL, victim.getCOSObject());
+        assertEquals(COSNull.NULL, victim.getCOSObject());
         verify(provider, times(2)).get(key);
     }
 
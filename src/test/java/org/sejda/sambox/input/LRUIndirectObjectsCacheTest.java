@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.COSString;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class LRUIndirectObjectsCacheTest
+{
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSize()
+    {
+        new LRUIndirectObjectsCache(0);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed()
+    {
+        long size = LRUIndirectObjectsCache.sizeOf(COSInteger.ONE);
+        LRUIndirectObjectsCache victim = new LRUIndirectObjectsCache(size * 2);
+        victim.put(new COSObjectKey(1, 0), COSInteger.ONE);
+        victim.put(new COSObjectKey(2, 0), COSInteger.TWO);
+        assertNotNull(victim.get(new COSObjectKey(1, 0)));
+        victim.put(new COSObjectKey(3, 0), COSInteger.THREE);
+        assertNotNull(victim.get(new COSObjectKey(1, 0)));
+        assertNull(victim.get(new COSObjectKey(2, 0)));
+        assertNotNull(victim.get(new COSObjectKey(3, 0)));
+        assertEquals(size * 2, victim.size());
+    }
+
+    @Test
+    public void replaceAndRemove()
+    {
+        LRUIndirectObjectsCache victim = new LRUIndirectObjectsCache(1000);
+        COSObjectKey key = new COSObjectKey(1, 0);
+        victim.put(key, COSInteger.ONE);
+        victim.put(key, COSInteger.TWO);
+        assertEquals(COSInteger.TWO, victim.get(key));
+        victim.putIfAbsent(key, COSInteger.THREE);
+        assertEquals(COSInteger.TWO, victim.get(key));
+        assertEquals(LRUIndirectObjectsCache.sizeOf(COSInteger.TWO), victim.size());
+        victim.remove(key);
+        assertNull(victim.get(key));
+        assertEquals(0, victim.size());
+    }
+
+    @Test
+    public void clear()
+    {
+        LRUIndirectObjectsCache victim = new LRUIndirectObjectsCache(1000);
+        victim.put(new COSObjectKey(1, 0), COSInteger.ONE);
+        victim.clear();
+        assertEquals(0, victim.values().count());
+        assertEquals(0, victim.size());
+    }
+
+    @Test
+    public void evictedHandedOutAreReturnedWhileReferenced()
+    {
+        long size = LRUIndirectObjectsCache.sizeOf(COSInteger.ONE);
+        LRUIndirectObjectsCache victim = new LRUIndirectObjectsCache(size);
+        COSArray handedOut = new COSArray();
+        assertSame(handedOut, victim.handOut(new COSObjectKey(1, 0), handedOut));
+        victim.put(new COSObjectKey(2, 0), COSInteger.TWO);
+        victim.put(new COSObjectKey(3, 0), COSInteger.THREE);
+        assertTrue(victim.size() <= size);
+        assertSame(handedOut, victim.get(new COSObjectKey(1, 0)));
+        assertNull(victim.get(new COSObjectKey(2, 0)));
+        assertSame(handedOut, victim.getHandedOut(new COSObjectKey(1, 0)));
+        assertTrue(victim.size() <= size);
+    }
+
+    @Test
+    public void handedOutAreNotReplaced()
+    {
+        LRUIndirectObjectsCache victim = new LRUIndirectObjectsCache(1000);
+        COSObjectKey key = new COSObjectKey(1, 0);
+        COSDictionary handedOut = new COSDictionary();
+        victim.handOut(key, handedOut);
+        victim.put(key, new COSDictionary());
+        victim.putIfAbsent(key, new COSDictionary());
+        assertSame(handedOut, victim.handOut(key, new COSDictionary()));
+        assertSame(handedOut, victim.get(key));
+        victim.remove(key);
+        assertNull(victim.get(key));
+    }
+
+    @Test
+    public void getHandedOut()
+    {
+        long size = LRUIndirectObjectsCache.sizeOf(COSInteger.ONE);
+        LRUIndirectObjectsCache victim = new LRUIndirectObjectsCache(size * 2);
+        assertNull(victim.getHandedOut(new COSObjectKey(1, 0)));
+        victim.put(new COSObjectKey(1, 0), COSInteger.ONE);
+        assertEquals(COSInteger.ONE, victim.getHandedOut(new COSObjectKey(1, 0)));
+        assertEquals(size, victim.size());
+        victim.put(new COSObjectKey(2, 0), COSInteger.TWO);
+        victim.put(new COSObjectKey(3, 0), COSInteger.THREE);
+        assertEquals(COSInteger.ONE, victim.get(new COSObjectKey(1, 0)));
+        assertEquals(size * 2, victim.size());
+    }
+
+    @Test
+    public void evictedStreamsAreClosed()
+    {
+        AtomicBoolean closed = new AtomicBoolean();
+        COSStream stream = new COSStream()
+        {
+            @Override
+            public void close() throws IOException
+            {
+                closed.set(true);
+                super.close();
+            }
+        };
+        LRUIndirectObjectsCache victim = new LRUIndirectObjectsCache(1);
+        victim.put(new COSObjectKey(1, 0), stream);
+        assertNull(victim.get(new COSObjectKey(1, 0)));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void evictedHandedOutStreamsAreNotClosed()
+    {
+        AtomicBoolean closed = new AtomicBoolean();
+        COSStream stream = new COSStream()
+        {
+            @Override
+            public void close() throws IOException
+            {
+                closed.set(true);
+                super.close();
+            }
+        };
+        LRUIndirectObjectsCache victim = new LRUIndirectObjectsCache(1);
+        assertSame(stream, victim.handOut(new COSObjectKey(1, 0), stream));
+        assertEquals(0, victim.size());
+        assertSame(stream, victim.get(new COSObjectKey(1, 0)));
+        assertFalse(closed.get());
+    }
+
+    @Test
+    public void sizeOfContainers()
+    {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.A, COSString.parseLiteral("Chuck Norris"));
+        COSArray array = new COSArray(COSInteger.ONE, dictionary);
+        assertTrue(LRUIndirectObjectsCache.sizeOf(array) > LRUIndirectObjectsCache
+                .sizeOf(dictionary));
+        assertTrue(LRUIndirectObjectsCache.sizeOf(dictionary) > LRUIndirectObjectsCache
+                .sizeOf(COSInteger.ONE));
+    }
+}
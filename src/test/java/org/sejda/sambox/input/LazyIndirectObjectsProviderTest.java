@@ -21,14 +21,22 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.After;
@@ -36,12 +44,16 @@ import org.junit.Before;
 import org.junit.Test;
 import org.sejda.io.SeekableSources;
 import org.sejda.sambox.TestUtils;
+import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSNull;
 import org.sejda.sambox.cos.COSObjectKey;
 import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.pdmodel.PDDocument;
+import org.sejda.sambox.pdmodel.PDPage;
+import org.sejda.sambox.pdmodel.PDPageContentStream;
 import org.sejda.sambox.xref.CompressedXrefEntry;
 import org.sejda.sambox.xref.XrefEntry;
 
@@ -211,7 +223,7 @@ public class LazyIndirectObjectsProviderTest
     @Test
     public void close() throws IOException
     {
-        Map<COSObjectKey, COSBase> store = new ConcurrentHashMap<>();
+        IndirectObjectsCache store = new StrongIndirectObjectsCache();
         COSStream item = mock(COSStream.class);
         COSObjectKey key = new COSObjectKey(1, 0);
         store.put(key, item);
@@ -230,4 +242,138 @@ public class LazyIndirectObjectsProviderTest
         victim.addEntry(XrefEntry.inUseEntry(10, 3, 0));
         assertEquals(COSNull.NULL, victim.get(new COSObjectKey(10, 0)));
     }
+
+    @Test
+    public void concurrentGet() throws Exception
+    {
+        victim = new LazyIndirectObjectsProvider(true, new StrongIndirectObjectsCache());
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test.pdf")), victim);
+        victim.initializeWith(parser);
+        new XrefParser(parser).parse();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<COSBase>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++)
+            {
+                long objectNumber = (i % 4) + 1;
+                results.add(executor.submit(() -> victim.get(new COSObjectKey(objectNumber, 0))));
+            }
+            for (int i = 0; i < 40; i++)
+            {
+                assertNotNull(results.get(i).get());
+                assertSame(results.get(i % 4).get(), results.get(i).get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentGetCompressed() throws Exception
+    {
+        victim = new LazyIndirectObjectsProvider(true, new StrongIndirectObjectsCache());
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test_objstm.pdf")), victim);
+        victim.initializeWith(parser);
+        new XrefParser(parser).parse();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<COSBase>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++)
+            {
+                long objectNumber = (i % 2) + 6;
+                results.add(executor.submit(() -> victim.get(new COSObjectKey(objectNumber, 0))));
+            }
+            for (int i = 0; i < 16; i++)
+            {
+                assertNotNull(results.get(i).get());
+                assertSame(results.get(i % 2).get(), results.get(i).get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void handedOutObjectsAreNotReplacedWhileReferenced() throws IOException
+    {
+        victim = new LazyIndirectObjectsProvider(false, new LRUIndirectObjectsCache(1));
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test_objstm.pdf")), victim);
+        victim.initializeWith(parser);
+        new XrefParser(parser).parse();
+        COSBase first = victim.get(new COSObjectKey(6, 0));
+        assertNotNull(first);
+        assertNotNull(victim.get(new COSObjectKey(4, 0)));
+        assertSame(first, victim.get(new COSObjectKey(6, 0)));
+    }
+
+    @Test
+    public void releasedObjectsAreParsedAgain() throws IOException
+    {
+        victim = new LazyIndirectObjectsProvider(false, new LRUIndirectObjectsCache(1));
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test_objstm.pdf")), victim);
+        victim.initializeWith(parser);
+        new XrefParser(parser).parse();
+        COSBase first = victim.get(new COSObjectKey(6, 0));
+        assertNotNull(first);
+        victim.release(new COSObjectKey(6, 0));
+        COSBase second = victim.get(new COSObjectKey(6, 0));
+        assertNotNull(second);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void lruCacheStaysWithinBudgetWalkingAllPages() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Random random = new Random(42);
+        try (PDDocument document = new PDDocument())
+        {
+            for (int i = 0; i < 50; i++)
+            {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contents = new PDPageContentStream(document, page))
+                {
+                    for (int j = 0; j < 200; j++)
+                    {
+                        contents.addRect(random.nextInt(600), random.nextInt(800),
+                                random.nextInt(100), random.nextInt(100));
+                    }
+                    contents.fill();
+                }
+            }
+            document.writeTo(out);
+        }
+        long budget = 16 * 1024;
+        LRUIndirectObjectsCache cache = new LRUIndirectObjectsCache(budget);
+        victim = new LazyIndirectObjectsProvider(false, cache);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(out.toByteArray()),
+                victim);
+        victim.initializeWith(parser);
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        COSDictionary pages = xrefParser.trailer().getCOSObject()
+                .getDictionaryObject(COSName.ROOT, COSDictionary.class)
+                .getDictionaryObject(COSName.PAGES, COSDictionary.class);
+        long contentsLength = 0;
+        // nothing is released, the pages stay reachable from the pages tree we hold
+        for (COSBase kid : pages.getDictionaryObject(COSName.KIDS, COSArray.class))
+        {
+            COSStream contents = ((COSDictionary) kid.getCOSObject())
+                    .getDictionaryObject(COSName.CONTENTS, COSStream.class);
+            contentsLength += contents.getFilteredLength();
+            assertTrue(cache.size() <= budget);
+        }
+        assertTrue(contentsLength > budget * 4);
+    }
 }
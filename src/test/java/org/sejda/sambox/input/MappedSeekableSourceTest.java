@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sejda.io.SeekableSource;
+import org.sejda.sambox.SAMBox;
+import org.sejda.util.IOUtils;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class MappedSeekableSourceTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private File file;
+    private MappedSeekableSource victim;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        file = folder.newFile();
+        Files.write(file.toPath(), "Chuck Norris counted to infinity, twice".getBytes());
+        System.setProperty(SAMBox.MAPPED_SEGMENT_SIZE_PROPERTY, "4");
+        victim = new MappedSeekableSource(file);
+    }
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty(SAMBox.MAPPED_SEGMENT_SIZE_PROPERTY);
+        IOUtils.closeQuietly(victim);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullFile() throws IOException
+    {
+        new MappedSeekableSource(null);
+    }
+
+    @Test
+    public void emptyFile() throws IOException
+    {
+        try (MappedSeekableSource empty = new MappedSeekableSource(folder.newFile()))
+        {
+            assertEquals(0, empty.size());
+            assertEquals(-1, empty.read());
+            assertFalse(empty.window().hasRemaining());
+        }
+    }
+
+    @Test
+    public void readAcrossSegments() throws IOException
+    {
+        assertEquals(39, victim.size());
+        StringBuilder builder = new StringBuilder();
+        int c;
+        while ((c = victim.read()) != -1)
+        {
+            builder.append((char) c);
+        }
+        assertEquals("Chuck Norris counted to infinity, twice", builder.toString());
+        assertEquals(39, victim.position());
+    }
+
+    @Test
+    public void position() throws IOException
+    {
+        victim.position(6);
+        assertEquals('N', victim.read());
+        victim.position(3);
+        assertEquals('c', victim.read());
+        victim.position(100);
+        assertEquals(39, victim.position());
+        assertEquals(-1, victim.read());
+        victim.position(0);
+        assertEquals('C', victim.read());
+    }
+
+    @Test
+    public void readBuffer() throws IOException
+    {
+        victim.position(2);
+        ByteBuffer dst = ByteBuffer.allocate(10);
+        assertEquals(10, victim.read(dst));
+        assertArrayEquals("uck Norris".getBytes(), dst.array());
+        assertEquals(12, victim.position());
+        victim.position(35);
+        dst.clear();
+        assertEquals(4, victim.read(dst));
+        assertEquals(-1, victim.read(dst));
+    }
+
+    @Test
+    public void window() throws IOException
+    {
+        victim.position(6);
+        ByteBuffer window = victim.window();
+        assertTrue(window.isReadOnly());
+        assertEquals(2, window.remaining());
+        assertEquals('N', window.get());
+        assertEquals(6, victim.position());
+        victim.position(8);
+        assertEquals(4, victim.window().remaining());
+        victim.position(39);
+        assertFalse(victim.window().hasRemaining());
+    }
+
+    @Test
+    public void view() throws IOException
+    {
+        SeekableSource view = victim.view(6, 6);
+        assertEquals(6, view.size());
+        assertEquals('N', view.read());
+        view.position(5);
+        assertEquals('s', view.read());
+        assertEquals(-1, view.read());
+        assertEquals(0, victim.position());
+    }
+
+    @Test
+    public void viewOfView() throws IOException
+    {
+        SeekableSource view = victim.view(6, 100).view(7, 7);
+        assertEquals(7, view.size());
+        ByteBuffer dst = ByteBuffer.allocate(7);
+        view.read(dst);
+        assertArrayEquals("counted".getBytes(), dst.array());
+    }
+
+    @Test
+    public void viewWindow() throws IOException
+    {
+        MappedSeekableSource view = (MappedSeekableSource) victim.view(9, 2);
+        assertEquals(2, view.window().remaining());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedRoot() throws IOException
+    {
+        SeekableSource view = victim.view(6, 6);
+        victim.close();
+        view.read();
+    }
+
+    @Test
+    public void closeView() throws IOException
+    {
+        SeekableSource view = victim.view(6, 6);
+        view.close();
+        assertFalse(view.isOpen());
+        assertEquals('C', victim.read());
+    }
+}
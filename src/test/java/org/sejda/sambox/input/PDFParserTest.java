@@ -23,10 +23,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import org.junit.Test;
 import org.sejda.io.DevNullWritableByteChannel;
 import org.sejda.io.SeekableSources;
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.pdmodel.PDDocument;
 import org.sejda.sambox.pdmodel.PDDocumentInformation;
@@ -53,6 +56,20 @@ public class PDFParserTest
                 getClass().getResourceAsStream("/sambox/simple_test.pdf"))));
     }
 
+    @Test
+    public void positiveMapped() throws IOException
+    {
+        File file = File.createTempFile("mapped", ".pdf");
+        file.deleteOnExit();
+        Files.copy(getClass().getResourceAsStream("/sambox/simple_test.pdf"), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        try (PDDocument doc = PDFParser.parse(new MappedSeekableSource(file)))
+        {
+            assertEquals(SpecVersionUtils.V1_5, doc.getVersion());
+            doc.writeTo(new DevNullWritableByteChannel());
+        }
+    }
+
     @Test
     public void positiveIncremental() throws IOException
     {
@@ -60,6 +77,26 @@ public class PDFParserTest
                 getClass().getResourceAsStream("/sambox/simple_test.pdf"))));
     }
 
+    @Test
+    public void concurrentObjectsResolution() throws IOException
+    {
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test.pdf"))))
+        {
+            assertFalse(doc.isConcurrentObjectsResolution());
+        }
+        System.setProperty(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY, "true");
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test.pdf"))))
+        {
+            assertTrue(doc.isConcurrentObjectsResolution());
+        }
+        finally
+        {
+            System.clearProperty(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY);
+        }
+    }
+
     @Test(expected = IOException.class)
     public void notAPdf() throws IOException
     {
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.sejda.io.SeekableSource;
+import org.sejda.io.SeekableSources;
+import org.sejda.util.IOUtils;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class RecoveryScannerTest
+{
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullSource()
+    {
+        new RecoveryScanner(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreads()
+    {
+        new RecoveryScanner(SeekableSources.inMemorySeekableSourceFrom(new byte[0]), 0, 10);
+    }
+
+    @Test
+    public void empty() throws IOException
+    {
+        assertEquals(0, new RecoveryScanner(SeekableSources.inMemorySeekableSourceFrom(new byte[0]))
+                .scan().size());
+    }
+
+    @Test
+    public void markers() throws IOException
+    {
+        String data = "%PDF-1.4\n%âãÏÓ\n1 0 obj\n<</Type/Catalog>>\nendobj\r\n  12\t3 obj<<>>endobj\n"
+                + "% 4 0 obj in a comment\n5 0 objx\n6  0 obj\n7 0 ob\nxref\n0 1\ntrailer <<>>\n"
+                + "startxref\n99999999999999999999 0 obj\n8 4294967296 obj\n9 4294967295 obj";
+        assertEquals(Arrays.asList("OBJECT[1 0] at 15", "CATALOG at 23", "OBJECT[12 3] at 51",
+                "OBJECT[5 0] at 93", "XREF at 118", "TRAILER at 127", "OBJECT[9 -1] at 194"),
+                scan(data, 1, 1000));
+    }
+
+    @Test
+    public void sameMarkersWhateverTheSegments() throws IOException
+    {
+        String data = "%PDF-1.4\n1 0 obj\r\n<</Type/Catalog>>\r\nendobj\r\n\r\n\r\n   \n2 0 obj\r"
+                + "\r<</Length 3>>stream\nabc\nendstream\rendobj\n\n% 3 0 obj\n10 0 obj\n"
+                + "xref\r\n0 3\r\ntrailer\r\n<</Root 1 0 R>>\r\n  \r\n  xref\n10 0 obj";
+        List<String> expected = scan(data, 1, 1000);
+        for (int segmentSize = 1; segmentSize < data.length(); segmentSize++)
+        {
+            assertEquals(expected, scan(data, 3, segmentSize));
+        }
+    }
+
+    @Test
+    public void sameMarkersWhateverTheSegmentsDocument() throws IOException
+    {
+        for (String document : new String[] { "/sambox/test_multiple_xref_tables.pdf",
+                "/sambox/test_xref_stream_and_table.pdf", "/sambox/simple_test.pdf" })
+        {
+            try (SeekableSource source = SeekableSources
+                    .inMemorySeekableSourceFrom(getClass().getResourceAsStream(document)))
+            {
+                List<String> expected = asStrings(new RecoveryScanner(source, 1, 1 << 20).scan());
+                for (int segmentSize : new int[] { 7, 64, 100, 333, 1024 })
+                {
+                    assertEquals(expected,
+                            asStrings(new RecoveryScanner(source, 4, segmentSize).scan()));
+                }
+            }
+        }
+    }
+
+    private static List<String> scan(String data, int threads, long segmentSize)
+            throws IOException
+    {
+        SeekableSource source = SeekableSources
+                .inMemorySeekableSourceFrom(data.getBytes(StandardCharsets.ISO_8859_1));
+        try
+        {
+            return asStrings(new RecoveryScanner(source, threads, segmentSize).scan());
+        }
+        finally
+        {
+            IOUtils.close(source);
+        }
+    }
+
+    private static List<String> asStrings(List<RecoveryScanner.Marker> markers)
+    {
+        return markers.stream().map(RecoveryScanner.Marker::toString).collect(toList());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+import org.sejda.io.SeekableSource;
+import org.sejda.io.SeekableSources;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class SeekableSourceCursorTest
+{
+    @Test
+    public void independentPositions() throws IOException
+    {
+        SeekableSource source = SeekableSources.inMemorySeekableSourceFrom(new byte[] { 'a', 'b',
+                'c', 'd' });
+        SeekableSourceCursor first = new SeekableSourceCursor(source);
+        SeekableSourceCursor second = new SeekableSourceCursor(source);
+        first.position(2);
+        assertEquals('c', first.read());
+        assertEquals('a', second.read());
+        assertEquals('d', first.read());
+        assertEquals(0, source.position());
+        assertEquals(4, first.size());
+    }
+
+    @Test
+    public void viewOfTheOriginalSource() throws IOException
+    {
+        SeekableSource source = SeekableSources.inMemorySeekableSourceFrom(new byte[] { 'a', 'b',
+                'c', 'd' });
+        SeekableSource view = new SeekableSourceCursor(source).view(1, 2);
+        assertEquals(2, view.size());
+        assertEquals('b', view.read());
+        assertEquals('c', view.read());
+        assertEquals(-1, view.read());
+    }
+}
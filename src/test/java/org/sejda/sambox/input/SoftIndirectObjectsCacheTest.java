@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSObjectKey;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class SoftIndirectObjectsCacheTest
+{
+    private SoftIndirectObjectsCache victim = new SoftIndirectObjectsCache();
+
+    @Test
+    public void putAndGet()
+    {
+        COSObjectKey key = new COSObjectKey(1, 0);
+        victim.put(key, COSInteger.ONE);
+        assertEquals(COSInteger.ONE, victim.get(key));
+        victim.put(key, COSInteger.TWO);
+        assertEquals(COSInteger.TWO, victim.get(key));
+    }
+
+    @Test
+    public void putIfAbsent()
+    {
+        COSObjectKey key = new COSObjectKey(1, 0);
+        victim.putIfAbsent(key, COSInteger.ONE);
+        victim.putIfAbsent(key, COSInteger.TWO);
+        assertEquals(COSInteger.ONE, victim.get(key));
+    }
+
+    @Test
+    public void remove()
+    {
+        COSObjectKey key = new COSObjectKey(1, 0);
+        victim.put(key, COSInteger.ONE);
+        victim.remove(key);
+        assertNull(victim.get(key));
+    }
+
+    @Test
+    public void handedOutAreNotReplaced()
+    {
+        COSObjectKey key = new COSObjectKey(1, 0);
+        COSDictionary handedOut = new COSDictionary();
+        assertSame(handedOut, victim.handOut(key, handedOut));
+        victim.put(key, new COSDictionary());
+        victim.putIfAbsent(key, new COSDictionary());
+        assertSame(handedOut, victim.handOut(key, new COSDictionary()));
+        assertSame(handedOut, victim.get(key));
+        victim.remove(key);
+        assertNull(victim.get(key));
+    }
+
+    @Test
+    public void getHandedOut()
+    {
+        COSObjectKey key = new COSObjectKey(1, 0);
+        assertNull(victim.getHandedOut(key));
+        COSDictionary value = new COSDictionary();
+        victim.put(key, value);
+        assertSame(value, victim.getHandedOut(key));
+        assertEquals(1, victim.values().count());
+    }
+
+    @Test
+    public void clear()
+    {
+        victim.put(new COSObjectKey(1, 0), COSInteger.ONE);
+        victim.put(new COSObjectKey(2, 0), COSInteger.TWO);
+        assertEquals(2, victim.values().count());
+        victim.clear();
+        assertEquals(0, victim.values().count());
+    }
+}
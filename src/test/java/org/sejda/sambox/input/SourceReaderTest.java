@@ -21,12 +21,20 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.sejda.io.SeekableSources.inMemorySeekableSourceFrom;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 
 import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.sejda.io.SeekableSource;
 import org.sejda.io.SeekableSources;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSFloat;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSNumber;
 import org.sejda.sambox.cos.COSObjectKey;
 import org.sejda.util.IOUtils;
 
@@ -36,14 +44,25 @@ import org.sejda.util.IOUtils;
  */
 public class SourceReaderTest
 {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
     private SourceReader victim;
 
     @After
     public void tearDown() throws Exception
     {
+        System.clearProperty(SAMBox.MAPPED_SEGMENT_SIZE_PROPERTY);
         IOUtils.close(victim);
     }
 
+    private MappedSeekableSource mapped(String content, int segmentSize) throws IOException
+    {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes());
+        System.setProperty(SAMBox.MAPPED_SEGMENT_SIZE_PROPERTY, Integer.toString(segmentSize));
+        return new MappedSeekableSource(file);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void nullArgument()
     {
@@ -653,4 +672,191 @@ public class SourceReaderTest
         victim = new SourceReader(inMemorySeekableSourceFrom("0.00-50".getBytes()));
         assertEquals("0.0050", victim.readNumber());
     }
+
+    @Test
+    public void readLongSigned() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("  -123 +45 ".getBytes()));
+        assertEquals(-123, victim.readLong());
+        assertEquals(6, victim.position());
+        assertEquals(45, victim.readLong());
+    }
+
+    @Test
+    public void readLongMinValue() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom(Long.toString(Long.MIN_VALUE).getBytes()));
+        assertEquals(Long.MIN_VALUE, victim.readLong());
+    }
+
+    @Test
+    public void readLongFailingRestoresPosition() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom(" +Chuck".getBytes()));
+        try
+        {
+            victim.readLong();
+        }
+        catch (IOException e)
+        {
+            assertEquals(1, victim.position());
+            return;
+        }
+        throw new AssertionError("Expected IOException");
+    }
+
+    @Test(expected = IOException.class)
+    public void readIntOutOfRange() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("2147483648".getBytes()));
+        victim.readInt();
+    }
+
+    @Test
+    public void readCOSNumberInteger() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("-53 0".getBytes()));
+        assertEquals(COSInteger.get(-53), victim.readCOSNumber());
+        assertEquals(3, victim.position());
+    }
+
+    @Test
+    public void readCOSNumberIntegerAttached() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("53ABCDE".getBytes()));
+        assertEquals(COSInteger.get(53), victim.readCOSNumber());
+        assertEquals(2, victim.position());
+    }
+
+    @Test
+    public void readCOSNumberReal() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("53.34 0".getBytes()));
+        assertEquals(new COSFloat(53.34f), victim.readCOSNumber());
+        assertEquals(5, victim.position());
+    }
+
+    @Test
+    public void readCOSNumberDoubleNegative() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("--5 ".getBytes()));
+        assertEquals(COSInteger.get(-5), victim.readCOSNumber());
+        assertEquals(3, victim.position());
+    }
+
+    @Test
+    public void readCOSNumberNegativeSignInTheMiddle() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("0.00-50".getBytes()));
+        assertEquals(new COSFloat(0.005f), victim.readCOSNumber());
+    }
+
+    @Test
+    public void readCOSNumberTooLong() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("1234567890123456789".getBytes()));
+        assertEquals(COSInteger.get(1234567890123456789L), victim.readCOSNumber());
+    }
+
+    @Test
+    public void readCOSNumberRealScanned() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("-.002 5. +12.75]".getBytes()));
+        COSNumber first = victim.readCOSNumber();
+        assertEquals(-0.002, first.doubleValue(), 0);
+        victim.skipSpaces();
+        assertEquals(new COSFloat(5f), victim.readCOSNumber());
+        victim.skipSpaces();
+        assertEquals(12.75, victim.readCOSNumber().doubleValue(), 0);
+        assertEquals(15, victim.position());
+    }
+
+    @Test
+    public void readCOSNumberRealMatchesParsed() throws IOException
+    {
+        for (String number : new String[] { "0.1", "2.04", "123456.789012345", "-0.000000001",
+                "99999999.99999" })
+        {
+            victim = new SourceReader(inMemorySeekableSourceFrom(number.getBytes()));
+            assertEquals(number, Double.parseDouble(number),
+                    victim.readCOSNumber().doubleValue(), 0);
+        }
+    }
+
+    @Test
+    public void readCOSNumberRealTooLong() throws IOException
+    {
+        victim = new SourceReader(
+                inMemorySeekableSourceFrom("0.12345678901234567890 ".getBytes()));
+        assertEquals(0.12345678901234567890, victim.readCOSNumber().doubleValue(), 0);
+        assertEquals(22, victim.position());
+    }
+
+    @Test
+    public void readCOSNumberExponential() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("2.04e-5 ".getBytes()));
+        assertEquals(new COSFloat(0.0000204f), victim.readCOSNumber());
+    }
+
+    @Test
+    public void readTokenMapped() throws IOException
+    {
+        victim = new SourceReader(mapped("10 0 obj <</key value>>", 64));
+        victim.position(15);
+        assertEquals("value", victim.readToken());
+        assertEquals(21, victim.position());
+    }
+
+    @Test
+    public void readTokenMappedAcrossSegments() throws IOException
+    {
+        victim = new SourceReader(mapped("10 0 obj <</key value>>", 4));
+        victim.position(15);
+        assertEquals("value", victim.readToken());
+        assertEquals(21, victim.position());
+        victim.position(2);
+        assertEquals("0", victim.readToken());
+    }
+
+    @Test
+    public void readTokenMappedEOF() throws IOException
+    {
+        victim = new SourceReader(mapped("10 0 obj value", 64));
+        victim.position(9);
+        assertEquals("value", victim.readToken());
+        assertEquals("", victim.readToken());
+    }
+
+    @Test
+    public void skipSpacesMapped() throws IOException
+    {
+        victim = new SourceReader(mapped("Lets \u0000\t\f\n\r skip spaces", 64));
+        victim.readToken();
+        assertEquals(4, victim.position());
+        victim.skipSpaces();
+        assertEquals(11, victim.position());
+    }
+
+    @Test
+    public void skipSpacesMappedAcrossSegments() throws IOException
+    {
+        victim = new SourceReader(mapped("Lets \u0000\t\f\n\r skip spaces", 3));
+        victim.readToken();
+        victim.skipSpaces();
+        assertEquals(11, victim.position());
+    }
+
+    @Test
+    public void skipCommentsMappedAcrossSegments() throws IOException
+    {
+        for (int segmentSize = 1; segmentSize < 30; segmentSize++)
+        {
+            IOUtils.close(victim);
+            victim = new SourceReader(mapped(" %this is a comment\n %and another\rThis", segmentSize));
+            victim.skipSpaces();
+            assertEquals(34, victim.position());
+            assertEquals("This", victim.readToken());
+        }
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.xref.CompressedXrefEntry;
+import org.sejda.sambox.xref.FileTrailer;
+import org.sejda.sambox.xref.XrefEntry;
+import org.sejda.util.IOUtils;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class XrefIndexCacheTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private XrefIndexCache victim;
+    private COSParser parser;
+    private COSParser indexedParser;
+
+    @Before
+    public void setUp()
+    {
+        victim = new XrefIndexCache(folder.getRoot());
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        IOUtils.close(parser);
+        IOUtils.close(indexedParser);
+    }
+
+    @Test
+    public void notIndexed() throws IOException
+    {
+        parser = parserFor("/sambox/simple_test.pdf");
+        assertFalse(victim.load(parser).isPresent());
+    }
+
+    @Test
+    public void storeAndLoad() throws IOException
+    {
+        assertIndexedEqualsParsed("/sambox/test_multiple_xref_tables.pdf");
+    }
+
+    @Test
+    public void storeAndLoadXrefStream() throws IOException
+    {
+        assertIndexedEqualsParsed("/sambox/test_xref_stream_and_table.pdf");
+    }
+
+    @Test
+    public void storeAndLoadRecovered() throws IOException
+    {
+        assertIndexedEqualsParsed("/sambox/test_xref_missing_xref.pdf");
+    }
+
+    @Test
+    public void differentDocument() throws IOException
+    {
+        parser = parserFor("/sambox/simple_test.pdf");
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        victim.store(parser, xrefParser.trailer());
+        indexedParser = parserFor("/sambox/test_multiple_xref_tables.pdf");
+        assertFalse(victim.load(indexedParser).isPresent());
+    }
+
+    @Test
+    public void corruptedIndex() throws IOException
+    {
+        parser = parserFor("/sambox/simple_test.pdf");
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        victim.store(parser, xrefParser.trailer());
+        File[] indexes = folder.getRoot().listFiles();
+        assertEquals(1, indexes.length);
+        byte[] content = Files.readAllBytes(indexes[0].toPath());
+        byte[] truncated = new byte[content.length - 10];
+        System.arraycopy(content, 0, truncated, 0, truncated.length);
+        Files.write(indexes[0].toPath(), truncated);
+        indexedParser = parserFor("/sambox/simple_test.pdf");
+        assertFalse(victim.load(indexedParser).isPresent());
+        assertTrue(indexedParser.provider().entries().isEmpty());
+    }
+
+    private void assertIndexedEqualsParsed(String resource) throws IOException
+    {
+        parser = parserFor(resource);
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        victim.store(parser, xrefParser.trailer());
+
+        indexedParser = parserFor(resource);
+        Optional<FileTrailer> indexed = victim.load(indexedParser);
+        assertTrue(indexed.isPresent());
+        assertEquals(xrefParser.trailer().xrefOffset(), indexed.get().xrefOffset());
+        assertEquals(describe(parser.provider().entries()),
+                describe(indexedParser.provider().entries()));
+        COSDictionary trailer = xrefParser.trailer().getCOSObject();
+        COSDictionary indexedTrailer = indexed.get().getCOSObject();
+        assertEquals(trailer.keySet(), indexedTrailer.keySet());
+        assertEquals(trailer.getInt(COSName.SIZE), indexedTrailer.getInt(COSName.SIZE));
+        assertEquals(trailer.getDictionaryObject(COSName.ROOT, COSDictionary.class).keySet(),
+                indexedTrailer.getDictionaryObject(COSName.ROOT, COSDictionary.class).keySet());
+    }
+
+    private static List<String> describe(Collection<XrefEntry> entries)
+    {
+        return entries.stream().map(e -> {
+            if (e instanceof CompressedXrefEntry)
+            {
+                return e + " " + ((CompressedXrefEntry) e).getObjectStreamNumber() + " "
+                        + ((CompressedXrefEntry) e).getIndex();
+            }
+            return e.toString();
+        }).sorted().collect(Collectors.toList());
+    }
+
+    private COSParser parserFor(String resource) throws IOException
+    {
+        return new COSParser(
+                SeekableSources.inMemorySeekableSourceFrom(getClass().getResourceAsStream(resource)));
+    }
+}
@@ -17,6 +17,8 @@
 package org.sejda.sambox.output;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyByte;
 import static org.mockito.Mockito.mock;
@@ -38,6 +40,7 @@ import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.sejda.io.BufferedCountingChannelWriter;
 import org.sejda.io.CountingWritableByteChannel;
+import org.sejda.io.SeekableSources;
 import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSBoolean;
 import org.sejda.sambox.cos.COSDictionary;
@@ -224,6 +227,31 @@ public class DefaultCOSWriterTest
         assertEquals(COSInteger.THREE, stream.getDictionaryObject(COSName.LENGTH).getCOSObject());
     }
 
+    @Test
+    public void visitExistingCOSStream() throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        victim = new DefaultCOSWriter(CountingWritableByteChannel.from(out));
+        byte[] data = "garbage ABCDEFG garbage".getBytes(StandardCharsets.US_ASCII);
+        COSStream stream = new COSStream(new COSDictionary(),
+                SeekableSources.inMemorySeekableSourceFrom(data), 8, 7);
+        assertTrue(stream.getUnmodifiedFilteredSource().isPresent());
+        victim.visit(stream);
+        victim.writer().flush();
+        assertEquals("<<\n/Length 7\n>>\nstream\r\nABCDEFG\r\nendstream\n",
+                new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void visitModifiedExistingCOSStream() throws Exception
+    {
+        byte[] data = "garbage ABCDEFG garbage".getBytes(StandardCharsets.US_ASCII);
+        COSStream stream = new COSStream(new COSDictionary(),
+                SeekableSources.inMemorySeekableSourceFrom(data), 8, 7);
+        stream.setFilters(COSName.FLATE_DECODE);
+        assertFalse(stream.getUnmodifiedFilteredSource().isPresent());
+    }
+
     @Test
     public void visitHexCOSString() throws Exception
     {
@@ -91,4 +91,19 @@ public class ObjectsStreamTest
         byte[] data = new byte[] { 49, 32, 48, 32, 50, 32, 50, 32, 48, 32, 51, 32 };
         assertArrayEquals(data, out.toByteArray());
     }
+
+    @Test
+    public void deflatedAheadOfWriting() throws IOException
+    {
+        victim.addItem(context.createIndirectReferenceFor(COSInteger.ZERO));
+        victim.addItem(context.createIndirectReferenceFor(COSInteger.THREE));
+        victim.prepareForWriting();
+        long length = victim.getFilteredLength();
+        assertTrue(length > 0);
+        assertEquals(length, victim.getFilteredLength());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IOUtils.copy(victim.getFilteredStream(), new InflaterOutputStream(out));
+        byte[] data = new byte[] { 49, 32, 48, 32, 50, 32, 50, 32, 48, 32, 51, 32 };
+        assertArrayEquals(data, out.toByteArray());
+    }
 }
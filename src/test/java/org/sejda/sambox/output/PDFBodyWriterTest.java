@@ -18,7 +18,9 @@ package org.sejda.sambox.output;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -26,6 +28,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -39,6 +42,8 @@ import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSObjectKey;
 import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
+import org.sejda.sambox.cos.IndirectCOSObjectReference;
+import org.sejda.sambox.encryption.GeneralEncryptionAlgorithm;
 import org.sejda.sambox.input.PDFParser;
 import org.sejda.sambox.pdmodel.PDDocument;
 
@@ -156,6 +161,31 @@ public class PDFBodyWriterTest
                 ((COSArray) stream.getFilters()).toArray());
     }
 
+    @Test
+    public void indirectLengthWhenEncryptedLengthIsUnknown() throws IOException
+    {
+        GeneralEncryptionAlgorithm encryptor = mock(GeneralEncryptionAlgorithm.class);
+        victim = new PDFBodyWriter(new PDFWriteContext(encryptor), writer);
+        COSStream stream = new COSStream();
+        document.getDocument().getCatalog().setItem(COSName.SA, stream);
+        victim.write(document.getDocument());
+        assertTrue(stream.indirectLength());
+        assertTrue(stream.getItem(COSName.LENGTH) instanceof IndirectCOSObjectReference);
+    }
+
+    @Test
+    public void directLengthWhenEncryptedLengthIsKnown() throws IOException
+    {
+        GeneralEncryptionAlgorithm encryptor = mock(GeneralEncryptionAlgorithm.class);
+        when(encryptor.knowsEncryptedStreamsLength()).thenReturn(true);
+        victim = new PDFBodyWriter(new PDFWriteContext(encryptor), writer);
+        COSStream stream = new COSStream();
+        document.getDocument().getCatalog().setItem(COSName.SA, stream);
+        victim.write(document.getDocument());
+        assertFalse(stream.indirectLength());
+        assertNull(stream.getItem(COSName.LENGTH));
+    }
+
     @Test
     public void close() throws IOException
     {
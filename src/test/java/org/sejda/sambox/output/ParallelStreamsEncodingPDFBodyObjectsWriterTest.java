@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.output;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.IndirectCOSObjectReference;
+import org.sejda.sambox.input.ExistingIndirectCOSObject;
+import org.sejda.sambox.output.ObjectsStreamPDFBodyObjectsWriter.ObjectsStream;
+import org.sejda.util.IOUtils;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class ParallelStreamsEncodingPDFBodyObjectsWriterTest
+{
+    private PDFBodyObjectsWriter delegate;
+    private ParallelStreamsEncodingPDFBodyObjectsWriter victim;
+
+    @Before
+    public void setUp()
+    {
+        delegate = mock(PDFBodyObjectsWriter.class);
+        victim = new ParallelStreamsEncodingPDFBodyObjectsWriter(delegate, 2);
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        IOUtils.close(victim);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullConstructor()
+    {
+        new ParallelStreamsEncodingPDFBodyObjectsWriter(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreads()
+    {
+        new ParallelStreamsEncodingPDFBodyObjectsWriter(delegate, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullExecutor()
+    {
+        new ParallelStreamsEncodingPDFBodyObjectsWriter(delegate, null, 2);
+    }
+
+    @Test
+    public void writtenInOrder() throws IOException
+    {
+        List<IndirectCOSObjectReference> refs = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++)
+        {
+            if (i % 3 == 0)
+            {
+                refs.add(new IndirectCOSObjectReference(i + 1, 0, new COSDictionary()));
+            }
+            else
+            {
+                byte[] data = new byte[random.nextInt(50000)];
+                random.nextBytes(data);
+                COSStream stream = new COSStream();
+                try (OutputStream out = stream.createFilteredStream(COSName.FLATE_DECODE))
+                {
+                    out.write(data);
+                }
+                refs.add(new IndirectCOSObjectReference(i + 1, 0, stream));
+            }
+        }
+        for (IndirectCOSObjectReference ref : refs)
+        {
+            victim.writeObject(ref);
+        }
+        victim.onWriteCompletion();
+        InOrder inOrder = inOrder(delegate);
+        for (IndirectCOSObjectReference ref : refs)
+        {
+            inOrder.verify(delegate).writeObject(ref);
+        }
+        inOrder.verify(delegate).onWriteCompletion();
+    }
+
+    @Test
+    public void encodedStream() throws IOException
+    {
+        byte[] data = "Chuck Norris counted to infinity. Twice.".getBytes();
+        COSStream stream = new COSStream();
+        try (OutputStream out = stream.createFilteredStream(COSName.FLATE_DECODE))
+        {
+            out.write(data);
+        }
+        IndirectCOSObjectReference ref = new IndirectCOSObjectReference(1, 0, stream);
+        victim.writeObject(ref);
+        victim.onWriteCompletion();
+        verify(delegate).writeObject(ref);
+        COSStream decoded = new COSStream();
+        try (OutputStream out = decoded.createFilteredStream())
+        {
+            out.write(IOUtils.toByteArray(stream.getFilteredStream()));
+        }
+        decoded.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        assertArrayEquals(data, IOUtils.toByteArray(decoded.getUnfilteredStream()));
+    }
+
+    @Test(expected = IOException.class)
+    public void delegateExceptionIsProcessed() throws IOException
+    {
+        doThrow(IOException.class).when(delegate).writeObject(any());
+        victim.writeObject(new IndirectCOSObjectReference(1, 0, new COSDictionary()));
+    }
+
+    @Test
+    public void close() throws IOException
+    {
+        victim.close();
+        verify(delegate).close();
+    }
+
+    @Test
+    public void injectedExecutorIsNotShutDown() throws IOException
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            ParallelStreamsEncodingPDFBodyObjectsWriter writer = new ParallelStreamsEncodingPDFBodyObjectsWriter(
+                    delegate, executor, 2);
+            IndirectCOSObjectReference ref = new IndirectCOSObjectReference(1, 0,
+                    streamToEncode(COSName.FLATE_DECODE));
+            writer.writeObject(ref);
+            writer.onWriteCompletion();
+            writer.close();
+            verify(delegate).writeObject(ref);
+            assertFalse(executor.isShutdown());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void indirectFiltersAreEncodedOnTheCallingThread() throws IOException
+    {
+        ExecutorService executor = mock(ExecutorService.class);
+        ParallelStreamsEncodingPDFBodyObjectsWriter writer = new ParallelStreamsEncodingPDFBodyObjectsWriter(
+                delegate, executor, 2);
+        ExistingIndirectCOSObject filter = mock(ExistingIndirectCOSObject.class);
+        when(filter.getCOSObject()).thenReturn(COSName.FLATE_DECODE);
+        COSStream stream = streamToEncode(filter);
+        IndirectCOSObjectReference ref = new IndirectCOSObjectReference(1, 0, stream);
+        writer.writeObject(ref);
+        verifyZeroInteractions(executor);
+        verify(delegate).writeObject(ref);
+        assertTrue(stream.isEncodingRequired());
+    }
+
+    @Test
+    public void objectsStreamIsDeflatedOnThePool() throws IOException
+    {
+        AtomicReference<String> deflatingThread = new AtomicReference<>();
+        ObjectsStream stream = new ObjectsStream(new PDFWriteContext(null))
+        {
+            @Override
+            protected long doGetFilteredLength() throws IOException
+            {
+                deflatingThread.compareAndSet(null, Thread.currentThread().getName());
+                return super.doGetFilteredLength();
+            }
+        };
+        COSDictionary item = new COSDictionary();
+        item.setName(COSName.A, "Chuck");
+        stream.addItem(new IndirectCOSObjectReference(2, 0, item));
+        stream.prepareForWriting();
+        assertTrue(stream.isEncodingRequired());
+        IndirectCOSObjectReference ref = new IndirectCOSObjectReference(1, 0, stream);
+        AtomicBoolean deflatedWhenWritten = new AtomicBoolean();
+        doAnswer(i -> {
+            deflatedWhenWritten.set(!stream.isEncodingRequired());
+            return null;
+        }).when(delegate).writeObject(ref);
+        victim.writeObject(ref);
+        victim.onWriteCompletion();
+        verify(delegate).writeObject(ref);
+        assertTrue(deflatedWhenWritten.get());
+        assertTrue(deflatingThread.get().startsWith("pdf-stream-encoder-"));
+    }
+
+    @Test
+    public void nothingToEncode() throws IOException
+    {
+        ExecutorService executor = mock(ExecutorService.class);
+        ParallelStreamsEncodingPDFBodyObjectsWriter writer = new ParallelStreamsEncodingPDFBodyObjectsWriter(
+                delegate, executor, 2);
+        COSStream stream = new COSStream();
+        try (OutputStream out = stream.createUnfilteredStream())
+        {
+            out.write("Chuck Norris can divide by zero".getBytes());
+        }
+        IndirectCOSObjectReference ref = new IndirectCOSObjectReference(1, 0, stream);
+        writer.writeObject(ref);
+        verifyZeroInteractions(executor);
+        verify(delegate).writeObject(ref);
+    }
+
+    private static COSStream streamToEncode(COSBase filter) throws IOException
+    {
+        COSStream stream = new COSStream();
+        try (OutputStream out = stream.createUnfilteredStream())
+        {
+            out.write("Chuck Norris can slam a revolving door".getBytes());
+        }
+        stream.setItem(COSName.FILTER, filter);
+        return stream;
+    }
+}
@@ -23,14 +23,19 @@ import static org.junit.Assert.assertTrue;
 import java.awt.Point;
 import java.awt.geom.Point2D;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
+import org.sejda.io.SeekableSources;
 import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSFloat;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSNull;
 import org.sejda.sambox.cos.COSNumber;
+import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.pdmodel.common.PDRectangle;
 import org.sejda.sambox.pdmodel.interactive.annotation.PDAnnotationLink;
 
@@ -41,6 +46,25 @@ import org.sejda.sambox.pdmodel.interactive.annotation.PDAnnotationLink;
 public class PDPageTest
 {
 
+    @Test
+    public void contentsArray() throws IOException
+    {
+        COSStream encoder = new COSStream();
+        try (OutputStream out = encoder.createFilteredStream(COSName.FLATE_DECODE))
+        {
+            out.write("0 0 m 10 10 l S".getBytes(StandardCharsets.US_ASCII));
+        }
+        byte[] encoded = IOUtils.toByteArray(encoder.getFilteredStream());
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        COSStream existing = new COSStream(dictionary,
+                SeekableSources.inMemorySeekableSourceFrom(encoded), 0, encoded.length);
+        PDPage victim = new PDPage();
+        victim.getCOSObject().setItem(COSName.CONTENTS, new COSArray(existing, existing));
+        assertEquals("0 0 m 10 10 l S\n0 0 m 10 10 l S\n",
+                new String(IOUtils.toByteArray(victim.getContents()), StandardCharsets.US_ASCII));
+    }
+
     @Test
     public void nullBeads()
     {
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.common.function;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSFloat;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class FunctionLookupTableTest
+{
+    private AtomicInteger evaluations = new AtomicInteger();
+
+    private float[] sum(float[] input)
+    {
+        evaluations.incrementAndGet();
+        float sum = 0;
+        for (float value : input)
+        {
+            sum += value;
+        }
+        return new float[] { sum, input[0] };
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullFunction()
+    {
+        new FunctionLookupTable(null, 1, 8, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyBits()
+    {
+        new FunctionLookupTable(this::sum, 8, 8, null);
+    }
+
+    @Test
+    public void isSupported()
+    {
+        assertTrue(FunctionLookupTable.isSupported(4, 8));
+        assertTrue(FunctionLookupTable.isSupported(7, 9));
+        assertFalse(FunctionLookupTable.isSupported(8, 8));
+    }
+
+    @Test
+    public void unitRange() throws IOException
+    {
+        FunctionLookupTable victim = new FunctionLookupTable(this::sum, 1, 8, null);
+        for (int i = 0; i < 256; i++)
+        {
+            float[] samples = { i };
+            samples[0] /= 255;
+            assertArrayEquals(sum(samples), victim.eval(new int[] { i }), 0);
+        }
+    }
+
+    @Test
+    public void ranges() throws IOException
+    {
+        FunctionLookupTable victim = new FunctionLookupTable(this::sum, 2, 4,
+                new float[] { 10, 25, -1, 1 });
+        assertArrayEquals(new float[] { 9, 10 }, victim.eval(new int[] { 0, 0 }), 0);
+        assertArrayEquals(new float[] { 26, 25 }, victim.eval(new int[] { 15, 15 }), 0);
+        assertArrayEquals(new float[] { 16, 15 }, victim.eval(new int[] { 5, 15 }), 0);
+    }
+
+    @Test
+    public void cached() throws IOException
+    {
+        FunctionLookupTable victim = new FunctionLookupTable(this::sum, 2, 8, null);
+        float[] result = victim.eval(new int[] { 3, 200 });
+        assertSame(result, victim.eval(new int[] { 3, 200 }));
+        assertEquals(1, evaluations.get());
+        victim.eval(new int[] { 200, 3 });
+        assertEquals(2, evaluations.get());
+    }
+
+    @Test
+    public void sparse() throws IOException
+    {
+        FunctionLookupTable victim = new FunctionLookupTable(this::sum, 4, 8, null);
+        float[] result = victim.eval(new int[] { 255, 0, 255, 0 });
+        assertArrayEquals(new float[] { 2, 1 }, result, 0);
+        assertSame(result, victim.eval(new int[] { 255, 0, 255, 0 }));
+        assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    public void outOfRangeNotCached() throws IOException
+    {
+        FunctionLookupTable victim = new FunctionLookupTable(this::sum, 1, 8, null);
+        assertArrayEquals(new float[] { 2, 2 }, victim.eval(new int[] { 510 }), 0);
+        victim.eval(new int[] { 510 });
+        assertEquals(2, evaluations.get());
+    }
+
+    @Test
+    public void pdFunctionTable() throws IOException
+    {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setInt(COSName.FUNCTION_TYPE, 2);
+        COSArray domain = new COSArray(COSInteger.ZERO, COSInteger.ONE);
+        dictionary.setItem(COSName.DOMAIN, domain);
+        dictionary.setItem(COSName.C0, new COSArray(new COSFloat(0)));
+        dictionary.setItem(COSName.C1, new COSArray(new COSFloat(1)));
+        dictionary.setFloat(COSName.N, 2);
+        PDFunction function = PDFunction.create(dictionary);
+        FunctionLookupTable table = function.getLookupTable(1, 8);
+        assertNotNull(table);
+        assertSame(table, function.getLookupTable(1, 8));
+        assertArrayEquals(function.eval(new float[] { 100 / 255f }),
+                table.eval(new int[] { 100 }), 0);
+        assertNull(function.getLookupTable(8, 8));
+    }
+}
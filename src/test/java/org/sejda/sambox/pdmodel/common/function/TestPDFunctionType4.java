@@ -103,4 +103,41 @@ public class TestPDFunctionType4 extends TestCase
         assertEquals(-0.7f, output[0], 0.0001f);
     }
 
+    /**
+     * Checks errors are reported by the interpreter when the compiled function cannot complete.
+     * 
+     * @throws Exception if an error occurs
+     */
+    public void testFunctionError() throws Exception
+    {
+        PDFunctionType4 function = createFunction("{ 0 idiv }", new float[] { -1.0f, 1.0f },
+                new float[] { -1.0f, 1.0f });
+        try
+        {
+            function.eval(new float[] { 0.5f });
+            fail("Exception expected");
+        }
+        catch (ClassCastException e)
+        {
+            // expected, idiv requires ints
+        }
+    }
+
+    /**
+     * Checks a function with conditionals.
+     * 
+     * @throws Exception if an error occurs
+     */
+    public void testFunctionConditional() throws Exception
+    {
+        PDFunctionType4 function = createFunction(
+                "{ dup 0.5 gt { 0.5 sub 2 mul 0 exch } { 2 mul 1 exch } ifelse }",
+                new float[] { 0f, 1.0f }, new float[] { 0f, 1.0f, 0f, 1.0f });
+        assertEquals(0f, function.eval(new float[] { 0.75f })[0]);
+        assertEquals(0.5f, function.eval(new float[] { 0.75f })[1], 0.0001f);
+        assertEquals(1f, function.eval(new float[] { 0.25f })[0]);
+        assertEquals(0.5f, function.eval(new float[] { 0.25f })[1], 0.0001f);
+        assertEquals(2, function.eval(new float[] { 2f }).length);
+    }
+
 }
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.common.function.type4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Stack;
+
+import org.junit.Test;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class CompiledInstructionSequenceTest
+{
+
+    private static void assertSameAsInterpreted(String program, float... input)
+    {
+        InstructionSequence sequence = InstructionSequenceBuilder.parse(program);
+        ExecutionContext context = new ExecutionContext(new Operators());
+        for (float value : input)
+        {
+            context.getStack().push(value);
+        }
+        sequence.execute(context);
+        Stack<Object> stack = context.getStack();
+        float[] expected = new float[stack.size()];
+        for (int i = expected.length - 1; i >= 0; i--)
+        {
+            expected[i] = context.popReal();
+        }
+
+        CompiledInstructionSequence compiled = CompiledInstructionSequence.compile(sequence);
+        assertNotNull(program, compiled);
+        float[] output = new float[expected.length];
+        assertTrue(program, compiled.execute(input, output));
+        assertArrayEquals(program, expected, output, 0);
+    }
+
+    private static boolean executes(String program, int outputs)
+    {
+        return CompiledInstructionSequence.compile(InstructionSequenceBuilder.parse(program))
+                .execute(new float[0], new float[outputs]);
+    }
+
+    @Test
+    public void arithmetic()
+    {
+        String[] programs = { "5 6 add", "5 0.23 add", "2147483647 1 add", "-5 3 sub",
+                "-2147483647 10 sub", "1.5 2 mul", "65536 65536 mul", "3 4 mul", "-3 abs",
+                "-3.5 abs", "-2147483648 abs", "-2147483648 neg", "5 neg", "2.5 neg", "10 3 idiv",
+                "-10 3 mod", "7 2 div", "2.5 ceiling", "-2.5 ceiling", "3 ceiling", "-2.5 floor",
+                "2.5 round", "-2.5 round", "4 round", "-3.7 truncate", "3 truncate", "3 4 atan",
+                "-100 -1 atan", "45 cos", "30 sin", "2 10 exp", "9 0.5 exp", "100 log", "2 ln",
+                "16 sqrt", "7 cvr 2 div", "3.9 cvi", "-3.9 cvi", "7 cvi" };
+        for (String program : programs)
+        {
+            assertSameAsInterpreted(program);
+        }
+    }
+
+    @Test
+    public void bitwise()
+    {
+        String[] programs = { "12 10 and", "12 10 or", "12 10 xor", "1 3 bitshift",
+                "-16 -2 bitshift", "5 not", "true false xor { 1 } { 0 } ifelse",
+                "true false and { 1 } { 0 } ifelse", "false not { 1 } if" };
+        for (String program : programs)
+        {
+            assertSameAsInterpreted(program);
+        }
+    }
+
+    @Test
+    public void relational()
+    {
+        String[] programs = { "1 2 lt { 10 } { 20 } ifelse", "1 2 gt { 10 } { 20 } ifelse",
+                "2 2 le { 10 } if", "2 2.5 ge { 10 } if", "3 3.0 eq { 1 } { 0 } ifelse",
+                "true true eq { 1 } { 0 } ifelse", "true 1 eq { 1 } { 0 } ifelse",
+                "true false ne { 1 } { 0 } ifelse" };
+        for (String program : programs)
+        {
+            assertSameAsInterpreted(program);
+        }
+    }
+
+    @Test
+    public void stack()
+    {
+        String[] programs = { "1 2 3 3 1 roll", "1 2 3 3 -1 roll", "1 2 3 4 5 4 2 roll",
+                "1 2 3 4 5 4 -3 roll", "1 2 3 2 3 roll", "1 2 3 3 0 roll", "1 2 3 2 copy",
+                "1 2 3 0 copy", "1 2 3 1 index", "1 2 3 0 index", "1 2 exch", "1 2 dup pop",
+                "1 2 3 2.7 copy" };
+        for (String program : programs)
+        {
+            assertSameAsInterpreted(program);
+        }
+    }
+
+    @Test
+    public void withInput()
+    {
+        String tintTransform = "{ dup 0.5 gt { 0.5 sub 2 mul 0 exch 1 } { 2 mul 1 exch 0 } ifelse }";
+        assertSameAsInterpreted(tintTransform, 0.3f);
+        assertSameAsInterpreted(tintTransform, 0.8f);
+        assertSameAsInterpreted("{ 3 1 roll exch add mul }", 0.2f, 0.4f, 0.6f);
+        assertSameAsInterpreted("{ }", 0.2f);
+    }
+
+    @Test
+    public void notCompiled()
+    {
+        assertNull(CompiledInstructionSequence.compile(InstructionSequenceBuilder.parse("{ 1 } { 2 }")));
+        assertNull(CompiledInstructionSequence.compile(InstructionSequenceBuilder.parse("{ chuck }")));
+        assertNull(CompiledInstructionSequence.compile(InstructionSequenceBuilder.parse("{ { 1 } exch }")));
+        assertNull(CompiledInstructionSequence.compile(InstructionSequenceBuilder.parse("{ true if }")));
+    }
+
+    @Test
+    public void fallsBack()
+    {
+        assertFalse(executes("1 0 idiv", 1));
+        assertFalse(executes("1 0 mod", 1));
+        assertFalse(executes("1.5 2 idiv", 1));
+        assertFalse(executes("true 1 add", 1));
+        assertFalse(executes("-1 sqrt", 1));
+        assertFalse(executes("pop", 0));
+        assertFalse(executes("1 2 lt", 1));
+        assertFalse(executes("1 2", 3));
+        assertFalse(executes("1 -1 index", 1));
+        assertFalse(executes("1 2 3 5 1 roll", 1));
+        assertFalse(executes("1 { 2 } if", 1));
+        assertFalse(executes("true 1 and", 1));
+    }
+}
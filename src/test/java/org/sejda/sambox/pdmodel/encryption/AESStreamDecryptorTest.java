@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.encryption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.sejda.io.SeekableSources;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class AESStreamDecryptorTest
+{
+    private final Random random = new Random(7);
+
+    @Test
+    public void decrypt() throws Exception
+    {
+        for (int keyLength : new int[] { 16, 32 })
+        {
+            byte[] key = randomBytes(keyLength);
+            AESStreamDecryptor victim = new AESStreamDecryptor(key);
+            for (int length = 0; length < 70; length++)
+            {
+                byte[] plain = randomBytes(length);
+                byte[] encrypted = encrypt(key, plain);
+                assertArrayEquals(plain, IOUtils
+                        .toByteArray(victim.decrypt(new ByteArrayInputStream(encrypted))));
+                assertEquals(length, victim
+                        .decryptedLength(SeekableSources.inMemorySeekableSourceFrom(encrypted)));
+            }
+        }
+    }
+
+    @Test
+    public void empty() throws IOException
+    {
+        AESStreamDecryptor victim = new AESStreamDecryptor(randomBytes(16));
+        assertEquals(-1, victim.decrypt(new ByteArrayInputStream(new byte[0])).read());
+        assertEquals(0,
+                victim.decryptedLength(SeekableSources.inMemorySeekableSourceFrom(new byte[0])));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedInitializationVector() throws IOException
+    {
+        new AESStreamDecryptor(randomBytes(16)).decrypt(new ByteArrayInputStream(new byte[10]));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedLength() throws Exception
+    {
+        byte[] key = randomBytes(16);
+        byte[] encrypted = encrypt(key, randomBytes(40));
+        new AESStreamDecryptor(key).decryptedLength(SeekableSources
+                .inMemorySeekableSourceFrom(Arrays.copyOf(encrypted, encrypted.length - 3)));
+    }
+
+    private byte[] encrypt(byte[] key, byte[] plain) throws GeneralSecurityException
+    {
+        byte[] iv = randomBytes(16);
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+        byte[] encrypted = cipher.doFinal(plain);
+        byte[] result = Arrays.copyOf(iv, iv.length + encrypted.length);
+        System.arraycopy(encrypted, 0, result, iv.length, encrypted.length);
+        return result;
+    }
+
+    private byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
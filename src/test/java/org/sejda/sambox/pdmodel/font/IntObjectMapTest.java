@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.font;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class IntObjectMapTest
+{
+    @Test
+    public void empty()
+    {
+        IntObjectMap<String> victim = new IntObjectMap<>();
+        assertEquals(0, victim.size());
+        assertFalse(victim.containsKey(0));
+        assertNull(victim.get(0));
+    }
+
+    @Test
+    public void replace()
+    {
+        IntObjectMap<String> victim = new IntObjectMap<>();
+        victim.put(32, "space");
+        victim.put(32, "blank");
+        assertEquals(1, victim.size());
+        assertEquals("blank", victim.get(32));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullValue()
+    {
+        new IntObjectMap<String>().put(32, null);
+    }
+
+    @Test
+    public void sameAsMap()
+    {
+        Random random = new Random(7);
+        IntObjectMap<Float> victim = new IntObjectMap<>(4);
+        Map<Integer, Float> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++)
+        {
+            // mix of dense cid ranges and sparse, negative and colliding keys
+            int key = i % 3 == 0 ? random.nextInt() : random.nextInt(20_000) << (i % 5);
+            Float value = random.nextFloat() * 1000;
+            victim.put(key, value);
+            expected.put(key, value);
+        }
+        assertEquals(expected.size(), victim.size());
+        for (Map.Entry<Integer, Float> entry : expected.entrySet())
+        {
+            assertTrue(victim.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), victim.get(entry.getKey()));
+        }
+        for (int i = 0; i < 10_000; i++)
+        {
+            int key = random.nextInt();
+            assertEquals(expected.containsKey(key), victim.containsKey(key));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.font;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.geom.GeneralPath;
+import java.io.IOException;
+
+import org.apache.fontbox.util.BoundingBox;
+import org.junit.Test;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.util.Matrix;
+import org.sejda.sambox.util.Vector;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class PDCIDFontTest
+{
+    @Test
+    public void positionVectorsAreBuiltOnce() throws IOException
+    {
+        COSDictionary dictionary = new COSDictionary();
+        // cid 1 and 2 are 500 wide, the default width is 1000
+        dictionary.setItem(COSName.W, new COSArray(COSInteger.get(1), COSInteger.get(2),
+                COSInteger.get(500)));
+        // cid 10 has its own vector, cids from 20 to 30 share one
+        dictionary.setItem(COSName.W2,
+                new COSArray(COSInteger.get(10),
+                        new COSArray(COSInteger.get(-1000), COSInteger.get(250),
+                                COSInteger.get(800)),
+                        COSInteger.get(20), COSInteger.get(30), COSInteger.get(-1000),
+                        COSInteger.get(300), COSInteger.get(700)));
+        PDCIDFont victim = new IdentityCIDFont(dictionary);
+
+        assertVector(250, 800, victim.getPositionVector(10));
+        assertSame(victim.getPositionVector(10), victim.getPositionVector(10));
+        assertVector(300, 700, victim.getPositionVector(25));
+        assertSame(victim.getPositionVector(20), victim.getPositionVector(30));
+        // default position vectors are built from the width and DW2
+        assertVector(250, 880, victim.getPositionVector(1));
+        assertSame(victim.getPositionVector(1), victim.getPositionVector(2));
+        assertVector(500, 880, victim.getPositionVector(100));
+        assertSame(victim.getPositionVector(100), victim.getPositionVector(200));
+    }
+
+    private static void assertVector(float x, float y, Vector vector)
+    {
+        assertEquals(x, vector.getX(), 0);
+        assertEquals(y, vector.getY(), 0);
+    }
+
+    private static class IdentityCIDFont extends PDCIDFont
+    {
+        IdentityCIDFont(COSDictionary dictionary) throws IOException
+        {
+            super(dictionary, null);
+        }
+
+        @Override
+        public Matrix getFontMatrix()
+        {
+            return new Matrix();
+        }
+
+        @Override
+        public BoundingBox getBoundingBox()
+        {
+            return new BoundingBox();
+        }
+
+        @Override
+        public float getHeight(int code)
+        {
+            return 0;
+        }
+
+        @Override
+        public float getWidthFromFont(int code)
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isEmbedded()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isDamaged()
+        {
+            return false;
+        }
+
+        @Override
+        public int codeToCID(int code)
+        {
+            return code;
+        }
+
+        @Override
+        public int codeToGID(int code)
+        {
+            return code;
+        }
+
+        @Override
+        protected byte[] encode(int unicode)
+        {
+            return new byte[0];
+        }
+
+        @Override
+        public GeneralPath getPath(int code)
+        {
+            return new GeneralPath();
+        }
+
+        @Override
+        public boolean hasGlyph(int code)
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.graphics.color;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class PDSeparationTest
+{
+    @Test
+    public void toRGBImage() throws IOException
+    {
+        PDSeparation victim = new PDSeparation(separationArray());
+        assertEquals(0xFFFFFFFF, victim.toRGBImage(raster(255)).getRGB(0, 0));
+        assertEquals(0xFF000000, victim.toRGBImage(raster(0)).getRGB(0, 0));
+    }
+
+    @Test
+    public void toRGBImageOverriddenTintTransform() throws IOException
+    {
+        PDSeparation victim = new PDSeparation(separationArray())
+        {
+            @Override
+            protected void tintTransform(float[] samples, int[] alt)
+            {
+                alt[0] = 255 - (int) samples[0];
+            }
+        };
+        BufferedImage image = victim.toRGBImage(raster(255));
+        assertEquals(0xFF000000, image.getRGB(0, 0));
+    }
+
+    @Test
+    public void tintTransformOncePerSampleValue() throws IOException
+    {
+        AtomicInteger calls = new AtomicInteger();
+        PDSeparation victim = new PDSeparation(separationArray())
+        {
+            @Override
+            protected void tintTransform(float[] samples, int[] alt) throws IOException
+            {
+                calls.incrementAndGet();
+                super.tintTransform(samples, alt);
+            }
+        };
+        assertEquals(0xFFFFFFFF, victim.toRGBImage(raster(255)).getRGB(0, 0));
+        assertEquals(0xFF000000, victim.toRGBImage(raster(0)).getRGB(0, 0));
+        assertEquals(256, calls.get());
+    }
+
+    private static COSArray separationArray()
+    {
+        // identity tint transform to DeviceGray
+        COSDictionary function = new COSDictionary();
+        function.setInt(COSName.FUNCTION_TYPE, 2);
+        function.setItem(COSName.DOMAIN, new COSArray(COSInteger.ZERO, COSInteger.ONE));
+        function.setItem(COSName.C0, new COSArray(COSInteger.ZERO));
+        function.setItem(COSName.C1, new COSArray(COSInteger.ONE));
+        function.setInt(COSName.N, 1);
+        return new COSArray(COSName.SEPARATION, COSName.getPDFName("Spot"),
+                COSName.DEVICEGRAY, function);
+    }
+
+    private static WritableRaster raster(int sample)
+    {
+        WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, 1, 1, 1,
+                new Point(0, 0));
+        raster.setSample(0, 0, 0, sample);
+        return raster;
+    }
+}
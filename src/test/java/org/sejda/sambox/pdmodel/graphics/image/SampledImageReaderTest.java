@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.graphics.image;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.pdmodel.graphics.color.PDColorSpace;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class SampledImageReaderTest
+{
+    private final Random random = new Random(42);
+
+    @Test
+    public void oneBitGray() throws IOException
+    {
+        assertSampled(inlineImage(COSName.G, 1, 1, 37, 23, null));
+    }
+
+    @Test
+    public void eightBitsRGB() throws IOException
+    {
+        assertSampled(inlineImage(COSName.RGB, 3, 8, 41, 29, null));
+    }
+
+    @Test
+    public void fourBitsGray() throws IOException
+    {
+        assertSampled(inlineImage(COSName.G, 1, 4, 33, 17, null));
+    }
+
+    @Test
+    public void decodedRGB() throws IOException
+    {
+        COSArray decode = new COSArray(COSInteger.ONE, COSInteger.ZERO, COSInteger.ZERO,
+                COSInteger.ONE, COSInteger.ONE, COSInteger.ZERO);
+        assertSampled(inlineImage(COSName.RGB, 3, 8, 21, 19, decode));
+    }
+
+    @Test
+    public void softMasked() throws IOException
+    {
+        BufferedImage argb = new BufferedImage(45, 31, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < argb.getHeight(); y++)
+        {
+            for (int x = 0; x < argb.getWidth(); x++)
+            {
+                argb.setRGB(x, y, random.nextInt());
+            }
+        }
+        assertSampled(LosslessFactory.createFromImage(argb));
+    }
+
+    @Test
+    public void regionClippedToImage() throws IOException
+    {
+        PDImage image = inlineImage(COSName.RGB, 3, 8, 20, 10, null);
+        BufferedImage region = image.getImage(new Rectangle(15, 5, 20, 20), 2);
+        assertEquals(3, region.getWidth());
+        assertEquals(3, region.getHeight());
+    }
+
+    @Test(expected = IOException.class)
+    public void regionOutsideImage() throws IOException
+    {
+        inlineImage(COSName.G, 1, 8, 20, 10, null).getImage(new Rectangle(25, 5, 5, 5), 1);
+    }
+
+    @Test
+    public void defaultRegionFromWholeImage() throws IOException
+    {
+        assertSampled(new WholeImage(inlineImage(COSName.RGB, 3, 8, 23, 17, null)));
+    }
+
+    private void assertSampled(PDImage image) throws IOException
+    {
+        BufferedImage full = image.getImage();
+        assertSampled(full, image, null, 1);
+        assertSampled(full, image, null, 2);
+        assertSampled(full, image, null, 5);
+        assertSampled(full, image, new Rectangle(3, 2, 11, 9), 1);
+        assertSampled(full, image, new Rectangle(7, 1, 13, 15), 3);
+    }
+
+    private static void assertSampled(BufferedImage full, PDImage image, Rectangle region,
+            int subsampling) throws IOException
+    {
+        Rectangle area = region == null ? new Rectangle(full.getWidth(), full.getHeight())
+                : region;
+        BufferedImage sampled = image.getImage(region, subsampling);
+        assertEquals((area.width + subsampling - 1) / subsampling, sampled.getWidth());
+        assertEquals((area.height + subsampling - 1) / subsampling, sampled.getHeight());
+        for (int y = 0; y < sampled.getHeight(); y++)
+        {
+            for (int x = 0; x < sampled.getWidth(); x++)
+            {
+                assertEquals(full.getRGB(area.x + x * subsampling, area.y + y * subsampling),
+                        sampled.getRGB(x, y));
+            }
+        }
+    }
+
+    private PDInlineImage inlineImage(COSName colorSpace, int components, int bpc, int width,
+            int height, COSArray decode) throws IOException
+    {
+        COSDictionary dict = new COSDictionary();
+        dict.setItem(COSName.CS, colorSpace);
+        dict.setInt(COSName.W, width);
+        dict.setInt(COSName.H, height);
+        dict.setInt(COSName.BPC, bpc);
+        if (decode != null)
+        {
+            dict.setItem(COSName.DECODE, decode);
+        }
+        byte[] data = new byte[(width * components * bpc + 7) / 8 * height];
+        random.nextBytes(data);
+        return new PDInlineImage(dict, data, null);
+    }
+
+    /**
+     * An image that can only be decoded whole, using the default region decoding
+     */
+    private static class WholeImage implements PDImage
+    {
+        private final PDImage image;
+
+        WholeImage(PDImage image)
+        {
+            this.image = image;
+        }
+
+        @Override
+        public COSBase getCOSObject()
+        {
+            return image.getCOSObject();
+        }
+
+        @Override
+        public BufferedImage getImage() throws IOException
+        {
+            return image.getImage();
+        }
+
+        @Override
+        public BufferedImage getStencilImage(Paint paint) throws IOException
+        {
+            return image.getStencilImage(paint);
+        }
+
+        @Override
+        public InputStream createInputStream() throws IOException
+        {
+            return image.createInputStream();
+        }
+
+        @Override
+        public ByteBuffer asByteBuffer() throws IOException
+        {
+            return image.asByteBuffer();
+        }
+
+        @Override
+        public boolean isEmpty() throws IOException
+        {
+            return image.isEmpty();
+        }
+
+        @Override
+        public boolean isStencil()
+        {
+            return image.isStencil();
+        }
+
+        @Override
+        public void setStencil(boolean isStencil)
+        {
+            image.setStencil(isStencil);
+        }
+
+        @Override
+        public int getBitsPerComponent()
+        {
+            return image.getBitsPerComponent();
+        }
+
+        @Override
+        public void setBitsPerComponent(int bitsPerComponent)
+        {
+            image.setBitsPerComponent(bitsPerComponent);
+        }
+
+        @Override
+        public PDColorSpace getColorSpace() throws IOException
+        {
+            return image.getColorSpace();
+        }
+
+        @Override
+        public void setColorSpace(PDColorSpace colorSpace)
+        {
+            image.setColorSpace(colorSpace);
+        }
+
+        @Override
+        public int getHeight()
+        {
+            return image.getHeight();
+        }
+
+        @Override
+        public void setHeight(int height)
+        {
+            image.setHeight(height);
+        }
+
+        @Override
+        public int getWidth()
+        {
+            return image.getWidth();
+        }
+
+        @Override
+        public void setWidth(int width)
+        {
+            image.setWidth(width);
+        }
+
+        @Override
+        public void setDecode(COSArray decode)
+        {
+            image.setDecode(decode);
+        }
+
+        @Override
+        public COSArray getDecode()
+        {
+            return image.getDecode();
+        }
+
+        @Override
+        public boolean getInterpolate()
+        {
+            return image.getInterpolate();
+        }
+
+        @Override
+        public void setInterpolate(boolean value)
+        {
+            image.setInterpolate(value);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.rendering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.GeneralPath;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
+import org.sejda.sambox.input.PDFParser;
+import org.sejda.sambox.pdmodel.PDDocument;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class GlyphCacheTest
+{
+    private static final IndirectCOSObjectIdentifier FONT = new IndirectCOSObjectIdentifier(
+            new COSObjectKey(10, 0), "owner");
+    private static final IndirectCOSObjectIdentifier OTHER_FONT = new IndirectCOSObjectIdentifier(
+            new COSObjectKey(11, 0), "owner");
+
+    private static GeneralPath square()
+    {
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        path.lineTo(10, 0);
+        path.lineTo(10, 10);
+        path.lineTo(0, 10);
+        path.closePath();
+        return path;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSize()
+    {
+        new GlyphCache(0);
+    }
+
+    @Test
+    public void sizeOf()
+    {
+        // 4 coordinates pairs and 5 segments
+        assertEquals(64 + 5 + 32, GlyphCache.sizeOf(square()));
+    }
+
+    @Test
+    public void putAndGet()
+    {
+        GlyphCache victim = new GlyphCache(1024);
+        GeneralPath path = square();
+        victim.put(FONT, 65, path);
+        assertSame(path, victim.get(FONT, 65));
+        assertNull(victim.get(FONT, 66));
+        assertNull(victim.get(OTHER_FONT, 65));
+        assertEquals(GlyphCache.sizeOf(path), victim.size());
+    }
+
+    @Test
+    public void replace()
+    {
+        GlyphCache victim = new GlyphCache(1024);
+        victim.put(FONT, 65, square());
+        victim.put(FONT, 65, square());
+        assertEquals(GlyphCache.sizeOf(square()), victim.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed()
+    {
+        long size = GlyphCache.sizeOf(square());
+        GlyphCache victim = new GlyphCache(size * 2);
+        victim.put(FONT, 65, square());
+        victim.put(FONT, 66, square());
+        victim.get(FONT, 65);
+        victim.put(FONT, 67, square());
+        assertNull(victim.get(FONT, 66));
+        assertTrue(victim.get(FONT, 65) != null);
+        assertTrue(victim.get(FONT, 67) != null);
+        assertEquals(size * 2, victim.size());
+    }
+
+    @Test
+    public void clear()
+    {
+        GlyphCache victim = new GlyphCache(1024);
+        victim.put(FONT, 65, square());
+        victim.clear();
+        assertNull(victim.get(FONT, 65));
+        assertEquals(0, victim.size());
+    }
+
+    @Test
+    public void sharedByRenderedPages() throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test.pdf"))))
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            renderer.renderImage(0);
+            long size = renderer.getGlyphCache().size();
+            assertTrue(size > 0);
+            renderer.renderImage(0);
+            assertEquals(size, renderer.getGlyphCache().size());
+        }
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.rendering;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.input.PDFParser;
+import org.sejda.sambox.pdmodel.PDDocument;
+import org.sejda.sambox.pdmodel.PDPage;
+import org.sejda.sambox.pdmodel.PDPageContentStream;
+import org.sejda.sambox.pdmodel.common.PDRectangle;
+import org.sejda.sambox.pdmodel.graphics.form.PDFormXObject;
+import org.sejda.sambox.pdmodel.graphics.form.PDTransparencyGroupAttributes;
+import org.sejda.sambox.pdmodel.graphics.image.LosslessFactory;
+import org.sejda.sambox.pdmodel.graphics.state.PDExtendedGraphicsState;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class PDFRendererTest
+{
+    private static final File SURVEY = new File("src/test/resources/input/rendering/survey.pdf");
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp()
+    {
+        System.setProperty(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY, "true");
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void renderImagesSameAsSequential() throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            Map<Integer, BufferedImage> rendered = new ConcurrentHashMap<>();
+            new PDFRenderer(document).renderImages(0, document.getNumberOfPages(), 0.5f,
+                    ImageType.RGB, executor, 3, rendered::put);
+            assertEquals(document.getNumberOfPages(), rendered.size());
+
+            PDFRenderer sequential = new PDFRenderer(document);
+            for (int i = 0; i < document.getNumberOfPages(); i++)
+            {
+                BufferedImage expected = sequential.renderImage(i, 0.5f);
+                assertSameImage(expected, rendered.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void boundedInFlight() throws IOException
+    {
+        AtomicInteger submitted = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            new PDFRenderer(document).renderImages(1, 7, 0.2f, ImageType.GRAY, r -> {
+                submitted.incrementAndGet();
+                executor.execute(r);
+            }, 2, (i, image) -> {
+                assertTrue(i >= 1 && i < 7);
+                assertTrue(submitted.get() - consumed.get() <= 2);
+                consumed.incrementAndGet();
+            });
+        }
+        assertEquals(6, consumed.get());
+        assertEquals(6, submitted.get());
+    }
+
+    @Test
+    public void sequentialWhenNotConcurrent() throws IOException
+    {
+        System.clearProperty(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY);
+        AtomicInteger consumed = new AtomicInteger();
+        Thread caller = Thread.currentThread();
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            assertFalse(document.isConcurrentObjectsResolution());
+            new PDFRenderer(document).renderImages(0, 3, 0.2f, ImageType.GRAY, r -> {
+                throw new IllegalStateException("Executor should not be used");
+            }, 2, (i, image) -> {
+                assertEquals(caller, Thread.currentThread());
+                consumed.incrementAndGet();
+            });
+        }
+        assertEquals(3, consumed.get());
+    }
+
+    @Test
+    public void emptyRange() throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            new PDFRenderer(document).renderImages(2, 2, 1, ImageType.RGB, executor, 2,
+                    (i, image) -> {
+                        throw new IllegalStateException("Nothing to render");
+                    });
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void failingConsumer() throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            new PDFRenderer(document).renderImages(0, 3, 0.2f, ImageType.RGB, executor, 2,
+                    (i, image) -> {
+                        throw new IOException("Failed");
+                    });
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidRange() throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            new PDFRenderer(document).renderImages(0, document.getNumberOfPages() + 1, 1,
+                    ImageType.RGB, executor, 2, (i, image) -> {
+                    });
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxInFlight() throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            new PDFRenderer(document).renderImages(0, 1, 1, ImageType.RGB, executor, 0,
+                    (i, image) -> {
+                    });
+        }
+    }
+
+    @Test
+    public void renderTilesSameAsWholePage() throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            BufferedImage expected = renderer.renderImage(0, 0.8f);
+            BufferedImage stitched = new BufferedImage(expected.getWidth(), expected.getHeight(),
+                    BufferedImage.TYPE_INT_RGB);
+            AtomicInteger tiles = new AtomicInteger();
+            renderer.renderTiles(0, 0.8f, ImageType.RGB, 100, 70, (x, y, tile) -> {
+                assertTrue(tile.getWidth() <= 100);
+                assertTrue(tile.getHeight() <= 70);
+                stitched.getGraphics().drawImage(tile, x, y, null);
+                tiles.incrementAndGet();
+            });
+            assertEquals(((expected.getWidth() + 99) / 100) * ((expected.getHeight() + 69) / 70),
+                    tiles.get());
+            assertAlmostSameImage(expected, stitched);
+        }
+    }
+
+    @Test
+    public void renderTilesWithTransparency() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            PDFormXObject group = transparencyGroup(document, Color.RED, 100, 100, 400, 500);
+            // luminosity soft mask showing the left half of the page
+            COSDictionary softMask = new COSDictionary();
+            softMask.setItem(COSName.TYPE, COSName.MASK);
+            softMask.setItem(COSName.S, COSName.LUMINOSITY);
+            softMask.setItem(COSName.G,
+                    transparencyGroup(document, Color.WHITE, 0, 0, 306, 792).getCOSObject());
+            PDExtendedGraphicsState maskState = new PDExtendedGraphicsState();
+            maskState.getCOSObject().setItem(COSName.SMASK, softMask);
+            try (PDPageContentStream contents = new PDPageContentStream(document, page))
+            {
+                contents.drawForm(group);
+                contents.saveGraphicsState();
+                contents.setGraphicsStateParameters(maskState);
+                contents.setNonStrokingColor(Color.BLUE);
+                contents.addRect(50, 50, 500, 300);
+                contents.fill();
+                contents.restoreGraphicsState();
+            }
+            PDFRenderer renderer = new PDFRenderer(document);
+            for (int rotation : new int[] { 0, 90, 180, 270 })
+            {
+                page.setRotation(rotation);
+                BufferedImage expected = renderer.renderImage(0, 0.5f);
+                BufferedImage stitched = new BufferedImage(expected.getWidth(),
+                        expected.getHeight(), BufferedImage.TYPE_INT_RGB);
+                renderer.renderTiles(0, 0.5f, ImageType.RGB, 64, 48,
+                        (x, y, tile) -> stitched.getGraphics().drawImage(tile, x, y, null));
+                assertAlmostSameImage(expected, stitched);
+            }
+        }
+    }
+
+    @Test
+    public void renderBands() throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            BufferedImage expected = renderer.renderImage(1, 0.5f);
+            BufferedImage stitched = new BufferedImage(expected.getWidth(), expected.getHeight(),
+                    BufferedImage.TYPE_INT_RGB);
+            renderer.renderTiles(1, 0.5f, ImageType.RGB, Integer.MAX_VALUE, 64, (x, y, tile) -> {
+                assertEquals(0, x);
+                assertEquals(expected.getWidth(), tile.getWidth());
+                stitched.getGraphics().drawImage(tile, x, y, null);
+            });
+            assertAlmostSameImage(expected, stitched);
+        }
+    }
+
+    @Test
+    public void subsampledImage() throws IOException
+    {
+        BufferedImage solid = new BufferedImage(2000, 1500, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = solid.createGraphics();
+        g.setColor(new Color(20, 120, 220));
+        g.fillRect(0, 0, solid.getWidth(), solid.getHeight());
+        g.dispose();
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream contents = new PDPageContentStream(document, page))
+            {
+                contents.drawImage(LosslessFactory.createFromImage(solid), 50, 50, 200, 150);
+            }
+            PDFRenderer renderer = new PDFRenderer(document);
+            assertFalse(renderer.isSubsamplingAllowed());
+            BufferedImage expected = renderer.renderImage(0, 0.5f);
+            renderer.setSubsamplingAllowed(true);
+            assertSameImage(expected, renderer.renderImage(0, 0.5f));
+        }
+    }
+
+    @Test
+    public void subsampledSquashedImage() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream contents = new PDPageContentStream(document, page))
+            {
+                // many more samples per device pixel vertically than horizontally
+                contents.drawImage(LosslessFactory.createFromImage(gradient(2000, 1500)), 50, 50,
+                        400, 30);
+            }
+            PDFRenderer renderer = new PDFRenderer(document);
+            BufferedImage expected = renderer.renderImage(0, 0.5f);
+            renderer.setSubsamplingAllowed(true);
+            assertAlmostSameImage(expected, renderer.renderImage(0, 0.5f));
+        }
+    }
+
+    @Test
+    public void subsampledImageTiles() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream contents = new PDPageContentStream(document, page))
+            {
+                contents.drawImage(LosslessFactory.createFromImage(gradient(2000, 1500)), 50, 50,
+                        400, 300);
+            }
+            PDFRenderer renderer = new PDFRenderer(document);
+            renderer.setSubsamplingAllowed(true);
+            BufferedImage expected = renderer.renderImage(0, 0.5f);
+            BufferedImage stitched = new BufferedImage(expected.getWidth(), expected.getHeight(),
+                    BufferedImage.TYPE_INT_RGB);
+            renderer.renderTiles(0, 0.5f, ImageType.RGB, 64, 48,
+                    (x, y, tile) -> stitched.getGraphics().drawImage(tile, x, y, null));
+            assertAlmostSameImage(expected, stitched);
+        }
+    }
+
+    private static BufferedImage gradient(int width, int height)
+    {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                image.setRGB(x, y, new Color(x * 255 / width, y * 255 / height, 128).getRGB());
+            }
+        }
+        return image;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTileSize() throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.seekableSourceFrom(SURVEY)))
+        {
+            new PDFRenderer(document).renderTiles(0, 1, ImageType.RGB, 0, 10, (x, y, tile) -> {
+            });
+        }
+    }
+
+    private static PDFormXObject transparencyGroup(PDDocument document, Color color, float x,
+            float y, float width, float height) throws IOException
+    {
+        PDFormXObject form = new PDFormXObject();
+        form.setBBox(new PDRectangle(612, 792));
+        form.setGroup(new PDTransparencyGroupAttributes());
+        try (PDPageContentStream contents = new PDPageContentStream(document, form))
+        {
+            contents.setNonStrokingColor(color);
+            contents.addRect(x, y, width, height);
+            contents.fill();
+        }
+        return form;
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual)
+    {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertArrayEquals(
+                expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0,
+                        expected.getWidth()),
+                actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0,
+                        actual.getWidth()));
+    }
+
+    /**
+     * Antialiasing can slightly change a few pixels when the device origin is moved, and rounding can change the
+     * colors of the edges by one level
+     */
+    private static void assertAlmostSameImage(BufferedImage expected, BufferedImage actual)
+    {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        int different = 0;
+        for (int y = 0; y < expected.getHeight(); y++)
+        {
+            for (int x = 0; x < expected.getWidth(); x++)
+            {
+                if (!almostSameColor(expected.getRGB(x, y), actual.getRGB(x, y)))
+                {
+                    different++;
+                }
+            }
+        }
+        assertTrue(different < expected.getWidth() * expected.getHeight() / 1000);
+    }
+
+    private static boolean almostSameColor(int expected, int actual)
+    {
+        for (int shift = 0; shift < 32; shift += 8)
+        {
+            if (Math.abs(((expected >> shift) & 0xFF) - ((actual >> shift) & 0xFF)) > 1)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
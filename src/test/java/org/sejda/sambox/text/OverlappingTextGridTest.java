@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class OverlappingTextGridTest
+{
+    private OverlappingTextGrid victim = new OverlappingTextGrid();
+
+    @Test
+    public void overlapping()
+    {
+        assertTrue(victim.addIfNotOverlapping("A", 10, 20, 1));
+        assertFalse(victim.addIfNotOverlapping("A", 10.5f, 19.5f, 1));
+        assertFalse(victim.addIfNotOverlapping("A", 9.5f, 20.9f, 1));
+        assertTrue(victim.addIfNotOverlapping("B", 10, 20, 1));
+    }
+
+    @Test
+    public void upperBoundExcluded()
+    {
+        assertTrue(victim.addIfNotOverlapping("A", 10, 20, 1));
+        assertTrue(victim.addIfNotOverlapping("A", 9, 20, 1));
+        assertTrue(victim.addIfNotOverlapping("A", 10, 19, 1));
+    }
+
+    @Test
+    public void notOverlapping()
+    {
+        assertTrue(victim.addIfNotOverlapping("A", 10, 20, 1));
+        assertTrue(victim.addIfNotOverlapping("A", 12, 20, 1));
+        assertTrue(victim.addIfNotOverlapping("A", 10, 22, 1));
+        assertTrue(victim.addIfNotOverlapping("A", 5, 20, 0));
+        assertTrue(victim.addIfNotOverlapping("A", 5, 20, 0));
+    }
+
+    @Test
+    public void multipleCodePoints()
+    {
+        assertTrue(victim.addIfNotOverlapping("fi", 10, 20, 1));
+        assertTrue(victim.addIfNotOverlapping("ffi", 10, 20, 1));
+        assertFalse(victim.addIfNotOverlapping("fi", 10, 20, 1));
+        assertFalse(victim.addIfNotOverlapping("ffi", 10, 20, 1));
+        assertTrue(victim.addIfNotOverlapping("𝐀", 10, 20, 1));
+        assertFalse(victim.addIfNotOverlapping("𝐀", 10, 20, 1));
+        assertTrue(victim.addIfNotOverlapping("𝐁", 10, 20, 1));
+    }
+
+    @Test
+    public void hugeTolerance()
+    {
+        assertTrue(victim.addIfNotOverlapping("A", -5000, 3000, 1));
+        assertFalse(victim.addIfNotOverlapping("A", 5000, -3000, Float.MAX_VALUE));
+        assertFalse(victim.addIfNotOverlapping("A", 0, 0, Float.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void clear()
+    {
+        assertTrue(victim.addIfNotOverlapping("A", 10, 20, 1));
+        assertTrue(victim.addIfNotOverlapping("fi", 10, 20, 1));
+        victim.clear();
+        assertTrue(victim.addIfNotOverlapping("A", 10, 20, 1));
+        assertTrue(victim.addIfNotOverlapping("fi", 10, 20, 1));
+    }
+
+    @Test
+    public void sameAsLinearLookup()
+    {
+        Random random = new Random(42);
+        String[] texts = { "a", "b", "c", "fi", "𝐀" };
+        List<Object[]> added = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++)
+        {
+            String text = texts[random.nextInt(texts.length)];
+            float x = random.nextFloat() * 600 - 10;
+            float y = random.nextFloat() * 800 - 10;
+            float tolerance = random.nextFloat() * 6;
+            boolean overlaps = false;
+            for (Object[] current : added)
+            {
+                float currentX = (Float) current[1];
+                float currentY = (Float) current[2];
+                if (text.equals(current[0]) && currentX >= x - tolerance
+                        && currentX < x + tolerance && currentY >= y - tolerance
+                        && currentY < y + tolerance)
+                {
+                    overlaps = true;
+                    break;
+                }
+            }
+            assertEquals(!overlaps, victim.addIfNotOverlapping(text, x, y, tolerance));
+            if (!overlaps)
+            {
+                added.add(new Object[] { text, x, y });
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.input.PDFParser;
+import org.sejda.sambox.pdmodel.PDDocument;
+import org.sejda.sambox.pdmodel.PDPage;
+import org.sejda.sambox.pdmodel.PDPageContentStream;
+import org.sejda.sambox.pdmodel.font.PDType1Font;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class PDFTextStripperByAreaTest
+{
+    private PDDocument document;
+    private PDFTextStripperByArea victim;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        document = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/input/cweb.pdf")));
+        victim = new PDFTextStripperByArea();
+        victim.setLineSeparator("\n");
+        victim.setSortByPosition(true);
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        document.close();
+    }
+
+    @Test
+    public void wholePage() throws IOException
+    {
+        victim.addRegion("all", new Rectangle2D.Double(-10000, -10000, 20000, 20000));
+        victim.extractRegions(document.getPage(2));
+
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setLineSeparator("\n");
+        stripper.setSortByPosition(true);
+        stripper.setStartPage(3);
+        stripper.setEndPage(3);
+        assertEquals(stripper.getText(document), victim.getTextForRegion("all"));
+    }
+
+    @Test
+    public void overlappingRegions() throws IOException
+    {
+        victim.addRegion("top", new Rectangle2D.Double(0, 0, 612, 300));
+        victim.addRegion("sameTop", new Rectangle2D.Double(0, 0, 612, 300));
+        victim.addRegion("bottom", new Rectangle2D.Double(0, 300, 612, 500));
+        victim.extractRegions(document.getPage(2));
+        assertTrue(victim.getTextForRegion("top").trim().length() > 0);
+        assertEquals(victim.getTextForRegion("top"), victim.getTextForRegion("sameTop"));
+        assertNotEquals(victim.getTextForRegion("top"), victim.getTextForRegion("bottom"));
+    }
+
+    @Test
+    public void overlappingRegionsDiacritics() throws IOException
+    {
+        try (PDDocument diacritics = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            diacritics.addPage(page);
+            try (PDPageContentStream contents = new PDPageContentStream(diacritics, page))
+            {
+                for (String text : new String[] { "e", "\u00B4" })
+                {
+                    contents.beginText();
+                    contents.setFont(PDType1Font.HELVETICA, 12);
+                    contents.newLineAtOffset(100, 700);
+                    contents.showText(text);
+                    contents.endText();
+                }
+            }
+            PDFTextStripperByArea single = new PDFTextStripperByArea();
+            single.addRegion("single", new Rectangle2D.Double(0, 0, 612, 300));
+            single.extractRegions(page);
+            assertTrue(single.getTextForRegion("single").trim().length() > 0);
+
+            victim.addRegion("first", new Rectangle2D.Double(0, 0, 612, 300));
+            victim.addRegion("second", new Rectangle2D.Double(0, 0, 612, 300));
+            victim.extractRegions(page);
+            assertEquals(single.getTextForRegion("single"), victim.getTextForRegion("first"));
+            assertEquals(single.getTextForRegion("single"), victim.getTextForRegion("second"));
+        }
+    }
+
+    @Test
+    public void removedRegion() throws IOException
+    {
+        victim.addRegion("top", new Rectangle2D.Double(0, 0, 612, 300));
+        victim.addRegion("bottom", new Rectangle2D.Double(0, 300, 612, 500));
+        victim.removeRegion("top");
+        victim.extractRegions(document.getPage(2));
+        assertEquals(1, victim.getRegions().size());
+        assertTrue(victim.getTextForRegion("bottom").trim().length() > 0);
+    }
+
+    @Test
+    public void pagesRange() throws IOException
+    {
+        List<Rectangle2D> areas = new ArrayList<>();
+        for (int row = 0; row < 10; row++)
+        {
+            for (int column = 0; column < 4; column++)
+            {
+                Rectangle2D area = new Rectangle2D.Double(column * 153, row * 80, 153, 80);
+                areas.add(area);
+                victim.addRegion(row + "-" + column, area);
+            }
+        }
+        List<Map<String, String>> extracted = new ArrayList<>();
+        victim.extractRegions(document, 2, 5, (page, text) -> {
+            assertEquals(extracted.size() + 2, page);
+            extracted.add(text);
+        });
+        assertEquals(4, extracted.size());
+
+        for (int i = 0; i < extracted.size(); i++)
+        {
+            PDFTextStripperByArea single = new PDFTextStripperByArea();
+            single.setLineSeparator("\n");
+            single.setSortByPosition(true);
+            for (int j = 0; j < areas.size(); j++)
+            {
+                single.addRegion(victim.getRegions().get(j), areas.get(j));
+            }
+            PDPage page = document.getPage(i + 1);
+            single.extractRegions(page);
+            assertEquals(single.getRegions(), new ArrayList<>(extracted.get(i).keySet()));
+            for (String region : single.getRegions())
+            {
+                assertEquals(single.getTextForRegion(region), extracted.get(i).get(region));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidRange() throws IOException
+    {
+        victim.extractRegions(document, 3, 2, (page, text) -> {
+            // nothing
+        });
+    }
+}
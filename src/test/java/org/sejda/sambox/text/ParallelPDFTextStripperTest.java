@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.input.PDFParser;
+import org.sejda.sambox.pdmodel.PDDocument;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class ParallelPDFTextStripperTest
+{
+    private ExecutorService executor;
+
+    @Before
+    public void setUp()
+    {
+        System.setProperty(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY, "true");
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        System.clearProperty(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY);
+    }
+
+    @Test
+    public void sameTextAsSequential() throws IOException
+    {
+        for (String name : new String[] { "cweb.pdf", "PDFBOX-3110-poems-beads.pdf",
+                "openoffice-test-document.pdf", "sample_fonts_solidconvertor.pdf" })
+        {
+            assertSameText(name, () -> stripper(false));
+            assertSameText(name, () -> stripper(true));
+        }
+    }
+
+    @Test
+    public void pagesRange() throws IOException
+    {
+        assertSameText("cweb.pdf", () -> {
+            PDFTextStripper stripper = stripper(false);
+            stripper.setStartPage(3);
+            stripper.setEndPage(7);
+            return stripper;
+        });
+    }
+
+    @Test
+    public void documentCallbacks() throws IOException
+    {
+        AtomicInteger created = new AtomicInteger();
+        try (PDDocument document = parse("cweb.pdf"))
+        {
+            String text = new ParallelPDFTextStripper(() -> {
+                created.incrementAndGet();
+                try
+                {
+                    return new PDFTextStripper()
+                    {
+                        @Override
+                        protected void startDocument(PDDocument document) throws IOException
+                        {
+                            getOutput().write("START");
+                        }
+
+                        @Override
+                        protected void endDocument(PDDocument document) throws IOException
+                        {
+                            getOutput().write("END");
+                        }
+                    };
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }).getText(document);
+            assertTrue(text.startsWith("START"));
+            assertTrue(text.endsWith("END"));
+            // strippers are reused among pages
+            assertTrue(created.get() <= document.getNumberOfPages());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void failingOutput() throws IOException
+    {
+        try (PDDocument document = parse("cweb.pdf"))
+        {
+            new ParallelPDFTextStripper(() -> stripper(false)).writeText(document, new Writer()
+            {
+                @Override
+                public void write(char[] cbuf, int off, int len) throws IOException
+                {
+                    throw new IOException("Chuck Norris doesn't read");
+                }
+
+                @Override
+                public void flush()
+                {
+                    // nothing
+                }
+
+                @Override
+                public void close()
+                {
+                    // nothing
+                }
+            }, executor, 2);
+        }
+    }
+
+    @Test
+    public void sequentialWhenNotConcurrent() throws IOException
+    {
+        System.clearProperty(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY);
+        try (PDDocument document = parse("cweb.pdf"))
+        {
+            assertFalse(document.isConcurrentObjectsResolution());
+            String expected = stripper(false).getText(document);
+            StringWriter output = new StringWriter();
+            new ParallelPDFTextStripper(() -> stripper(false)).writeText(document, output, r -> {
+                throw new IllegalStateException("Executor should not be used");
+            }, 3);
+            assertEquals(expected, output.toString());
+            assertEquals(expected,
+                    new ParallelPDFTextStripper(() -> stripper(false)).getText(document));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxInFlight() throws IOException
+    {
+        try (PDDocument document = parse("cweb.pdf"))
+        {
+            new ParallelPDFTextStripper(() -> stripper(false)).writeText(document,
+                    new StringWriter(), executor, 0);
+        }
+    }
+
+    private void assertSameText(String name, Supplier<PDFTextStripper> strippers)
+            throws IOException
+    {
+        try (PDDocument document = parse(name))
+        {
+            String expected = strippers.get().getText(document);
+            StringWriter output = new StringWriter();
+            new ParallelPDFTextStripper(strippers).writeText(document, output, executor, 3);
+            assertEquals(name, expected, output.toString());
+        }
+    }
+
+    private PDDocument parse(String name) throws IOException
+    {
+        return PDFParser.parse(SeekableSources
+                .inMemorySeekableSourceFrom(getClass().getResourceAsStream("/input/" + name)));
+    }
+
+    private static PDFTextStripper stripper(boolean sort)
+    {
+        try
+        {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setSortByPosition(sort);
+            stripper.setLineSeparator("\n");
+            return stripper;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class RegionsIndexTest
+{
+    @Test
+    public void empty()
+    {
+        RegionsIndex victim = new RegionsIndex(new ArrayList<>());
+        assertEquals(0, victim.size());
+        assertEquals(0, victim.candidates(10, 10).length);
+    }
+
+    @Test
+    public void emptyRegionsAreNotIndexed()
+    {
+        RegionsIndex victim = new RegionsIndex(
+                Arrays.asList(new Rectangle2D.Double(10, 10, 0, 5), new Rectangle2D.Double(0, 0, 5, 5)));
+        assertEquals(0, victim.candidates(10, 12).length);
+        assertArrayEquals(new int[] { 1 }, victim.candidates(2, 2));
+    }
+
+    @Test
+    public void sameAsLinearLookup()
+    {
+        Random random = new Random(11);
+        List<Rectangle2D> regions = new ArrayList<>();
+        for (int i = 0; i < 300; i++)
+        {
+            regions.add(new Rectangle2D.Double(random.nextInt(600), random.nextInt(800),
+                    random.nextInt(80), random.nextInt(30)));
+        }
+        RegionsIndex victim = new RegionsIndex(regions);
+        for (int i = 0; i < 50_000; i++)
+        {
+            float x = random.nextFloat() * 700 - 20;
+            float y = random.nextFloat() * 900 - 20;
+            List<Integer> expected = new ArrayList<>();
+            for (int j = 0; j < regions.size(); j++)
+            {
+                if (regions.get(j).contains(x, y))
+                {
+                    expected.add(j);
+                }
+            }
+            List<Integer> found = new ArrayList<>();
+            for (int candidate : victim.candidates(x, y))
+            {
+                if (victim.contains(candidate, x, y))
+                {
+                    found.add(candidate);
+                }
+            }
+            assertEquals(expected, found);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.input.PDFParser;
+import org.sejda.sambox.pdmodel.PDDocument;
+
+/**
+ * @author Andrea Vacondio
+ *
+ */
+public class TextGlyphStreamerTest
+{
+    private PDDocument document;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        document = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/input/cweb.pdf")));
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        document.close();
+    }
+
+    @Test
+    public void sameAsTextPositions() throws IOException
+    {
+        List<TextPosition> positions = new ArrayList<>();
+        new PDFTextStreamEngine()
+        {
+            @Override
+            protected void processTextPosition(TextPosition text)
+            {
+                positions.add(text);
+            }
+        }.processPage(document.getPage(2));
+
+        List<TextGlyph> instances = new ArrayList<>();
+        List<float[]> coordinates = new ArrayList<>();
+        List<String> unicodes = new ArrayList<>();
+        new TextGlyphStreamer(g -> {
+            instances.add(g);
+            coordinates.add(new float[] { g.getX(), g.getY(), g.getEndX(), g.getEndY(),
+                    g.getHeight() });
+            unicodes.add(g.getUnicode());
+            assertEquals(3, g.getPageNumber());
+        }).stream(document, 3, 3);
+
+        assertTrue(positions.size() > 100);
+        assertEquals(positions.size(), coordinates.size());
+        for (int i = 0; i < positions.size(); i++)
+        {
+            TextPosition position = positions.get(i);
+            float[] glyph = coordinates.get(i);
+            assertEquals(position.getTextMatrix().getTranslateX(), glyph[0], 0.001);
+            assertEquals(position.getTextMatrix().getTranslateY(), glyph[1], 0.001);
+            assertEquals(position.getEndX(), glyph[2], 0.001);
+            assertEquals(position.getEndY(), glyph[3], 0.001);
+            assertEquals(position.getHeight(), glyph[4], 0.001);
+            if (unicodes.get(i) != null)
+            {
+                assertEquals(position.getUnicode(), unicodes.get(i));
+            }
+            assertSame(instances.get(0), instances.get(i));
+        }
+    }
+
+    @Test
+    public void pagesRange() throws IOException
+    {
+        Set<Integer> pages = new HashSet<>();
+        new TextGlyphStreamer(g -> pages.add(g.getPageNumber())).stream(document, 2, 4);
+        assertEquals(new HashSet<>(Arrays.asList(2, 3, 4)), pages);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidRange() throws IOException
+    {
+        new TextGlyphStreamer(g -> {
+            // nothing
+        }).stream(document, 0, 2);
+    }
+}